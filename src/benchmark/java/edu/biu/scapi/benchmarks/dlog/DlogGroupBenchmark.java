@@ -0,0 +1,176 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+
+package edu.biu.scapi.benchmarks.dlog;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.util.BigIntegers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * JMH benchmarks for the {@link DlogGroup} operations that dominate the running time of the protocols built on SCAPI.<p>
+ * 
+ * Every backend registered in Dlog.properties is measured, over every curve in NISTEC.properties (elliptic curve groups) 
+ * and over a safe prime group (Zp* groups). The group is selected by the {@code group} parameter, which has the form 
+ * {@code provider:algName} where algName is passed as is to the {@link DlogGroupFactory}.<p>
+ * 
+ * The benchmarks are compiled and packaged only by the {@code jmh} Maven profile:
+ * <pre>
+ * mvn -P jmh package
+ * java -Djava.library.path=... -jar target/scapi-benchmarks.jar DlogGroupBenchmark -prof gc
+ * </pre>
+ * Results are reported in operations per second; the {@code -prof gc} profiler adds the allocation rate (bytes per operation) 
+ * of each benchmark. A subset of the groups can be selected with, for example, {@code -p group=OpenSSL:DlogECFp(P-256)}.
+ * Backends whose native library cannot be loaded fail during setup and are reported by JMH as failed runs.
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DlogGroupBenchmark {
+	
+	/*
+	 * The number of bases used by the simultaneousMultipleExponentiations benchmark.
+	 */
+	private static final int NUM_OF_BASES = 8;
+	
+	@Param({
+		"BC:DlogECFp(P-192)", "BC:DlogECFp(P-224)", "BC:DlogECFp(P-256)", "BC:DlogECFp(P-384)", "BC:DlogECFp(P-521)",
+		"BC:DlogECF2m(K-163)", "BC:DlogECF2m(K-233)", "BC:DlogECF2m(K-283)", "BC:DlogECF2m(K-409)", "BC:DlogECF2m(K-571)",
+		"BC:DlogECF2m(B-163)", "BC:DlogECF2m(B-233)", "BC:DlogECF2m(B-283)", "BC:DlogECF2m(B-409)", "BC:DlogECF2m(B-571)",
+		
+		"Miracl:DlogECFp(P-192)", "Miracl:DlogECFp(P-224)", "Miracl:DlogECFp(P-256)", "Miracl:DlogECFp(P-384)", "Miracl:DlogECFp(P-521)",
+		"Miracl:DlogECF2m(K-163)", "Miracl:DlogECF2m(K-233)", "Miracl:DlogECF2m(K-283)", "Miracl:DlogECF2m(K-409)", "Miracl:DlogECF2m(K-571)",
+		"Miracl:DlogECF2m(B-163)", "Miracl:DlogECF2m(B-233)", "Miracl:DlogECF2m(B-283)", "Miracl:DlogECF2m(B-409)", "Miracl:DlogECF2m(B-571)",
+		
+		"OpenSSL:DlogECFp(P-192)", "OpenSSL:DlogECFp(P-224)", "OpenSSL:DlogECFp(P-256)", "OpenSSL:DlogECFp(P-384)", "OpenSSL:DlogECFp(P-521)",
+		"OpenSSL:DlogECF2m(K-163)", "OpenSSL:DlogECF2m(K-233)", "OpenSSL:DlogECF2m(K-283)", "OpenSSL:DlogECF2m(K-409)", "OpenSSL:DlogECF2m(K-571)",
+		"OpenSSL:DlogECF2m(B-163)", "OpenSSL:DlogECF2m(B-233)", "OpenSSL:DlogECF2m(B-283)", "OpenSSL:DlogECF2m(B-409)", "OpenSSL:DlogECF2m(B-571)",
+		
+		"CryptoPP:DlogZpSafePrime(1024)", "OpenSSL:DlogZpSafePrime(1024)"
+	})
+	public String group;
+	
+	private DlogGroup dlog;
+	private GroupElement base;
+	private GroupElement other;
+	private BigInteger exponent;
+	private GroupElement[] bases;
+	private BigInteger[] exponents;
+	private GroupElementSendableData sendableData;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws FactoriesException {
+		int index = group.indexOf(':');
+		if (index < 0) {
+			throw new IllegalArgumentException("group should be of the form provider:algName");
+		}
+		dlog = DlogGroupFactory.getInstance().getObject(group.substring(index + 1), group.substring(0, index));
+		
+		SecureRandom random = new SecureRandom();
+		BigInteger qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		
+		base = dlog.createRandomElement();
+		other = dlog.createRandomElement();
+		exponent = BigIntegers.createRandomInRange(BigInteger.ONE, qMinusOne, random);
+		
+		bases = new GroupElement[NUM_OF_BASES];
+		exponents = new BigInteger[NUM_OF_BASES];
+		for (int i = 0; i < NUM_OF_BASES; i++) {
+			bases[i] = dlog.createRandomElement();
+			exponents[i] = BigIntegers.createRandomInRange(BigInteger.ONE, qMinusOne, random);
+		}
+		
+		sendableData = base.generateSendableData();
+		
+		//Fill the precomputed table once so that the benchmark measures the exponentiation itself.
+		dlog.exponentiateWithPreComputedValues(base, exponent);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dlog.endExponentiateWithPreComputedValues(base);
+	}
+	
+	@Benchmark
+	public GroupElement exponentiate() {
+		return dlog.exponentiate(base, exponent);
+	}
+	
+	@Benchmark
+	public GroupElement multiplyGroupElements() {
+		return dlog.multiplyGroupElements(base, other);
+	}
+	
+	@Benchmark
+	public GroupElement simultaneousMultipleExponentiations() {
+		return dlog.simultaneousMultipleExponentiations(bases, exponents);
+	}
+	
+	@Benchmark
+	public GroupElement exponentiateWithPreComputedValues() {
+		return dlog.exponentiateWithPreComputedValues(base, exponent);
+	}
+	
+	@Benchmark
+	public boolean isMember() {
+		return dlog.isMember(other);
+	}
+	
+	@Benchmark
+	public GroupElementSendableData generateSendableData() {
+		return base.generateSendableData();
+	}
+	
+	@Benchmark
+	public GroupElement reconstructElement() {
+		return dlog.reconstructElement(true, sendableData);
+	}
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -20,6 +21,7 @@ import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
  * This protocol is used in the input consistency check. <p>
@@ -195,6 +197,50 @@ public class CmtWithDifferenceCommitter extends CmtWithDifferenceParty {
 		channel.send(decommitments);
 	}
 	
+	/**
+	 * Proves the differences of all the given buckets at once.<P>
+	 * The commitments to the differences of all buckets are sent in one message, w is received once and then the decommitments
+	 * of all buckets are sent in one message, instead of three rounds per bucket. 
+	 * The commitments to the differences are computed by the given number of threads.<P>
+	 * The receiver should call {@link CmtWithDifferenceReceiver#verifyDifferencesBetweenMasks(List, int)} with the same buckets.
+	 * @param buckets Contains the DifferenceCommitmentCommitterBundle to prove, for each bucket.
+	 * @param numOfThreads The number of threads to use. Zero means that no thread should be created.
+	 * @throws IOException In case of a problem during the communication.
+	 */
+	public void proveDifferencesBetweenMasks(List<ArrayList<DifferenceCommitmentCommitterBundle>> buckets, int numOfThreads) throws IOException {
+		//Put the pairs of bundles of all buckets one after the other.
+		final ArrayList<DifferenceCommitmentCommitterBundle> first = new ArrayList<DifferenceCommitmentCommitterBundle>();
+		final ArrayList<DifferenceCommitmentCommitterBundle> second = new ArrayList<DifferenceCommitmentCommitterBundle>();
+		for (ArrayList<DifferenceCommitmentCommitterBundle> bucket : buckets) {
+			for (int j = 0; j < bucket.size() - 1; j++) {
+				first.add(bucket.get(j));
+				second.add(bucket.get(j+1));
+			}
+		}
+		int numOfDifferences = first.size();
+		
+		//Commit on each pair of bundles.
+		final ProveDiff msg = new ProveDiff(numOfDifferences, n, s);
+		new ParallelIndexBatch() {
+			protected void compute(int j) {
+				commitToDifference(first.get(j), second.get(j), j, msg);
+			}
+		}.run(numOfDifferences, numOfThreads);
+		
+		//Send the commitments to the other party.
+		channel.send(msg);
+		
+		//receive w.
+		receiveW();
+		
+		//Send the decommitments of the committed differences.
+		CmtCDecommitmentMessage[] decommitments = new CmtCDecommitmentMessage[numOfDifferences*s*2];
+		for (int j = 0; j < numOfDifferences; j++) {
+			proveDifference(first.get(j), second.get(j), decommitments, j);
+		}
+		channel.send(decommitments);
+	}
+	
 	/**
 	 * Commits on the difference of each pair of bundles.
 	 * @param b1 The first bundle to use.
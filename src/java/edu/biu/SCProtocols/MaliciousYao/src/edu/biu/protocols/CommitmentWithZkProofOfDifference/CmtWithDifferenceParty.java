@@ -29,6 +29,7 @@ abstract class CmtWithDifferenceParty {
 	protected SecureRandom random;			//Source of randomness to use.
 	protected Channel channel;				//Used to communicate between the channels.
 	protected SymmetricEnc enc;				//Used to encrypt and decrypt the cut and choose selection.
+	protected CryptographicHash hash;		//The hash function used in the commitment scheme.
 
 	/**
 	 * A constructor that sets the parameters and initialize the encryption scheme.
@@ -89,6 +90,7 @@ abstract class CmtWithDifferenceParty {
 	 * @throws IllegalArgumentException
 	 */
 	protected void initCommitmentScheme(Channel channel, CryptographicHash hash) throws IllegalArgumentException {
+		this.hash = hash;
 		try {
 			this.cmtSender = new CmtSimpleHashCommitter(channel, hash, random, hash.getHashedMsgSize()); 
 			this.cmtReceiver = new CmtSimpleHashReceiver(channel, hash, hash.getHashedMsgSize()); 
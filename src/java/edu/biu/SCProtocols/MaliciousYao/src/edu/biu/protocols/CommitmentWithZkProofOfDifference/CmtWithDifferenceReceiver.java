@@ -6,6 +6,7 @@ import java.security.InvalidKeyException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.crypto.SecretKey;
 
@@ -18,8 +19,13 @@ import edu.biu.scapi.exceptions.CommitValueException;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash.CmtSimpleHashCommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash.CmtSimpleHashDecommitmentMessage;
 import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.tools.InstanceFactory;
+import edu.biu.scapi.tools.ParallelBatch;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
 * This protocol is used in the input consistency check. <p>
@@ -44,6 +50,7 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 	private CmtCDecommitmentMessage decomW;		//Decommitment on the sigma array.
 	private CmtCDecommitmentMessage decomK;		//Decommitment on the key to the encryption scheme that encrypts the cut and choose selection.
 	int n;										//Total number of circuits (eval+chacked)
+	private InstanceFactory<CryptographicHash> hashFactory;	//Creates the hash of each thread in the batched verification. May be null.
 
 	/**
 	 * A constructor that sets the given parameters and initialize them.
@@ -193,6 +200,15 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 		return x;
 	}
 	
+	/**
+	 * Sets the factory that creates the hash function of each thread in the batched verification of the differences.
+	 * The created hashes should be the same function as the hash given in the constructor.
+	 * @param hashFactory creates hash objects that are equal to the hash of the commitment scheme.
+	 */
+	public void setHashFactory(InstanceFactory<CryptographicHash> hashFactory) {
+		this.hashFactory = hashFactory;
+	}
+	
 	/**
 	 * Returns a DifferenceCommitmentReceiverBundle that contains some data of this protocol.
 	 * @param j The index of the required commitment.
@@ -215,6 +231,8 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 		Expector expector = new Expector(channel, ProveDiff.class);
 		ProveDiff msg = (ProveDiff) expector.receive();
 		
+		n = msg.n;
+		
 		//Receive the committed difference for each secret.
 		for (int j = 0; j < bucket.size() - 1; j++) {
 			committedDifference[j] = receiveDifference(bucket.get(j), bucket.get(j+1), j, msg);
@@ -236,12 +254,101 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 		return committedDifference;
 	}
 	
+	/**
+	 * Verifies the differences of all the given buckets at once.<P>
+	 * The commitments to the differences of all buckets are received in one message, w is sent once and then the decommitments
+	 * of all buckets are received in one message, instead of three rounds per bucket.
+	 * The received differences and decommitments are verified by the given number of threads. Each thread uses its own hash 
+	 * function, created by the factory given in {@link #setHashFactory(InstanceFactory)}; if no factory was set, the threads share 
+	 * the hash function, one at a time. 
+	 * The decommitments are verified by hashing the random value and the committed value directly, without creating commit value objects.
+	 * @param buckets Contains the DifferenceCommitmentReceiverBundle to verify, for each bucket.
+	 * @param numOfThreads The number of threads to use. Zero means that no thread should be created.
+	 * @return the committed differences of each bucket.
+	 * @throws IOException In case of a problem during the communication.
+	 * @throws CheatAttemptException In case the verification fails.
+	 */
+	public byte[][][] verifyDifferencesBetweenMasks(List<ArrayList<DifferenceCommitmentReceiverBundle>> buckets, int numOfThreads) 
+			throws IOException, CheatAttemptException {
+		//Put the pairs of bundles of all buckets one after the other.
+		final ArrayList<DifferenceCommitmentReceiverBundle> first = new ArrayList<DifferenceCommitmentReceiverBundle>();
+		final ArrayList<DifferenceCommitmentReceiverBundle> second = new ArrayList<DifferenceCommitmentReceiverBundle>();
+		for (ArrayList<DifferenceCommitmentReceiverBundle> bucket : buckets) {
+			for (int j = 0; j < bucket.size() - 1; j++) {
+				first.add(bucket.get(j));
+				second.add(bucket.get(j+1));
+			}
+		}
+		final int numOfDifferences = first.size();
+		final byte[][] committedDifference = new byte[numOfDifferences][];
+		if (receivedDeltas.length < numOfDifferences) {
+			receivedDeltas = new byte[numOfDifferences][];
+		}
+		
+		//Receive the message from the committer.
+		Expector expector = new Expector(channel, ProveDiff.class);
+		final ProveDiff msg = (ProveDiff) expector.receive();
+		if (!msg.isOfSize(numOfDifferences, s)) {
+			throw new CheatAttemptException("the number of the committed differences is wrong!");
+		}
+		n = msg.n;
+		
+		//Receive the committed difference for each secret.
+		new ParallelIndexBatch() {
+			protected void compute(int j) {
+				committedDifference[j] = receiveDifference(first.get(j), second.get(j), j, msg);
+			}
+		}.run(numOfDifferences, numOfThreads);
+		
+		//Send w to the committer.
+		decommitToW();
+		
+		//Receive the decommitment objects for the received committed differences.
+		expector = new Expector(channel, CmtCDecommitmentMessage[].class);
+		final CmtCDecommitmentMessage[] decommitments = (CmtCDecommitmentMessage[]) expector.receive();
+		if (decommitments.length != numOfDifferences*2*s) {
+			throw new CheatAttemptException("the number of the decommitments is wrong!");
+		}
+		
+		//Verify the received decommitments. Each range is hashed using its own hash function, if there is a hash factory.
+		new ParallelBatch() {
+			protected void compute(int from, int to) {
+				CryptographicHash rangeHash = (hashFactory == null) ? null : hashFactory.create();
+				if (rangeHash == null) {
+					synchronized (hash) {
+						verifyRange(hash, from, to);
+					}
+				} else {
+					verifyRange(rangeHash, from, to);
+				}
+			}
+			
+			private void verifyRange(CryptographicHash h, int from, int to) {
+				byte[] digest = new byte[h.getHashedMsgSize()];
+				for (int j = from; j < to; j++) {
+					verifyDifference(first.get(j), second.get(j), j, decommitments, h, digest);
+				}
+			}
+		}.run(numOfDifferences, numOfThreads);
+		
+		//If all verified, split the committed differences between the buckets and return them.
+		byte[][][] bucketsDifferences = new byte[buckets.size()][][];
+		int index = 0;
+		for (int i = 0; i < buckets.size(); i++) {
+			bucketsDifferences[i] = new byte[buckets.get(i).size()][];
+			for (int j = 0; j < buckets.get(i).size() - 1; j++) {
+				bucketsDifferences[i][j] = committedDifference[index++];
+			}
+		}
+		return bucketsDifferences;
+	}
+	
 	/**
 	 * Receives the difference of each pair of bundles.
 	 * @param b1 The first bundle of the difference.
 	 * @param b2 The second bundle of the difference.
 	 * @param index The index in the difference package.
-	 * @param msg The package to get the commitments.
+	 * @param msg The package to get the commitments. The size n of each committed value should already be set from it.
 	 * @return THe committed differences, if there was no cheating.
 	 * @throws CheatAttemptException in case the received committed difference is differ from the calculated one.
 	 */
@@ -253,8 +360,6 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 		//Extract the delta from the committer's package (which is the xor of both committed values).
 		byte[] delta = msg.getDelta(index);
 		
-		n = delta.length/s/2;
-		
 		//For each pair of commitments, calculate the difference using the delta.
 		for (int i = 0; i < s; i++) {
 			byte[] calculatedDifference = new byte[n];
@@ -337,4 +442,75 @@ public class CmtWithDifferenceReceiver extends CmtWithDifferenceParty {
 			}
 		}
 	}
+	
+	/**
+	 * Verifies the decommitments of the differences according to w (cmtSelection), using the given hash function.<P>
+	 * Unlike {@link #verifyDifference(DifferenceCommitmentReceiverBundle, DifferenceCommitmentReceiverBundle, int, CmtCDecommitmentMessage[])}, 
+	 * the hash of each decommitment is computed directly on its random value and committed value and compared to the commitment, 
+	 * and the xor of the committed values is compared to the delta array in place.
+	 * @param b1 The first bundle of the difference.
+	 * @param b2 The second bundle of the difference.
+	 * @param k1 The index to use in order to get the decommitments.
+	 * @param decommitments An array holds the decommitments.
+	 * @param hash The hash function to use. Should not be used by other threads during this call.
+	 * @param digest A buffer to hold the result of the hash.
+	 * @throws CheatAttemptException
+	 */
+	private void verifyDifference(DifferenceCommitmentReceiverBundle b1, DifferenceCommitmentReceiverBundle b2, int k1, 
+			CmtCDecommitmentMessage[] decommitments, CryptographicHash hash, byte[] digest) throws CheatAttemptException {
+		
+		//Get both commitments and delta.
+		CmtCCommitmentMsg[] c1 = b1.getC();
+		CmtCCommitmentMsg[] c2 = b2.getC();
+		byte[] delta = receivedDeltas[k1];
+		
+		for (int i = 0; i < s; i++) {
+			//Get the index of the decommitments according to w.
+			int decomIndex = 2 * i + w[i]; // c0[i] if w[i] == 0 or c1[i] if w[i] == 1.
+			
+			//Verify the decommitments and get the committed values.
+			byte[] cSigma = verifyHashDecommitment(c1[decomIndex], decommitments[k1*2*s + 2*i], hash, digest);
+			byte[] dSigma = verifyHashDecommitment(c2[decomIndex], decommitments[k1*2*s + 2*i + 1], hash, digest);
+			
+			//Check that the xor of the committed values is equal to the expected from the delta array.
+			//If not, throw a cheating exception.
+			int offset = decomIndex*n;
+			for (int j = 0; j < n; j++) {
+				if ((byte) (cSigma[j] ^ dSigma[j]) != delta[offset + j]) {
+					throw new CheatAttemptException("Decom(c_i^{W_i}) xor Decom(c_i^{W_i}) != delta_i^{W_i}");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks that the given decommitment opens the given simple hash commitment, meaning that c = H(r,x).
+	 * @param commitment The commitment to check against.
+	 * @param decommitment The decommitment to verify.
+	 * @param hash The hash function to use.
+	 * @param digest A buffer to hold the result of the hash.
+	 * @return the committed value x, if the decommitment is valid.
+	 * @throws CheatAttemptException In case the decommitment is not valid.
+	 */
+	private byte[] verifyHashDecommitment(CmtCCommitmentMsg commitment, CmtCDecommitmentMessage decommitment, CryptographicHash hash, 
+			byte[] digest) throws CheatAttemptException {
+		if (!(commitment instanceof CmtSimpleHashCommitmentMessage) || !(decommitment instanceof CmtSimpleHashDecommitmentMessage)) {
+			throw new CheatAttemptException("the commitment and decommitment should be simple hash messages!");
+		}
+		CmtSimpleHashDecommitmentMessage decom = (CmtSimpleHashDecommitmentMessage) decommitment;
+		byte[] r = decom.getR().getR();
+		byte[] x = decom.getX();
+		if ((r.length != digest.length) || (x.length != n)) {
+			throw new CheatAttemptException("decommitment failed!");
+		}
+		
+		//Compute H(r,x) and compare it to the commitment.
+		hash.update(r, 0, r.length);
+		hash.update(x, 0, x.length);
+		hash.hashFinal(digest, 0);
+		if (!Arrays.equals(((CmtSimpleHashCommitmentMessage) commitment).getCommitment(), digest)) {
+			throw new CheatAttemptException("decommitment failed!");
+		}
+		return x;
+	}
 }
\ No newline at end of file
@@ -76,4 +76,14 @@ class ProveDiff implements Serializable {
 		//Copy the given value to the big class member.
 		System.arraycopy(delta, 0, this.delta, i*2*s*n, 2*s*n);
 	}
+	
+	/**
+	 * Checks that this message holds the given number of differences, each one with s pairs of deltas.
+	 * @param numOfDifferences The expected number of differences.
+	 * @param s The expected security parameter.
+	 */
+	boolean isOfSize(int numOfDifferences, int s) {
+		return (this.s == s) && (n > 0) && (committedDifference != null) && (delta != null) &&
+				(committedDifference.length == numOfDifferences*n) && (delta.length == numOfDifferences*2*s*n);
+	}
 }
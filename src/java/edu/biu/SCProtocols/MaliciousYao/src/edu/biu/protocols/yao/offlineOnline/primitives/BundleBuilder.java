@@ -43,6 +43,7 @@ public class BundleBuilder {
 	protected final Channel[] channels;
 	protected final SecureRandom random;
 	protected int keySize;
+	private int numOfCommitmentThreads;	// The number of threads that compute the commitments on the keys.
 	
 	// Labels.
 	protected int[] inputLabelsP1;
@@ -84,6 +85,7 @@ public class BundleBuilder {
 		this.primitives = primitives;
 		this.channels = channels;
 		this.random = primitives.getSecureRandom();
+		this.numOfCommitmentThreads = primitives.getNumOfThreads();
 		
 		// Fixed labels.
 		this.probeResistantLabels = matrix.getProbeResistantLabels();
@@ -91,6 +93,16 @@ public class BundleBuilder {
 		this.secret = null;
 	}
 	
+	/**
+	 * Sets the number of threads that compute the commitments on the keys of each bundle. 
+	 * The default is the number of threads of the primitives. A builder that is used by one of several threads that build 
+	 * bundles in parallel should use 1, so that the commitments are computed by the calling thread.
+	 * @param numOfThreads The number of threads to use. Zero or one means that no other thread is used.
+	 */
+	public void setNumOfCommitmentThreads(int numOfThreads) {
+		this.numOfCommitmentThreads = numOfThreads;
+	}
+	
 	/**
 	 * Builds the Bundle, meaning garble the inner circuit, commit on it keys, etc.
 	 * @param seedSizeInBytes The size of the required seed.
@@ -136,7 +148,7 @@ public class BundleBuilder {
 		byte[] commitmentMask = getRandomVector(randomSourceMasks, keySize);
 
 		//Commit on the keys.
-		CommitmentBundleBuilder commitmentBuilder = new CommitmentBundleBuilder(randomSourceCommitments, primitives, null, keySize); 
+		CommitmentBundleBuilder commitmentBuilder = new CommitmentBundleBuilder(randomSourceCommitments, primitives, null, keySize, numOfCommitmentThreads); 
 		CommitmentBundle commitmentsX = commitmentBuilder.build(inputWiresX, inputLabelsX, commitmentMask, placementMask);
 		CommitmentBundle commitmentsY1Extended = commitmentBuilder.build(inputWiresY1Extended, inputLabelsY1Extended, commitmentMask);
 		CommitmentBundle commitmentsY2 = commitmentBuilder.build(inputWiresY2, inputLabelsY2, commitmentMask);
@@ -10,15 +10,14 @@ import edu.biu.protocols.yao.primitives.CryptoPrimitives;
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CommitValueException;
 import edu.biu.scapi.exceptions.InvalidInputException;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash.CmtSimpleHashCommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash.CmtSimpleHashCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash.CmtSimpleHashDecommitmentMessage;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.hash.cryptopp.CryptoPpSHA1;
+import edu.biu.scapi.tools.InstanceFactory;
 
 /**
  * This class builds the CommitmentBundle. <p>
@@ -31,9 +30,10 @@ import edu.biu.scapi.primitives.hash.cryptopp.CryptoPpSHA1;
  *
  */
 public class CommitmentBundleBuilder {
-	private final CmtCommitter committer;		// The commitment object that used to commit on the keys.
+	private final CmtSimpleHashCommitter committer;	// The commitment object that used to commit on the keys.
 	private int commitLabel;					// The current wire to commit on.
 	private final int keyLength;				// The size of key, in bytes.
+	private final int numOfThreads;				// The number of threads that compute the commitments of each bundle.
 
 	/**
 	 * A constructor that sets the given arguments.
@@ -41,14 +41,22 @@ public class CommitmentBundleBuilder {
 	 * @param primitives Contains the primitives objects to use.
 	 * @param channel Used to communicates between the parties.
 	 * @param keyLength The size of each key, in bytes.
+	 * @param numOfThreads The number of threads that compute the commitments of each bundle. Should be 1 when the bundles are 
+	 * built by several threads in parallel.
 	 */
-	public CommitmentBundleBuilder(SecureRandom random, CryptoPrimitives primitives, Channel channel, int keyLength) {
+	public CommitmentBundleBuilder(SecureRandom random, CryptoPrimitives primitives, Channel channel, int keyLength, int numOfThreads) {
 		//When using threads, the OpenSSLSHA1 causing problems. Thus, we use cryptoPPSHA1.
 		CryptographicHash hash = new CryptoPpSHA1();//primitives.getCryptographicHash();
 		this.keyLength = keyLength;
+		this.numOfThreads = numOfThreads;
 		//Create committer object.
 		try {
 			this.committer = new CmtSimpleHashCommitter(channel, hash, random, hash.getHashedMsgSize());
+			this.committer.setHashFactory(new InstanceFactory<CryptographicHash>() {
+				public CryptographicHash create() {
+					return new CryptoPpSHA1();
+				}
+			});
 		} catch (Exception e) {
 			// No matter what the exception is, it is unexpected and thus illegal.
 			throw new IllegalStateException(e);
@@ -71,6 +79,8 @@ public class CommitmentBundleBuilder {
 		long[] commitmentIds = new long[labels.length * 2];
 		byte[] decommitments = new byte[labels.length *2 *keySize];
 		byte[] decommitmentsRandoms = new byte[labels.length *2 *cmtSize];
+		CmtCommitValue[] commitValues = new CmtCommitValue[labels.length * 2];
+		long[] ids = new long[labels.length * 2];
 		
 		// For each wire w (indexed with i)
 		for (int i = 0; i < labels.length; i++) {
@@ -104,16 +114,21 @@ public class CommitmentBundleBuilder {
 					throw new IllegalStateException(e);
 				}
 				
-				CmtCCommitmentMsg commitment = committer.generateCommitmentMsg(commitValue, commitLabel);
-				CmtCDecommitmentMessage decommitment = committer.generateDecommitmentMsg(commitLabel);
-				System.arraycopy(((CmtSimpleHashCommitmentMessage)commitment).getCommitment(), 0, commitments, i*2*cmtSize+k*cmtSize, cmtSize);
-				commitmentIds[i*2+k] = ((CmtSimpleHashCommitmentMessage)commitment).getId();
-				System.arraycopy(((CmtSimpleHashDecommitmentMessage)decommitment).getX(), 0, decommitments, i*2*keySize+k*keySize, keySize);
-				System.arraycopy(((CmtSimpleHashDecommitmentMessage)decommitment).getR().getR(), 0, decommitmentsRandoms, i*2*cmtSize+k*cmtSize, cmtSize);
-				
+				commitValues[i*2+k] = commitValue;
+				ids[i*2+k] = commitLabel;
 				commitLabel++;
 			}
 		}
+		
+		// Compute all the commitments at once, so that the hash computations are split between the threads.
+		CmtSimpleHashCommitmentMessage[] commitmentMsgs = committer.generateCommitmentMsgBatch(commitValues, ids, numOfThreads);
+		for (int j = 0; j < commitmentMsgs.length; j++) {
+			CmtCDecommitmentMessage decommitment = committer.generateDecommitmentMsg(ids[j]);
+			System.arraycopy(commitmentMsgs[j].getCommitment(), 0, commitments, j*cmtSize, cmtSize);
+			commitmentIds[j] = commitmentMsgs[j].getId();
+			System.arraycopy(((CmtSimpleHashDecommitmentMessage)decommitment).getX(), 0, decommitments, j*keySize, keySize);
+			System.arraycopy(((CmtSimpleHashDecommitmentMessage)decommitment).getR().getR(), 0, decommitmentsRandoms, j*cmtSize, cmtSize);
+		}
 
 		return new CommitmentBundle(commitments, commitmentIds, decommitments, decommitmentsRandoms);
 	}
@@ -91,6 +91,11 @@ public class OfflineProtocolP1 {
 			for (int i=0; i<size; i++){
 				mainBundleBuilder[i] = new BundleBuilder(mainExecution.getCircuit(i), mainMatrix, primitives, channels);
 				crBundleBuilder[i] = new CheatingRecoveryBundleBuilder(crExecution.getCircuit(i), crMatrix, primitives, channels, proofOfCheating);
+				//Each builder is used by one of the threads that build the circuits, so it does not split its commitments between threads.
+				if (primitives.getNumOfThreads() > 0){
+					mainBundleBuilder[i].setNumOfCommitmentThreads(1);
+					crBundleBuilder[i].setNumOfCommitmentThreads(1);
+				}
 			}
 			//timer.stop();
 
@@ -332,6 +332,8 @@ public class OnlineProtocolP2 implements Protocol {
 			//In case the number of thread is less than the number of circuits in the bucket, there is no point to create all the threads.
 			//In this case, create only number of threads as the bucket size and assign one circuit to each thread.
 			int threadCount = (primitives.getNumOfThreads() < bucket.size()) ? primitives.getNumOfThreads() : bucket.size();
+			//The threads that are left after assigning the circuits are shared by the key restoring of each circuit.
+			int restoreThreads = primitives.getNumOfThreads() / threadCount;
 			VerifyY2InputKeysThread[] threads = new VerifyY2InputKeysThread[threadCount];
 			
 			//Calculate the number of circuit in each thread and the remainder.
@@ -342,9 +344,9 @@ public class OnlineProtocolP2 implements Protocol {
 			//The last thread gets also the remaining circuits.
 			for (int j = 0; j < threadCount; j++) {
 				if ((j < (threadCount - 1)) || (remain == 0) ){
-					threads[j] = new VerifyY2InputKeysThread(bucket, matrix, evaluationPackage, y2, j*numOfCircuits, (j+1)*numOfCircuits);
+					threads[j] = new VerifyY2InputKeysThread(bucket, matrix, evaluationPackage, y2, j*numOfCircuits, (j+1)*numOfCircuits, restoreThreads);
 				} else {
-					threads[j] = new VerifyY2InputKeysThread(bucket, matrix, evaluationPackage, y2, j*numOfCircuits, bucket.size());
+					threads[j] = new VerifyY2InputKeysThread(bucket, matrix, evaluationPackage, y2, j*numOfCircuits, bucket.size(), restoreThreads);
 				}
 				//Start all threads.
 				threads[j].start();
@@ -361,7 +363,7 @@ public class OnlineProtocolP2 implements Protocol {
 			
 		//In case no thread should be created, verify all the circuits input directly.
 		} else {
-			verifyY2InputKeys(bucket, evaluationPackage, matrix, y2, 0, bucket.size());
+			verifyY2InputKeys(bucket, evaluationPackage, matrix, y2, 0, bucket.size(), primitives.getNumOfThreads());
 		}
 	}
 	
@@ -374,9 +376,10 @@ public class OnlineProtocolP2 implements Protocol {
 	 * @param y2 The boolean input for the circuit.
 	 * @param from The starting index in the bucket that point on the first circuit to work on.
 	 * @param to The last index in the bucket that point on the last circuit to work on.
+	 * @param restoreThreads The number of threads to use in order to restore the keys of each circuit.
 	 */
 	private void verifyY2InputKeys(ArrayList<LimitedBundle> bucket,	EvaluationPackage evaluationPackage, 
-			KProbeResistantMatrix matrix, byte[] y2, int from, int to) {
+			KProbeResistantMatrix matrix, byte[] y2, int from, int to, int restoreThreads) {
 		//The labels are equal in all circuits.
 		int[] inputLabelsY2 = bucket.get(0).getInputLabelsY2();
 		
@@ -398,7 +401,7 @@ public class OnlineProtocolP2 implements Protocol {
 			xorKeysWithMask(cloneY1Extended, commitmentMask, inputKeysY1Extended.length/keyLength);
 			
 			//Restore the original y1 keys using the given probe resistant matrix and the result of xoring the commitment mask with Y1 extended keys.
-			byte[] y1Keys = matrix.restoreKeys(cloneY1Extended);
+			byte[] y1Keys = matrix.restoreKeys(cloneY1Extended, restoreThreads);
 		
 			//Copy the commitments, values and random values to a one dimension array in order to get better performance in the native implementation.
 			byte[] commitments = new byte[inputLabelsY2.length*hashSize];
@@ -447,6 +450,7 @@ public class OnlineProtocolP2 implements Protocol {
 		private byte[] y2;								//The boolean input for the circuit.
 		private int from;								//The starting index in the bucket that point on the first circuit to work on.
 		private int to;									//The last index in the bucket that point on the last circuit to work on.
+		private int restoreThreads;						//The number of threads to use in order to restore the keys of each circuit.
 		
 		/**
 		 * A constructor that sets the given parameters.
@@ -456,15 +460,17 @@ public class OnlineProtocolP2 implements Protocol {
 		 * @param y2 The boolean input for the circuit.
 		 * @param from The starting index in the bucket that point on the first circuit to work on.
 		 * @param to The last index in the bucket that point on the last circuit to work on.
+		 * @param restoreThreads The number of threads to use in order to restore the keys of each circuit.
 		 */
 		public VerifyY2InputKeysThread(ArrayList<LimitedBundle> bucket, KProbeResistantMatrix matrix, 
-				EvaluationPackage evaluationPackage, byte[] y2, int from, int to){
+				EvaluationPackage evaluationPackage, byte[] y2, int from, int to, int restoreThreads){
 			this.bucket = bucket;
 			this.matrix = matrix;
 			this.evaluationPackage = evaluationPackage;
 			this.y2 = y2;
 			this.from = from;
 			this.to = to;
+			this.restoreThreads = restoreThreads;
 		}
 		
 		/**
@@ -472,7 +478,7 @@ public class OnlineProtocolP2 implements Protocol {
 		 */
 		public void run() {
 			//Call the function that does the verification with the parameters.
-			verifyY2InputKeys(bucket, evaluationPackage, matrix, y2, from, to);
+			verifyY2InputKeys(bucket, evaluationPackage, matrix, y2, from, to, restoreThreads);
 		}
 	}
 	
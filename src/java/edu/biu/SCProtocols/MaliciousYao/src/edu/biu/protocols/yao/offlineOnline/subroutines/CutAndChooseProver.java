@@ -391,26 +391,25 @@ public class CutAndChooseProver {
 	}
 	
 	/**
-	 * Run the verify stage of the diff protocol for each evaluate circuits.
+	 * Run the verify stage of the diff protocol for all evaluate circuits.
+	 * The proofs of all buckets are computed together and sent in one message.
 	 * @throws IOException
 	 * @throws CheatAttemptException
 	 */
 	private void proveCorrectnessOfPlacementMasks() throws CheatAttemptException, IOException  {
 		Preconditions.checkNotNull(buckets);
 		
-		// For each bucket, run the verify stage of the diff protocol (for eval circuits).
+		// Gather the bundles of each bucket and run the verify stage of the diff protocol (for eval circuits) on all of them.
+		ArrayList<ArrayList<DifferenceCommitmentCommitterBundle>> commitBuckets = new ArrayList<ArrayList<DifferenceCommitmentCommitterBundle>>();
 		for (int i = 0; i < buckets.size(); i++) {
 			ArrayList<DifferenceCommitmentCommitterBundle> commitBucket = new ArrayList<DifferenceCommitmentCommitterBundle>();
 			ArrayList<Bundle> bucket = buckets.getBucket(i);
 			for (int j = 0; j < bucket.size(); j++) {
 				commitBucket.add(bucket.get(j).getDifferenceCommitmentBundle());
 			}
-			
-			try {
-				diffProtocol.proveDifferencesBetweenMasks(commitBucket);
-			} catch (ClassNotFoundException e) {
-				throw new IOException(e);
-			}
+			commitBuckets.add(commitBucket);
 		}
+		
+		diffProtocol.proveDifferencesBetweenMasks(commitBuckets, primitives.getNumOfThreads());
 	}
 }
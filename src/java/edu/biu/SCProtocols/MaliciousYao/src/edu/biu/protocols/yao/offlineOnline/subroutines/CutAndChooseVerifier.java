@@ -417,6 +417,7 @@ public class CutAndChooseVerifier {
 	private void receiveCommitments() throws CheatAttemptException, IOException {
 		//Create a new difference protocol.
 		diffProtocol = new CmtWithDifferenceReceiver(selection, numCircuits, primitives.getStatisticalParameter(), channels[0], primitives.getSecureRandom(), primitives.getCryptographicHash());
+		diffProtocol.setHashFactory(primitives.getCryptographicHashFactory());
 		diffProtocol.setup(); // Send commitments to K and W, and send ccSelection encrypted
 		Expector expector = new Expector(channels[0], CommitmentsPackage.class);
 		
@@ -559,25 +560,31 @@ public class CutAndChooseVerifier {
 	}
 
 	/**
-	 * Run the verify stage of the diff protocol for each evaluate circuits.
+	 * Run the verify stage of the diff protocol for all evaluate circuits.
+	 * The proofs of all buckets are received in one message and verified together.
 	 * @throws IOException
 	 * @throws CheatAttemptException
 	 */
 	private void verifyCorrectnessOfPlacementMasks() throws IOException, CheatAttemptException {
 		Preconditions.checkNotNull(buckets);
 		
-		// For each bucket, run the verify stage of the diff protocol (for eval circuits).
+		// Gather the bundles of each bucket and run the verify stage of the diff protocol (for eval circuits) on all of them.
+		ArrayList<ArrayList<DifferenceCommitmentReceiverBundle>> commitBuckets = new ArrayList<ArrayList<DifferenceCommitmentReceiverBundle>>();
 		for (int i = 0; i < buckets.size(); i++) {
 			ArrayList<DifferenceCommitmentReceiverBundle> commitBucket = new ArrayList<DifferenceCommitmentReceiverBundle>();
 			ArrayList<LimitedBundle> bucket = buckets.getBucket(i);
 			for (int j = 0; j < bucket.size(); j++) {
 				commitBucket.add(bucket.get(j).getDifferenceCommitmentBundle());
 			}
-			
-			byte[][] committedDifference = diffProtocol.verifyDifferencesBetweenMasks(commitBucket);
-			
+			commitBuckets.add(commitBucket);
+		}
+		
+		byte[][][] committedDifferences = diffProtocol.verifyDifferencesBetweenMasks(commitBuckets, primitives.getNumOfThreads());
+		
+		for (int i = 0; i < buckets.size(); i++) {
+			ArrayList<LimitedBundle> bucket = buckets.getBucket(i);
 			for (int j = 0; j < bucket.size() - 1; j++) {
-				bucket.get(j).setPlacementMaskDifference(committedDifference[j]);
+				bucket.get(j).setPlacementMaskDifference(committedDifferences[i][j]);
 			}
 		}
 	}
@@ -8,6 +8,7 @@ import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.tools.InstanceFactory;
 import edu.biu.scapi.tools.Factories.CryptographicHashFactory;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 import edu.biu.scapi.tools.Factories.KdfFactory;
@@ -33,6 +34,7 @@ public class CryptoPrimitives {
 	private final KeyDerivationFunction kdf;
 	private final MultiKeyEncryptionScheme mes;
 	private final CryptographicHash hash;
+	private final InstanceFactory<CryptographicHash> hashFactory;
 	private final SecureRandom random;
 	private final int statisticalParameter;
 	private final int numOfThreads;
@@ -47,6 +49,7 @@ public class CryptoPrimitives {
 		this.kdf = builder.kdf;
 		this.mes = builder.mes;
 		this.hash = builder.hash;
+		this.hashFactory = builder.hashFactory;
 		this.random = builder.random;
 		this.statisticalParameter = builder.statisticalParameter;
 		this.numOfThreads = builder.numOfThreads;
@@ -80,6 +83,14 @@ public class CryptoPrimitives {
 		return hash;
 	}
 	
+	/**
+	 * Returns the factory that creates more objects of the default CryptographicHash, for computations that hash in several threads.
+	 * May be null, in which case the default CryptographicHash should be used by one thread at a time.
+	 */
+	public InstanceFactory<CryptographicHash> getCryptographicHashFactory() {
+		return hashFactory;
+	}
+	
 	/**
 	 * Returns the default secure random object.
 	 */
@@ -112,6 +123,7 @@ public class CryptoPrimitives {
 		private KeyDerivationFunction kdf = null;
 		private MultiKeyEncryptionScheme mes = null;
 		private CryptographicHash hash = null;
+		private InstanceFactory<CryptographicHash> hashFactory = null;
 		private SecureRandom random = null;
 		private int statisticalParameter = 0;
 		private int numOfThreads;
@@ -147,6 +159,14 @@ public class CryptoPrimitives {
 			this.hash = hash;
 			return this;
 		}
+		
+		/**
+		 * Sets the given factory of the CryptographicHash.
+		 */
+		public Builder hashFactory(InstanceFactory<CryptographicHash> hashFactory) {
+			this.hashFactory = hashFactory;
+			return this;
+		}
 
 		/**
 		 * Sets the given random.
@@ -207,6 +227,7 @@ public class CryptoPrimitives {
 			.kdf(kdf)
 			.mes(mes)
 			.hash(hash)
+			.hashFactory(createHashFactory("SHA-1", "CryptoPP"))
 			.random(random)
 			.statisticalParameter(40)
 			.numOfThreads(0)
@@ -241,9 +262,26 @@ public class CryptoPrimitives {
 			.kdf(kdf)
 			.mes(mes)
 			.hash(hash)
+			.hashFactory(createHashFactory("SHA-1", "CryptoPP"))
 			.random(random)
 			.statisticalParameter(40)
 			.numOfThreads(numThreads)
 			.build();
 	}
+	
+	/**
+	 * Creates a factory that creates hash objects with the given name and provider, the same way the default hash is created.
+	 */
+	private static InstanceFactory<CryptographicHash> createHashFactory(final String hashName, final String provider) {
+		return new InstanceFactory<CryptographicHash>() {
+			public CryptographicHash create() {
+				try {
+					return CryptographicHashFactory.getInstance().getObject(hashName, provider);
+				} catch (FactoriesException e) {
+					// The default hash was created by the same name, so this can not happen.
+					return null;
+				}
+			}
+		};
+	}
 }
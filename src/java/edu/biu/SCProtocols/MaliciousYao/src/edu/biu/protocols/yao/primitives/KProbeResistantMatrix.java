@@ -2,18 +2,22 @@ package edu.biu.protocols.yao.primitives;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.SecureRandom;
 
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.tools.ParallelBatch;
 
 /**
  * This class represents the K probe-resistant matrix that described in "Blazing Fast 2PC in the "Offline/Online Setting with Security for 
@@ -24,16 +28,6 @@ import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
  */
 public class KProbeResistantMatrix implements Serializable {
 	
-	/**
-	 * Native function that restore the original keys using the matrix from the given keys.
-	 * @param receivedKeys the transformed keys.
-	 * @param matrix The K probe-resistant matrix to use in order to restore the keys.
-	 * @param n matrix's rows.
-	 * @param m matrix's columns.
-	 * @param retoredKeys The result keys of the function.
-	 */
-	private native void restoreKeys(byte[] receivedKeys, byte[][] matrix, int n, int m, byte[] retoredKeys);
-	
 	/**
 	 * Native function that transform the original keys into the extended keys using the matrix.
 	 * @param originalKeys the keys to transform.
@@ -49,6 +43,12 @@ public class KProbeResistantMatrix implements Serializable {
 	private final byte[][] matrix; 	//The K probe-resistant matrix.
 	private final int n;			//Number of matrix's rows.
 	private final int m;			//Number of matrix's columns.
+	private transient long[][] packedRows;	//The matrix rows, where each row is packed into 64 bit words. Created on the first use.
+	
+	//Matrices with more entries than this number are restored using threads, if the user asked for threads.
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	//The first int in a file written by saveToFile. Used to distinguish the compact format from java serialization.
+	private static final int FILE_MAGIC = 0x4B50524D;
 	
 	/**
 	 * A constructor that sets the given matrix.
@@ -113,32 +113,31 @@ public class KProbeResistantMatrix implements Serializable {
 	public CircuitInput transformInput(CircuitInput originalInput, SecureRandom random) {
 		Preconditions.checkArgument(n == originalInput.size());
 		byte[] input = originalInput.asByteArray();
-		byte[] newInput = new byte[m];
+		long[][] rows = getPackedRows();
+		int words = rows[0].length;
 		
-		// Init the new vector with -1 values.
-		for (int j = 0; j < newInput.length; j++) {
-			newInput[j] = -1;
-		}
+		// The new input vector and the bits that were already allocated in it, packed into 64 bit words.
+		long[] newInput = new long[words];
+		long[] allocated = new long[words];
 		
 		// For each input bit of the original input:
 		for (int i = 0; i < input.length; i++) {
 			// Go over the line i in the matrix, and also over the new input vector.
+			long[] row = rows[i];
 			int lastIndexInTheLine = -1;
 			int xorOfAllocatedBits = 0;
 			
-			for (int j = 0; j < m; j++) {
-				if (0 == matrix[i][j]) {
-					// The j^th bit in the new vector is **insignificant** to the i^th bit in the old vector/
-					continue; // This bit is NOT added to the XOR.
+			for (int w = 0; w < words; w++) {
+				// The significant bits that are not yet allocated get random values.
+				long unallocated = row[w] & ~allocated[w];
+				if (unallocated != 0) {
+					newInput[w] |= random.nextLong() & unallocated;
+					allocated[w] |= unallocated;
+					// Use this variable to negate the case where all bits are already allocated.
+					lastIndexInTheLine = w * Long.SIZE + (Long.SIZE - 1 - Long.numberOfLeadingZeros(unallocated));
 				}
-				// If we got here we deal with a significant bit.
 				// A significant bit is ALWAYS added to the XOR.
-				if (newInput[j] == -1) {
-					// This bit is not yet allocated.
-					lastIndexInTheLine = j; // Use this variable to negate the case where all bits are already allocated.
-					newInput[j] = (byte) random.nextInt(2); // A random binary int.
-				}
-				xorOfAllocatedBits = xorOfAllocatedBits ^ newInput[j];
+				xorOfAllocatedBits ^= Long.bitCount(row[w] & newInput[w]) & 1;
 			}
 			
 			if (lastIndexInTheLine == -1) {
@@ -150,18 +149,17 @@ public class KProbeResistantMatrix implements Serializable {
 			// At this point all the bits in the line were allocated, but we may have a mistake with the last bit.
 			// In that case we flip it to achieve the correct xor.
 			if (xorOfAllocatedBits != input[i]) {
-				newInput[lastIndexInTheLine] = (byte) (1 - newInput[lastIndexInTheLine]);
+				newInput[lastIndexInTheLine / Long.SIZE] ^= 1L << (lastIndexInTheLine % Long.SIZE);
 			}
 		}
 		
-		// There may still be un-allocated (but insignificant bits). We must make sure newInput is a binary vector.
-		for (int j = 0; j < newInput.length; j++) {
-			if (-1 == newInput[j]) {
-				newInput[j] = 0;
-			}
+		// Un-allocated (insignificant) bits are zero in the packed vector, so it can be unpacked directly.
+		byte[] unpacked = new byte[m];
+		for (int j = 0; j < m; j++) {
+			unpacked[j] = (byte) ((newInput[j / Long.SIZE] >>> (j % Long.SIZE)) & 1);
 		}
 		
-		return CircuitInput.fromByteArray(newInput);
+		return CircuitInput.fromByteArray(unpacked);
 	}
 	
 	/**
@@ -169,44 +167,162 @@ public class KProbeResistantMatrix implements Serializable {
 	 * @param receivedKeys the transformed keys.
 	 * @return the original restored keys.
 	 */
-	public  byte[] restoreKeys(byte[] receivedKeys) {
-		Preconditions.checkArgument(receivedKeys.length/16 == m);
+	public byte[] restoreKeys(byte[] receivedKeys) {
+		return restoreKeys(receivedKeys, 0);
+	}
 	
-		//Allocate space for the original keys.
+	/**
+	 * Restores the original keys using the matrix from the transformed keys.<p>
+	 * Each restored key is the xor of the received keys that are significant to its row, so the rows are independent of each other. 
+	 * In case the matrix is large and the user enable threads, the rows are split between the threads.
+	 * @param receivedKeys the transformed keys.
+	 * @param numOfThreads The number of threads to use. Zero or one means that the keys are restored in the calling thread.
+	 * @return the original restored keys.
+	 */
+	public byte[] restoreKeys(byte[] receivedKeys, int numOfThreads) {
+		Preconditions.checkArgument(receivedKeys.length/16 == m);
+		
+		//Work on the keys as 64 bit words, two words for each key.
+		final long[] received = new long[m*2];
+		ByteBuffer.wrap(receivedKeys).order(ByteOrder.nativeOrder()).asLongBuffer().get(received);
+		final long[] restored = new long[n*2];
+		
+		//If the number of threads is more than one and the matrix is large enough, split the rows between the shared threads.
+		if ((numOfThreads > 1) && ((long) n * m > PARALLEL_THRESHOLD)){
+			new ParallelBatch() {
+				protected void compute(int from, int to) {
+					restoreKeys(received, restored, from, to);
+				}
+			}.run(n, numOfThreads);
+		} else {
+			restoreKeys(received, restored, 0, n);
+		}
+		
+		//Allocate space for the original keys and copy the restored words into it.
 		byte[] restoredKeysArray = new byte[16*n];
-
-		//Call the native function that computes the restoring.
-		restoreKeys(receivedKeys, matrix, n, m, restoredKeysArray);
+		ByteBuffer.wrap(restoredKeysArray).order(ByteOrder.nativeOrder()).asLongBuffer().put(restored);
 		
 		return restoredKeysArray;
 	}
 	
 	/**
-	 * Saves the matrix to a file.
+	 * Restores the keys of the rows in the given range.<p>
+	 * Only the set bits of each packed row are visited, and each key is xored as two 64 bit words.
+	 * @param received The transformed keys, two words for each key.
+	 * @param restored The restored keys, two words for each key. Will be filled during the function execution.
+	 * @param from The first row to restore.
+	 * @param to The row after the last row to restore.
+	 */
+	private void restoreKeys(long[] received, long[] restored, int from, int to) {
+		long[][] rows = getPackedRows();
+		
+		for (int i = from; i < to; i++) {
+			long[] row = rows[i];
+			long low = 0;
+			long high = 0;
+			
+			for (int w = 0; w < row.length; w++) {
+				long bits = row[w];
+				while (bits != 0) {
+					// Xor the share of each significant column.
+					int j = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+					low ^= received[j*2];
+					high ^= received[j*2+1];
+					bits &= bits - 1;
+				}
+			}
+			restored[i*2] = low;
+			restored[i*2+1] = high;
+		}
+	}
+	
+	/**
+	 * Returns the matrix rows, where each row is packed into 64 bit words. Bit j of a row is in bit (j % 64) of word (j / 64).<p>
+	 * The packed rows are created on the first call, since the matrix may also be received using java serialization.
+	 */
+	private synchronized long[][] getPackedRows() {
+		if (packedRows == null) {
+			long[][] rows = new long[n][(m + Long.SIZE - 1) / Long.SIZE];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < m; j++) {
+					if (0 != matrix[i][j]) {
+						rows[i][j / Long.SIZE] |= 1L << (j % Long.SIZE);
+					}
+				}
+			}
+			packedRows = rows;
+		}
+		return packedRows;
+	}
+	
+	/**
+	 * Saves the matrix to a file.<p>
+	 * The matrix is written in a compact form: a magic number, the number of rows and columns and then the packed rows, 
+	 * so each entry of the matrix takes one bit.
 	 * @param matrix The matrix to write to the file.
 	 * @param filename The name of the file to write the matrix to.
 	 * @throws IOException In case there was a problem during the writing of the matrix to the file.
 	 */
 	public static void saveToFile(KProbeResistantMatrix matrix, String filename) throws IOException {
 		//Create the file using the file name.
-		ObjectOutput output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
-		//Write the matrix.
-		output.writeObject(matrix);
-		output.close();		
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		try {
+			//Write the header.
+			output.writeInt(FILE_MAGIC);
+			output.writeInt(matrix.n);
+			output.writeInt(matrix.m);
+			
+			//Write the packed rows.
+			for (long[] row : matrix.getPackedRows()) {
+				for (long word : row) {
+					output.writeLong(word);
+				}
+			}
+		} finally {
+			output.close();
+		}
 	}
 	
 	/**
-	 * Loads the matrix from a file.
+	 * Loads the matrix from a file.<p>
+	 * Files that were written using java serialization by older versions are also supported.
 	 * @param filename The name of the file to read the matrix from.
 	 * @return The read matrix.
 	 * @throws IOException In case there was a problem during the writing of the matrix to the file.
 	 * @throws ClassNotFoundException 
 	 */
 	public static KProbeResistantMatrix loadFromFile(String filename) throws IOException, ClassNotFoundException {
-		ObjectInput input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filename)));
-		KProbeResistantMatrix matrix = (KProbeResistantMatrix) input.readObject();
-		input.close();
-		return matrix;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+		try {
+			//Check which format the file was written in.
+			input.mark(2);
+			if (input.readShort() == ObjectStreamConstants.STREAM_MAGIC) {
+				input.reset();
+				ObjectInput objectInput = new ObjectInputStream(input);
+				return (KProbeResistantMatrix) objectInput.readObject();
+			}
+			input.reset();
+			if (input.readInt() != FILE_MAGIC) {
+				throw new IOException("the given file does not contain a k probe-resistant matrix");
+			}
+			int n = input.readInt();
+			int m = input.readInt();
+			
+			//Read the packed rows and unpack them into the matrix.
+			long[] row = new long[(m + Long.SIZE - 1) / Long.SIZE];
+			byte[][] matrix = new byte[n][m];
+			for (int i = 0; i < n; i++) {
+				for (int w = 0; w < row.length; w++) {
+					row[w] = input.readLong();
+				}
+				for (int j = 0; j < m; j++) {
+					matrix[i][j] = (byte) ((row[j / Long.SIZE] >>> (j % Long.SIZE)) & 1);
+				}
+			}
+			return new KProbeResistantMatrix(matrix);
+		} finally {
+			input.close();
+		}
 	}
 	
 	static {	 
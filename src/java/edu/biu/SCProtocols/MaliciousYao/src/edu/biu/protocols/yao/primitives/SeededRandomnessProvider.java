@@ -6,9 +6,12 @@ import java.security.SecureRandom;
 
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
 import edu.biu.scapi.primitives.prf.cryptopp.CryptoPpAES;
+import edu.biu.scapi.primitives.prg.PrgSecureRandom;
+import edu.biu.scapi.primitives.prg.ScPrgFromPrf;
 
 /**
  * This class creates and initializes SecureRandom objects to use in the protocol.
@@ -126,6 +129,8 @@ public class SeededRandomnessProvider {
 	
 	/**
 	 * Create a pseudo random object using the source integer.
+	 * The created random is a prg over AES keyed with a seed derived from the source, since the randoms 
+	 * created here are used to generate a lot of bytes (for example, all the keys of a garbled circuit).
 	 * @param source The integer to use in order to create the array.
 	 * @return the created byte array.
 	 */
@@ -141,7 +146,14 @@ public class SeededRandomnessProvider {
 			throw new IllegalStateException(e);
 		}
 		
-		//Return new random using the new seed. 
-		return getSeededSecureRandom(newSeed);
+		//Return new random using the new seed as the key of the prg. 
+		ScPrgFromPrf prg = new ScPrgFromPrf();
+		try {
+			prg.setKey(new SecretKeySpec(newSeed, "AES"));
+		} catch (InvalidKeyException e) {
+			//Should not occur since the seed is of the AES block size, which is a valid AES key size.
+			throw new IllegalStateException(e);
+		}
+		return new PrgSecureRandom(prg);
 	}
 }
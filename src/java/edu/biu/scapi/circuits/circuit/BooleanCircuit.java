@@ -80,6 +80,11 @@ public class BooleanCircuit {
 	 * An arrayList containing the indices of the input {@code Wire}s of this {@code BooleanCircuit} indexed by the party number.
 	 */
 	private ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+	
+	/**
+	 * The indices of the gates grouped by their depth. Computed the first time it is requested.
+	 */
+	private int[][] layers;
 
 	/**
 	 * Constructs a BooleanCircuit from a File. <p>
@@ -202,7 +207,27 @@ public class BooleanCircuit {
 		this.outputWireIndices = outputWireIndices;
 		this.eachPartysInputWires = eachPartysInputWires;
 		numberOfParties = eachPartysInputWires.size();
+		isInputSet = new boolean[numberOfParties];
+		for (int i = 0; i < numberOfParties; i++) {
+			//A party without inputs does not need to set them.
+			isInputSet[i] = eachPartysInputWires.get(i).isEmpty();
+		}
   	}
+	
+	/**
+	 * Constructs a {code BooleanCircuit} from an array of gates and their layers, that were already computed. <p>
+	 * Used by {@link CompiledCircuitFormat} in order to avoid computing the layers again.
+	 * 
+	 * @param gates An array of {@link Gate}s to create from which to construct the {@code BooleanCircuit}.
+	 * @param outputWireIndices An array containing the indices of the wires that will be output of the {@code BooleanCircuit}.
+	 * @param eachPartysInputWires An arrayList containing the indices of the input {@code Wire}s of this
+	 * {@code BooleanCircuit} indexed by the party number.
+	 * @param layers The layers of the given gates, as returned from {@link #getLayers()}.
+	 */
+	BooleanCircuit(Gate[] gates, int[] outputWireIndices, ArrayList<ArrayList<Integer>> eachPartysInputWires, int[][] layers) {
+		this(gates, outputWireIndices, eachPartysInputWires);
+		this.layers = layers;
+	}
 
     /**
      * Sets the specified party's input to the circuit from a map containing constructed and set {@link Wire}s. <p>
@@ -311,6 +336,58 @@ public class BooleanCircuit {
 		return gates;
 	}
 
+	/**
+	 * Groups the gates of this circuit into layers, such that the gates of each layer depend only on the input wires of the 
+	 * circuit and on the outputs of gates in previous layers.<p>
+	 * The depth of a gate is one more than the maximal depth of the gates that compute its input wires, where the circuit's 
+	 * input wires have depth zero. Layer i contains the indices of all the gates of depth i+1, in ascending order.<p>
+	 * Since the gates in the same layer are independent of each other, they can be garbled and computed in parallel.<p>
+	 * The layers are computed the first time this function is called. The returned array should not be modified.
+	 * @return an array that holds, for each layer, the indices of its gates.
+	 */
+	public int[][] getLayers() {
+		if (layers == null){
+			Map<Integer, Integer> wireDepths = new HashMap<Integer, Integer>();
+			int[] gateDepths = new int[gates.length];
+			int numOfLayers = 0;
+			
+			//The gates are sorted topologically, so the depth of each gate's inputs is already known when it is reached.
+			for (int i = 0; i < gates.length; i++){
+				int depth = 0;
+				for (int w : gates[i].getInputWireIndices()){
+					Integer wireDepth = wireDepths.get(w);
+					//Wires that are not an output of any gate are input wires of the circuit, thus their depth is zero.
+					if (wireDepth != null && wireDepth > depth){
+						depth = wireDepth;
+					}
+				}
+				depth++;
+				for (int w : gates[i].getOutputWireIndices()){
+					wireDepths.put(w, depth);
+				}
+				gateDepths[i] = depth;
+				numOfLayers = Math.max(numOfLayers, depth);
+			}
+			
+			//Count the gates in each layer and then fill the layers.
+			int[] layerSizes = new int[numOfLayers];
+			for (int depth : gateDepths){
+				layerSizes[depth - 1]++;
+			}
+			int[][] newLayers = new int[numOfLayers][];
+			for (int i = 0; i < numOfLayers; i++){
+				newLayers[i] = new int[layerSizes[i]];
+				layerSizes[i] = 0;
+			}
+			for (int i = 0; i < gates.length; i++){
+				int layer = gateDepths[i] - 1;
+				newLayers[layer][layerSizes[layer]++] = i;
+			}
+			layers = newLayers;
+		}
+		return layers;
+	}
+
 	/**
 	 * @return an array of the output{@link Wire} indices of this circuit.
   	 */
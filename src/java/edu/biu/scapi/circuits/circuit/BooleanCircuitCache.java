@@ -0,0 +1,135 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * A process wide cache of loaded circuits. <p>
+ * Protocols that run many executions usually load the same circuit file (such as AES or SHA-256) again in each execution. 
+ * This class loads each circuit file once and keeps it in memory, keyed by the SHA-256 hash of the file's content. 
+ * Thus, a file that was changed is loaded again, and two copies of the same file share the loaded circuit.<p>
+ * 
+ * The file can be either in the text format of {@link BooleanCircuit#BooleanCircuit(File)} or in the binary format of 
+ * {@link CompiledCircuitFormat}. <p>
+ * 
+ * A {@link BooleanCircuit} holds the inputs that were set to it, so each call to {@link #load(File)} returns a new circuit object.
+ * The returned circuits share the same gates and layers, which are not changed after the circuit is created.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class BooleanCircuitCache {
+	
+	//Maps the hash of each loaded file to the loaded circuit.
+	private static final ConcurrentHashMap<String, BooleanCircuit> circuits = new ConcurrentHashMap<String, BooleanCircuit>();
+	
+	/**
+	 * Returns the circuit in the given file. The file is parsed only if a file with the same content was not loaded before.
+	 * @param f The circuit file, in the text or binary format.
+	 * @return a new circuit object that shares the gates with the cached circuit.
+	 * @throws IOException in case of a problem reading the file.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 */
+	public static BooleanCircuit load(File f) throws IOException, CircuitFileFormatException {
+		String key = hashFile(f);
+		BooleanCircuit circuit = circuits.get(key);
+		if (circuit == null) {
+			if (CompiledCircuitFormat.isCompiled(f)) {
+				circuit = CompiledCircuitFormat.read(f);
+			} else {
+				circuit = new BooleanCircuit(f);
+			}
+			//Compute the layers once, so all the copies share them.
+			circuit.getLayers();
+			
+			//In case another thread loaded the same file meanwhile, use its circuit.
+			BooleanCircuit existing = circuits.putIfAbsent(key, circuit);
+			if (existing != null) {
+				circuit = existing;
+			}
+		}
+		return copy(circuit);
+	}
+	
+	/**
+	 * Removes all the circuits from the cache.
+	 */
+	public static void clear() {
+		circuits.clear();
+	}
+	
+	/**
+	 * Creates a new circuit object that shares the gates, wires and layers of the given circuit.
+	 */
+	private static BooleanCircuit copy(BooleanCircuit circuit) {
+		ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+		for (int i = 1; i <= circuit.getNumberOfParties(); i++) {
+			try {
+				eachPartysInputWires.add(circuit.getInputWireIndices(i));
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+			}
+		}
+		return new BooleanCircuit(circuit.getGates(), circuit.getOutputWireIndices(), eachPartysInputWires, circuit.getLayers());
+	}
+	
+	/**
+	 * Computes the SHA-256 hash of the given file's content.
+	 * @return the hash as a hexadecimal string.
+	 */
+	private static String hashFile(File f) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Should not occur since every java platform supports SHA-256.
+			throw new IllegalStateException(e);
+		}
+		
+		InputStream in = new FileInputStream(f);
+		try {
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return new BigInteger(1, digest.digest()).toString(16);
+	}
+}
@@ -0,0 +1,409 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * Optimizes a {@link BooleanCircuit} before it is garbled. <p>
+ * The optimizer goes over the gates in their topological order and simplifies each gate according to the values of its inputs:<p>
+ * 1. Constant folding - inputs that are fixed to a known value (and outputs of gates that became constant) are removed from the 
+ *    gates that use them, and the truth tables are reduced accordingly.<p>
+ * 2. NOT absorption - a gate that computes a wire or its negation (such as a NOT gate) is removed. The gates that use its output read 
+ *    the wire directly and the negation is absorbed into their truth tables. Inputs that the truth table does not depend on are removed.<p>
+ * 3. Duplicate gate elimination - a gate that computes the same function of the same wires as a previous gate (or its negation) is 
+ *    removed, and the previous gate's output is used instead.<p>
+ * 4. Dead gate elimination - gates that do not affect the circuit's outputs are removed.<p>
+ * 
+ * As a result, every two input gate is either an XOR/XNOR gate (which is free in a Free XOR circuit) or a gate that its truth 
+ * table has one or three set bits (AND type gate). <p>
+ * 
+ * The optimized circuit has the same input wires (including the fixed ones, which are simply not used anymore) and the same output 
+ * wires as the original circuit, so it can replace the original circuit without changing the code that uses it.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CircuitOptimizer {
+	
+	//The wire of a literal that is a constant.
+	private static final int CONSTANT = -1;
+	
+	/**
+	 * The value of a wire in the optimized circuit: a wire of the optimized circuit or its negation, or a constant.
+	 */
+	private static class Literal {
+		private final int wire;
+		private final boolean negated;	// In case of a constant, this is the constant's value.
+		
+		Literal(int wire, boolean negated){
+			this.wire = wire;
+			this.negated = negated;
+		}
+	}
+	
+	/**
+	 * A gate of the optimized circuit.
+	 */
+	private static class Node {
+		private final int[] inputs;
+		private final BitSet truthTable;
+		private final int wire;				// The output wire.
+		private final boolean negated;		// True if the truth table is the complement of the normalized truth table.
+		
+		Node(int[] inputs, BitSet truthTable, int wire, boolean negated){
+			this.inputs = inputs;
+			this.truthTable = truthTable;
+			this.wire = wire;
+			this.negated = negated;
+		}
+	}
+	
+	/**
+	 * Optimizes the given circuit.
+	 * @param circuit The circuit to optimize.
+	 * @return the optimized circuit and the statistics of the optimization.
+	 */
+	public OptimizedCircuit optimize(BooleanCircuit circuit){
+		return optimize(circuit, new HashMap<Integer, Byte>());
+	}
+	
+	/**
+	 * Optimizes the given circuit, where some of its input wires are fixed to the given values.
+	 * @param circuit The circuit to optimize.
+	 * @param fixedInputs Maps input wires indices to their fixed values (0 or 1).
+	 * @return the optimized circuit and the statistics of the optimization.
+	 */
+	public OptimizedCircuit optimize(BooleanCircuit circuit, Map<Integer, Byte> fixedInputs){
+		Gate[] gates = circuit.getGates();
+		
+		//The value of each wire, in terms of the wires of the optimized circuit. Input wires that are not in the map are themselves.
+		Map<Integer, Literal> literals = new HashMap<Integer, Literal>();
+		for (Map.Entry<Integer, Byte> input : fixedInputs.entrySet()){
+			literals.put(input.getKey(), new Literal(CONSTANT, input.getValue() != 0));
+		}
+		
+		//The gates of the optimized circuit, by their normalized form and by their output wire.
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		Map<String, Node> normalizedNodes = new HashMap<String, Node>();
+		Map<Integer, Node> wireNodes = new HashMap<Integer, Node>();
+		int constantGates = 0, absorbedGates = 0, duplicateGates = 0;
+		
+		for (Gate gate : gates){
+			int[] gateInputs = gate.getInputWireIndices();
+			int numberOfInputs = gateInputs.length;
+			
+			//Find the distinct non constant wires that the gate reads.
+			ArrayList<Integer> wires = new ArrayList<Integer>();
+			Literal[] inputLiterals = new Literal[numberOfInputs];
+			int[] wirePositions = new int[numberOfInputs];
+			for (int i = 0; i < numberOfInputs; i++){
+				inputLiterals[i] = getLiteral(literals, gateInputs[i]);
+				if (inputLiterals[i].wire != CONSTANT){
+					int position = wires.indexOf(inputLiterals[i].wire);
+					if (position < 0){
+						position = wires.size();
+						wires.add(inputLiterals[i].wire);
+					}
+					wirePositions[i] = position;
+				}
+			}
+			
+			//Compute the truth table as a function of these wires.
+			int k = wires.size();
+			BitSet truthTable = new BitSet();
+			for (int row = 0; row < (1 << k); row++){
+				int originalRow = 0;
+				for (int i = 0; i < numberOfInputs; i++){
+					boolean value;
+					if (inputLiterals[i].wire == CONSTANT){
+						value = inputLiterals[i].negated;
+					} else {
+						value = (((row >> (k - 1 - wirePositions[i])) & 1) == 1) ^ inputLiterals[i].negated;
+					}
+					//The first input is the most significant bit of the row.
+					if (value){
+						originalRow |= 1 << (numberOfInputs - 1 - i);
+					}
+				}
+				if (gate.getTruthTable().get(originalRow)){
+					truthTable.set(row);
+				}
+			}
+			
+			//Remove the wires that the truth table does not depend on.
+			for (int position = k - 1; position >= 0; position--){
+				if (!dependsOn(truthTable, k, position)){
+					truthTable = removeInput(truthTable, k, position);
+					wires.remove(position);
+					k--;
+				}
+			}
+			
+			//Sort the wires, so that the same function of the same wires will have the same form.
+			int[] sortedWires = new int[k];
+			for (int i = 0; i < k; i++){
+				sortedWires[i] = wires.get(i);
+			}
+			truthTable = sortInputs(truthTable, sortedWires);
+			
+			//Normalize the truth table such that its first row is zero. The complement is absorbed in the literal.
+			boolean negated = truthTable.get(0);
+			if (negated){
+				truthTable.flip(0, 1 << k);
+			}
+			
+			Literal output;
+			if (k == 0){
+				//The gate's output is constant.
+				output = new Literal(CONSTANT, negated);
+				constantGates++;
+			} else if (k == 1){
+				//The gate's output is a wire or its negation (for example, a NOT gate).
+				output = new Literal(sortedWires[0], negated);
+				absorbedGates++;
+			} else {
+				String key = normalizedKey(sortedWires, truthTable, k);
+				Node node = normalizedNodes.get(key);
+				if (node != null){
+					//A previous gate computes the same function.
+					output = new Literal(node.wire, negated ^ node.negated);
+					duplicateGates++;
+				} else {
+					//Keep the gate's original function, so its output wire gets the same value as in the original circuit.
+					BitSet nodeTable = (BitSet) truthTable.clone();
+					if (negated){
+						nodeTable.flip(0, 1 << k);
+					}
+					node = new Node(sortedWires, nodeTable, gate.getOutputWireIndices()[0], negated);
+					nodes.add(node);
+					normalizedNodes.put(key, node);
+					wireNodes.put(node.wire, node);
+					output = new Literal(node.wire, false);
+				}
+			}
+			
+			for (int w : gate.getOutputWireIndices()){
+				literals.put(w, output);
+			}
+		}
+		
+		//Find the gates that the outputs depend on. The nodes are sorted topologically, so going backwards finds all of them.
+		int[] outputWires = circuit.getOutputWireIndices();
+		Set<Integer> neededWires = new HashSet<Integer>();
+		for (int w : outputWires){
+			neededWires.add(getLiteral(literals, w).wire);
+		}
+		for (int i = nodes.size() - 1; i >= 0; i--){
+			Node node = nodes.get(i);
+			if (neededWires.contains(node.wire)){
+				for (int w : node.inputs){
+					neededWires.add(w);
+				}
+			}
+		}
+		
+		//Create the gates of the optimized circuit.
+		ArrayList<Gate> newGates = new ArrayList<Gate>();
+		for (Node node : nodes){
+			if (neededWires.contains(node.wire)){
+				newGates.add(new Gate(newGates.size(), node.truthTable, node.inputs, new int[]{node.wire}));
+			}
+		}
+		int deadGates = nodes.size() - newGates.size();
+		
+		addOutputGates(circuit, literals, wireNodes, newGates);
+		
+		ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+		for (int i = 1; i <= circuit.getNumberOfParties(); i++){
+			try {
+				eachPartysInputWires.add(circuit.getInputWireIndices(i));
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+			}
+		}
+		BooleanCircuit optimized = new BooleanCircuit(newGates.toArray(new Gate[newGates.size()]), outputWires, eachPartysInputWires);
+		return new OptimizedCircuit(optimized, circuit, constantGates, absorbedGates, duplicateGates, deadGates);
+	}
+	
+	/**
+	 * Adds gates for output wires whose value is not computed by a gate of the optimized circuit with the same output wire. 
+	 * This happens when the gate of the output wire was found to be constant, a negation of another wire or a duplicate of another gate.
+	 */
+	private void addOutputGates(BooleanCircuit circuit, Map<Integer, Literal> literals, Map<Integer, Node> wireNodes, ArrayList<Gate> newGates) {
+		//The circuit's input wires hold their values already.
+		Set<Integer> inputWires = new HashSet<Integer>();
+		for (int i = 1; i <= circuit.getNumberOfParties(); i++){
+			try {
+				inputWires.addAll(circuit.getInputWireIndices(i));
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+			}
+		}
+		
+		Set<Integer> handledOutputs = new HashSet<Integer>();
+		for (int w : circuit.getOutputWireIndices()){
+			if (inputWires.contains(w) || !handledOutputs.add(w)){
+				continue;
+			}
+			Literal literal = getLiteral(literals, w);
+			if (literal.wire == w && !literal.negated){
+				continue;
+			}
+			
+			Node node = wireNodes.get(literal.wire);
+			if (node != null){
+				//Copy the gate that computes the value, complemented if needed.
+				BitSet truthTable = (BitSet) node.truthTable.clone();
+				if (literal.negated){
+					truthTable.flip(0, 1 << node.inputs.length);
+				}
+				newGates.add(new Gate(newGates.size(), truthTable, node.inputs, new int[]{w}));
+			} else {
+				//Use a single input gate that computes the wire, its negation or a constant.
+				int inputWire = literal.wire;
+				BitSet truthTable = new BitSet();
+				if (literal.wire == CONSTANT){
+					if (inputWires.isEmpty()){
+						throw new IllegalArgumentException("a circuit without input wires can not have a constant output");
+					}
+					inputWire = inputWires.iterator().next();
+					if (literal.negated){
+						truthTable.set(0, 2);
+					}
+				} else {
+					truthTable.set(literal.negated ? 0 : 1);
+				}
+				newGates.add(new Gate(newGates.size(), truthTable, new int[]{inputWire}, new int[]{w}));
+			}
+		}
+	}
+	
+	/**
+	 * Returns the literal of the given wire. Wires that were not set are input wires of the circuit.
+	 */
+	private Literal getLiteral(Map<Integer, Literal> literals, int wire){
+		Literal literal = literals.get(wire);
+		if (literal == null){
+			literal = new Literal(wire, false);
+		}
+		return literal;
+	}
+	
+	/**
+	 * Checks if the truth table depends on the input in the given position.
+	 * @param truthTable A truth table with k inputs.
+	 * @param k The number of inputs.
+	 * @param position The position of the input, where 0 is the first input (the most significant bit of the row).
+	 */
+	private boolean dependsOn(BitSet truthTable, int k, int position){
+		int bit = 1 << (k - 1 - position);
+		for (int row = 0; row < (1 << k); row++){
+			if ((row & bit) == 0 && truthTable.get(row) != truthTable.get(row | bit)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Removes an input that the truth table does not depend on.
+	 * @return the truth table with k - 1 inputs.
+	 */
+	private BitSet removeInput(BitSet truthTable, int k, int position){
+		int bit = 1 << (k - 1 - position);
+		BitSet reduced = new BitSet();
+		for (int row = 0; row < (1 << (k - 1)); row++){
+			//Insert a zero bit in the removed input's place.
+			int high = (row & ~(bit - 1)) << 1;
+			int low = row & (bit - 1);
+			if (truthTable.get(high | low)){
+				reduced.set(row);
+			}
+		}
+		return reduced;
+	}
+	
+	/**
+	 * Sorts the given wires in ascending order and permutes the truth table accordingly.
+	 * @param truthTable The truth table as a function of the wires in their given order.
+	 * @param wires The wires. Sorted by this function.
+	 * @return the truth table as a function of the sorted wires.
+	 */
+	private BitSet sortInputs(BitSet truthTable, int[] wires){
+		int k = wires.length;
+		int[] order = new int[k];	// order[i] is the original position of the i-th sorted wire.
+		for (int i = 0; i < k; i++){
+			order[i] = i;
+		}
+		//Insertion sort, since gates have very few inputs.
+		for (int i = 1; i < k; i++){
+			for (int j = i; j > 0 && wires[order[j - 1]] > wires[order[j]]; j--){
+				int temp = order[j];
+				order[j] = order[j - 1];
+				order[j - 1] = temp;
+			}
+		}
+		
+		int[] original = wires.clone();
+		BitSet sorted = new BitSet();
+		for (int row = 0; row < (1 << k); row++){
+			int originalRow = 0;
+			for (int i = 0; i < k; i++){
+				if (((row >> (k - 1 - i)) & 1) == 1){
+					originalRow |= 1 << (k - 1 - order[i]);
+				}
+			}
+			if (truthTable.get(originalRow)){
+				sorted.set(row);
+			}
+		}
+		for (int i = 0; i < k; i++){
+			wires[i] = original[order[i]];
+		}
+		return sorted;
+	}
+	
+	/**
+	 * Creates a string that identifies a normalized gate.
+	 */
+	private String normalizedKey(int[] wires, BitSet truthTable, int k){
+		StringBuilder key = new StringBuilder();
+		for (int w : wires){
+			key.append(w).append(',');
+		}
+		for (int row = 0; row < (1 << k); row++){
+			key.append(truthTable.get(row) ? '1' : '0');
+		}
+		return key.toString();
+	}
+}
@@ -0,0 +1,355 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * A compact binary format for {@link BooleanCircuit}s. <p>
+ * Parsing the text format of a big circuit (such as AES or SHA-256) is slow, since every number is read as a separate token. 
+ * This class converts a circuit to a binary file once, and then loads it by mapping the file to memory and decoding it.<p>
+ * 
+ * The binary file contains: <p>
+ * 1. A magic number and a version. <p>
+ * 2. The number of gates and parties, each party's input wires and the circuit's output wires. <p>
+ * 3. For each gate, the number of input and output wires, their indices and the truth table packed into bytes. <p>
+ * 4. The layers of the circuit (see {@link BooleanCircuit#getLayers()}), so they do not need to be computed again.<p>
+ * 
+ * All numbers are written as variable length integers (7 bits in each byte). Each wire index is written as the difference from 
+ * the previous written index, so that consecutive wires take a single byte. The wire indices themselves are kept as is, since 
+ * the users of the circuit refer to the wires by their indices (for example, when setting the inputs).
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CompiledCircuitFormat {
+	
+	//The first bytes of every compiled circuit file.
+	private static final int MAGIC = 0x53434243; // "SCBC"
+	private static final int VERSION = 1;
+	
+	/**
+	 * Reads a circuit in the text format and writes it in the binary format.
+	 * @param textCircuit The file that contains the circuit in the text format.
+	 * @param compiledCircuit The file to write the compiled circuit to.
+	 * @throws IOException in case of a problem reading or writing the files.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the text file.
+	 */
+	public static void convert(File textCircuit, File compiledCircuit) throws IOException, CircuitFileFormatException {
+		write(new BooleanCircuit(textCircuit), compiledCircuit);
+	}
+	
+	/**
+	 * Writes the given circuit in the binary format.
+	 * @param circuit The circuit to write.
+	 * @param compiledCircuit The file to write the compiled circuit to.
+	 * @throws IOException in case of a problem writing the file.
+	 */
+	public static void write(BooleanCircuit circuit, File compiledCircuit) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compiledCircuit)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			
+			Gate[] gates = circuit.getGates();
+			int numberOfParties = circuit.getNumberOfParties();
+			writeVarint(out, gates.length);
+			writeVarint(out, numberOfParties);
+			
+			//Write the input wires of each party.
+			int previousWire = 0;
+			for (int i = 1; i <= numberOfParties; i++) {
+				ArrayList<Integer> inputs = circuit.getInputWireIndices(i);
+				writeVarint(out, inputs.size());
+				for (int w : inputs) {
+					writeSignedVarint(out, w - previousWire);
+					previousWire = w;
+				}
+			}
+			
+			//Write the output wires.
+			int[] outputs = circuit.getOutputWireIndices();
+			writeVarint(out, outputs.length);
+			for (int w : outputs) {
+				writeSignedVarint(out, w - previousWire);
+				previousWire = w;
+			}
+			
+			//Write the gates.
+			for (Gate gate : gates) {
+				int[] gateInputs = gate.getInputWireIndices();
+				int[] gateOutputs = gate.getOutputWireIndices();
+				writeVarint(out, gateInputs.length);
+				writeVarint(out, gateOutputs.length);
+				for (int w : gateInputs) {
+					writeSignedVarint(out, w - previousWire);
+					previousWire = w;
+				}
+				for (int w : gateOutputs) {
+					writeSignedVarint(out, w - previousWire);
+					previousWire = w;
+				}
+				
+				//The truth table has a bit for each combination of the inputs.
+				BitSet truthTable = gate.getTruthTable();
+				int rows = 1 << gateInputs.length;
+				byte[] packed = new byte[(rows + 7) / 8];
+				for (int row = truthTable.nextSetBit(0); row >= 0 && row < rows; row = truthTable.nextSetBit(row + 1)) {
+					packed[row / 8] |= 1 << (row % 8);
+				}
+				out.write(packed);
+			}
+			
+			//Write the layers. The gates in each layer are sorted, so the differences are positive.
+			int[][] layers = circuit.getLayers();
+			writeVarint(out, layers.length);
+			for (int[] layer : layers) {
+				writeVarint(out, layer.length);
+				int previousGate = 0;
+				for (int gate : layer) {
+					writeVarint(out, gate - previousGate);
+					previousGate = gate;
+				}
+			}
+		} catch (NoSuchPartyException e) {
+			// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Checks if the given file contains a compiled circuit.
+	 * @param f The file to check.
+	 * @return true if the file starts with the magic number of the binary format; false, otherwise.
+	 * @throws IOException in case of a problem reading the file.
+	 */
+	public static boolean isCompiled(File f) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(f, "r");
+		try {
+			return file.length() >= 4 && file.readInt() == MAGIC;
+		} finally {
+			file.close();
+		}
+	}
+	
+	/**
+	 * Loads a compiled circuit. The file is mapped to memory and then decoded and validated.
+	 * @param compiledCircuit The file that contains the compiled circuit.
+	 * @return the loaded circuit.
+	 * @throws IOException in case of a problem reading the file.
+	 * @throws CircuitFileFormatException if the file is not a valid compiled circuit.
+	 */
+	public static BooleanCircuit read(File compiledCircuit) throws IOException, CircuitFileFormatException {
+		RandomAccessFile file = new RandomAccessFile(compiledCircuit, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			file.close();
+		}
+	}
+	
+	/**
+	 * Decodes a compiled circuit from the given buffer.
+	 * @param in A buffer that contains the compiled circuit, starting at its current position.
+	 * @return the decoded circuit.
+	 * @throws CircuitFileFormatException if the buffer does not contain a valid compiled circuit.
+	 */
+	public static BooleanCircuit read(ByteBuffer in) throws CircuitFileFormatException {
+		try {
+			if (in.getInt() != MAGIC || in.get() != VERSION) {
+				throw new CircuitFileFormatException();
+			}
+			
+			int numberOfGates = readLength(in);
+			int numberOfParties = readLength(in);
+			
+			//Read the input wires of each party.
+			int previousWire = 0;
+			ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>(numberOfParties);
+			for (int i = 0; i < numberOfParties; i++) {
+				int numberOfInputs = readLength(in);
+				ArrayList<Integer> inputs = new ArrayList<Integer>(numberOfInputs);
+				for (int j = 0; j < numberOfInputs; j++) {
+					previousWire += readSignedVarint(in);
+					inputs.add(previousWire);
+				}
+				eachPartysInputWires.add(inputs);
+			}
+			
+			//Read the output wires.
+			int[] outputs = new int[readLength(in)];
+			for (int i = 0; i < outputs.length; i++) {
+				previousWire += readSignedVarint(in);
+				outputs[i] = previousWire;
+			}
+			
+			//Read the gates.
+			Gate[] gates = new Gate[numberOfGates];
+			for (int i = 0; i < numberOfGates; i++) {
+				int[] gateInputs = new int[readLength(in)];
+				int[] gateOutputs = new int[readLength(in)];
+				//Every truth table row is an int, so a gate can not have more than 30 input wires.
+				if (gateInputs.length > 30) {
+					throw new CircuitFileFormatException();
+				}
+				for (int j = 0; j < gateInputs.length; j++) {
+					previousWire += readSignedVarint(in);
+					gateInputs[j] = previousWire;
+				}
+				for (int j = 0; j < gateOutputs.length; j++) {
+					previousWire += readSignedVarint(in);
+					gateOutputs[j] = previousWire;
+				}
+				
+				int rows = 1 << gateInputs.length;
+				BitSet truthTable = new BitSet(rows);
+				int packedLength = (rows + 7) / 8;
+				for (int j = 0; j < packedLength; j++) {
+					int packed = in.get() & 0xff;
+					for (int bit = 0; bit < 8 && j * 8 + bit < rows; bit++) {
+						if ((packed & (1 << bit)) != 0) {
+							truthTable.set(j * 8 + bit);
+						}
+					}
+				}
+				gates[i] = new Gate(i, truthTable, gateInputs, gateOutputs);
+			}
+			
+			//Read the layers.
+			int[][] layers = new int[readLength(in)][];
+			for (int i = 0; i < layers.length; i++) {
+				layers[i] = new int[readLength(in)];
+				int previousGate = 0;
+				for (int j = 0; j < layers[i].length; j++) {
+					previousGate += readVarint(in);
+					layers[i][j] = previousGate;
+				}
+			}
+			validateLayers(gates, layers);
+			
+			return new BooleanCircuit(gates, outputs, eachPartysInputWires, layers);
+		} catch (BufferUnderflowException e) {
+			//The file is shorter than the lengths written in it.
+			throw new CircuitFileFormatException();
+		}
+	}
+	
+	/**
+	 * Checks that the given layers contain every gate exactly once, and that each gate depends only on gates in previous layers.
+	 * @param gates The gates of the circuit.
+	 * @param layers The layers to check.
+	 * @throws CircuitFileFormatException if the layers do not match the gates.
+	 */
+	private static void validateLayers(Gate[] gates, int[][] layers) throws CircuitFileFormatException {
+		int[] gateLayers = new int[gates.length];
+		for (int i = 0; i < layers.length; i++) {
+			for (int gate : layers[i]) {
+				if (gate < 0 || gate >= gates.length || gateLayers[gate] != 0) {
+					throw new CircuitFileFormatException();
+				}
+				//Layers are counted from 1, so 0 marks a gate that was not seen yet.
+				gateLayers[gate] = i + 1;
+			}
+		}
+		
+		Map<Integer, Integer> wireLayers = new HashMap<Integer, Integer>();
+		for (int i = 0; i < gates.length; i++) {
+			if (gateLayers[i] == 0) {
+				throw new CircuitFileFormatException();
+			}
+			for (int w : gates[i].getOutputWireIndices()) {
+				wireLayers.put(w, gateLayers[i]);
+			}
+		}
+		for (int i = 0; i < gates.length; i++) {
+			for (int w : gates[i].getInputWireIndices()) {
+				Integer wireLayer = wireLayers.get(w);
+				if (wireLayer != null && wireLayer >= gateLayers[i]) {
+					throw new CircuitFileFormatException();
+				}
+			}
+		}
+	}
+	
+	private static void writeVarint(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.write((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+	
+	private static void writeSignedVarint(OutputStream out, int value) throws IOException {
+		//Zigzag encoding, so that small negative numbers are short as well.
+		writeVarint(out, (value << 1) ^ (value >> 31));
+	}
+	
+	private static int readVarint(ByteBuffer in) throws CircuitFileFormatException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new CircuitFileFormatException();
+	}
+	
+	/**
+	 * Reads a number of elements that follow in the buffer. Since every element takes at least one byte, a number that is bigger
+	 * than the remaining bytes means a corrupted file. This check also prevents allocating huge arrays.
+	 */
+	private static int readLength(ByteBuffer in) throws CircuitFileFormatException {
+		int length = readVarint(in);
+		if (length < 0 || length > in.remaining()) {
+			throw new CircuitFileFormatException();
+		}
+		return length;
+	}
+	
+	private static int readSignedVarint(ByteBuffer in) throws CircuitFileFormatException {
+		int value = readVarint(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
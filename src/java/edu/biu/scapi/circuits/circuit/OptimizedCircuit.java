@@ -0,0 +1,146 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+/**
+ * The result of {@link CircuitOptimizer}. Contains the optimized circuit and a report of the changes that were made.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OptimizedCircuit {
+	
+	private BooleanCircuit circuit;
+	private int originalGates;
+	private int originalNonXorGates;
+	private int constantGates;
+	private int absorbedGates;
+	private int duplicateGates;
+	private int deadGates;
+	
+	/**
+	 * Sets the given optimized circuit and statistics.
+	 * @param circuit The optimized circuit.
+	 * @param original The circuit before the optimization.
+	 * @param constantGates The number of gates whose output was found to be constant.
+	 * @param absorbedGates The number of gates whose output was found to be an input wire or its negation.
+	 * @param duplicateGates The number of gates that compute the same value as a previous gate.
+	 * @param deadGates The number of gates that do not affect the circuit's outputs.
+	 */
+	OptimizedCircuit(BooleanCircuit circuit, BooleanCircuit original, int constantGates, int absorbedGates, int duplicateGates, int deadGates){
+		this.circuit = circuit;
+		this.originalGates = original.getGates().length;
+		this.originalNonXorGates = countNonXorGates(original);
+		this.constantGates = constantGates;
+		this.absorbedGates = absorbedGates;
+		this.duplicateGates = duplicateGates;
+		this.deadGates = deadGates;
+	}
+	
+	/**
+	 * Counts the gates that are not XOR or XNOR gates, meaning the gates that need a garbled table in a Free XOR circuit.
+	 */
+	private static int countNonXorGates(BooleanCircuit circuit){
+		int count = 0;
+		for (Gate g : circuit.getGates()){
+			if (g.getInputWireIndices().length != 2 || g.getTruthTable().get(1) != g.getTruthTable().get(2) 
+					|| g.getTruthTable().get(0) == g.getTruthTable().get(1) || g.getTruthTable().get(0) != g.getTruthTable().get(3)){
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @return the optimized circuit.
+	 */
+	public BooleanCircuit getCircuit() {
+		return circuit;
+	}
+	
+	/**
+	 * @return the number of gates in the original circuit.
+	 */
+	public int getOriginalGates() {
+		return originalGates;
+	}
+	
+	/**
+	 * @return the number of gates in the optimized circuit.
+	 */
+	public int getOptimizedGates() {
+		return circuit.getGates().length;
+	}
+	
+	/**
+	 * @return the number of gates in the original circuit that are not XOR or XNOR gates.
+	 */
+	public int getOriginalNonXorGates() {
+		return originalNonXorGates;
+	}
+	
+	/**
+	 * @return the number of gates in the optimized circuit that are not XOR or XNOR gates.
+	 */
+	public int getOptimizedNonXorGates() {
+		return countNonXorGates(circuit);
+	}
+	
+	/**
+	 * @return the number of gates whose output was found to be constant.
+	 */
+	public int getConstantGates() {
+		return constantGates;
+	}
+	
+	/**
+	 * @return the number of gates (such as NOT gates) whose output was found to be a wire or its negation. 
+	 * These gates were removed and the negation was absorbed into the gates that use them.
+	 */
+	public int getAbsorbedGates() {
+		return absorbedGates;
+	}
+	
+	/**
+	 * @return the number of gates that compute the same value as a previous gate.
+	 */
+	public int getDuplicateGates() {
+		return duplicateGates;
+	}
+	
+	/**
+	 * @return the number of gates that do not affect the circuit's outputs.
+	 */
+	public int getDeadGates() {
+		return deadGates;
+	}
+	
+	@Override
+	public String toString() {
+		return "gates: " + originalGates + " -> " + getOptimizedGates() + ", non XOR gates: " + originalNonXorGates + " -> " 
+				+ getOptimizedNonXorGates() + " (constant: " + constantGates + ", absorbed: " + absorbedGates + ", duplicate: " 
+				+ duplicateGates + ", dead: " + deadGates + ")";
+	}
+}
@@ -24,6 +24,12 @@
 */
 package edu.biu.scapi.circuits.fastGarbledCircuit;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.InvalidKeyException;
 import java.security.SecureRandom;
 
@@ -65,6 +71,7 @@ public class ScNativeGarbledBooleanCircuit implements FastGarbledBooleanCircuit{
 	private int[] numOfInputsForEachParty;
 	private byte[] garbledInputs;
 	private boolean isNonXorOutputsRequired;
+	private ByteBuffer garbledTablesBuffer;//A view of the garbled tables memory of the native circuit. Created on the first use.
 	
 	private native long createGarbledcircuit(String fileName, int type, boolean isNonXorOutputsRequired);//Creates a garbled. It returns the pointer to that circuit saved in the dll memory 
 	private native int[] getOutputIndicesArray(long ptr);//Returns the output indices taken from the circuit file.
@@ -76,6 +83,11 @@ public class ScNativeGarbledBooleanCircuit implements FastGarbledBooleanCircuit{
 	private native byte[] getGarbleTables(long ptr);//Gets the garbled tables from the jni dll. Again, this is a costly functions since we need to pass a large amount of information
 													//from the dll memory space to the java memory space.
 	
+	private native ByteBuffer getGarbleTablesBuffer(long ptr);//Returns a direct buffer that wraps the garbled tables memory of the native circuit. No copy is done.
+	private native void garbleDirect(long ptr, ByteBuffer inputKeys, ByteBuffer outputKeys, ByteBuffer translationTable, ByteBuffer seed);//Garbles the circuit and writes the keys
+																			  //and translation table straight into the given direct buffers.
+	private native void computeDirect(long ptr, ByteBuffer inputKeys, ByteBuffer outputKeys);//Computes the circuit reading the input keys from and writing the output keys to direct buffers.
+	
 	
 	
 	/*
@@ -345,6 +357,120 @@ public class ScNativeGarbledBooleanCircuit implements FastGarbledBooleanCircuit{
 		
 	}
 	
+	/**
+	 * Returns a direct buffer that wraps the memory where the native circuit keeps its garbled tables.<p>
+	 * Unlike {@link #getGarbledTables()} and {@link #setGarbledTables(GarbledTablesHolder)}, no data is copied between the java 
+	 * and the native memory spaces. Writing into the returned buffer sets the garbled tables of this circuit and reading from it 
+	 * gets the garbled tables that were created by the garble function.<p>
+	 * The buffer is valid as long as this circuit object is alive. Its position is zero and its limit is the size of the tables.
+	 * @return a direct buffer that shares the garbled tables memory with the native circuit.
+	 */
+	public ByteBuffer getGarbledTablesBuffer() {
+		
+		if (garbledTablesBuffer == null){
+			garbledTablesBuffer = getGarbleTablesBuffer(garbledCircuitPtr);
+		}
+		//Return a new view so the position of one caller does not affect the others.
+		return garbledTablesBuffer.duplicate();
+	}
+	
+	/**
+	 * Reads the garbled tables from the given channel straight into the native memory of this circuit.<p>
+	 * This is the zero copy alternative to receiving a {@link GarbledTablesHolder} and calling {@link #setGarbledTables(GarbledTablesHolder)}.
+	 * The other side should send the tables using {@link #sendGarbledTables(WritableByteChannel)}. 
+	 * Since a {@link java.nio.channels.FileChannel} is also a readable channel, this function can be used to load tables that were saved to a file.
+	 * @param in The channel to read the garbled tables from.
+	 * @throws IOException In case of a problem in the reading or if the channel was closed before all the tables were read.
+	 */
+	public void receiveGarbledTables(ReadableByteChannel in) throws IOException {
+		
+		ByteBuffer tables = getGarbledTablesBuffer();
+		while (tables.hasRemaining()){
+			if (in.read(tables) < 0){
+				throw new EOFException("the channel was closed before all the garbled tables were received");
+			}
+		}
+	}
+	
+	/**
+	 * Writes the garbled tables of this circuit to the given channel directly from the native memory.<p>
+	 * The other side should read the tables using {@link #receiveGarbledTables(ReadableByteChannel)}.
+	 * @param out The channel to write the garbled tables to.
+	 * @throws IOException In case of a problem in the writing.
+	 */
+	public void sendGarbledTables(WritableByteChannel out) throws IOException {
+		
+		ByteBuffer tables = getGarbledTablesBuffer();
+		while (tables.hasRemaining()){
+			out.write(tables);
+		}
+	}
+	
+	/**
+	 * Allocates a direct buffer that can hold the given number of keys.<p>
+	 * Buffers returned by this function can be passed to {@link #garble(ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer)} and 
+	 * {@link #compute(ByteBuffer, ByteBuffer)} in order to avoid copying the keys between java and the native code.
+	 * @param numOfKeys The number of keys the buffer should hold.
+	 * @return the allocated buffer.
+	 */
+	public static ByteBuffer allocateKeysBuffer(int numOfKeys) {
+		return ByteBuffer.allocateDirect(numOfKeys * SCAPI_NATIVE_KEY_SIZE).order(ByteOrder.nativeOrder());
+	}
+	
+	/**
+	 * This method generates all the needed keys of the circuit and creates the garbled table according to those values.<p>
+	 * It behaves like {@link #garble(byte[])} but the keys and the translation table are written directly to the given direct buffers, 
+	 * starting at their current positions. The positions of the buffers are not changed.
+	 * @param seed A direct buffer containing 16 bytes that are used as the aes key that generates the wire keys.
+	 * @param allInputWireValues A direct buffer that will be filled with both keys for each input wire. 
+	 * @param allOutputWireValues A direct buffer that will be filled with both keys for each output wire.
+	 * @param translationTable A direct buffer that will be filled with the translation table.
+	 * @throws InvalidKeyException In case the seed is an invalid key for the given PRG.
+	 */
+	public void garble(ByteBuffer seed, ByteBuffer allInputWireValues, ByteBuffer allOutputWireValues, ByteBuffer translationTable) throws InvalidKeyException {
+		if (seed.remaining() < 16){
+			throw new InvalidKeyException("seed length should be 16 bytes");
+		}
+		checkDirectBuffer(allInputWireValues, inputsIndices.length*SCAPI_NATIVE_KEY_SIZE*2);
+		checkDirectBuffer(allOutputWireValues, outputWireIndices.length*SCAPI_NATIVE_KEY_SIZE*2);
+		checkDirectBuffer(translationTable, outputWireIndices.length);
+		checkDirectBuffer(seed, 16);
+		
+		garbleDirect(garbledCircuitPtr, allInputWireValues.slice(), allOutputWireValues.slice(), translationTable.slice(), seed.slice());
+	}
+	
+	/**
+	 * Computes the circuit using the given inputs.<p>
+	 * It behaves like {@link #compute()} but reads the input keys from and writes the output keys to the given direct buffers, 
+	 * starting at their current positions. The positions of the buffers are not changed.
+	 * @param garbledInputs A direct buffer containing a single key for each input wire.
+	 * @param garbledOutputs A direct buffer that will be filled with the garbled value of each output wire.
+	 * @throws NotAllInputsSetException if the given inputs buffer does not contain a key for each input of this circuit.
+	 */
+	public void compute(ByteBuffer garbledInputs, ByteBuffer garbledOutputs) throws NotAllInputsSetException {
+		if (garbledInputs.remaining() < inputsIndices.length*SCAPI_NATIVE_KEY_SIZE) {
+			throw new NotAllInputsSetException();
+		}
+		checkDirectBuffer(garbledInputs, inputsIndices.length*SCAPI_NATIVE_KEY_SIZE);
+		checkDirectBuffer(garbledOutputs, outputWireIndices.length*SCAPI_NATIVE_KEY_SIZE);
+		
+		computeDirect(garbledCircuitPtr, garbledInputs.slice(), garbledOutputs.slice());
+	}
+	
+	/**
+	 * Checks that the given buffer can be passed to the native code without copying it.
+	 * @param buffer The buffer to check.
+	 * @param size The number of bytes the native code is going to access.
+	 */
+	private void checkDirectBuffer(ByteBuffer buffer, int size) {
+		if (!buffer.isDirect()){
+			throw new IllegalArgumentException("the given buffer should be a direct buffer");
+		}
+		if (buffer.remaining() < size){
+			throw new IllegalArgumentException("the given buffer should have at least " + size + " remaining bytes");
+		}
+	}
+	
 	/**
      * Returns the translation table of the circuit calculated and stored in the native code. <P>
      * This is necessary since the constructor of the circuit may want to pass the translation table to a different party. <p>
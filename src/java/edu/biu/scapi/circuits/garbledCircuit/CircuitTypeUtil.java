@@ -74,4 +74,36 @@ interface CircuitTypeUtil {
 	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
 			GarbledGate[] gates, PseudorandomGenerator prg, byte[] seed) throws InvalidKeyException;
 	
+	/**
+	 * This method does the same as {@link #garble(BooleanCircuit, GarbledTablesHolder, GarbledGate[])}, but uses the given executor
+	 * in order to garble the gates in parallel.<p>
+	 * Each thread uses its own utility object and gates, since the underlying encryption objects are not thread safe.
+	 * @param ungarbledCircuit The circuit that this {@code GarbledBooleanCircuit} is supposed to be a garbling of.
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param threadUtils The utility object of each thread. All objects should be of the same type as this object.
+	 * @param threadGates The gates that were created by each of the utility objects.
+	 * @param executor Executes the garbling of the gates layer by layer.
+	 * @return CircuitCreationValues contains both keys for each input and output wire, the translation table and the signal bits of the input wires.
+	 */
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor);
+	
+	/**
+	 * This method does the same as {@link #garble(BooleanCircuit, GarbledTablesHolder, GarbledGate[], PseudorandomGenerator, byte[])}, 
+	 * but uses the given executor in order to garble the gates in parallel.<p>
+	 * The created keys are the same as the keys created by the sequential function for the same seed.
+	 * @param ungarbledCircuit The circuit that this {@code GarbledBooleanCircuit} is supposed to be a garbling of. 
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param threadUtils The utility object of each thread. All objects should be of the same type as this object.
+	 * @param threadGates The gates that were created by each of the utility objects.
+	 * @param executor Executes the garbling of the gates layer by layer.
+	 * @param prg Used to generate the garbled values.
+	 * @param seed Used to initialize the given prg.
+	 * @return CircuitCreationValues contains both generated values for each input and output wire and the translation table.
+	 * @throws InvalidKeyException in case the seed is an invalid key for the given PRG.
+	 */
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor, PseudorandomGenerator prg, 
+			byte[] seed) throws InvalidKeyException;
+	
 }
@@ -0,0 +1,96 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import javax.crypto.IllegalBlockSizeException;
+
+import edu.biu.scapi.primitives.prf.AES;
+
+/**
+ * A tweakable hash function built from AES with a fixed key, as used by the half gates technique. <p>
+ * The hash of a key K with tweak T is computed as H(K, T) = AES(2K xor T) xor 2K xor T, where 2K is K shifted one bit to the left and T 
+ * is the gate number followed by the index of the half gate. See <i>Two Halves Make a Whole</i> by Samee Zahur, Mike Rosulek 
+ * and David Evans, and <i>Efficient Garbling from a Fixed-Key Blockcipher</i> by Mihir Bellare, Viet Tung Hoang, Sriram Keelveedhi and Phillip Rogaway.<p>
+ * 
+ * The object keeps internal buffers and therefore should not be shared between threads.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class FixedKeyAESHash {
+	
+	private AES aes;			// An AES object that its fixed key was already set.
+	private byte[] aesInput;
+	
+	/**
+	 * Sets the given AES object.
+	 * @param aes An AES object that its fixed key was already set.
+	 */
+	FixedKeyAESHash(AES aes){
+		this.aes = aes;
+		aesInput = new byte[aes.getBlockSize()];
+	}
+	
+	/**
+	 * @return the size of the keys and the hash results.
+	 */
+	int getBlockSize(){
+		return aesInput.length;
+	}
+	
+	/**
+	 * Computes H(key, (gateNumber, index)) and puts the result in the given output array.
+	 * @param key the key to hash. Must be of the block size.
+	 * @param gateNumber The number of the gate that uses the hash.
+	 * @param index the index of the hash inside the gate.
+	 * @param out array of the block size that will hold the result.
+	 */
+	void hash(byte[] key, int gateNumber, int index, byte[] out){
+		int size = aesInput.length;
+		
+		//Shift the key one bit to the left.
+		for (int i = 0; i < size - 1; i++){
+			aesInput[i] = (byte) ((key[i] << 1) | ((key[i + 1] & 0xff) >>> 7));
+		}
+		aesInput[size - 1] = (byte) (key[size - 1] << 1);
+		
+		//Xor the tweak. The tweak is the gate number followed by the index.
+		aesInput[0] ^= (byte) (gateNumber >>> 24);
+		aesInput[1] ^= (byte) (gateNumber >>> 16);
+		aesInput[2] ^= (byte) (gateNumber >>> 8);
+		aesInput[3] ^= (byte) gateNumber;
+		aesInput[7] ^= (byte) index;
+		
+		try {
+			aes.computeBlock(aesInput, 0, out, 0);
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the input is of the block size.
+		}
+		
+		for (int i = 0; i < size; i++){
+			out[i] ^= aesInput[i];
+		}
+	}
+}
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
@@ -297,12 +298,23 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 			}
 			//Standard gate.
 			else {
-				byte[] zeroValueBytes = mes.generateKey().getEncoded();//Generate the first value.
+				//Generate the first value, unless the gate derives it from its input keys.
+				byte[] zeroValueBytes = isOutputKeyDerived(ungarbledGates[gate]) ? null : mes.generateKey().getEncoded();
 				generateStandardValues(ungarbledGates[gate], allWireValues, globalKeyOffset, zeroValueBytes);
 			}
 		}
 	}
 
+	/**
+	 * Returns true if the keys of the given standard gate's output wire are derived from its input keys, so there is no need to 
+	 * sample a first key for it. <p>
+	 * In this class every standard gate gets a random first key, so false is returned.
+	 * @param ungarbledGate The gate that should be garbled.
+	 */
+	protected boolean isOutputKeyDerived(Gate ungarbledGate) {
+		return false;
+	}
+
 	/**
 	 * Generates keys for standard gate.
 	 * @param ungarbledGate The gate that should be garbled.
@@ -443,6 +455,148 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		return values;
 	}
 	
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor) {
+		return garbleInLayers(ungarbledCircuit, garbledTablesHolder, threadUtils, threadGates, executor, null);
+	}
+	
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor, PseudorandomGenerator prg, 
+			byte[] seed) throws InvalidKeyException {
+		//Sets the given seed as the prg key.
+		prg.setKey(new SecretKeySpec(seed, ""));
+		
+		return garbleInLayers(ungarbledCircuit, garbledTablesHolder, threadUtils, threadGates, executor, prg);
+	}
+	
+	/**
+	 * Garbles the circuit layer by layer, using the given executor.<p>
+	 * All random values are sampled in advance by the calling thread, in the same order as the sequential functions. 
+	 * Then, each thread generates the output keys and creates the garbled table of its gates in each layer. 
+	 * This way, the created circuit is the same as the circuit created by the sequential functions using the same seed.
+	 * @param ungarbledCircuit The circuit that should be garbled.
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param threadUtils The utility object of each thread.
+	 * @param threadGates The gates that were created by each of the utility objects.
+	 * @param executor Executes the garbling of the gates layer by layer.
+	 * @param prg An initialized prg to sample the keys with. If null, the keys are sampled using the encryption scheme.
+	 * @return the created keys of each input and output wire and the translation table.
+	 */
+	private CircuitCreationValues garbleInLayers(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			final CircuitTypeUtil[] threadUtils, final GarbledGate[][] threadGates, LayeredGatesExecutor executor, PseudorandomGenerator prg) {
+		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
+		}
+		Map<Integer, SecretKey[]> allInputWireValues = new HashMap<Integer, SecretKey[]>();
+		Map<Integer, SecretKey[]> allOutputWireValues = new HashMap<Integer, SecretKey[]>();
+		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
+		final Gate[] ungarbledGates = ungarbledCircuit.getGates();
+		
+		//Sample the globalKeyOffset and set its last bit to 1 (see the sequential garble functions).
+		final byte[] globalKeyOffset = sampleKey(prg);
+		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		
+		//Sample input keys.
+		for (int i=1; i<=ungarbledCircuit.getNumberOfParties(); i++){
+			ArrayList<Integer> inputWireNumbers = null;
+			try {
+				inputWireNumbers = ungarbledCircuit.getInputWireIndices(i);
+			} catch (NoSuchPartyException e) {
+				// should not occur since the number is a valid party number
+			}
+			for (int w : inputWireNumbers) {
+				sampleInputKeys(allInputWireValues, globalKeyOffset, w, new SecretKeySpec(sampleKey(prg), ""));
+			}
+		}
+		
+		//Sample the first key of each standard gate. XOR and XORNOT gates and gates that derive their keys do not need random values.
+		BitSet XORTruthTable = getXORTruthTable();
+		BitSet XORNOTTruthTable = getXORNOTTruthTable();
+		final byte[][] zeroValues = new byte[ungarbledGates.length][];
+		for (int gate = 0; gate < ungarbledGates.length; gate++) {
+			BitSet truthTable = ungarbledGates[gate].getTruthTable();
+			if (!truthTable.equals(XORTruthTable) && !truthTable.equals(XORNOTTruthTable) && !isOutputKeyDerived(ungarbledGates[gate])) {
+				zeroValues[gate] = sampleKey(prg);
+			}
+		}
+		
+		//The threads put the keys of the gates' output wires concurrently.
+		final Map<Integer, SecretKey[]> allWireValues = new ConcurrentHashMap<Integer, SecretKey[]>(allInputWireValues);
+		executor.execute(new LayeredGatesExecutor.GateTask() {
+			
+			@Override
+			void execute(int thread, int gateIndex) {
+				((FreeXORGarbledBooleanCircuitUtil) threadUtils[thread]).garbleGate(ungarbledGates[gateIndex], threadGates[thread][gateIndex], 
+						allWireValues, globalKeyOffset, zeroValues[gateIndex]);
+			}
+		});
+		
+		//Fill the the output wire values to be used in the following sub circuit
+		for (int n : ungarbledCircuit.getOutputWireIndices()) {
+			allOutputWireValues.put(n, allWireValues.get(n));
+			
+			//Signal bit is the last bit of k0.
+			byte[] k0 = allWireValues.get(n)[0].getEncoded();
+			translationTable.put(n, (byte) (k0[k0.length-1] & 1));			
+		}
+		
+		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
+	}
+	
+	/**
+	 * Samples a random key using the given prg, or using the encryption scheme in case the prg is null.
+	 * @param prg An initialized prg or null.
+	 * @return the sampled key.
+	 */
+	private byte[] sampleKey(PseudorandomGenerator prg){
+		if (prg == null){
+			return mes.generateKey().getEncoded();
+		}
+		int keySize = mes.getCipherSize();
+		byte[] key = new byte[keySize];
+		prg.getPRGBytes(key, 0, keySize);
+		return key;
+	}
+	
+	/**
+	 * Generates the keys of the given gate's output wire and creates its garbled table.<p>
+	 * The keys of the gate's input wires should already be in the given map.
+	 * @param ungarbledGate The gate that should be garbled.
+	 * @param gate The garbled gate that matches the ungarbled gate.
+	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param zeroValueBytes The value of the first key, in case of a standard gate.
+	 */
+	void garbleGate(Gate ungarbledGate, GarbledGate gate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, byte[] zeroValueBytes) {
+		//XOR gate.
+		if (ungarbledGate.getTruthTable().equals(getXORTruthTable())) {
+			generateXORValues(ungarbledGate, allWireValues, globalKeyOffset);
+		} 
+		//XOR NOT gate.
+		else if (ungarbledGate.getTruthTable().equals(getXORNOTTruthTable())) {
+			generateXORNOTValues(ungarbledGate, allWireValues, globalKeyOffset);
+		}
+		//Standard gate.
+		else {
+			generateStandardValues(ungarbledGate, allWireValues, globalKeyOffset, zeroValueBytes);
+			
+			//Gates that create their garbled table while generating the keys are not standard garbled gates.
+			if (gate instanceof StandardGarbledGate){
+				try {
+					((StandardGarbledGate) gate).createGarbledTable(ungarbledGate, allWireValues);
+				} catch (InvalidKeyException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (PlaintextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Samples the keys for the garbled wires.
 	 * @param ungarbledCircuit The circuit that should be garbled.
@@ -534,8 +688,11 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 				generateXORNOTValues(ungarbledGates[gate], allWireValues, globalKeyOffset);
 			//Standard gate
 			}else {
-				byte[] zeroValueBytes = new byte[keySize];
-				prg.getPRGBytes(zeroValueBytes, 0, keySize);
+				byte[] zeroValueBytes = null;
+				if (!isOutputKeyDerived(ungarbledGates[gate])) {
+					zeroValueBytes = new byte[keySize];
+					prg.getPRGBytes(zeroValueBytes, 0, keySize);
+				}
 				generateStandardValues(ungarbledGates[gate], allWireValues, globalKeyOffset, zeroValueBytes);
 			}
 
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 
@@ -53,6 +54,11 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	private PseudorandomGenerator prg;  //used in case of generating the keys using a seed.
 	private GarbledGate[] gates; 		// The garbled gates of this garbled circuit.
 	
+	//Used in case the circuit is garbled and computed in parallel. Each thread has its own utility class and gates.
+	private CircuitTypeUtil[] threadUtils;
+	private GarbledGate[][] threadGates;
+	private LayeredGatesExecutor executor;
+	
   	/**
 	 * Default constructor. Sets the given boolean circuit and creates a Free XOR circuit using a AESFixedKeyMultiKeyEncryption.
 	 * 
@@ -96,6 +102,61 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 		doConstruct(input);
 	}
 	
+	/**
+	 * A constructor that creates a circuit that garbles and computes the gates of each layer in parallel, using a thread for 
+	 * each of the given input objects (see {@link BooleanCircuit#getLayers()}).<p>
+	 * The encryption schemes used by the gates are not thread safe. Thus, each input object should hold its own encryption 
+	 * scheme. All the input objects should define the same type of circuit and contain the same boolean circuit.<p>
+	 * This constructor should be used in case the garbling is done using the encryption scheme. 
+	 * In case the user want to garble using a seed, use the constructor that gets a prg.
+	 * @param threadInputs An input object for each thread.
+	 */
+	public GarbledBooleanCircuitImp(GarblingParameters[] threadInputs){
+		this(threadInputs[0]);
+		
+		//Call the function that creates the gates of the other threads.
+		doConstructThreads(threadInputs);
+	}
+	
+	/**
+	 * A constructor that creates a circuit that garbles and computes the gates of each layer in parallel, using a thread for 
+	 * each of the given input objects (see {@link BooleanCircuit#getLayers()}).<p>
+	 * The encryption schemes used by the gates are not thread safe. Thus, each input object should hold its own encryption 
+	 * scheme. All the input objects should define the same type of circuit and contain the same boolean circuit.<p>
+	 * This constructor should be used in case the garbling is done using a seed. The garbled circuit is the same as the one 
+	 * created by a sequential circuit using the same seed.
+	 * @param threadInputs An input object for each thread.
+	 * @param prg Used to generate the keys from the seed.
+	 */
+	public GarbledBooleanCircuitImp(GarblingParameters[] threadInputs, PseudorandomGenerator prg){
+		this(threadInputs[0], prg);
+		
+		//Call the function that creates the gates of the other threads.
+		doConstructThreads(threadInputs);
+	}
+	
+	/**
+	 * Creates the utility class and gates of each thread.
+	 * @param threadInputs An input object for each thread. The first one was already used to construct the circuit.
+	 */
+	private void doConstructThreads(GarblingParameters[] threadInputs) {
+		int numOfThreads = threadInputs.length;
+		threadUtils = new CircuitTypeUtil[numOfThreads];
+		threadGates = new GarbledGate[numOfThreads][];
+		threadUtils[0] = util;
+		threadGates[0] = gates;
+		
+		for (int i = 1; i < numOfThreads; i++){
+			threadUtils[i] = threadInputs[i].createCircuitUtil();
+			if (threadInputs[i].getUngarbledCircuit() != bc || threadUtils[i].getClass() != util.getClass()){
+				throw new IllegalArgumentException("all the input objects should define the same type of circuit and contain the same boolean circuit");
+			}
+			threadGates[i] = threadUtils[i].createGates(bc.getGates(), garbledTablesHolder);
+		}
+		
+		executor = new LayeredGatesExecutor(bc.getLayers(), numOfThreads);
+	}
+	
 	/**
 	 * Constructs a circuit from the given input.
 	 * @param input Specifies which concrete type of circuit to implement.
@@ -128,7 +189,12 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	@Override
   	public CircuitCreationValues garble() {
 		//Call the utility class to generate the keys and create the garbled tables.
-		CircuitCreationValues values = util.garble(bc, garbledTablesHolder, gates);
+		CircuitCreationValues values;
+		if (executor == null){
+			values = util.garble(bc, garbledTablesHolder, gates);
+		} else {
+			values = util.garble(bc, garbledTablesHolder, threadUtils, threadGates, executor);
+		}
 		translationTable = values.getTranslationTable();
 		return values;
 	}
@@ -139,7 +205,12 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 			throw new IllegalStateException("This circuit can not use seed to generate keys since it has no prg. Use the other garble() function");
 		}
 		//Call the utility class to generate the keys and create the garbled tables.
-		CircuitCreationValues values = util.garble(bc, garbledTablesHolder, gates, prg, seed);
+		CircuitCreationValues values;
+		if (executor == null){
+			values = util.garble(bc, garbledTablesHolder, gates, prg, seed);
+		} else {
+			values = util.garble(bc, garbledTablesHolder, threadUtils, threadGates, executor, prg, seed);
+		}
 		translationTable = values.getTranslationTable();
 		return values;
 	}
@@ -167,16 +238,21 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
   		 * specific garbled gate being used will be called. This allows us to have circuits with different types of gates 
   		 * {i.e a FreeXORGarbledBooleanCircuit contains both StandardGarbledGates and FreeXORGates) and this will work for all the gates.
   		 */
-  		for (GarbledGate g : gates) {
-  			try {
-				g.compute(computedWires);
-			} catch (InvalidKeyException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-			} catch (IllegalBlockSizeException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-			} catch (CiphertextTooLongException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-			}
+  		if (executor == null){
+	  		for (GarbledGate g : gates) {
+	  			computeGate(g, computedWires);
+	  		}
+  		} else {
+  			//The threads put the computed wires concurrently.
+  			final Map<Integer, GarbledWire> wires = new ConcurrentHashMap<Integer, GarbledWire>(computedWires);
+  			executor.execute(new LayeredGatesExecutor.GateTask() {
+				
+				@Override
+				void execute(int thread, int gateIndex) {
+					computeGate(threadGates[thread][gateIndex], wires);
+				}
+			});
+  			computedWires = wires;
   		}
   		
   		/*
@@ -192,6 +268,23 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
   		return garbledOutput;
   	}	
   	
+  	/**
+  	 * Computes the given gate.
+  	 * @param g The gate to compute.
+  	 * @param wires The computed wires.
+  	 */
+  	private void computeGate(GarbledGate g, Map<Integer, GarbledWire> wires){
+  		try {
+			g.compute(wires);
+		} catch (InvalidKeyException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (CiphertextTooLongException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		}
+  	}
+  	
   	byte getKeySignalBit(SecretKey key){
   		return (byte) ((key.getEncoded()[key.getEncoded().length - 1] & 1) == 0 ? 0 : 1);
   	}
@@ -0,0 +1,128 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.security.InvalidKeyException;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+import edu.biu.scapi.exceptions.PlaintextTooLongException;
+import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * The {@code HalfGatesGarbledBooleanCircuitUtil} uses the half gates technique that is explained in <i>Two Halves Make a Whole: 
+ * Reducing Data Transfer in Garbled Circuits using Half Gates</i> by Samee Zahur, Mike Rosulek and David Evans.<p>
+ * 
+ * XOR and XORNOT gates are free, as in the {@link FreeXORGarbledBooleanCircuitUtil}. Every gate that its truth table has exactly one
+ * or three set bits (AND, OR, NAND, NOR, etc) is garbled as a {@link HalfGatesGarbledGate}, whose garbled table contains two 
+ * ciphertexts instead of four. The hash function used by these gates is AES with a fixed key, so no key schedule is computed during 
+ * the garbling and computing. The remaining gates (if there are any) are garbled as standard gates.<p>
+ * 
+ * The garbled table of each half gate is placed in the gate's slot in the {@link BasicGarbledTablesHolder}, thus circuits garbled 
+ * by this utility can be sent and received the same way as any other circuit.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGarbledBooleanCircuitUtil extends FreeXORGarbledBooleanCircuitUtil {
+	
+	private FixedKeyAESHash hash;
+	private GarbledGate[] gates;	// The gates created by this util. Used to garble the half gates while creating the wires' keys.
+	
+	/**
+	 * Constructs the util using the given AES object. The fixed key is set to the given AES object.
+	 * @param aes The AES object to use in the hash function.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil(AES aes){
+		super(new AESFixedKeyMultiKeyEncryption(aes));
+		hash = new FixedKeyAESHash(aes);
+	}
+	
+	/**
+	 * Default constructor. Uses BcAES object.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil(){
+		this(new BcAES());
+	}
+	
+	@Override
+	public GarbledGate[] createGates(Gate[] ungarbledGates, GarbledTablesHolder garbledTablesHolder){
+		gates = super.createGates(ungarbledGates, garbledTablesHolder);
+		return gates;
+	}
+	
+	/**
+	 * Creates a {@link HalfGatesGarbledGate} in case the given gate is supported by the half gates technique.
+	 * Otherwise, creates a standard garbled gate.
+	 */
+	@Override
+	protected GarbledGate createStandardGate(Gate ungarbledGate, BasicGarbledTablesHolder garbledTablesHolder) {
+		if (HalfGatesGarbledGate.isSupported(ungarbledGate)){
+			return new HalfGatesGarbledGate(ungarbledGate, hash, garbledTablesHolder);
+		}
+		return super.createStandardGate(ungarbledGate, garbledTablesHolder);
+	}
+	
+	/**
+	 * The output keys of a half gate are derived from its input keys, so no key is sampled for them.
+	 */
+	@Override
+	protected boolean isOutputKeyDerived(Gate ungarbledGate) {
+		return HalfGatesGarbledGate.isSupported(ungarbledGate);
+	}
+	
+	/**
+	 * The output keys of a half gate are derived from its input keys. In this case, the given zero key is ignored and the gate creates 
+	 * both its garbled table and the output keys.
+	 */
+	@Override
+	protected void generateStandardValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, byte[] zeroValueBytes) {
+		GarbledGate gate = gates[ungarbledGate.getGateNumber()];
+		if (gate instanceof HalfGatesGarbledGate){
+			((HalfGatesGarbledGate) gate).garble(allWireValues, globalKeyOffset);
+		} else {
+			super.generateStandardValues(ungarbledGate, allWireValues, globalKeyOffset, zeroValueBytes);
+		}
+	}
+	
+	/**
+	 * The garbled tables of the half gates were already created with their output keys, so only the standard gates' tables are 
+	 * created here.
+	 */
+	@Override
+	protected void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+		
+		for (int gate = 0; gate < ungarbledGates.length; gate++) {
+			if (gates[gate] instanceof StandardGarbledGate) {
+				((StandardGarbledGate) gates[gate]).createGarbledTable(ungarbledGates[gate], allWireValues);
+			}
+		}
+	}
+}
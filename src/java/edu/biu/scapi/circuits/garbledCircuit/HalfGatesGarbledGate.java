@@ -0,0 +1,312 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+
+/**
+ * A garbled gate that uses the half gates technique. See <i>Two Halves Make a Whole: Reducing Data Transfer in Garbled Circuits 
+ * using Half Gates</i> by Samee Zahur, Mike Rosulek and David Evans.<p>
+ * 
+ * The gate computes any two input function of the form ((a xor alpha) and (b xor beta)) xor gamma, meaning any gate that its truth table 
+ * has exactly one or exactly three set bits (AND, OR, NAND, NOR, etc). The garbled table contains only two ciphertexts: 
+ * one for the generator half gate and one for the evaluator half gate. 
+ * The wire keys must be chosen in the Free XOR manner, since the technique uses the global delta.<p>
+ * 
+ * Unlike the other gates, the output keys of this gate are determined by the input keys. Thus, the garbled table and the 
+ * output keys are created together in the {@link #garble(Map, byte[])} function.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGarbledGate implements GarbledGate {
+
+	private FixedKeyAESHash hash;							// The hash function used to garble and compute the gate.
+	private BasicGarbledTablesHolder garbledTablesHolder; 	// Holds the garbled tables.
+	
+	private int[] inputWireIndices;
+	private int[] outputWireIndices;
+	private int gateNumber;
+	
+	//The gate computes ((a xor alpha) and (b xor beta)) xor gamma.
+	private int alpha;
+	private int beta;
+	private int gamma;
+	
+	/**
+	 * Constructs a half gates garbled gate from an ungarbled gate.
+	 * @param ungarbledGate The gate to garble. Its truth table must be supported by this gate (see {@link #isSupported(Gate)}).
+	 * @param hash The hash function to use.
+	 * @param garbledTablesHolder A reference to the garbled tables of the circuit.
+	 */
+	HalfGatesGarbledGate(Gate ungarbledGate, FixedKeyAESHash hash, BasicGarbledTablesHolder garbledTablesHolder){
+		int[] params = getParameters(ungarbledGate);
+		if (params == null){
+			throw new IllegalArgumentException("the given gate can not be garbled using the half gates technique");
+		}
+		alpha = params[0];
+		beta = params[1];
+		gamma = params[2];
+		
+		this.hash = hash;
+		this.garbledTablesHolder = garbledTablesHolder;
+		inputWireIndices = ungarbledGate.getInputWireIndices();
+		outputWireIndices = ungarbledGate.getOutputWireIndices();
+		gateNumber = ungarbledGate.getGateNumber();
+	}
+	
+	/**
+	 * Checks if the given gate can be garbled using the half gates technique.
+	 * @param ungarbledGate The gate to check.
+	 * @return true if the gate has two inputs and its truth table has exactly one or three set bits; false, otherwise.
+	 */
+	static boolean isSupported(Gate ungarbledGate){
+		return getParameters(ungarbledGate) != null;
+	}
+	
+	/**
+	 * Finds alpha, beta and gamma such that the given gate computes ((a xor alpha) and (b xor beta)) xor gamma.
+	 * @param ungarbledGate The gate to check.
+	 * @return an array containing alpha, beta and gamma, or null if the gate can not be written in this form.
+	 */
+	private static int[] getParameters(Gate ungarbledGate){
+		if (ungarbledGate.getInputWireIndices().length != 2){
+			return null;
+		}
+		
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		int numOfSetBits = 0;
+		for (int row = 0; row < 4; row++){
+			if (truthTable.get(row)){
+				numOfSetBits++;
+			}
+		}
+		
+		int gamma;
+		if (numOfSetBits == 1){
+			gamma = 0;
+		} else if (numOfSetBits == 3){
+			gamma = 1;
+		} else{
+			return null;
+		}
+		
+		//Find the row that differs from all the other rows. The first input is the most significant bit of the row number.
+		int specialRow = 0;
+		while (truthTable.get(specialRow) == (gamma == 1)){
+			specialRow++;
+		}
+		
+		//The and of (a xor alpha) and (b xor beta) should be 1 only in the special row.
+		int alpha = 1 - ((specialRow >> 1) & 1);
+		int beta = 1 - (specialRow & 1);
+		
+		return new int[]{alpha, beta, gamma};
+	}
+	
+	/**
+	 * Creates the garbled table of this gate and the keys of its output wires.<p>
+	 * The keys of the input wires should already be in the given map. The output keys are put in the map by this function.
+	 * @param allWireValues Both keys of all the circuit's wires.
+	 * @param globalKeyOffset The Free XOR delta.
+	 */
+	void garble(Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset){
+		int size = hash.getBlockSize();
+		
+		//The keys that represent zero in the inner and gate.
+		SecretKey[] aKeys = allWireValues.get(inputWireIndices[0]);
+		SecretKey[] bKeys = allWireValues.get(inputWireIndices[1]);
+		byte[] a0 = aKeys[alpha].getEncoded();
+		byte[] a1 = aKeys[1 - alpha].getEncoded();
+		byte[] b0 = bKeys[beta].getEncoded();
+		byte[] b1 = bKeys[1 - beta].getEncoded();
+		
+		//The signal bits are the last bits of the zero keys.
+		boolean pa = (a0[size - 1] & 1) == 1;
+		boolean pb = (b0[size - 1] & 1) == 1;
+		
+		//The garbled table is the generator half gate's ciphertext followed by the evaluator half gate's ciphertext.
+		byte[] garbledTable = new byte[2 * size];
+		garbledTablesHolder.toDoubleByteArray()[gateNumber] = garbledTable;
+		
+		byte[] ha0 = new byte[size];
+		byte[] ha1 = new byte[size];
+		byte[] hb0 = new byte[size];
+		byte[] hb1 = new byte[size];
+		hash.hash(a0, gateNumber, 0, ha0);
+		hash.hash(a1, gateNumber, 0, ha1);
+		hash.hash(b0, gateNumber, 1, hb0);
+		hash.hash(b1, gateNumber, 1, hb1);
+		
+		byte[] zeroValueBytes = new byte[size];
+		for (int i = 0; i < size; i++){
+			//Generator half gate: TG = H(a0) xor H(a1) xor pb*delta, WG = H(a0) xor pa*TG.
+			byte tg = (byte) (ha0[i] ^ ha1[i]);
+			if (pb){
+				tg ^= globalKeyOffset[i];
+			}
+			byte wg = ha0[i];
+			if (pa){
+				wg ^= tg;
+			}
+			
+			//Evaluator half gate: TE = H(b0) xor H(b1) xor a0, WE = H(b0) xor pb*(TE xor a0).
+			byte te = (byte) (hb0[i] ^ hb1[i] ^ a0[i]);
+			byte we = hb0[i];
+			if (pb){
+				we ^= te ^ a0[i];
+			}
+			
+			garbledTable[i] = tg;
+			garbledTable[size + i] = te;
+			zeroValueBytes[i] = (byte) (wg ^ we);
+		}
+		
+		//zeroValueBytes encodes zero in the inner and gate. In case gamma is 1 it is the one key of the gate's output.
+		byte[] otherValueBytes = new byte[size];
+		for (int i = 0; i < size; i++){
+			otherValueBytes[i] = (byte) (zeroValueBytes[i] ^ globalKeyOffset[i]);
+		}
+		SecretKey[] outputKeys;
+		if (gamma == 0){
+			outputKeys = new SecretKey[]{new SecretKeySpec(zeroValueBytes, ""), new SecretKeySpec(otherValueBytes, "")};
+		} else {
+			outputKeys = new SecretKey[]{new SecretKeySpec(otherValueBytes, ""), new SecretKeySpec(zeroValueBytes, "")};
+		}
+		for (int w : outputWireIndices){
+			allWireValues.put(w, outputKeys);
+		}
+	}
+	
+	/**
+	 * Computes the output key of the gate from the given input keys, using the garbled table.
+	 * @param a The key of the first input wire.
+	 * @param b The key of the second input wire.
+	 * @return the output key.
+	 */
+	private byte[] evaluate(byte[] a, byte[] b){
+		int size = hash.getBlockSize();
+		byte[] garbledTable = garbledTablesHolder.toDoubleByteArray()[gateNumber];
+		boolean sa = (a[size - 1] & 1) == 1;
+		boolean sb = (b[size - 1] & 1) == 1;
+		
+		byte[] output = new byte[size];
+		byte[] hb = new byte[size];
+		hash.hash(a, gateNumber, 0, output);
+		hash.hash(b, gateNumber, 1, hb);
+		
+		//Output = H(a) xor sa*TG xor H(b) xor sb*(TE xor a).
+		for (int i = 0; i < size; i++){
+			output[i] ^= hb[i];
+			if (sa){
+				output[i] ^= garbledTable[i];
+			}
+			if (sb){
+				output[i] ^= garbledTable[size + i] ^ a[i];
+			}
+		}
+		return output;
+	}
+	
+	@Override
+	public void compute(Map<Integer, GarbledWire> computedWires) {
+		byte[] a = computedWires.get(inputWireIndices[0]).getValueAndSignalBit().getEncoded();
+		byte[] b = computedWires.get(inputWireIndices[1]).getValueAndSignalBit().getEncoded();
+		
+		SecretKey outputWireValue = new SecretKeySpec(evaluate(a, b), "");
+		
+		// Create the output GarbledWire(s) and set them with the value we just computed.
+		for (int w : outputWireIndices) {
+			computedWires.put(w, new GarbledWire(outputWireValue));
+		}
+	}
+
+	@Override
+	public boolean verify(Gate g, Map<Integer, SecretKey[]> allWireValues) {
+		//Verify that the gate number, input/output indices and the gate function are the same as the given ungarbled gate.
+		if (gateNumber != g.getGateNumber() || !Arrays.equals(inputWireIndices, g.getInputWireIndices()) 
+				|| !Arrays.equals(outputWireIndices, g.getOutputWireIndices())) {
+			return false;
+		}
+		
+		int[] params = getParameters(g);
+		if (params == null || params[0] != alpha || params[1] != beta || params[2] != gamma){
+			return false;
+		}
+		
+		/*
+		 * Compute the output key of each row of the truth table and check that rows with the same ungarbled value 
+		 * have the same garbled value as well.
+		 * An input wire that always gets the same key (for example, the output of a constant gate) has a null key. 
+		 * As in the standard gates, the rows that use this key are skipped.
+		 */
+		BitSet truthTable = g.getTruthTable();
+		byte[][] outputValues = new byte[2][];
+		for (int row = 0; row < 4; row++){
+			SecretKey aKey = allWireValues.get(inputWireIndices[0])[row >> 1];
+			SecretKey bKey = allWireValues.get(inputWireIndices[1])[row & 1];
+			if (aKey == null || bKey == null){
+				continue;
+			}
+			byte[] output = evaluate(aKey.getEncoded(), bKey.getEncoded());
+			
+			int value = truthTable.get(row) ? 1 : 0;
+			if (outputValues[value] == null){
+				outputValues[value] = output;
+			} else if (!Arrays.equals(outputValues[value], output)){
+				return false;
+			}
+		}
+		
+		//Add the output keys to the allWireValues map, so that following gates can be verified. A key that no row reached stays null.
+		SecretKey[] outputKeys = new SecretKey[2];
+		for (int value = 0; value < 2; value++){
+			if (outputValues[value] != null){
+				outputKeys[value] = new SecretKeySpec(outputValues[value], "");
+			}
+		}
+		for (int w : outputWireIndices) {
+			allWireValues.put(w, outputKeys);
+		}
+		return true;
+	}
+
+	@Override
+	public int[] getInputWireIndices() {
+		return inputWireIndices;
+	}
+
+	@Override
+	public int[] getOutputWireIndices() {
+		return outputWireIndices;
+	}
+}
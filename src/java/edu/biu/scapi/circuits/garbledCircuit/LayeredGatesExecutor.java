@@ -0,0 +1,100 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import edu.biu.scapi.tools.ParallelBatch;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * Executes a task on all the gates of a circuit, layer by layer, using a fixed number of threads.<p>
+ * The gates of each layer are split to one part per thread. The next layer starts only after all parts of the current one are done, 
+ * so a task may use the results of gates from previous layers (see {@link edu.biu.scapi.circuits.circuit.BooleanCircuit#getLayers()}).<p>
+ * 
+ * The parts are computed by the shared threads of {@link ParallelBatch}, so no threads are created for each execution. 
+ * Each part gets its index, and a part is computed by one thread at a time, so the task can use objects that are not thread safe 
+ * (such as AES objects) by holding a different instance for each index.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class LayeredGatesExecutor {
+	
+	/**
+	 * A task that should be executed on every gate of the circuit.
+	 */
+	static abstract class GateTask {
+		
+		/**
+		 * Executes the task on the given gate.
+		 * @param thread The index of the part of the layer, between 0 and the number of threads - 1.
+		 * @param gateIndex The index of the gate in the circuit.
+		 */
+		abstract void execute(int thread, int gateIndex);
+	}
+	
+	private int[][] layers;
+	private int numOfThreads;
+	
+	/**
+	 * @param layers The indices of the circuit's gates, grouped to layers.
+	 * @param numOfThreads The number of threads to use.
+	 */
+	LayeredGatesExecutor(int[][] layers, int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.layers = layers;
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * @return the number of threads used by this executor.
+	 */
+	int getNumOfThreads(){
+		return numOfThreads;
+	}
+	
+	/**
+	 * Executes the given task on all gates, layer after layer. <p>
+	 * If the task throws an exception, the next layers are not processed and the exception is thrown by this function.
+	 * @param task The task to execute.
+	 */
+	void execute(final GateTask task){
+		for (int l = 0; l < layers.length; l++){
+			final int[] layer = layers[l];
+			new ParallelIndexBatch() {
+				@Override
+				protected void compute(int part) {
+					//Each part is a contiguous part of the layer.
+					int start = (int) ((long) layer.length * part / numOfThreads);
+					int end = (int) ((long) layer.length * (part + 1) / numOfThreads);
+					for (int i = start; i < end; i++){
+						task.execute(part, layer[i]);
+					}
+				}
+			}.run(numOfThreads, numOfThreads);
+		}
+	}
+}
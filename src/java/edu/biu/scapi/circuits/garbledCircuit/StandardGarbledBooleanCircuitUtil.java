@@ -103,8 +103,75 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
 			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
 		}
-		//Prepare the maps that will be used during keys generation.
 		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		Gate[] ungarbledGates = ungarbledCircuit.getGates();
+		
+		//Call the function that sample the keys.
+		CircuitCreationValues values = sampleKeys(ungarbledCircuit, allWireValues);
+		
+		//After we have all keys, create the garbledTables according to them.
+		try {
+			createGarbledTables(gates, (BasicGarbledTablesHolder) garbledTablesHolder, ungarbledGates, allWireValues);
+		} catch (InvalidKeyException e) {
+			//  Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (PlaintextTooLongException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * Creates the garbled tables in parallel. The keys are sampled in the same way as the sequential function. 
+	 * Since all keys are known before the garbled tables are created, the tables of all gates are created independently.
+	 */
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor) {
+		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
+		}
+		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		
+		//Call the function that sample the keys.
+		CircuitCreationValues values = sampleKeys(ungarbledCircuit, allWireValues);
+		
+		createGarbledTables(threadGates, ungarbledCircuit.getGates(), allWireValues, executor);
+		
+		return values;
+	}
+	
+	/**
+	 * Creates the garbled tables in parallel. The keys are sampled in the same way as the sequential function. 
+	 * Since all keys are known before the garbled tables are created, the tables of all gates are created independently.
+	 */
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			CircuitTypeUtil[] threadUtils, GarbledGate[][] threadGates, LayeredGatesExecutor executor, PseudorandomGenerator prg, 
+			byte[] seed) throws InvalidKeyException {
+		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
+		}
+		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		
+		//Call the function that sample the keys.
+		CircuitCreationValues values = sampleSeedKeys(prg, seed, ungarbledCircuit, allWireValues);
+		
+		createGarbledTables(threadGates, ungarbledCircuit.getGates(), allWireValues, executor);
+		
+		return values;
+	}
+	
+	/**
+	 * Samples all the keys of the circuit using the encryption scheme.
+	 * @param ungarbledCircuit The circuit that this garbled circuit should be the garbling of.
+	 * @param allWireValues a map that contains both keys for each wire.
+	 * @return the values sampled by the function
+	 */
+	private CircuitCreationValues sampleKeys(BooleanCircuit ungarbledCircuit, Map<Integer, SecretKey[]> allWireValues){
+		//Prepare the maps that will be used during keys generation.
 		Map<Integer, SecretKey[]> allInputWireValues = null;
 		Map<Integer, SecretKey[]> allOutputWireValues = null;
 		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
@@ -135,17 +202,6 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		allOutputWireValues = new HashMap<Integer, SecretKey[]>();
 		fillOutputWiresValues(ungarbledCircuit.getOutputWireIndices(), allOutputWireValues, allWireValues, translationTable);
 		
-		//After we have all keys, create the garbledTables according to them.
-		try {
-			createGarbledTables(gates, (BasicGarbledTablesHolder) garbledTablesHolder, ungarbledGates, allWireValues);
-		} catch (InvalidKeyException e) {
-			//  Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-		} catch (IllegalBlockSizeException e) {
-			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-		} catch (PlaintextTooLongException e) {
-			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-		}
-		
 		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
 	}
 	
@@ -184,6 +240,32 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		}
 	}
 
+	/**
+	 * Creates the garbled tables using the given executor. Each thread creates the tables using its own gates.
+	 * @param threadGates The gates of each thread.
+	 * @param ungarbledGates The gates that need to be garbled.
+	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param executor Used to execute the creation of the tables.
+	 */
+	private void createGarbledTables(final GarbledGate[][] threadGates, final Gate[] ungarbledGates, final Map<Integer, SecretKey[]> allWireValues, 
+			LayeredGatesExecutor executor) {
+		executor.execute(new LayeredGatesExecutor.GateTask() {
+			
+			@Override
+			void execute(int thread, int gateIndex) {
+				try {
+					((StandardGarbledGate) threadGates[thread][gateIndex]).createGarbledTable(ungarbledGates[gateIndex], allWireValues);
+				} catch (InvalidKeyException e) {
+					//  Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (PlaintextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
+			}
+		});
+	}
+
 	/**
 	 * Fills the maps containing the keys for the output wires and the translation table.
 	 * @param outputWireIndices Indices of the output wires.
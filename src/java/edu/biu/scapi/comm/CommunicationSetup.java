@@ -29,6 +29,7 @@ package edu.biu.scapi.comm;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.security.Key;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -86,6 +87,7 @@ public class CommunicationSetup implements TimeoutObserver{
 	private ListeningThread listeningThread;
 	private Vector<SecuringConnectionThread> threadsVector;
 	private Map<InetSocketAddress,KeyExchangeOutput> keyExchangeMap;
+	private SessionKeyCache sessionKeyCache;
 	private Watchdog watchdog;
 	
 	
@@ -217,6 +219,38 @@ public class CommunicationSetup implements TimeoutObserver{
 		return prepareForCommunication(listOfParties, keyExchange, successLevel, timeOut);
 	}
 
+	/**
+	 * Sets the cache of sessions to use in the securing stage of the following calls to prepareForCommunication.<p>
+	 * When a connection is secured with a party that has a cached session, the channel keys are derived from the cached session 
+	 * using two round trips (the second one confirms that both parties derived the same keys) instead of running the key exchange protocol. Sessions that are established with the key exchange 
+	 * protocol are added to the cache. <p>
+	 * The other parties must set a cache as well, since each party sends its cached ticket at the beginning of the securing stage. 
+	 * @param sessionKeyCache the cache to use, or null in order to always run the key exchange protocol.
+	 */
+	public void setSessionKeyCache(SessionKeyCache sessionKeyCache) {
+		this.sessionKeyCache = sessionKeyCache;
+	}
+	
+	/**
+	 * Returns the encryption key that was agreed with the given party in the last call to prepareForCommunication.
+	 * @param party the address of the other party.
+	 * @return the encryption key, or null if no key was agreed with this party.
+	 */
+	public Key getEncKey(InetSocketAddress party) {
+		KeyExchangeOutput output = (keyExchangeMap == null) ? null : keyExchangeMap.get(party);
+		return (output == null) ? null : output.getEncKey();
+	}
+	
+	/**
+	 * Returns the MAC key that was agreed with the given party in the last call to prepareForCommunication.
+	 * @param party the address of the other party.
+	 * @return the MAC key, or null if no key was agreed with this party.
+	 */
+	public Key getMacKey(InetSocketAddress party) {
+		KeyExchangeOutput output = (keyExchangeMap == null) ? null : keyExchangeMap.get(party);
+		return (output == null) ? null : output.getMacKey();
+	}
+
 	/**
 	 * 
 	 * Using the SecuringConnectionThread and the ListeningThread we connect the parties via sockets.
@@ -311,7 +345,7 @@ public class CommunicationSetup implements TimeoutObserver{
 		doConnect = false;
 		
 		//create a new SecuringConnectionThread 
-		SecuringConnectionThread scThread = new SecuringConnectionThread(channel, party.getIpAddress(), party.getPort(), doConnect , keyExchangeProtocol, keyExchangeOutput);
+		SecuringConnectionThread scThread = new SecuringConnectionThread(channel, party.getIpAddress(), party.getPort(), doConnect , keyExchangeProtocol, keyExchangeOutput, sessionKeyCache);
 		
 		//add to the thread vector
 		threadsVector.add(scThread);
@@ -350,7 +384,7 @@ public class CommunicationSetup implements TimeoutObserver{
 		doConnect = true;
 		
 		//create a new SecuringConnectionThread 
-		SecuringConnectionThread scThread = new SecuringConnectionThread(channel, party.getIpAddress(), party.getPort(), doConnect , keyExchangeProtocol, keyExchangeOutput);
+		SecuringConnectionThread scThread = new SecuringConnectionThread(channel, party.getIpAddress(), party.getPort(), doConnect , keyExchangeProtocol, keyExchangeOutput, sessionKeyCache);
 		
 		//add to the thread vector
 		threadsVector.add(scThread);
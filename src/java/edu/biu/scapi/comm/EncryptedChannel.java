@@ -35,7 +35,9 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
+import java.util.Arrays;
 
 import javax.crypto.SecretKey;
 
@@ -50,12 +52,17 @@ import edu.biu.scapi.securityLevel.Cpa;
  * the encryption scheme is initialized with a suitable key. Then, every message sent via this channel is encrypted and decrypted using the underlying encryption scheme.<p>
  * The user needs not to worry about any of the encryption or decryption tasks. The owner of this channel can rest assure that when an object gets sent over this channel 
  * it gets encrypted with the defined encryption scheme. In the same way, when receiving a message sent over this channel (which was encrypted by the other party) 
- * the owner of the channel receives an already decrypted object. 
+ * the owner of the channel receives an already decrypted object.<p>
+ * 
+ * Wire format: by default, each message is sent as a byte array that holds the output of {@link SymmetricEnc#encrypt(ByteBuffer, ByteBuffer)} 
+ * on the serialized object. Older versions of this channel sent a serialized {@link SymmetricCiphertext} object instead, and can not read 
+ * byte arrays. This channel receives both formats. To send to an older receiver, call {@link #setSendCiphertextObjects(boolean)}.
  *    
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  */
 public class EncryptedChannel extends ChannelDecorator {
 	private SymmetricEnc encScheme; 
+	private boolean sendCiphertextObjects;	//If true, messages are sent as SymmetricCiphertext objects, as older versions of this channel do.
 
 	/**
 	 * This constructor can only be used by SCAPI's CommunicationSetup class.
@@ -122,6 +129,16 @@ public class EncryptedChannel extends ChannelDecorator {
 		this.encScheme.setKey(key);
 	}
 	
+	/**
+	 * Sets the format of the sent messages. By default, the encrypted messages are sent as byte arrays, which older versions of this channel 
+	 * can not receive. Set to true if the other party uses such a version. The received messages are accepted in both formats regardless 
+	 * of this setting.
+	 * @param sendCiphertextObjects true to send the messages as serialized SymmetricCiphertext objects; false to send them as byte arrays.
+	 */
+	public void setSendCiphertextObjects(boolean sendCiphertextObjects){
+		this.sendCiphertextObjects = sendCiphertextObjects;
+	}
+	
 	
 	/**
 	 * Receives an encrypted message sent by the other party. It then decrypts the message and returns the actual message object sent by the other party.
@@ -133,13 +150,27 @@ public class EncryptedChannel extends ChannelDecorator {
 		
 		//Get the message from the channel
 		Serializable rcvMsg = (Serializable)  channel.receive(); 
-		SymmetricCiphertext cipher = (SymmetricCiphertext)rcvMsg;
-		//Decrypt the encrypted message
-		ByteArrayPlaintext msg = (ByteArrayPlaintext) encScheme.decrypt(cipher);
+		byte[] msg;
+		int msgLength;
+		if (rcvMsg instanceof byte[]){
+			//The message was encrypted directly into a byte array. Decrypt it the same way.
+			byte[] cipher = (byte[]) rcvMsg;
+			ByteBuffer plaintext = ByteBuffer.allocate(cipher.length);
+			msgLength = encScheme.decrypt(ByteBuffer.wrap(cipher), plaintext);
+			if (msgLength < 0){
+				throw new IOException("The received message could not be verified");
+			}
+			msg = plaintext.array();
+		} else {
+			SymmetricCiphertext cipher = (SymmetricCiphertext)rcvMsg;
+			//Decrypt the encrypted message
+			msg = ((ByteArrayPlaintext) encScheme.decrypt(cipher)).getText();
+			msgLength = msg.length;
+		}
 		
 		//Deserialize the object. The caller of this function doesn't need to know anything about encryption, therefore he should get
 		//the plain object that was sent by the sender.
-		ByteArrayInputStream bStream = new ByteArrayInputStream(msg.getText());
+		ByteArrayInputStream bStream = new ByteArrayInputStream(msg, 0, msgLength);
 		ObjectInputStream ois = new ObjectInputStream(bStream);
 				
 		return  (Serializable) ois.readObject();
@@ -163,12 +194,23 @@ public class EncryptedChannel extends ChannelDecorator {
 		//Now retrieve "serialized" msg from bos:
 		byte[] serializedMsg = bos.toByteArray();
 		
-		//Generate a suitable Plaintext object from the "serialized" message to be sent.
-		ByteArrayPlaintext plainText = new ByteArrayPlaintext(serializedMsg);
-		//Encrypt the plaintext and send ciphertext obtained. (On the other side of the channel, an encrypted message or ciphertext will be received by the channel, 
+		if (sendCiphertextObjects){
+			//Encrypt the plaintext and send the ciphertext object, in the format of the older versions of this channel.
+			SymmetricCiphertext cipher = encScheme.encrypt(new ByteArrayPlaintext(serializedMsg));
+			channel.send((Serializable)cipher);
+			return;
+		}
+		
+		//Encrypt the "serialized" message directly into a byte array and send it. This avoids creating and serializing ciphertext objects, which is 
+		//significant for large messages. (On the other side of the channel, an encrypted message will be received by the channel, 
 		//but what the caller of the function channel::receive will get is the correct decrypted and deserialized object).
-		SymmetricCiphertext cipher = encScheme.encrypt(plainText);
-		channel.send((Serializable)cipher);
+		ByteBuffer cipherBuffer = ByteBuffer.allocate(encScheme.getCiphertextLength(serializedMsg.length));
+		int cipherLength = encScheme.encrypt(ByteBuffer.wrap(serializedMsg), cipherBuffer);
+		byte[] cipher = cipherBuffer.array();
+		if (cipherLength < cipher.length){
+			cipher = Arrays.copyOf(cipher, cipherLength);
+		}
+		channel.send(cipher);
 	}
 
 	/**
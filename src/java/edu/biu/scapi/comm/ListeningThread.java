@@ -213,6 +213,13 @@ class ListeningThread extends Thread{
 			}
         		
         }	
+        
+        //release the port, so that the party can listen on it again in the next call to prepareForCommunication.
+        try {
+        	listener.close();
+        } catch (IOException e) {
+        	Logging.getLogger().log(Level.WARNING, e.toString());
+        }
         Logging.getLogger().log(Level.INFO, "End of listening thread run");
         
 	}
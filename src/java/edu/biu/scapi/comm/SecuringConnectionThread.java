@@ -45,10 +45,20 @@
 package edu.biu.scapi.comm;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.InetAddress;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.logging.Level;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 import edu.biu.scapi.generals.Logging;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
 
 /** 
  * @author LabTest
@@ -61,6 +71,17 @@ class SecuringConnectionThread extends Thread{
 	private int port;
 	KeyExchangeProtocol keyExchangeProtocol;
 	KeyExchangeOutput keyExchangeOutput;
+	private SessionKeyCache sessionKeyCache;	//May be null. In this case the key exchange protocol is always executed.
+	
+	private static final int NONCE_SIZE = 16;			//Sizes in bytes.
+	private static final int TICKET_SIZE = 16;
+	private static final int RESUMPTION_SECRET_SIZE = 32;
+	private static final int ENC_KEY_SIZE = 16;
+	private static final int MAC_KEY_SIZE = 32;
+	private static final int CONFIRMATION_KEY_SIZE = 32;
+	private static final byte FROM_CONNECTOR = 1;		//The labels of the key confirmation of each party.
+	private static final byte FROM_LISTENER = 2;
+	private static final byte[] RESUMPTION_INFO = "SCAPI session resumption".getBytes();
 	
 	/** 
 	 * @param channel
@@ -70,6 +91,19 @@ class SecuringConnectionThread extends Thread{
 	 */
 	SecuringConnectionThread(PlainChannel channel, InetAddress IP, int port,
 			boolean doConnect, KeyExchangeProtocol keyExchangeProtocol, KeyExchangeOutput keyExchangeOutput) {
+		this(channel, IP, port, doConnect, keyExchangeProtocol, keyExchangeOutput, null);
+	}
+	
+	/** 
+	 * @param channel
+	 * @param IP
+	 * @param port
+	 * @param doConnect
+	 * @param sessionKeyCache the cached sessions to try to resume before running the key exchange protocol. 
+	 * 		  If set, the other party must use a cache as well.
+	 */
+	SecuringConnectionThread(PlainChannel channel, InetAddress IP, int port,
+			boolean doConnect, KeyExchangeProtocol keyExchangeProtocol, KeyExchangeOutput keyExchangeOutput, SessionKeyCache sessionKeyCache) {
 
 		setName("SecuringConnection-" + getName());
 		this.doConnect = doConnect;
@@ -78,6 +112,7 @@ class SecuringConnectionThread extends Thread{
 		this.port = port;
 		this.keyExchangeProtocol = keyExchangeProtocol;
 		this.keyExchangeOutput = keyExchangeOutput;
+		this.sessionKeyCache = sessionKeyCache;
 		
 	}
 	
@@ -128,15 +163,37 @@ class SecuringConnectionThread extends Thread{
 			
 			Logging.getLogger().log(Level.INFO, "state: securing " + channel.toString());
 			
-			//start key exchange protocol
-			keyExchangeProtocol.start(null);
-			
-			//set the output of the protocol with the keys
-			KeyExchangeOutput localKeyExchangeOutput = (KeyExchangeOutput) keyExchangeProtocol.getOutput();
+			boolean resumed = false;
+			if(sessionKeyCache!=null){
+				try {
+					//try to derive the keys from a cached session instead of running the key exchange.
+					resumed = resumeSession();
+				} catch (IOException e) {
+					//the channel state stays SECURING and the connection is not returned to the application.
+					Logging.getLogger().log(Level.SEVERE, "session resumption failed " + e.toString());
+					return;
+				} catch (ClassNotFoundException e) {
+					Logging.getLogger().log(Level.SEVERE, "session resumption failed " + e.toString());
+					return;
+				}
+			}
 			
-			//copy the key exchange output to the output that was passed to the object in the constructor
-			keyExchangeOutput.setEncKey(localKeyExchangeOutput.getEncKey());
-			keyExchangeOutput.setMacKey(localKeyExchangeOutput.getMacKey());
+			if(!resumed){
+				//start key exchange protocol
+				keyExchangeProtocol.start(null);
+				
+				//set the output of the protocol with the keys
+				KeyExchangeOutput localKeyExchangeOutput = (KeyExchangeOutput) keyExchangeProtocol.getOutput();
+				
+				//copy the key exchange output to the output that was passed to the object in the constructor
+				keyExchangeOutput.setEncKey(localKeyExchangeOutput.getEncKey());
+				keyExchangeOutput.setMacKey(localKeyExchangeOutput.getMacKey());
+				
+				if(sessionKeyCache!=null){
+					//cache the new session so that the next connection to this party can be resumed.
+					cacheSession();
+				}
+			}
 			
 			//set the channel state to READY
 			channel.setState(PlainChannel.State.READY);
@@ -148,6 +205,128 @@ class SecuringConnectionThread extends Thread{
 	}
 
 
+	/**
+	 * Both parties send the ticket they cached for each other together with a fresh nonce. If the tickets are equal, 
+	 * the channel keys, a key confirmation key and the next session are derived from the cached resumption secret and both nonces. 
+	 * Then each party sends a MAC over the nonces and the tickets, and the session is resumed only if the MAC of the other party 
+	 * is verified; in this case the cached session is replaced by the next one, so that each ticket is used once.<p>
+	 * A received message that is not a valid resumption message is treated as if the other party has no common session. 
+	 * Both parties send the key confirmation message in any case (an empty one if they do not resume), so that they stay in step.
+	 * @return true if the keys were derived from the cached session; false if the key exchange should run.
+	 */
+	private boolean resumeSession() throws IOException, ClassNotFoundException {
+		//Read the ticket and the secret together, so that they belong to the same session.
+		SessionKeyCache.Session cached = sessionKeyCache.getSession(ipAddres, port);
+		byte[] ticket = (cached == null) ? new byte[0] : cached.getTicket();
+		SecretKey secret = (cached == null) ? null : cached.getResumptionSecret();
+		byte[] nonce = new byte[NONCE_SIZE];
+		new SecureRandom().nextBytes(nonce);
+		
+		//send the message before receiving, so that both parties need a single round trip.
+		channel.send(new SessionResumptionMessage(ticket, nonce));
+		Serializable otherMessage = channel.receive();
+		
+		boolean resume = false;
+		byte[] otherTicket = null;
+		byte[] otherNonce = null;
+		if(otherMessage instanceof SessionResumptionMessage){
+			otherTicket = ((SessionResumptionMessage) otherMessage).getTicket();
+			otherNonce = ((SessionResumptionMessage) otherMessage).getNonce();
+			resume = ticket.length > 0 && Arrays.equals(ticket, otherTicket) && otherNonce != null && otherNonce.length == NONCE_SIZE;
+		}
+		
+		byte[] session = null;
+		byte[] confirmation = new byte[0];
+		byte[] info = null;
+		if(resume){
+			//the nonce of the connecting party comes first, so that both parties use the same info.
+			info = new byte[2 * NONCE_SIZE];
+			System.arraycopy(doConnect ? nonce : otherNonce, 0, info, 0, NONCE_SIZE);
+			System.arraycopy(doConnect ? otherNonce : nonce, 0, info, NONCE_SIZE, NONCE_SIZE);
+			
+			byte[] secretBytes = secret.getEncoded();
+			int sessionSize = ENC_KEY_SIZE + MAC_KEY_SIZE + CONFIRMATION_KEY_SIZE + TICKET_SIZE + RESUMPTION_SECRET_SIZE;
+			session = new HKDF(new BcHMAC()).deriveKey(secretBytes, 0, secretBytes.length, sessionSize, info).getEncoded();
+			confirmation = computeConfirmation(session, doConnect ? FROM_CONNECTOR : FROM_LISTENER, info, ticket, otherTicket);
+		}
+		channel.send(confirmation);
+		Serializable otherConfirmation = channel.receive();
+		if(!resume){
+			return false;
+		}
+		
+		byte[] expected = computeConfirmation(session, doConnect ? FROM_LISTENER : FROM_CONNECTOR, info, ticket, otherTicket);
+		if(!(otherConfirmation instanceof byte[]) || !MessageDigest.isEqual(expected, (byte[]) otherConfirmation)){
+			Logging.getLogger().log(Level.WARNING, "session key confirmation failed " + channel.toString());
+			return false;
+		}
+		
+		keyExchangeOutput.setEncKey(new SecretKeySpec(session, 0, ENC_KEY_SIZE, "AES"));
+		keyExchangeOutput.setMacKey(new SecretKeySpec(session, ENC_KEY_SIZE, MAC_KEY_SIZE, "HmacSHA256"));
+		
+		//replace the cached session, so that the next connection does not use the same ticket and secret.
+		int offset = ENC_KEY_SIZE + MAC_KEY_SIZE + CONFIRMATION_KEY_SIZE;
+		try {
+			sessionKeyCache.put(ipAddres, port, Arrays.copyOfRange(session, offset, offset + TICKET_SIZE), 
+					new SecretKeySpec(session, offset + TICKET_SIZE, RESUMPTION_SECRET_SIZE, "HKDF"));
+		} catch (IOException e) {
+			//the connection can still be used, only the next connection will run the key exchange again.
+			Logging.getLogger().log(Level.WARNING, "failed to cache the next session " + e.toString());
+		}
+		
+		Logging.getLogger().log(Level.INFO, "session resumed " + channel.toString());
+		return true;
+	}
+	
+	/**
+	 * Computes the key confirmation of one party, which is a MAC over the label of the party, both nonces and both tickets, 
+	 * using the confirmation key of the derived session. The ticket of the connecting party comes first.
+	 * @param session the keys derived from the resumption secret.
+	 * @param label FROM_CONNECTOR or FROM_LISTENER, according to the party that sends the confirmation.
+	 * @param nonces the nonce of the connecting party followed by the nonce of the listening party.
+	 * @param ticket the ticket sent by this party.
+	 * @param otherTicket the ticket sent by the other party.
+	 */
+	private byte[] computeConfirmation(byte[] session, byte label, byte[] nonces, byte[] ticket, byte[] otherTicket) {
+		byte[] first = doConnect ? ticket : otherTicket;
+		byte[] second = doConnect ? otherTicket : ticket;
+		byte[] msg = new byte[1 + nonces.length + first.length + second.length];
+		msg[0] = label;
+		System.arraycopy(nonces, 0, msg, 1, nonces.length);
+		System.arraycopy(first, 0, msg, 1 + nonces.length, first.length);
+		System.arraycopy(second, 0, msg, 1 + nonces.length + first.length, second.length);
+		
+		BcHMAC mac = new BcHMAC();
+		mac.setKey(new SecretKeySpec(session, ENC_KEY_SIZE + MAC_KEY_SIZE, CONFIRMATION_KEY_SIZE, "HmacSHA256"));
+		return mac.mac(msg, 0, msg.length);
+	}
+	
+	/**
+	 * Derives a ticket and a resumption secret from the keys of the key exchange and caches them for the other party. 
+	 * Both parties have the same keys, so they cache the same session.
+	 */
+	private void cacheSession() {
+		Key encKey = keyExchangeOutput.getEncKey();
+		Key macKey = keyExchangeOutput.getMacKey();
+		//the key exchange did not agree on keys, there is nothing to resume from.
+		if(encKey==null || macKey==null || encKey.getEncoded()==null || macKey.getEncoded()==null){
+			return;
+		}
+		byte[] enc = encKey.getEncoded();
+		byte[] mac = macKey.getEncoded();
+		byte[] keys = new byte[enc.length + mac.length];
+		System.arraycopy(enc, 0, keys, 0, enc.length);
+		System.arraycopy(mac, 0, keys, enc.length, mac.length);
+		
+		byte[] session = new HKDF(new BcHMAC()).deriveKey(keys, 0, keys.length, TICKET_SIZE + RESUMPTION_SECRET_SIZE, RESUMPTION_INFO).getEncoded();
+		try {
+			sessionKeyCache.put(ipAddres, port, Arrays.copyOf(session, TICKET_SIZE), new SecretKeySpec(session, TICKET_SIZE, RESUMPTION_SECRET_SIZE, "HKDF"));
+		} catch (IOException e) {
+			//the connection can still be used, only the next connection will run the key exchange again.
+			Logging.getLogger().log(Level.WARNING, "failed to cache the session " + e.toString());
+		}
+	}
+
 	/**
 	 * @return the channel
 	 */
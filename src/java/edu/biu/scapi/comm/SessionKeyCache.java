@@ -0,0 +1,234 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.logging.Level;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * A SessionKeyCache keeps, for each party that this party has already secured a connection with, a session ticket and a
+ * resumption secret. <p>
+ * When both parties of a connection hold the same ticket, the securing stage of the {@link CommunicationSetup} does not run the
+ * key exchange protocol again. Instead, each party sends a fresh nonce and the channel keys are derived from the resumption secret 
+ * and both nonces using HKDF. This costs a single round trip.<p>
+ * 
+ * The entries are kept in a JCEKS key store file, which keeps them encrypted under the given password. The file is written 
+ * each time an entry is added or removed, so the cached sessions survive between executions of the application. 
+ * The new content is written to a temporary file that then replaces the key store file, so a failure in the middle of 
+ * writing does not leave a corrupted file.<p>
+ * 
+ * The ticket and the resumption secret of a party are always read and written together, under the lock of the cache, 
+ * so a connection never gets the ticket of one session with the secret of another.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class SessionKeyCache {
+	
+	private static final String KEY_STORE_TYPE = "JCEKS";
+	private static final String TICKET_SUFFIX = ".ticket";
+	private static final String SECRET_SUFFIX = ".secret";
+	
+	private KeyStore keyStore;							//Holds the tickets and resumption secrets.
+	private String fileName;							//The file that the key store is written to.
+	private char[] password;							//Encrypts the key store file and each one of its entries.
+	private KeyStore.PasswordProtection protection;
+	
+	/**
+	 * Constructor that loads the cached sessions from the given key store file. 
+	 * If the file does not exist, an empty cache is created and the file will be written when the first session is cached.
+	 * @param fileName the name of the key store file.
+	 * @param password the password that encrypts the key store file.
+	 * @throws IOException in case there is a problem reading the file or the password is wrong.
+	 */
+	public SessionKeyCache(String fileName, char[] password) throws IOException{
+		this.fileName = fileName;
+		this.password = password.clone();
+		protection = new KeyStore.PasswordProtection(this.password);
+		
+		try {
+			keyStore = KeyStore.getInstance(KEY_STORE_TYPE);
+			File file = new File(fileName);
+			if (file.exists()){
+				FileInputStream in = new FileInputStream(file);
+				try {
+					keyStore.load(in, this.password);
+				} finally {
+					in.close();
+				}
+			} else {
+				keyStore.load(null, this.password);
+			}
+		} catch (GeneralSecurityException e) {
+			throw new IOException("failed to load the session key store: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Caches the given session for the given party, replacing any previous session of this party.<p>
+	 * This function can also be used in order to start with a pre-shared secret; in this case both parties should put the 
+	 * same ticket and secret.
+	 * @param ipAddress the ip address of the other party.
+	 * @param port the port of the other party.
+	 * @param ticket identifies the session. The ticket is sent in the clear, so it should not reveal anything about the secret.
+	 * @param resumptionSecret the secret that the channel keys are derived from.
+	 * @throws IOException in case there is a problem writing the key store file.
+	 */
+	public synchronized void put(InetAddress ipAddress, int port, byte[] ticket, SecretKey resumptionSecret) throws IOException{
+		String identity = getIdentity(ipAddress, port);
+		try {
+			keyStore.setEntry(identity + TICKET_SUFFIX, new KeyStore.SecretKeyEntry(new SecretKeySpec(ticket, "RAW")), protection);
+			keyStore.setEntry(identity + SECRET_SUFFIX, new KeyStore.SecretKeyEntry(resumptionSecret), protection);
+		} catch (GeneralSecurityException e) {
+			//Do not keep a ticket without its secret.
+			deleteEntries(identity);
+			throw new IOException("failed to cache the session: " + e.getMessage(), e);
+		}
+		store();
+	}
+	
+	/**
+	 * Removes the cached session of the given party, if there is one. 
+	 * The next connection to this party will run the full key exchange.
+	 * @param ipAddress the ip address of the other party.
+	 * @param port the port of the other party.
+	 * @throws IOException in case there is a problem writing the key store file.
+	 */
+	public synchronized void remove(InetAddress ipAddress, int port) throws IOException{
+		String identity = getIdentity(ipAddress, port);
+		try {
+			keyStore.deleteEntry(identity + TICKET_SUFFIX);
+			keyStore.deleteEntry(identity + SECRET_SUFFIX);
+		} catch (GeneralSecurityException e) {
+			throw new IOException("failed to remove the session: " + e.getMessage(), e);
+		}
+		store();
+	}
+	
+	/**
+	 * Returns the session cached for the given party, or null if there is no such session.
+	 */
+	synchronized Session getSession(InetAddress ipAddress, int port){
+		String identity = getIdentity(ipAddress, port);
+		SecretKey ticket = getEntry(identity + TICKET_SUFFIX);
+		SecretKey secret = getEntry(identity + SECRET_SUFFIX);
+		return (ticket == null || secret == null) ? null : new Session(ticket.getEncoded(), secret);
+	}
+	
+	/**
+	 * Deletes the entries of the given identity that exist, ignoring failures.
+	 */
+	private void deleteEntries(String identity){
+		for (String alias : new String[]{identity + TICKET_SUFFIX, identity + SECRET_SUFFIX}){
+			try {
+				if (keyStore.containsAlias(alias)){
+					keyStore.deleteEntry(alias);
+				}
+			} catch (GeneralSecurityException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+		}
+	}
+	
+	private SecretKey getEntry(String alias){
+		try {
+			KeyStore.Entry entry = keyStore.getEntry(alias, protection);
+			return (entry == null) ? null : ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+		} catch (GeneralSecurityException e) {
+			//An entry that can not be recovered is treated as a missing one. This causes a full key exchange.
+			Logging.getLogger().log(Level.WARNING, e.toString());
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the key store to a temporary file in the same directory, and then replaces the key store file with it.
+	 */
+	private void store() throws IOException{
+		File file = new File(fileName).getAbsoluteFile();
+		File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+		try {
+			FileOutputStream out = new FileOutputStream(temp);
+			try {
+				keyStore.store(out, password);
+			} catch (GeneralSecurityException e) {
+				throw new IOException("failed to write the session key store: " + e.getMessage(), e);
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			//Nothing to delete if the file was moved.
+			temp.delete();
+		}
+	}
+	
+	/**
+	 * The aliases in the key store are not case sensitive, so the identity uses only the ip address and the port.
+	 */
+	private static String getIdentity(InetAddress ipAddress, int port){
+		return ipAddress.getHostAddress() + ":" + port;
+	}
+	
+	/**
+	 * A ticket and the resumption secret of the same cached session.
+	 */
+	static class Session {
+		
+		private byte[] ticket;
+		private SecretKey resumptionSecret;
+		
+		Session(byte[] ticket, SecretKey resumptionSecret){
+			this.ticket = ticket;
+			this.resumptionSecret = resumptionSecret;
+		}
+		
+		byte[] getTicket(){
+			return ticket;
+		}
+		
+		SecretKey getResumptionSecret(){
+			return resumptionSecret;
+		}
+	}
+}
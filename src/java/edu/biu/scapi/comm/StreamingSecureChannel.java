@@ -0,0 +1,446 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.AuthenticatedEnc;
+
+/** 
+ * This channel ensures the security level of the underlying authenticated encryption scheme, and is suitable for large messages.<p>
+ * Unlike {@link EncryptedChannel} and {@link AuthenticatedChannel}, a message is not serialized and secured as a whole. 
+ * The serialized message is split into chunks of fixed size, and each chunk is encrypted and authenticated as soon as the serialization produces it. 
+ * The secured chunks are sent to the other party by a pipeline thread, so that securing the next chunks overlaps with sending the previous ones. 
+ * The receiver decrypts and verifies each chunk as the deserialization needs it. As a result, the memory used by a transfer is bounded 
+ * by a few chunks regardless of the size of the message.<p>
+ * 
+ * Each chunk contains (inside the encrypted data) the direction of the chunk, the index of the message, the index of the chunk in the message and 
+ * whether it is the last chunk, so that chunks can not be dropped, reordered, replayed or reflected back to their sender without being detected.<p>
+ * 
+ * Both parties should use this channel with the same encryption scheme, key and chunk size. One party should create the channel as the connector 
+ * and the other as the listener. 
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class StreamingSecureChannel extends ChannelDecorator {
+	
+	private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;	//Default number of message bytes in each chunk.
+	private static final int PIPELINE_DEPTH = 4;				//Maximal number of secured chunks that wait to be sent.
+	private static final int HEADER_SIZE = 14;					//Direction (1 byte), message index (8 bytes), chunk index (4 bytes) and last chunk flag (1 byte).
+	private static final byte FROM_CONNECTOR = 1;				//The direction of chunks sent by the party that connected.
+	private static final byte FROM_LISTENER = 2;				//The direction of chunks sent by the party that listened.
+	
+	private AuthenticatedEnc encScheme;		//Encrypts and authenticates the chunks.
+	private int chunkSize;					//Number of message bytes in each chunk.
+	private byte sendDirection;				//The direction written in the sent chunks.
+	private byte receiveDirection;			//The direction expected in the received chunks.
+	
+	private long sentMessages;				//Number of messages sent so far. Used as the index of the next sent message.
+	private long receivedMessages;			//Number of messages received so far. Used as the index of the next received message.
+	
+	private ChunkSender sender;				//The pipeline thread that sends the secured chunks.
+	
+	/**
+	 * Creates a new StreamingSecureChannel that wraps the already connected channel, using the default chunk size.
+	 * The encryption scheme does not need to be initialized with a key at this moment (even though it can), but before sending or receiving a message over this channel
+	 * the relevant secret key must be set.
+	 * @param channel an already connected channel.
+	 * @param encScheme an authenticated encryption scheme, for example {@link edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScEncryptThenMac}.
+	 * @param isConnector true if this party connected to the other party, false if it listened. The other party should pass the opposite value.
+	 */
+	public StreamingSecureChannel(PlainChannel channel, AuthenticatedEnc encScheme, boolean isConnector) {
+		this(channel, encScheme, DEFAULT_CHUNK_SIZE, isConnector);
+	}
+	
+	/**
+	 * Creates a new StreamingSecureChannel that wraps the already connected channel.
+	 * The encryption scheme does not need to be initialized with a key at this moment (even though it can), but before sending or receiving a message over this channel
+	 * the relevant secret key must be set.
+	 * @param channel an already connected channel.
+	 * @param encScheme an authenticated encryption scheme, for example {@link edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScEncryptThenMac}.
+	 * @param chunkSize the number of message bytes in each chunk. The other party should use the same chunk size.
+	 * @param isConnector true if this party connected to the other party, false if it listened. The other party should pass the opposite value.
+	 * @throws IllegalArgumentException if the chunk size is not positive.
+	 */
+	public StreamingSecureChannel(PlainChannel channel, AuthenticatedEnc encScheme, int chunkSize, boolean isConnector) {
+		super(channel);
+		if (chunkSize <= 0){
+			throw new IllegalArgumentException("The chunk size should be positive");
+		}
+		this.encScheme = encScheme;
+		this.chunkSize = chunkSize;
+		sendDirection = isConnector ? FROM_CONNECTOR : FROM_LISTENER;
+		receiveDirection = isConnector ? FROM_LISTENER : FROM_CONNECTOR;
+		
+		sender = new ChunkSender();
+		sender.start();
+	}
+	
+	/**
+	 * Sets the key of the underlying encryption scheme. This function must be called before sending or receiving messages if the encryption scheme passed to this
+	 * channel had not been set with a key yet. 
+	 * @param key a suitable SecretKey
+	 * @throws InvalidKeyException if the given key does not match the underlying encryption scheme.
+	 */
+	public void setKey(SecretKey key) throws InvalidKeyException{
+		encScheme.setKey(key);
+	}
+	
+	/**
+	 * Sends the given message in secured chunks. The function returns after all the chunks of the message were sent.
+	 * @param msg the object to send to the other party AS IS, the only constraint is that it must be Serializable.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IOException if the underlying channel failed to send a chunk.
+	 */
+	public void send(Serializable msg) throws IOException {
+		if (!encScheme.isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		
+		//Serializing the message fills the chunks. Every full chunk is secured and passed to the pipeline thread.
+		ChunkOutputStream chunks = new ChunkOutputStream(sentMessages++);
+		ObjectOutputStream oos = new ObjectOutputStream(chunks);
+		oos.writeObject(msg);
+		oos.flush();
+		chunks.finish();
+		
+		//Waits until the last chunk was sent.
+		sender.waitForMessage();
+	}
+	
+	/**
+	 * Receives a message sent by the other party over a StreamingSecureChannel. Each chunk is decrypted and verified before it is deserialized.
+	 * @return the object sent by the other party.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IOException if one of the chunks failed to verify or if the chunks are out of order. In this case the channel can not be used anymore.
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		if (!encScheme.isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		
+		ChunkInputStream chunks = new ChunkInputStream(receivedMessages++);
+		ObjectInputStream ois = new ObjectInputStream(chunks);
+		Serializable msg = (Serializable) ois.readObject();
+		
+		//Reads the rest of the message, so that the next message starts in a new chunk.
+		chunks.skipToEnd();
+		return msg;
+	}
+
+	/**
+	 * Stops the pipeline thread and closes the channel.
+	 */
+	public void close() {
+		sender.interrupt();
+		channel.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return channel.isClosed();
+	}
+	
+	/*
+	 * Writes the header of a chunk in the beginning of the given array.
+	 */
+	private static void writeHeader(byte[] chunk, byte direction, long messageIndex, int chunkIndex, boolean isLast){
+		ByteBuffer header = ByteBuffer.wrap(chunk, 0, HEADER_SIZE);
+		header.put(direction);
+		header.putLong(messageIndex);
+		header.putInt(chunkIndex);
+		header.put((byte) (isLast ? 1 : 0));
+	}
+	
+	/**
+	 * An output stream that collects the serialized message into chunks, and secures each full chunk.
+	 */
+	private class ChunkOutputStream extends OutputStream {
+		
+		private long messageIndex;
+		private int chunkIndex;
+		private byte[] chunk = new byte[HEADER_SIZE + chunkSize];	//The header and the message bytes of the current chunk.
+		private int position = HEADER_SIZE;							//The index of the next byte in the chunk.
+		
+		ChunkOutputStream(long messageIndex){
+			this.messageIndex = messageIndex;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			if (position == chunk.length){
+				seal(false);
+			}
+			chunk[position++] = (byte) b;
+		}
+		
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			while (length > 0){
+				if (position == chunk.length){
+					seal(false);
+				}
+				int len = Math.min(length, chunk.length - position);
+				System.arraycopy(bytes, offset, chunk, position, len);
+				position += len;
+				offset += len;
+				length -= len;
+			}
+		}
+		
+		/**
+		 * Secures the last chunk of the message.
+		 */
+		void finish() throws IOException{
+			seal(true);
+		}
+		
+		/*
+		 * Encrypts the current chunk and passes it to the pipeline thread. The call blocks in case there are too many chunks that wait to be sent.
+		 */
+		private void seal(boolean isLast) throws IOException{
+			writeHeader(chunk, sendDirection, messageIndex, chunkIndex++, isLast);
+			
+			byte[] cipher = new byte[encScheme.getCiphertextLength(position)];
+			int cipherLength = encScheme.encrypt(ByteBuffer.wrap(chunk, 0, position), ByteBuffer.wrap(cipher));
+			if (cipherLength < cipher.length){
+				cipher = Arrays.copyOf(cipher, cipherLength);
+			}
+			sender.put(cipher, isLast);
+			position = HEADER_SIZE;
+		}
+	}
+	
+	/**
+	 * An input stream that receives the chunks of a message one by one, and decrypts and verifies each chunk when its bytes are needed.
+	 */
+	private class ChunkInputStream extends InputStream {
+		
+		private long messageIndex;
+		private int chunkIndex;
+		private byte[] chunk = new byte[0];		//The decrypted current chunk.
+		private int position;					//The index of the next unread byte in the chunk.
+		private int length;						//The number of decrypted bytes in the chunk.
+		private boolean isLast;					//Indicates whether the current chunk is the last chunk of the message.
+		
+		ChunkInputStream(long messageIndex){
+			this.messageIndex = messageIndex;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (!fill()){
+				return -1;
+			}
+			return chunk[position++] & 0xff;
+		}
+		
+		@Override
+		public int read(byte[] bytes, int offset, int len) throws IOException {
+			if (len == 0){
+				return 0;
+			}
+			if (!fill()){
+				return -1;
+			}
+			int read = Math.min(len, length - position);
+			System.arraycopy(chunk, position, bytes, offset, read);
+			position += read;
+			return read;
+		}
+		
+		@Override
+		public int available() {
+			return length - position;
+		}
+		
+		/**
+		 * Receives the remaining chunks of the message.
+		 */
+		void skipToEnd() throws IOException{
+			while (fill()){
+				position = length;
+			}
+		}
+		
+		/*
+		 * Makes sure there are unread bytes in the current chunk, by receiving the next chunks if needed.
+		 * Returns false if the whole message was read.
+		 */
+		private boolean fill() throws IOException{
+			while (position == length){
+				if (isLast){
+					return false;
+				}
+				receiveChunk();
+			}
+			return true;
+		}
+		
+		/*
+		 * Receives the next chunk, decrypts it and checks its header.
+		 */
+		private void receiveChunk() throws IOException{
+			Object received;
+			try {
+				received = channel.receive();
+			} catch (ClassNotFoundException e) {
+				throw new IOException("The received chunk is not a byte array", e);
+			}
+			if (!(received instanceof byte[])){
+				throw new IOException("The received chunk is not a byte array");
+			}
+			byte[] cipher = (byte[]) received;
+			
+			//The decrypted chunk is never longer than the encrypted one.
+			if (chunk.length < cipher.length){
+				chunk = new byte[cipher.length];
+			}
+			int decrypted;
+			try {
+				decrypted = encScheme.decrypt(ByteBuffer.wrap(cipher), ByteBuffer.wrap(chunk));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("A chunk of the received message could not be verified", e);
+			}
+			if (decrypted < HEADER_SIZE){
+				throw new IOException("A chunk of the received message could not be verified");
+			}
+			
+			//Checks that this is the expected chunk, sent by the other party.
+			ByteBuffer header = ByteBuffer.wrap(chunk, 0, HEADER_SIZE);
+			if (header.get() != receiveDirection){
+				throw new IOException("The received chunk was not sent by the other party");
+			}
+			if ((header.getLong() != messageIndex) || (header.getInt() != chunkIndex)){
+				throw new IOException("The received chunk is out of order");
+			}
+			isLast = (header.get() == 1);
+			chunkIndex++;
+			
+			position = HEADER_SIZE;
+			length = decrypted;
+		}
+	}
+	
+	/**
+	 * A secured chunk that waits to be sent.
+	 */
+	private static class SecuredChunk {
+		private byte[] bytes;
+		private boolean isLast;
+		
+		SecuredChunk(byte[] bytes, boolean isLast){
+			this.bytes = bytes;
+			this.isLast = isLast;
+		}
+	}
+	
+	/**
+	 * The pipeline thread. It takes the secured chunks from a bounded queue and sends them over the underlying channel.
+	 */
+	private class ChunkSender extends Thread {
+		
+		private BlockingQueue<SecuredChunk> chunks = new ArrayBlockingQueue<SecuredChunk>(PIPELINE_DEPTH);
+		private Semaphore sentLastChunks = new Semaphore(0);		//Released each time the last chunk of a message was sent.
+		private volatile IOException failure;					//The exception that stopped the thread, if any.
+		
+		ChunkSender(){
+			setName("StreamingSecureChannel-" + getName());
+			setDaemon(true);
+		}
+		
+		/**
+		 * Passes the given chunk to the thread. Blocks if the queue is full.
+		 */
+		void put(byte[] chunk, boolean isLast) throws IOException{
+			SecuredChunk securedChunk = new SecuredChunk(chunk, isLast);
+			try {
+				//Stops waiting in case the thread failed to send a previous chunk.
+				do {
+					checkFailure();
+				} while (!chunks.offer(securedChunk, 100, TimeUnit.MILLISECONDS));
+			} catch (InterruptedException e) {
+				throw new ScapiRuntimeException("interrupted while waiting to send a chunk");
+			}
+		}
+		
+		/**
+		 * Waits until the last chunk of the current message was sent.
+		 */
+		void waitForMessage() throws IOException{
+			while (true){
+				checkFailure();
+				try {
+					if (sentLastChunks.tryAcquire(100, TimeUnit.MILLISECONDS)){
+						break;
+					}
+				} catch (InterruptedException e) {
+					throw new ScapiRuntimeException("interrupted while waiting for the message to be sent");
+				}
+			}
+			checkFailure();
+		}
+		
+		private void checkFailure() throws IOException{
+			if (failure != null){
+				throw failure;
+			}
+		}
+		
+		public void run(){
+			try {
+				while (true){
+					SecuredChunk chunk = chunks.take();
+					channel.send(chunk.bytes);
+					if (chunk.isLast){
+						sentLastChunks.release();
+					}
+				}
+			} catch (InterruptedException e) {
+				//The channel was closed.
+			} catch (IOException e) {
+				failure = e;
+			} catch (Throwable e) {
+				//Any other failure also stops the thread, so the waiting callers should get it instead of waiting forever.
+				failure = new IOException("failed to send a chunk: " + e, e);
+			}
+		}
+	}
+}
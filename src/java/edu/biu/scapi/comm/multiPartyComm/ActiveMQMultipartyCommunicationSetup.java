@@ -6,6 +6,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.activemq.ActiveMQConnectionFactory;
+
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.comm.twoPartyComm.ActiveMQCommunicationSetup;
 import edu.biu.scapi.comm.twoPartyComm.PartyData;
@@ -56,6 +58,44 @@ public class ActiveMQMultipartyCommunicationSetup implements MultipartyCommunica
 		}
 	}
 	
+	/**
+	 * A constructor that create an {@link ActiveMQCommunicationSetup} object between the current application and any other party in the protocol.
+	 * @param url The url of the ActiveMQ broker.
+	 * @param parties  List of parties to communicate with. The first party in the list represents the current application.
+	 * @param enableNagle Indicates if to use Nagle's algorithm or not. For cryptographic algorithms it is much better to disable Nagle's algorithm.
+	 * @param asyncChannels Indicates whether to create asynchronous channels. See {@link ActiveMQCommunicationSetup#ActiveMQCommunicationSetup(String, PartyData, PartyData, boolean, boolean)}.
+	 * @throws DuplicatePartyException In case there are two identical parties.
+	 */
+	public ActiveMQMultipartyCommunicationSetup(String url, List<PartyData> parties, boolean enableNagle, boolean asyncChannels) throws DuplicatePartyException{
+		int size = parties.size() - 1;
+		//Prepare the map to hold the TwoPartyCommunicationSetup objects.
+		twoPartyCommunications = new HashMap<PartyData, TwoPartyCommunicationSetup>();
+		
+		//For each party in the list except me, create an ActiveMQCommunicationSetup instance.
+		for (int i=1; i<=size; i++){
+			twoPartyCommunications.put(parties.get(i), new ActiveMQCommunicationSetup(url, parties.get(0), parties.get(i), enableNagle, asyncChannels));
+		}
+	}
+	
+	/**
+	 * A constructor that create an {@link ActiveMQCommunicationSetup} object between the current application and any other party in the protocol, 
+	 * using the given factory. For example, an embedded broker can be used by giving new ActiveMQConnectionFactory("vm://localhost?broker.persistent=false").
+	 * @param factory The ActiveMQ factory to create the connections with.
+	 * @param parties  List of parties to communicate with. The first party in the list represents the current application.
+	 * @param asyncChannels Indicates whether to create asynchronous channels.
+	 * @throws DuplicatePartyException In case there are two identical parties.
+	 */
+	public ActiveMQMultipartyCommunicationSetup(ActiveMQConnectionFactory factory, List<PartyData> parties, boolean asyncChannels) throws DuplicatePartyException{
+		int size = parties.size() - 1;
+		//Prepare the map to hold the TwoPartyCommunicationSetup objects.
+		twoPartyCommunications = new HashMap<PartyData, TwoPartyCommunicationSetup>();
+		
+		//For each party in the list except me, create an ActiveMQCommunicationSetup instance.
+		for (int i=1; i<=size; i++){
+			twoPartyCommunications.put(parties.get(i), new ActiveMQCommunicationSetup(factory, parties.get(0), parties.get(i), asyncChannels));
+		}
+	}
+	
 	@Override
 	public Map<PartyData, Map<String, Channel>> prepareForCommunication(Map<PartyData, Object> connectionsPerParty, long timeOut) throws TimeoutException{
 		//Prepare a map to hold the created channels of every party.
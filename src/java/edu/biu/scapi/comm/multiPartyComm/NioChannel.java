@@ -0,0 +1,318 @@
+package edu.biu.scapi.comm.multiPartyComm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * A channel over a single non blocking socket that is served by a shared {@link NioReactor}.<p>
+ * 
+ * Each message is sent as a frame: the length of the rest of the frame (4 bytes), a type byte that tells whether the 
+ * payload is a raw byte array or a serialized object, and the payload. 
+ * Byte arrays are sent as is, without the Java serialization overhead.<p>
+ * 
+ * The send function does not block on the network: the frame is written directly if the socket can take it, and 
+ * otherwise it is queued and written by the reactor thread. The sender blocks only if more than 
+ * {@link #MAX_QUEUED_BYTES} bytes are waiting in the queue.
+ * The reactor thread splits the incoming bytes into frames and puts them in a queue; the receive function 
+ * deserializes the frames in the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class NioChannel implements Channel{
+	
+	static final int MAX_QUEUED_BYTES = 16 * 1024 * 1024;	//Maximum number of bytes waiting to be sent.
+	private static final int READ_BUFFER_SIZE = 64 * 1024;	//Default size of the read buffer.
+	private static final byte RAW_BYTES = 0;				//The payload is a byte array.
+	private static final byte SERIALIZED = 1;				//The payload is a serialized object.
+	private static final Object CLOSED = new Object();		//Put in the received queue when the channel is closed.
+	
+	private SocketChannel socket;
+	private NioReactor reactor;				//The reactor that serves this channel.
+	private int maxMessageSize;				//Frames with a longer payload are not sent or received.
+	private SelectionKey key;				//Set by the reactor when the channel is registered.
+	
+	//The send queue is protected by writeLock. Both the senders and the reactor write to the socket while holding it.
+	private final Object writeLock = new Object();
+	private ArrayDeque<ByteBuffer> sendQueue = new ArrayDeque<ByteBuffer>();
+	private long queuedBytes;
+	
+	//Received frames: byte arrays for raw frames and SerializedFrame for serialized ones.
+	private LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+	private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);	//Used only by the reactor thread.
+	
+	private volatile boolean isClosed;
+	private volatile IOException failure;	//The reason the channel stopped working, if any.
+	
+	/**
+	 * Sets the connected socket and the reactor that will serve it. The socket is switched to non blocking mode.
+	 * @param socket connected socket.
+	 * @param reactor the reactor to register the socket with.
+	 * @param maxMessageSize the maximal size in bytes of a message payload. A longer frame received from the other side fails the channel.
+	 * @throws IOException if failed to switch the socket to non blocking mode.
+	 */
+	NioChannel(SocketChannel socket, NioReactor reactor, int maxMessageSize) throws IOException{
+		this.socket = socket;
+		this.reactor = reactor;
+		this.maxMessageSize = maxMessageSize;
+		socket.configureBlocking(false);
+		reactor.register(this);
+	}
+	
+	/**
+	 * Creates the frame of the given data.
+	 * @param data to send. Byte arrays are sent as is; other objects are serialized.
+	 * @return buffer that contains the frame, ready to be written.
+	 * @throws IOException if failed to serialize the data.
+	 */
+	static ByteBuffer createFrame(Serializable data) throws IOException{
+		if (data instanceof byte[]){
+			byte[] bytes = (byte[]) data;
+			ByteBuffer frame = ByteBuffer.allocate(5 + bytes.length);
+			frame.putInt(1 + bytes.length).put(RAW_BYTES).put(bytes);
+			frame.flip();
+			return frame;
+		}
+		
+		//Leave place for the header and fill it after the serialization.
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		bOut.write(new byte[5]);
+		ObjectOutputStream oOut = new ObjectOutputStream(bOut);
+		oOut.writeObject(data);
+		oOut.close();
+		ByteBuffer frame = ByteBuffer.wrap(bOut.toByteArray());
+		frame.putInt(0, frame.capacity() - 4).put(4, SERIALIZED);
+		return frame;
+	}
+	
+	@Override
+	public void send(Serializable data) throws IOException {
+		sendFrame(createFrame(data));
+	}
+	
+	/**
+	 * Sends the given frame. The position of the given buffer is changed, so a frame that is sent over 
+	 * many channels should be duplicated for each channel.
+	 * @param frame created by {@link #createFrame(Serializable)}.
+	 * @throws IOException if the channel is closed or failed, or the message is longer than the maximal message size.
+	 */
+	void sendFrame(ByteBuffer frame) throws IOException {
+		//The other side would reject the frame, so do not send it.
+		if (frame.remaining() - 5 > maxMessageSize){
+			throw new IOException("the message is longer than the maximal message size " + maxMessageSize);
+		}
+		synchronized (writeLock){
+			//Wait for the reactor in case there are too many bytes in the queue.
+			while (queuedBytes > MAX_QUEUED_BYTES && failure == null && !isClosed){
+				try {
+					writeLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("interrupted while waiting for the send queue");
+				}
+			}
+			checkState();
+			
+			//If nothing is waiting, try to write directly to the socket.
+			if (sendQueue.isEmpty()){
+				socket.write(frame);
+				if (!frame.hasRemaining()){
+					return;
+				}
+			}
+			
+			//Queue the rest of the frame. The reactor should be asked to wait for the socket only for the first queued frame.
+			sendQueue.add(frame);
+			queuedBytes += frame.remaining();
+			if (sendQueue.size() == 1){
+				reactor.requestWrite(this);
+			}
+		}
+	}
+
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		Object frame;
+		try {
+			frame = received.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a message");
+		}
+		
+		if (frame == CLOSED){
+			//Leave the mark for the next calls.
+			received.add(CLOSED);
+			checkState();
+		}
+		
+		if (frame instanceof SerializedFrame){
+			ObjectInputStream oIn = new ObjectInputStream(new ByteArrayInputStream(((SerializedFrame) frame).payload));
+			Serializable data = (Serializable) oIn.readObject();
+			oIn.close();
+			return data;
+		}
+		return (byte[]) frame;
+	}
+	
+	/**
+	 * Throws an exception in case the channel can not be used anymore.
+	 */
+	private void checkState() throws IOException {
+		if (failure != null){
+			throw new IOException("the channel failed. The thrown exception is: " + failure.getMessage());
+		}
+		if (isClosed){
+			throw new IOException("the channel is closed");
+		}
+	}
+	
+	/**
+	 * Returns the socket of this channel. Called by the reactor.
+	 */
+	SocketChannel getSocket(){
+		return socket;
+	}
+	
+	/**
+	 * Sets the selection key of this channel. Called by the reactor when the channel is registered.
+	 */
+	void setKey(SelectionKey key){
+		this.key = key;
+	}
+	
+	/**
+	 * Asks the reactor to report when the socket can be written. Called by the reactor thread.
+	 */
+	void enableWrite(){
+		if (key != null && key.isValid()){
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+	}
+	
+	/**
+	 * Writes the queued frames. Called by the reactor thread when the socket is writable.
+	 * @throws IOException if failed to write to the socket.
+	 */
+	void handleWrite() throws IOException {
+		synchronized (writeLock){
+			while (!sendQueue.isEmpty()){
+				ByteBuffer frame = sendQueue.peek();
+				queuedBytes -= socket.write(frame);
+				if (frame.hasRemaining()){
+					break;
+				}
+				sendQueue.poll();
+			}
+			
+			//There is nothing more to write, wait only for incoming data.
+			if (sendQueue.isEmpty()){
+				key.interestOps(SelectionKey.OP_READ);
+			}
+			//Release the senders that wait for place in the queue.
+			writeLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * Reads the available bytes and puts the complete frames in the received queue. Called by the reactor thread when 
+	 * the socket is readable.
+	 * @throws IOException if failed to read from the socket or the other side closed the connection.
+	 */
+	void handleRead() throws IOException {
+		if (socket.read(readBuffer) < 0){
+			throw new EOFException("the connection was closed by the other side");
+		}
+		
+		readBuffer.flip();
+		while (readBuffer.remaining() >= 4){
+			int length = readBuffer.getInt(readBuffer.position());
+			if (length < 1 || length - 1 > maxMessageSize){
+				throw new IOException("received an illegal frame length " + length);
+			}
+			//Wait for the rest of the frame.
+			if (readBuffer.remaining() < 4 + length){
+				break;
+			}
+			
+			readBuffer.getInt();
+			byte type = readBuffer.get();
+			byte[] payload = new byte[length - 1];
+			readBuffer.get(payload);
+			received.add((type == RAW_BYTES) ? payload : new SerializedFrame(payload));
+		}
+		readBuffer.compact();
+		
+		//Make sure the buffer can hold the next frame. Big buffers are released once their frame was received.
+		if (readBuffer.position() >= 4){
+			int frameSize = 4 + readBuffer.getInt(0);
+			if (frameSize > readBuffer.capacity()){
+				ByteBuffer bigger = ByteBuffer.allocate(frameSize);
+				readBuffer.flip();
+				bigger.put(readBuffer);
+				readBuffer = bigger;
+			}
+		} else if (readBuffer.capacity() > READ_BUFFER_SIZE){
+			ByteBuffer smaller = ByteBuffer.allocate(READ_BUFFER_SIZE);
+			readBuffer.flip();
+			smaller.put(readBuffer);
+			readBuffer = smaller;
+		}
+	}
+	
+	/**
+	 * Marks the channel as failed and releases the blocked senders and receivers. Called by the reactor thread.
+	 * @param e the reason of the failure.
+	 */
+	void fail(IOException e){
+		failure = e;
+		close();
+	}
+
+	@Override
+	public void close() {
+		if (isClosed){
+			return;
+		}
+		isClosed = true;
+		try {
+			//Closing the socket also cancels its selection key.
+			socket.close();
+		} catch (IOException e) {
+			// Should not occur since the channel is not used anymore.
+		}
+		received.add(CLOSED);
+		synchronized (writeLock){
+			writeLock.notifyAll();
+		}
+	}
+
+	@Override
+	public boolean isClosed() {
+		return isClosed;
+	}
+	
+	/**
+	 * A received frame that holds a serialized object. It is deserialized by the receiving thread.
+	 */
+	private static class SerializedFrame{
+		private byte[] payload;
+		
+		SerializedFrame(byte[] payload){
+			this.payload = payload;
+		}
+	}
+}
@@ -0,0 +1,558 @@
+package edu.biu.scapi.comm.multiPartyComm;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import org.apache.commons.exec.TimeoutObserver;
+import org.apache.commons.exec.Watchdog;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.twoPartyComm.PartyData;
+import edu.biu.scapi.comm.twoPartyComm.SocketPartyData;
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class implements a communication between multiple parties using non blocking TCP sockets.<p>
+ *
+ * Unlike {@link SocketMultipartyCommunicationSetup}, that uses two blocking sockets for each channel, each channel
+ * created by this class uses one socket, and all the sockets to all the parties are served by a small fixed
+ * number of I/O threads (reactors) using selectors. This way, a protocol with dozens of parties does not need
+ * a thread per socket.<p>
+ *
+ * The connection stage works as follows:
+ * <ul>
+ * <li>For each pair of parties, the party with the smaller address (according to {@link SocketPartyData#compareTo(SocketPartyData)})
+ * connects to the other party, once for each requested channel, and sends its address and the name of the channel.</li>
+ * <li>The other party accepts the calls and uses the received address and name to match each socket to a channel.</li>
+ * <li>In the end, the sockets are switched to non blocking mode and divided between the reactors.</li>
+ * </ul>
+ * The channels send messages without blocking on the network: a message that can not be written immediately is
+ * queued and written by the reactor. In addition, {@link #broadcast(String, byte[])} sends the same message to all
+ * the parties while creating it only once.<p>
+ *
+ * Both sides of a channel must be created by this class.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class NioMultipartyCommunicationSetup implements MultipartyCommunicationSetup, TimeoutObserver{
+
+	/**
+	 * The default number of I/O threads.
+	 */
+	public static final int DEFAULT_IO_THREADS = 2;
+	/**
+	 * The default maximal size in bytes of a message.
+	 */
+	public static final int DEFAULT_MAX_MESSAGE_SIZE = 256 * 1024 * 1024;
+	private static final int HANDSHAKE_TIMEOUT = 5000;	//Time in milliseconds to wait for each read of a calling party's handshake.
+	private static final int MAX_NAME_LENGTH = 1024;	//Maximal length in bytes of a channel name in the handshake.
+	private static final long RETRY_INTERVAL = 100;		//Time to wait between calls to a party that does not listen yet.
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private volatile boolean bTimedOut = false;			//Indicated whether or not to end the communication.
+	private boolean enableNagle = false;				//Indicated whether or not to use Nagle optimization algorithm.
+	private Watchdog watchdog;							//Used to measure times.
+	private SocketPartyData me;							//The data of the current application.
+	private List<SocketPartyData> parties;				//The other parties.
+	private Map<PartyData, Integer> connectionsNumber;	//Holds the number of created connections for each party.
+	private NioReactor[] reactors;						//The I/O threads.
+	private int nextReactor;							//The reactor of the next created channel.
+	private ServerSocketChannel listener;				//Accepts the calls of the other parties during the connection stage.
+	private volatile AcceptingThread acceptingThread;	//Reads the handshakes of the calling parties during the connection stage.
+	private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;	//The maximal size of a message sent or received by the created channels.
+	private Map<PartyData, Map<String, NioChannel>> channels;	//All the created channels. Used by the broadcast functions.
+
+	/**
+	 * A constructor that set the given list of parties and uses {@link #DEFAULT_IO_THREADS} I/O threads.
+	 * @param parties List of parties to communicate with. The first party in the list represents the current application.
+	 */
+	public NioMultipartyCommunicationSetup(List<PartyData> parties){
+		this(parties, DEFAULT_IO_THREADS);
+	}
+
+	/**
+	 * A constructor that set the given list of parties and the number of I/O threads.
+	 * @param parties List of parties to communicate with. The first party in the list represents the current application.
+	 * @param ioThreads The number of threads that serve the sockets of all the parties.
+	 * @throws IllegalArgumentException if one of the parties is not an instance of SocketPartyData or ioThreads is not positive.
+	 */
+	public NioMultipartyCommunicationSetup(List<PartyData> parties, int ioThreads){
+		if (ioThreads < 1){
+			throw new IllegalArgumentException("the number of I/O threads must be positive");
+		}
+
+		//All parties should be instances of SocketPartyData. IN any other case, throw IllegalArgumentException.
+		int size = parties.size();
+		for (int i=0; i<size; i++){
+			if (!(parties.get(i) instanceof SocketPartyData)){
+				throw new IllegalArgumentException("all parties should be instances of SocketPartyData");
+			}
+		}
+		me = (SocketPartyData) parties.get(0);
+		this.parties = new ArrayList<SocketPartyData>();
+		connectionsNumber = new HashMap<PartyData, Integer>();
+		for (int i=1; i<size; i++){
+			this.parties.add((SocketPartyData) parties.get(i));
+			connectionsNumber.put(parties.get(i), 0);
+		}
+		channels = new HashMap<PartyData, Map<String, NioChannel>>();
+
+		//Create and start the I/O threads.
+		reactors = new NioReactor[ioThreads];
+		try {
+			for (int i=0; i<ioThreads; i++){
+				reactors[i] = new NioReactor("NioReactor " + me.getPort() + "-" + i);
+				reactors[i].start();
+			}
+		} catch (IOException e) {
+			close();
+			throw new ScapiRuntimeException("failed to open a selector. The thrown exception is: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public Map<PartyData, Map<String, Channel>> prepareForCommunication(Map<PartyData, Object> connectionsPerParty, long timeOut) throws TimeoutException {
+		//Start the watch dog with timeout
+		bTimedOut = false;
+		watchdog = new Watchdog(timeOut);
+		//Add this instance as the observer in order to receive the event of time out.
+		watchdog.addTimeoutObserver(this);
+		//Start the clock.
+		watchdog.start();
+
+		//Get the names of the requested channels and count the calls that the other parties will make.
+		Map<SocketPartyData, String[]> names = new HashMap<SocketPartyData, String[]>();
+		Map<SocketPartyData, Map<String, SocketChannel>> sockets = new HashMap<SocketPartyData, Map<String, SocketChannel>>();
+		int expectedCalls = 0;
+		Iterator<PartyData> keys = connectionsPerParty.keySet().iterator();
+		while (keys.hasNext()){
+			PartyData key = keys.next();
+			SocketPartyData party = findParty(key);
+			String[] partyNames = getNames(party, connectionsPerParty.get(key));
+			names.put(party, partyNames);
+			sockets.put(party, new HashMap<String, SocketChannel>());
+			if (!isCaller(party)){
+				expectedCalls += partyNames.length;
+			}
+		}
+
+		boolean succeeded = false;
+		acceptingThread = null;
+		try {
+			//Accept the calls of the parties with the smaller addresses.
+			if (expectedCalls > 0){
+				listener = ServerSocketChannel.open();
+				listener.socket().setReuseAddress(true);
+				listener.socket().bind(new InetSocketAddress(me.getPort()));
+				acceptingThread = new AcceptingThread(names, sockets, expectedCalls);
+				acceptingThread.start();
+			}
+
+			//Call the parties with the bigger addresses.
+			Iterator<SocketPartyData> callees = names.keySet().iterator();
+			while (callees.hasNext() && !bTimedOut){
+				SocketPartyData party = callees.next();
+				if (isCaller(party)){
+					String[] partyNames = names.get(party);
+					for (int i=0; i<partyNames.length && !bTimedOut; i++){
+						SocketChannel socket = call(party);
+						if (socket != null){
+							sockets.get(party).put(partyNames[i], socket);
+							sendHandshake(socket, partyNames[i]);
+						}
+					}
+				}
+			}
+
+			//Wait until all the calls are accepted. In case of a timeout the listener and the current handshake are closed, which stops the thread.
+			if (acceptingThread != null){
+				acceptingThread.join();
+			}
+			succeeded = !bTimedOut && (acceptingThread == null || acceptingThread.accepted == expectedCalls);
+		} catch (IOException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			watchdog.stop();
+			closeListener();
+			acceptingThread = null;
+		}
+
+		//IN case of time out or failure, close the created sockets and throw a TimeoutException.
+		if (!succeeded){
+			closeSockets(sockets);
+			throw new TimeoutException("timeout has occurred");
+		}
+
+		//Create the channels and divide them between the reactors.
+		Map<PartyData, Map<String, Channel>> returnedChannels = new HashMap<PartyData, Map<String, Channel>>();
+		try {
+			Iterator<SocketPartyData> connected = sockets.keySet().iterator();
+			while (connected.hasNext()){
+				SocketPartyData party = connected.next();
+				Map<String, Channel> partyChannels = new HashMap<String, Channel>();
+				if (!channels.containsKey(party)){
+					channels.put(party, new HashMap<String, NioChannel>());
+				}
+
+				Iterator<Map.Entry<String, SocketChannel>> entries = sockets.get(party).entrySet().iterator();
+				while (entries.hasNext()){
+					Map.Entry<String, SocketChannel> entry = entries.next();
+					SocketChannel socket = entry.getValue();
+					socket.socket().setTcpNoDelay(!enableNagle);
+					NioChannel channel = new NioChannel(socket, reactors[nextReactor], maxMessageSize);
+					nextReactor = (nextReactor + 1) % reactors.length;
+
+					partyChannels.put(entry.getKey(), channel);
+					channels.get(party).put(entry.getKey(), channel);
+				}
+				returnedChannels.put(party, partyChannels);
+			}
+		} catch (IOException e) {
+			throw new ScapiRuntimeException("failed to configure the connected sockets. The thrown exception is: " + e.getMessage());
+		}
+
+		return returnedChannels;
+	}
+
+	/**
+	 * Sends the given bytes to all the parties over the channels with the given name.<p>
+	 * The message is framed once and the same frame is written to all the channels.
+	 * The other parties receive it as a byte array.
+	 * @param connectionId the name of the channel to use with every party.
+	 * @param data the message to send.
+	 * @throws IOException if failed to send the message to one of the parties.
+	 * @throws IllegalArgumentException if there is a party that does not have a channel with the given name.
+	 */
+	public void broadcast(String connectionId, byte[] data) throws IOException {
+		broadcastFrame(connectionId, NioChannel.createFrame(data));
+	}
+
+	/**
+	 * Sends the given message to all the parties over the channels with the given name.<p>
+	 * The message is serialized once and the same frame is written to all the channels.
+	 * @param connectionId the name of the channel to use with every party.
+	 * @param data the message to send.
+	 * @throws IOException if failed to serialize the message or to send it to one of the parties.
+	 * @throws IllegalArgumentException if there is a party that does not have a channel with the given name.
+	 */
+	public void broadcast(String connectionId, Serializable data) throws IOException {
+		broadcastFrame(connectionId, NioChannel.createFrame(data));
+	}
+
+	/**
+	 * Sends the given frame over the channels with the given name.
+	 */
+	private void broadcastFrame(String connectionId, ByteBuffer frame) throws IOException {
+		//Check that the channel exists for all the parties before sending anything.
+		List<NioChannel> receivers = new ArrayList<NioChannel>();
+		Iterator<Map<String, NioChannel>> partiesChannels = channels.values().iterator();
+		while (partiesChannels.hasNext()){
+			NioChannel channel = partiesChannels.next().get(connectionId);
+			if (channel == null){
+				throw new IllegalArgumentException("there is no channel named " + connectionId + " to one of the parties");
+			}
+			receivers.add(channel);
+		}
+
+		//Each channel gets its own view of the frame, so the frame is not copied.
+		for (int i=0; i<receivers.size(); i++){
+			receivers.get(i).sendFrame(frame.duplicate());
+		}
+	}
+
+	/**
+	 * Returns the party in the list that equals the given party.
+	 */
+	private SocketPartyData findParty(PartyData party){
+		if (party instanceof SocketPartyData){
+			SocketPartyData socketParty = (SocketPartyData) party;
+			for (int i=0; i<parties.size(); i++){
+				SocketPartyData other = parties.get(i);
+				if (other.getPort() == socketParty.getPort() && other.getIpAddress().equals(socketParty.getIpAddress())){
+					return other;
+				}
+			}
+		}
+		throw new IllegalArgumentException("the given party was not given in the constructor");
+	}
+
+	/**
+	 * Returns the names of the requested channels to the given party.
+	 * @param requested The number of the requested channels or their names.
+	 */
+	private String[] getNames(SocketPartyData party, Object requested){
+		//In case the user gave the names of the requested channels, return them.
+		if (requested instanceof String[]){
+			return (String[]) requested;
+		}
+
+		//Else, the user gave the number of requested channels, create their names.
+		int connectionsNum = (Integer) requested;
+		String[] names = new String[connectionsNum];
+		for (int i=0; i<connectionsNum; i++){
+			int bigestConnection = connectionsNumber.get(party);
+			names[i] = Integer.toString(bigestConnection);
+			connectionsNumber.put(party, bigestConnection + 1);
+		}
+		return names;
+	}
+
+	/**
+	 * Returns true if this party should call the given party; false if it should accept the given party's calls.
+	 */
+	private boolean isCaller(SocketPartyData party){
+		return me.compareTo(party) < 0;
+	}
+
+	/**
+	 * Calls the given party until it answers or a timeout occurs.
+	 * @return the connected socket, or null in case of a timeout.
+	 */
+	private SocketChannel call(SocketPartyData party){
+		InetSocketAddress address = new InetSocketAddress(party.getIpAddress(), party.getPort());
+		while (!bTimedOut){
+			try {
+				return SocketChannel.open(address);
+			} catch (IOException e) {
+				//The other party does not listen yet, try again later.
+				try {
+					Thread.sleep(RETRY_INTERVAL);
+				} catch (InterruptedException ie) {
+					Logging.getLogger().log(Level.INFO, ie.toString());
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sends the address of this party and the name of the channel to the accepting party.
+	 */
+	private void sendHandshake(SocketChannel socket, String name) throws IOException {
+		byte[] ip = me.getIpAddress().getAddress();
+		byte[] nameBytes = name.getBytes(UTF8);
+		ByteBuffer handshake = ByteBuffer.allocate(1 + ip.length + 4 + 4 + nameBytes.length);
+		handshake.put((byte) ip.length).put(ip).putInt(me.getPort()).putInt(nameBytes.length).put(nameBytes);
+		handshake.flip();
+		while (handshake.hasRemaining()){
+			socket.write(handshake);
+		}
+	}
+
+	/**
+	 * Closes the listener of the connection stage, if it is open.
+	 */
+	private void closeListener(){
+		if (listener != null){
+			try {
+				listener.close();
+			} catch (IOException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+			listener = null;
+		}
+	}
+
+	/**
+	 * Closes the given sockets. Used in case the connection stage failed.
+	 */
+	private void closeSockets(Map<SocketPartyData, Map<String, SocketChannel>> sockets){
+		Iterator<Map<String, SocketChannel>> partiesSockets = sockets.values().iterator();
+		while (partiesSockets.hasNext()){
+			Iterator<SocketChannel> partySockets = partiesSockets.next().values().iterator();
+			while (partySockets.hasNext()){
+				try {
+					partySockets.next().close();
+				} catch (IOException e) {
+					Logging.getLogger().log(Level.WARNING, e.toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the maximal size in bytes of a message sent or received by the channels that will be created. 
+	 * A channel that receives a longer message fails, so all the parties should use the same value. 
+	 * The default is {@link #DEFAULT_MAX_MESSAGE_SIZE}.
+	 * @param maxMessageSize the maximal message size.
+	 * @throws IllegalArgumentException if the given size is not positive.
+	 */
+	public void setMaxMessageSize(int maxMessageSize){
+		if (maxMessageSize < 1){
+			throw new IllegalArgumentException("the maximal message size must be positive");
+		}
+		this.maxMessageSize = maxMessageSize;
+	}
+
+	@Override
+	public void enableNagle(){
+		//Set to true the boolean indicates whether or not to use the Nagle optimization algorithm.
+		//For Cryptographic algorithms is better to have it disabled.
+		this.enableNagle  = true;
+	}
+
+	/**
+	 * This function is called by the infrastructure of the Watchdog if the previously set timeout has passed. (Do not call this function).
+	 */
+	public void timeoutOccured(Watchdog w) {
+		Logging.getLogger().log(Level.INFO, "Timeout occured");
+
+		//Timeout has passed, set the flag.
+		bTimedOut = true;
+
+		//Stop the accepting thread, also in case it waits for the handshake of a silent party.
+		closeListener();
+		AcceptingThread thread = acceptingThread;
+		if (thread != null){
+			thread.closeHandshake();
+		}
+	}
+
+	/**
+	 * Closes all the created channels and stops the I/O threads.
+	 */
+	public void close() {
+		Iterator<Map<String, NioChannel>> partiesChannels = channels.values().iterator();
+		while (partiesChannels.hasNext()){
+			Iterator<NioChannel> partyChannels = partiesChannels.next().values().iterator();
+			while (partyChannels.hasNext()){
+				partyChannels.next().close();
+			}
+		}
+		for (int i=0; i<reactors.length; i++){
+			if (reactors[i] != null){
+				reactors[i].stopReactor();
+			}
+		}
+	}
+
+	/**
+	 * This thread accepts the calls of the other parties and matches each socket to the requested channel
+	 * using the handshake that the calling party sends.
+	 *
+	 * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+	 *
+	 */
+	class AcceptingThread extends Thread{
+
+		private Map<SocketPartyData, String[]> names;
+		private Map<SocketPartyData, Map<String, SocketChannel>> sockets;
+		private int expectedCalls;
+		private int accepted;
+		private volatile SocketChannel handshaking;		//The socket whose handshake is being read.
+
+		/**
+		 * Sets the requested channels and the map to put the accepted sockets in.
+		 */
+		AcceptingThread(Map<SocketPartyData, String[]> names, Map<SocketPartyData, Map<String, SocketChannel>> sockets, int expectedCalls){
+			this.names = names;
+			this.sockets = sockets;
+			this.expectedCalls = expectedCalls;
+		}
+
+		public void run(){
+			ServerSocketChannel serverSocket = listener;
+			while (accepted < expectedCalls && !bTimedOut){
+				SocketChannel socket = null;
+				try {
+					socket = serverSocket.accept();
+					handshaking = socket;
+					//A party that connects and does not send its handshake should not block the other calls.
+					socket.socket().setSoTimeout(HANDSHAKE_TIMEOUT);
+					if (bTimedOut){
+						throw new IOException("timeout has occurred");
+					}
+
+					//Read the address of the calling party and the name of the channel. The lengths are sent by the other party, so check them.
+					DataInputStream in = new DataInputStream(socket.socket().getInputStream());
+					int ipLength = in.readUnsignedByte();
+					if (ipLength != 4 && ipLength != 16){
+						throw new IOException("received an illegal address length " + ipLength);
+					}
+					byte[] ip = new byte[ipLength];
+					in.readFully(ip);
+					int port = in.readInt();
+					int nameLength = in.readInt();
+					if (nameLength < 0 || nameLength > MAX_NAME_LENGTH){
+						throw new IOException("received an illegal channel name length " + nameLength);
+					}
+					byte[] nameBytes = new byte[nameLength];
+					in.readFully(nameBytes);
+					String name = new String(nameBytes, UTF8);
+					socket.socket().setSoTimeout(0);
+					handshaking = null;
+
+					//Put the socket in the map in case it matches an expected channel. Otherwise, close it.
+					SocketPartyData party = getCallingParty(ip, port);
+					if (party != null && Arrays.asList(names.get(party)).contains(name) && !sockets.get(party).containsKey(name)){
+						sockets.get(party).put(name, socket);
+						accepted++;
+					} else{
+						Logging.getLogger().log(Level.WARNING, "unexpected call from port " + port + " to channel " + name);
+						socket.close();
+					}
+				} catch (IOException e) {
+					//The listener was closed because of a timeout, or the call failed or sent an illegal handshake.
+					handshaking = null;
+					Logging.getLogger().log(Level.INFO, e.toString());
+					if (!serverSocket.isOpen()){
+						return;
+					}
+					if (socket != null){
+						try {
+							socket.close();
+						} catch (IOException e1) {
+							Logging.getLogger().log(Level.WARNING, e1.toString());
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Closes the socket whose handshake is being read, if any. Called in case of a timeout.
+		 */
+		void closeHandshake(){
+			SocketChannel socket = handshaking;
+			if (socket != null){
+				try {
+					socket.close();
+				} catch (IOException e) {
+					Logging.getLogger().log(Level.WARNING, e.toString());
+				}
+			}
+		}
+
+		/**
+		 * Returns the party with the given address, in case it is one of the parties that should call this party.
+		 */
+		private SocketPartyData getCallingParty(byte[] ip, int port){
+			Iterator<SocketPartyData> callers = names.keySet().iterator();
+			while (callers.hasNext()){
+				SocketPartyData party = callers.next();
+				if (!isCaller(party) && party.getPort() == port && Arrays.equals(party.getIpAddress().getAddress(), ip)){
+					return party;
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package edu.biu.scapi.comm.multiPartyComm;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * A thread that serves the sockets of many {@link NioChannel}s using a single selector.<p>
+ * The reactor reads the incoming frames of all its channels and writes the frames that the senders could not write 
+ * directly. Requests of other threads (registration of a channel and waiting for a socket to be writable) are 
+ * queued and handled by the reactor thread, since the selection keys should be changed only by this thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class NioReactor extends Thread{
+	
+	private Selector selector;
+	private ConcurrentLinkedQueue<NioChannel> pendingRegistrations = new ConcurrentLinkedQueue<NioChannel>();
+	private ConcurrentLinkedQueue<NioChannel> pendingWrites = new ConcurrentLinkedQueue<NioChannel>();
+	private volatile boolean bStopped = false;
+	
+	/**
+	 * Opens the selector of this reactor. The thread is a daemon thread and should be started by the caller.
+	 * @param name the name of the thread.
+	 * @throws IOException if failed to open the selector.
+	 */
+	NioReactor(String name) throws IOException{
+		super(name);
+		setDaemon(true);
+		selector = Selector.open();
+	}
+	
+	/**
+	 * Asks the reactor to serve the given channel.
+	 */
+	void register(NioChannel channel){
+		pendingRegistrations.add(channel);
+		selector.wakeup();
+	}
+	
+	/**
+	 * Asks the reactor to write the queued frames of the given channel when its socket is writable.
+	 */
+	void requestWrite(NioChannel channel){
+		pendingWrites.add(channel);
+		selector.wakeup();
+	}
+	
+	/**
+	 * Stops the reactor. The channels are not closed.
+	 */
+	void stopReactor(){
+		bStopped = true;
+		selector.wakeup();
+	}
+	
+	public void run(){
+		while (!bStopped){
+			try {
+				selector.select();
+				handlePendingRequests();
+				
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()){
+					SelectionKey key = keys.next();
+					keys.remove();
+					NioChannel channel = (NioChannel) key.attachment();
+					try {
+						if (key.isValid() && key.isReadable()){
+							channel.handleRead();
+						}
+						if (key.isValid() && key.isWritable()){
+							channel.handleWrite();
+						}
+					} catch (IOException e) {
+						//A failure of one channel should not affect the other channels.
+						channel.fail(e);
+					} catch (CancelledKeyException e) {
+						// The channel was closed by another thread.
+					}
+				}
+			} catch (IOException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+		}
+		
+		try {
+			selector.close();
+		} catch (IOException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+	}
+	
+	/**
+	 * Registers the new channels and enables the write events of the channels that have queued frames.
+	 */
+	private void handlePendingRequests(){
+		NioChannel channel;
+		while ((channel = pendingRegistrations.poll()) != null){
+			try {
+				channel.setKey(channel.getSocket().register(selector, SelectionKey.OP_READ, channel));
+			} catch (IOException e) {
+				channel.fail(e);
+			}
+		}
+		while ((channel = pendingWrites.poll()) != null){
+			try {
+				channel.enableWrite();
+			} catch (CancelledKeyException e) {
+				// The channel was closed by another thread.
+			}
+		}
+	}
+}
@@ -82,6 +82,56 @@ public class ActiveMQCommunicationSetup extends QueueCommunicationSetup{
 		
 	}
 	
+	/**
+	 * Sets the parties parameters and create the communication using the given url.<p>
+	 * In case asyncChannels is true, the created channels send BytesMessages in batched transactions, the producers
+	 * send asynchronously within a window of {@link #PRODUCER_WINDOW_SIZE} bytes and the messages are received by an 
+	 * asynchronous listener. Both parties must use the same type of channels.
+	 * 
+	 * @param url The url of the ActiveMQ broker.
+	 * @param me Data of the current application.
+	 * @param party Data of the other application.
+	 * @param enableNagle Indicates if to use Nagle's algorithm or not. For cryptographic algorithms it is much better to disable Nagle's algorithm. 
+	 * @param asyncChannels Indicates whether to create asynchronous channels.
+	 * @throws DuplicatePartyException
+	 */
+	public ActiveMQCommunicationSetup(String url, PartyData me, PartyData party, boolean enableNagle, boolean asyncChannels) throws DuplicatePartyException {
+		this(new ActiveMQConnectionFactory("failover:tcp://"+url+"?socket.tcpNoDelay="+!enableNagle), me, party, asyncChannels);
+	}
+	
+	/**
+	 * Sets the parties parameters and create the communication using the given factory.<p>
+	 * This allows working with any ActiveMQ transport. For example, an embedded broker can be used by giving 
+	 * new ActiveMQConnectionFactory("vm://localhost?broker.persistent=false").
+	 * 
+	 * @param factory The ActiveMQ factory to create the connection with. In case asyncChannels is true, the factory is 
+	 * 		  set to use asynchronous sends.
+	 * @param me Data of the current application.
+	 * @param party Data of the other application.
+	 * @param asyncChannels Indicates whether to create asynchronous channels.
+	 * @throws DuplicatePartyException
+	 */
+	public ActiveMQCommunicationSetup(ActiveMQConnectionFactory factory, PartyData me, PartyData party, boolean asyncChannels) throws DuplicatePartyException {
+		super(configure(factory, asyncChannels), new ActiveMQDestroyer(), me, party, asyncChannels);
+	}
+	
+	/**
+	 * The number of bytes an asynchronous producer may send before it waits for the broker's acknowledgement.
+	 */
+	public static final int PRODUCER_WINDOW_SIZE = 1024 * 1024;
+	
+	/**
+	 * Sets the given factory to use asynchronous sends with producer windowing, in case asyncChannels is true.
+	 * @return the given factory.
+	 */
+	private static ActiveMQConnectionFactory configure(ActiveMQConnectionFactory factory, boolean asyncChannels){
+		if (asyncChannels){
+			factory.setUseAsyncSend(true);
+			factory.setProducerWindowSize(PRODUCER_WINDOW_SIZE);
+		}
+		return factory;
+	}
+	
 	/**
 	 * A class that delete the ActiveMQ destinations using the ActiveMQ connection.
 	 * 
@@ -0,0 +1,327 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * A JMS channel that does not block the sender on every message and does not use the JMS object messages.<p>
+ * 
+ * The channel uses the same queues as {@link QueueChannel}, but: 
+ * <ul>
+ * <li> Every message is sent as a BytesMessage. The first byte of the body tells whether the rest is a raw byte 
+ * array or a serialized object, so byte arrays are sent as is, without the Java serialization overhead.
+ * <li> Messages are sent in a transacted session. Small messages are batched and committed together, either when 
+ * the batch is full, before the channel blocks in receive, after a short linger time or when the channel is closed. 
+ * Messages that are larger than the batch size are committed immediately.
+ * <li> Messages are received by an asynchronous listener that decodes them into a local queue, so the decoding of 
+ * the next message overlaps the computation of the receiving party. 
+ * </ul>
+ * 
+ * The messages that are sent by this channel can only be received by another AsyncQueueChannel.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class AsyncQueueChannel implements Channel{
+	
+	static final int MAX_BATCH_MESSAGES = 64;		//Maximum number of messages in one transaction.
+	static final int MAX_BATCH_BYTES = 64 * 1024;	//Maximum number of payload bytes in one transaction.
+	static final long LINGER_MILLIS = 2;			//Time a batch waits before it is committed.
+	
+	private static final byte RAW_BYTES = 0;		//The message body is a byte array.
+	private static final byte SERIALIZED = 1;		//The message body is a serialized object.
+	private static final Object NULL_MESSAGE = new Object();	//Stands for a null message in the received queue.
+	
+	//Commits the batches that were not committed by the channel's own calls.
+	private static final Timer flushTimer = new Timer("AsyncQueueChannel flush", true);
+	
+	//JMS sessions are single threaded, so sending and receiving use different sessions.
+	private Session producerSession;	//Transacted session used to send messages.
+	private Session consumerSession;	//Session of the asynchronous listener.
+	private MessageProducer producer;
+	private MessageConsumer consumer;
+	
+	//Decoded messages that were not received yet. A failure in the listener is put in the queue as a ReceiveFailure.
+	private LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+	
+	private int pendingMessages;		//Number of uncommitted messages.
+	private int pendingBytes;			//Number of uncommitted payload bytes.
+	private TimerTask flushTask;		//The scheduled commit of the current batch, if any.
+	private JMSException flushFailure;	//A failure of a scheduled commit, thrown by the next send or receive.
+	private volatile boolean isClosed;
+	
+	//As a convention, each queue should be deleted at the end of the communication by the consumer of this queue.
+	private Destination consumerQueue;
+	private Connection connection;
+	private DestroyDestinationUtil destroyer;
+	
+	/**
+	 * A constructor that creates the queues in the same way as {@link QueueChannel}.
+	 * @param first The party which declares the running program.
+	 * @param second The party which declares the other program.
+	 * @param connection The JMS connection object to build the producer and consumer on.
+	 * @param connectionsId the id of this connection.
+	 * @param destroyer The class that delete the created destinations. Should match to the given connection object.
+	 */
+	AsyncQueueChannel(QueuePartyData first, QueuePartyData second, Connection connection, String connectionsId, DestroyDestinationUtil destroyer) {
+		try {
+			this.connection = connection;
+			this.destroyer = destroyer;
+			
+			//Create the producer on a transacted session, so messages can be committed in batches.
+			producerSession = connection.createSession(true, Session.SESSION_TRANSACTED);
+			String producerQueueName = connectionsId+" "+first.getId() + " "+ second.getId();
+			producer = producerSession.createProducer(producerSession.createQueue(producerQueueName));
+			producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+			
+			//Create the consumer and register the listener that fills the received queue.
+			consumerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			String consumerQueueName = connectionsId+" "+second.getId() + " "+ first.getId();
+			consumerQueue = consumerSession.createQueue(consumerQueueName);
+			consumer = consumerSession.createConsumer(consumerQueue);
+			consumer.setMessageListener(new MessageListener() {
+				public void onMessage(Message message) {
+					received.add(decode(message));
+				}
+			});
+			
+			isClosed = false;
+		} catch (JMSException e) {
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void send(Serializable data) throws IOException {
+		//Encode the message outside the lock.
+		byte type;
+		byte[] payload;
+		if (data instanceof byte[]){
+			type = RAW_BYTES;
+			payload = (byte[]) data;
+		} else {
+			type = SERIALIZED;
+			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+			ObjectOutputStream oOut = new ObjectOutputStream(bOut);
+			oOut.writeObject(data);
+			oOut.close();
+			payload = bOut.toByteArray();
+		}
+		
+		synchronized (this){
+			try {
+				throwFlushFailure();
+				BytesMessage message = producerSession.createBytesMessage();
+				message.writeByte(type);
+				message.writeBytes(payload);
+				producer.send(message);
+				
+				pendingMessages++;
+				pendingBytes += payload.length;
+				//Commit a full batch now, otherwise make sure the batch is committed after the linger time.
+				if (pendingMessages >= MAX_BATCH_MESSAGES || pendingBytes >= MAX_BATCH_BYTES){
+					commit();
+				} else if (flushTask == null){
+					flushTask = new TimerTask() {
+						public void run() {
+							synchronized (AsyncQueueChannel.this){
+								try {
+									if (!isClosed){
+										commit();
+									}
+								} catch (JMSException e) {
+									flushFailure = e;
+								}
+							}
+						}
+					};
+					flushTimer.schedule(flushTask, LINGER_MILLIS);
+				}
+				
+			//We cast the exception to SCAPI exception which is a runtime exception.
+			//That way we do not need to declare the function to throw this exception.
+			} catch (JMSException e){
+				throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Commits the messages that were sent and not committed yet.
+	 */
+	public synchronized void flush() {
+		try {
+			throwFlushFailure();
+			commit();
+		} catch (JMSException e){
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Commits the current batch. Should be called while holding the lock of this channel.
+	 */
+	private void commit() throws JMSException {
+		if (flushTask != null){
+			flushTask.cancel();
+			flushTask = null;
+		}
+		if (pendingMessages > 0){
+			pendingMessages = 0;
+			pendingBytes = 0;
+			producerSession.commit();
+		}
+	}
+	
+	/**
+	 * Throws the failure of a scheduled commit, if there was one.
+	 */
+	private void throwFlushFailure() throws JMSException {
+		if (flushFailure != null){
+			JMSException e = flushFailure;
+			flushFailure = null;
+			throw e;
+		}
+	}
+
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		//The other party may wait for our messages before it answers, so commit them before blocking.
+		flush();
+		
+		Object message;
+		try {
+			message = received.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a message");
+		}
+		
+		if (message instanceof ReceiveFailure){
+			Exception cause = ((ReceiveFailure) message).cause;
+			if (cause instanceof ClassNotFoundException){
+				throw (ClassNotFoundException) cause;
+			}
+			if (cause instanceof IOException){
+				throw (IOException) cause;
+			}
+			throw new edu.biu.scapi.exceptions.JMSException(cause.getMessage());
+		}
+		if (message == NULL_MESSAGE){
+			return null;
+		}
+		return (Serializable) message;
+	}
+	
+	/**
+	 * Decodes the given message. Called by the listener thread.
+	 * @return the sent object, or ReceiveFailure in case the message could not be decoded.
+	 */
+	private Object decode(Message message) {
+		try {
+			//Check that the received message is instance of BytesMessage.
+			if (!(message instanceof BytesMessage)){
+				throw new IllegalArgumentException("message should be an instance of BytesMessage");
+			}
+			BytesMessage bytesMessage = (BytesMessage) message;
+			byte type = bytesMessage.readByte();
+			byte[] payload = new byte[(int) bytesMessage.getBodyLength() - 1];
+			bytesMessage.readBytes(payload);
+			
+			if (type == RAW_BYTES){
+				return payload;
+			}
+			ObjectInputStream oIn = new ObjectInputStream(new ByteArrayInputStream(payload));
+			Object data = oIn.readObject();
+			oIn.close();
+			//Null is not allowed in the received queue.
+			return (data == null) ? NULL_MESSAGE : data;
+		} catch (Exception e) {
+			return new ReceiveFailure(e);
+		}
+	}
+	
+	@Override
+	public void close(){
+		try {
+			synchronized (this){
+				//Commit the last batch and prevent the scheduled commit.
+				commit();
+				isClosed = true;
+			}
+			//Close the producer and consumer.
+			producer.close();
+			consumer.close();
+			//Close the sessions.
+			producerSession.close();
+			consumerSession.close();
+			//As a convention, each queue should be deleted at the end of the communication by the consumer of this queue.
+			//(Thus, the producer queue will be deleted by the other side of the communication).
+			destroyer.destroyDestination(connection, consumerQueue);
+		} catch (JMSException e) {
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isClosed() {
+		return isClosed;
+	}
+	
+	/**
+	 * Holds an exception that was thrown by the listener while decoding a message.
+	 */
+	private static class ReceiveFailure {
+		private Exception cause;
+		
+		ReceiveFailure(Exception cause){
+			this.cause = cause;
+		}
+	}
+}
@@ -83,6 +83,7 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 	QueuePartyData me;						//The data of the current application.
 	QueuePartyData other;					//The data of the other application to communicate with.
 	DestroyDestinationUtil destroyer;
+	boolean asyncChannels;					//Indicates whether to create AsyncQueueChannel or QueueChannel objects.
 	
 	protected QueueCommunicationSetup(){}
 	
@@ -101,6 +102,23 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 		
 	}
 
+	/**
+	 * A constructor that set the given parties, start a connection and chooses the type of the created channels.<p>
+	 * Asynchronous channels send BytesMessages in batched transactions and receive them with an asynchronous listener.
+	 * Both parties must use the same type of channels.
+	 * @param factory The class used to create the connection. 
+	 * We get it from the user in order to be able to work with all types of connections.
+	 * @param destroyer The class that delete the created destinations. Should match to the given factory.
+	 * @param me The data of the current application.
+	 * @param party The data of the other application to communicate with.
+	 * @param asyncChannels Indicates whether to create asynchronous channels.
+	 * @throws DuplicatePartyException 
+	 */
+	public QueueCommunicationSetup(ConnectionFactory factory, DestroyDestinationUtil destroyer, PartyData me, PartyData party, boolean asyncChannels) throws DuplicatePartyException{
+		this.asyncChannels = asyncChannels;
+		doConstruct(factory, destroyer, me, party); 
+	}
+
 	protected void doConstruct(ConnectionFactory factory, DestroyDestinationUtil destroyer, PartyData me, PartyData party)
 			throws DuplicatePartyException {
 		//Check that the party is the right object.
@@ -158,7 +176,12 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 		//For each connection between the two parties, create a Queue channel.
 		int size = connectionsIds.length;
 		for (int i=0; i<size && !bTimedOut; i++){
-			QueueChannel channel = new QueueChannel(me, other, connection, connectionsIds[i], destroyer);
+			Channel channel;
+			if (asyncChannels){
+				channel = new AsyncQueueChannel(me, other, connection, connectionsIds[i], destroyer);
+			} else{
+				channel = new QueueChannel(me, other, connection, connectionsIds[i], destroyer);
+			}
 			//put the created channel in the map.
 			connectedChannels.put(connectionsIds[i], channel);	
 		}
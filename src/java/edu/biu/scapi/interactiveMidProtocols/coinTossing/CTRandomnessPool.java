@@ -0,0 +1,220 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.coinTossing;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+
+/**
+ * A pool of shared random coins that is filled by a single execution of a string coin tossing protocol.<p>
+ * 
+ * Instead of running a full coin tossing protocol (commit, proofs, decommit and KDF) for every coin, the parties toss 
+ * one random seed and expand it using a key derivation function (HKDF, for example) into as many coins as needed. 
+ * The expansion is done in blocks, where block i is KDF(seed, i). When the current block runs low, the next block is derived 
+ * by a background thread, so that the coins are ready when they are requested. All the pools share one background thread.<p>
+ * 
+ * The pool owns the given KDF: other code should not use it while the pool is in use, since the pool calls it from the background 
+ * thread. The pool derives at most one block at a time, so the KDF is never called by two threads at once and does not need to be 
+ * thread safe.<p>
+ * 
+ * The output coins are computationally indistinguishable from coins that were tossed by the underlying protocol, as long as 
+ * the KDF is secure. Both parties get the same coins only if they request them in the same order and sizes.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CTRandomnessPool {
+	
+	private static final int BLOCK_SIZE = 4096;	//The number of bytes derived in each call to the KDF.
+	private static final int MIN_SEED_SIZE = 16;	//The minimal size of the tossed seed, in bytes.
+	
+	//Derives the next blocks of all the pools. A single thread is enough, since each pool waits for at most one block.
+	private static final ExecutorService deriver = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "CTRandomnessPool-deriver");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private byte[] seed;
+	private KeyDerivationFunction kdf;
+	private byte[] block;						//The coins that are currently served.
+	private int position;						//The index of the first unused byte in the current block.
+	private int bits;							//The byte that the single coins are currently taken from.
+	private int bitsLeft;						//The number of unused coins in bits.
+	private long nextBlockIndex;				//The index of the next block to derive.
+	private Future<byte[]> nextBlock;			//The derivation of the next block, if it was already started.
+	
+	/**
+	 * Constructor that runs party one of the given string coin tossing protocol once and uses its output as the seed of the pool.
+	 * @param party party one of a coin tossing protocol that outputs a string, for example CTStringPartyOne.
+	 * @param kdf the key derivation function used to expand the seed. The pool owns it from now on.
+	 * @throws IOException can occur in the coin tossing protocol.
+	 * @throws CommitValueException can occur in the coin tossing protocol.
+	 * @throws CheatAttemptException if party two was caught cheating in the coin tossing protocol.
+	 * @throws ClassNotFoundException if there was a problem in the serialization mechanism.
+	 * @throws IllegalArgumentException if the output of the protocol is not a string or is shorter than 128 bits.
+	 */
+	public CTRandomnessPool(CTPartyOne party, KeyDerivationFunction kdf) throws IOException, CommitValueException, CheatAttemptException, ClassNotFoundException {
+		this(party.toss(), kdf);
+	}
+	
+	/**
+	 * Constructor that runs party two of the given string coin tossing protocol once and uses its output as the seed of the pool.
+	 * @param party party two of a coin tossing protocol that outputs a string, for example CTStringPartyTwo.
+	 * @param kdf the key derivation function used to expand the seed. The pool owns it from now on.
+	 * @throws IOException can occur in the coin tossing protocol.
+	 * @throws CommitValueException can occur in the coin tossing protocol.
+	 * @throws CheatAttemptException if party one was caught cheating in the coin tossing protocol.
+	 * @throws ClassNotFoundException if there was a problem in the serialization mechanism.
+	 * @throws IllegalArgumentException if the output of the protocol is not a string or is shorter than 128 bits.
+	 */
+	public CTRandomnessPool(CTPartyTwo party, KeyDerivationFunction kdf) throws IOException, CommitValueException, CheatAttemptException, ClassNotFoundException {
+		this(party.toss(), kdf);
+	}
+	
+	/**
+	 * Constructor that uses an output of a string coin tossing protocol as the seed of the pool.
+	 * @param tossedSeed the output of a coin tossing protocol that outputs a string.
+	 * @param kdf the key derivation function used to expand the seed. The pool owns it from now on.
+	 * @throws IllegalArgumentException if the given output is not a string or is shorter than 128 bits.
+	 */
+	public CTRandomnessPool(CTOutput tossedSeed, KeyDerivationFunction kdf) {
+		if (!(tossedSeed.getOutput() instanceof byte[])){
+			throw new IllegalArgumentException("the seed should be the output of a string coin tossing protocol");
+		}
+		byte[] output = (byte[]) tossedSeed.getOutput();
+		if (output.length < MIN_SEED_SIZE){
+			throw new IllegalArgumentException("the tossed seed should be at least " + MIN_SEED_SIZE*8 + " bits long");
+		}
+		
+		this.seed = output.clone();
+		this.kdf = kdf;
+		
+		//Derive the first block.
+		block = deriveBlock(0);
+		nextBlockIndex = 1;
+	}
+	
+	/**
+	 * Returns the next l coins of the pool.
+	 * @param l the number of coins to return. Should be a multiple of 8.
+	 * @return CTStringOutput that contains l/8 bytes.
+	 */
+	public synchronized CTOutput getString(int l) {
+		if ((l < 0) || (l % 8 != 0)){
+			throw new IllegalArgumentException("l should be a non negative multiple of 8");
+		}
+		
+		//Copy the coins from the current block. If the block is not enough, continue in the next blocks.
+		byte[] result = new byte[l/8];
+		int copied = 0;
+		while (copied < result.length){
+			if (position == block.length){
+				moveToNextBlock();
+			}
+			int size = Math.min(result.length - copied, block.length - position);
+			System.arraycopy(block, position, result, copied, size);
+			position += size;
+			copied += size;
+		}
+		
+		startNextBlockIfNeeded();
+		return new CTStringOutput(result);
+	}
+	
+	/**
+	 * Returns the next coin of the pool.<p>
+	 * Each byte of the pool gives eight single coins, from the most significant bit. The unused coins of that byte are kept 
+	 * for the next calls to this function, and are not part of the strings returned by {@link #getString(int)}.
+	 * @return CTBitOutput that contains 0 or 1.
+	 */
+	public synchronized CTOutput getBit() {
+		if (bitsLeft == 0){
+			if (position == block.length){
+				moveToNextBlock();
+			}
+			bits = block[position++];
+			bitsLeft = 8;
+			startNextBlockIfNeeded();
+		}
+		bitsLeft--;
+		return new CTBitOutput((byte) ((bits >>> bitsLeft) & 1));
+	}
+	
+	/**
+	 * Derives the block in the given index, which is KDF(seed, index).
+	 * @param index the index of the block.
+	 */
+	private byte[] deriveBlock(long index) {
+		byte[] info = new byte[8];
+		for (int i = 0; i < 8; i++){
+			info[i] = (byte) (index >>> (56 - 8*i));
+		}
+		return kdf.deriveKey(seed, 0, seed.length, BLOCK_SIZE, info).getEncoded();
+	}
+	
+	/**
+	 * Starts to derive the next block in a background thread, if less than half of the current block is left.
+	 */
+	private void startNextBlockIfNeeded() {
+		if ((nextBlock == null) && (block.length - position < BLOCK_SIZE / 2)){
+			final long index = nextBlockIndex++;
+			nextBlock = deriver.submit(new Callable<byte[]>() {
+				public byte[] call() {
+					return deriveBlock(index);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Replaces the current block with the next one, waiting for its derivation if necessary.
+	 */
+	private void moveToNextBlock() {
+		startNextBlockIfNeeded();
+		try {
+			block = nextBlock.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ScapiRuntimeException("interrupted while deriving the coins");
+		} catch (ExecutionException e) {
+			throw new ScapiRuntimeException("failed to derive the coins: " + e.getCause());
+		}
+		nextBlock = null;
+		position = 0;
+	}
+}
@@ -28,7 +28,6 @@ import java.io.Serializable;
 
 
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of commitment message used by Pedersen commitment scheme.
@@ -39,8 +38,8 @@ public class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializ
 	private static final long serialVersionUID = -4867238837511177003L;
 	
 	// In Pedersen schemes the commitment object is a groupElement. 
-	//In order to this class be a serializable, we get it as GroupElementSendableData.
-	private GroupElementSendableData c;  
+	//In order to this class be a serializable, we get it in the compact encoding of the Dlog group.
+	private byte[] c;  
 	private long id; //The id of the commitment
 	
 	/**
@@ -48,7 +47,7 @@ public class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializ
 	 * @param c the actual commitment object. In Pedersen schemes the commitment object is a groupElement.
 	 * @param id the commitment id.
 	 */
-	public CmtPedersenCommitmentMessage(GroupElementSendableData c, long id) {
+	public CmtPedersenCommitmentMessage(byte[] c, long id) {
 		super();
 		this.c = c;
 		this.id = id;
@@ -57,7 +56,7 @@ public class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializ
 	/**
 	 * Returns the commitment value
 	 */
-	public GroupElementSendableData getCommitment() {
+	public byte[] getCommitment() {
 		return c;
 	}
 	
@@ -155,7 +155,7 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 	 */
 	private void preProcess() throws ClassNotFoundException, IOException, CheatAttemptException {
 		CmtPedersenPreprocessMessage msg = waitForMessageFromReceiver();
-		h = dlog.reconstructElement(true, msg.getH());
+		h = dlog.decodeElement(true, msg.getH());
 		if(!dlog.isMember(h))
 				throw new CheatAttemptException("h element is not a member of the current DlogGroup");
 	}
@@ -188,7 +188,7 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 		commitmentMap.put(Long.valueOf(id), new CmtPedersenCommitmentPhaseValues(new BigIntegerRandomValue(r), new CmtBigIntegerCommitValue(x), c));
 		
 		//Send c
-		return new CmtPedersenCommitmentMessage(c.generateSendableData(), id);
+		return new CmtPedersenCommitmentMessage(dlog.encodeElement(c), id);
 		
 	}
 	
@@ -26,7 +26,6 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersen;
 
 import java.io.Serializable;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * This class holds the value sent by the receiver to the committer in the pre-process phase which is part of the initialization stage. 
@@ -35,13 +34,13 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  */
 class CmtPedersenPreprocessMessage implements Serializable {
 	private static final long serialVersionUID = -3924307031205721761L;
-	GroupElementSendableData h;
+	byte[] h;
 
 	/**
 	 * Constructor that sets the given groupElement.
 	 * @param h the value sent by the receiver to the committer in the pre-process phase
 	 */
-	public CmtPedersenPreprocessMessage(GroupElementSendableData h) {
+	public CmtPedersenPreprocessMessage(byte[] h) {
 		super();
 		this.h = h;
 	}
@@ -52,7 +51,7 @@ class CmtPedersenPreprocessMessage implements Serializable {
 	 * COMPUTE h = g^a
      * SEND h to Committer.
 	 */
-	public GroupElementSendableData getH() {
+	public byte[] getH() {
 		return h;
 	}
 	
@@ -158,7 +158,7 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		trapdoor = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		h = dlog.exponentiate(dlog.getGenerator(), trapdoor);
 		
-		CmtPedersenPreprocessMessage msg = new CmtPedersenPreprocessMessage(h.generateSendableData());
+		CmtPedersenPreprocessMessage msg = new CmtPedersenPreprocessMessage(dlog.encodeElement(h));
 		try{
 			channel.send(msg);
 		} catch (IOException e) {
@@ -241,7 +241,7 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		GroupElement gTor = dlog.exponentiate(dlog.getGenerator(),r);
 		GroupElement hTox = dlog.exponentiate(h,x);
 		
-		GroupElement commitmentElement = dlog.reconstructElement(true, ((CmtPedersenCommitmentMessage)commitmentMsg).getCommitment());
+		GroupElement commitmentElement = dlog.decodeElement(true, ((CmtPedersenCommitmentMessage)commitmentMsg).getCommitment());
 		if (commitmentElement.equals(dlog.multiplyGroupElements(gTor, hTox)))
 			return new CmtBigIntegerCommitValue(x);
 		//In the pseudocode it says to return X and ACCEPT if valid commitment else, REJECT.
@@ -258,6 +258,6 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 	
 	@Override
 	public GroupElement getCommitmentPhaseValues(long id){
-		return dlog.reconstructElement(true, commitmentMap.get(id).getCommitment());
+		return dlog.decodeElement(true, commitmentMap.get(id).getCommitment());
 	}
 }
@@ -41,6 +41,8 @@ import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentPhase
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.hash.openSSL.OpenSSLSHA256;
 import edu.biu.scapi.securityLevel.SecureCommit;
+import edu.biu.scapi.tools.InstanceFactory;
+import edu.biu.scapi.tools.ParallelBatch;
 
 /**
  * This class implements the committer side of Simple Hash commitment.<p>
@@ -70,6 +72,7 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 	
 	private Channel channel;
 	private CryptographicHash hash;
+	private InstanceFactory<CryptographicHash> hashFactory;	//Creates the hashes of the threads in the batch computation. May be null.
 	private int n;
 	private SecureRandom random;
 	private  Map<Long, CmtSimpleHashCommitmentValues> commitmentMap;
@@ -81,6 +84,11 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 	 */
 	public CmtSimpleHashCommitter(Channel channel) {
 		this(channel, new OpenSSLSHA256(), new SecureRandom(), 32);	
+		setHashFactory(new InstanceFactory<CryptographicHash>() {
+			public CryptographicHash create() {
+				return new OpenSSLSHA256();
+			}
+		});
 	}
 	
 	/**
@@ -103,6 +111,16 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 		//No pre-process in SimpleHash Commitment
 	}
 	
+	/**
+	 * Sets the factory that creates the hash of each thread in {@link #generateCommitmentMsgBatch(CmtCommitValue[], long[], int)}.
+	 * The created hashes should be the same function as the hash given in the constructor. 
+	 * If no factory is set, the threads share the given hash, one at a time.
+	 * @param hashFactory creates hash objects that are equal to the given hash.
+	 */
+	public void setHashFactory(InstanceFactory<CryptographicHash> hashFactory) {
+		this.hashFactory = hashFactory;
+	}
+	
 	/**
 	 * Runs the following lines of the commitment scheme:
 	 * "SAMPLE a random value r <- {0, 1}^n
@@ -128,6 +146,72 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 		return new CmtSimpleHashCommitmentMessage(hashValArray, id);
 	}
 
+	/**
+	 * Runs the following lines of the commitment scheme on each one of the given values:
+	 * "SAMPLE a random value r <- {0, 1}^n
+	 *	COMPUTE c = H(r,x) (c concatenated with r)".<p>
+	 * The hash computations are split between the available processors. Each thread uses its own hash object, created by the 
+	 * factory given in {@link #setHashFactory(InstanceFactory)}; if no factory was set, the threads share the given hash.
+	 * @param inputs the values to commit on.
+	 * @param ids the ids of the commitments, in the same order as the values.
+	 * @return the generated commitments, in the same order as the values.
+	 */
+	public CmtSimpleHashCommitmentMessage[] generateCommitmentMsgBatch(CmtCommitValue[] inputs, long[] ids){
+		return generateCommitmentMsgBatch(inputs, ids, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Runs the following lines of the commitment scheme on each one of the given values:
+	 * "SAMPLE a random value r <- {0, 1}^n
+	 *	COMPUTE c = H(r,x) (c concatenated with r)".<p>
+	 * The hash computations are split between the given number of threads. A caller that already runs in parallel to other 
+	 * threads should pass 1, so that the commitments are computed in the calling thread.
+	 * @param inputs the values to commit on.
+	 * @param ids the ids of the commitments, in the same order as the values.
+	 * @param numOfThreads the number of threads to use. Zero or one means that no other thread is used.
+	 * @return the generated commitments, in the same order as the values.
+	 */
+	public CmtSimpleHashCommitmentMessage[] generateCommitmentMsgBatch(CmtCommitValue[] inputs, long[] ids, int numOfThreads){
+		if (inputs.length != ids.length){
+			throw new IllegalArgumentException("The number of ids should be equal to the number of inputs");
+		}
+		
+		final byte[][] xs = new byte[inputs.length][];
+		final byte[][] rs = new byte[inputs.length][n];
+		for (int i = 0; i < inputs.length; i++){
+			if(!(inputs[i] instanceof CmtByteArrayCommitValue))
+				throw new IllegalArgumentException("The input has to be of type CmtByteArrayCommitValue");
+			xs[i] = ((CmtByteArrayCommitValue)inputs[i]).getX();
+			//Sample random byte array r. The random object is used by the calling thread only.
+			random.nextBytes(rs[i]);
+		}
+		
+		//Compute the hash function on all the values.
+		final byte[][] hashValArrays = new byte[inputs.length][];
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				CryptographicHash threadHash = (hashFactory == null) ? null : hashFactory.create();
+				for (int i = from; i < to; i++){
+					if (threadHash != null){
+						hashValArrays[i] = computeCommitment(xs[i], rs[i], threadHash);
+					} else {
+						synchronized (hash) {
+							hashValArrays[i] = computeCommitment(xs[i], rs[i], hash);
+						}
+					}
+				}
+			}
+		}.run(inputs.length, numOfThreads);
+		
+		//Keep the committed values in the map together with their IDs.
+		CmtSimpleHashCommitmentMessage[] msgs = new CmtSimpleHashCommitmentMessage[inputs.length];
+		for (int i = 0; i < inputs.length; i++){
+			commitmentMap.put(Long.valueOf(ids[i]), new CmtSimpleHashCommitmentValues(new ByteArrayRandomValue(rs[i]), inputs[i], hashValArrays[i]));
+			msgs[i] = new CmtSimpleHashCommitmentMessage(hashValArrays[i], ids[i]);
+		}
+		return msgs;
+	}
+	
 	/**
 	 * Runs the commit phase of the commitment scheme:
 	 * "SAMPLE a random value r <- {0, 1}^n
@@ -154,6 +238,17 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 	 * @return the hash result.
 	 */
 	private byte[] computeCommitment(byte[] x, byte[] r){
+		return computeCommitment(x, r, hash);
+	}
+	
+	/**
+	 * Computes the given hash function on the concatination of the inputs.
+	 * @param x user input
+	 * @param r random value
+	 * @param hash the hash function to use
+	 * @return the hash result.
+	 */
+	private byte[] computeCommitment(byte[] x, byte[] r, CryptographicHash hash){
 		//create an array that will hold the concatenation of r with x
 		byte[] c = new byte[n+x.length];
 		
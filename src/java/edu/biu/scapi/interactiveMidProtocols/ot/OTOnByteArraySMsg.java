@@ -24,11 +24,11 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT Privacy sender (on byte array) message.<p>
  * In the byteArray scenario, the sender sends two GroupElement - w0 and w1 and two byte arrays - c0 and c1.
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * This class is used by most of OT implementations. <p>
  * An OT protocol that does not use this class (like OT SemiHonest) will create a separate 
  * class that matches what it needs.<p>
@@ -40,8 +40,8 @@ public class OTOnByteArraySMsg implements OTSMsg{
 
 	private static final long serialVersionUID = 4767226698720455158L;
 
-	private GroupElementSendableData w0;
-	private GroupElementSendableData w1;
+	private byte[] w0;
+	private byte[] w1;
 	private byte[] c0;
 	private byte[] c1;
 	
@@ -52,19 +52,19 @@ public class OTOnByteArraySMsg implements OTSMsg{
 	 * @param w1
 	 * @param c1
 	 */
-	public OTOnByteArraySMsg(GroupElementSendableData w0, byte[] c0, 
-										GroupElementSendableData w1, byte[] c1){
+	public OTOnByteArraySMsg(byte[] w0, byte[] c0, 
+										byte[] w1, byte[] c1){
 		this.w0 = w0;
 		this.w1 = w1;
 		this.c0 = c0;
 		this.c1 = c1;
 	}
 	
-	public GroupElementSendableData getW0(){
+	public byte[] getW0(){
 		return w0;
 	}
 	
-	public GroupElementSendableData getW1(){
+	public byte[] getW1(){
 		return w1;
 	}
 	
@@ -24,11 +24,11 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT Privacy sender (on GroupElement) message.<p>
  * In the GroupElement scenario, the sender sends four GroupElements - w0, w1, c0 and c1.<p>
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * This class is used by most of OT implementations. <p>
  * An OT protocol that does not use this class (like OT SemiHonest) will create a separate 
  * class that matches what it needs.<p>
@@ -39,10 +39,10 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 public class OTOnGroupElementSMsg implements OTSMsg{
 
 	private static final long serialVersionUID = -8148257600652565154L;
-	private GroupElementSendableData w0;
-	private GroupElementSendableData w1;
-	private GroupElementSendableData c0;
-	private GroupElementSendableData c1;
+	private byte[] w0;
+	private byte[] w1;
+	private byte[] c0;
+	private byte[] c1;
 	
 	/**
 	 * Constructor that sets the tuples (w0,c0), (w1, c1) calculated by the protocol.
@@ -51,29 +51,29 @@ public class OTOnGroupElementSMsg implements OTSMsg{
 	 * @param w1
 	 * @param c1
 	 */
-	public OTOnGroupElementSMsg(GroupElementSendableData  w0, 
-								GroupElementSendableData c0,
-								GroupElementSendableData w1,  
-								GroupElementSendableData c1){
+	public OTOnGroupElementSMsg(byte[]  w0, 
+								byte[] c0,
+								byte[] w1,  
+								byte[] c1){
 		this.w0 = w0;
 		this.w1 = w1;
 		this.c0 = c0;
 		this.c1 = c1;
 	}
 	
-	public GroupElementSendableData getW0(){
+	public byte[] getW0(){
 		return w0;
 	}
 	
-	public GroupElementSendableData getW1(){
+	public byte[] getW1(){
 		return w1;
 	}
 	
-	public GroupElementSendableData getC0(){
+	public byte[] getC0(){
 		return c0;
 	}
 	
-	public GroupElementSendableData getC1(){
+	public byte[] getC1(){
 		return c1;
 	}
 }
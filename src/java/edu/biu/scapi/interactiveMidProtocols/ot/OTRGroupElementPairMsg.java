@@ -26,11 +26,11 @@ package edu.biu.scapi.interactiveMidProtocols.ot;
 
 import java.io.Serializable;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT receiver message. <p>This implementation is common for OT on byteArray and on GroupElement.<p>
  * The message contains tuple of two GroupElements - (h0, h1).
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -39,19 +39,19 @@ public class OTRGroupElementPairMsg implements Serializable{
 
 	private static final long serialVersionUID = 8620542140745898146L;
 	
-	private GroupElementSendableData h0;
-	private GroupElementSendableData h1;
+	private byte[] h0;
+	private byte[] h1;
 	
-	public OTRGroupElementPairMsg(GroupElementSendableData h0, GroupElementSendableData h1){
+	public OTRGroupElementPairMsg(byte[] h0, byte[] h1){
 		this.h0 = h0;
 		this.h1 = h1;
 	}
 	
-	public GroupElementSendableData getFirstGE(){
+	public byte[] getFirstGE(){
 		return h0;
 	}
 	
-	public GroupElementSendableData getSecondGE(){
+	public byte[] getSecondGE(){
 		return h1;
 	}
 }
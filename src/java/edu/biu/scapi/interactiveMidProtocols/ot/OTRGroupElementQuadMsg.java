@@ -26,12 +26,12 @@ package edu.biu.scapi.interactiveMidProtocols.ot;
 
 import java.io.Serializable;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT receiver message used by some OT receivers implementations. <p>
  * This implementation is common for OT on byteArray and on GroupElement.<p>
  * The message contains tuple of four GroupElements - (x, y, z0, z1).
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -40,32 +40,32 @@ public class OTRGroupElementQuadMsg implements Serializable{
 	
 	private static final long serialVersionUID = 8620542140745898146L;
 	
-	private GroupElementSendableData x;
-	private GroupElementSendableData y;
-	private GroupElementSendableData z0;
-	private GroupElementSendableData z1;
+	private byte[] x;
+	private byte[] y;
+	private byte[] z0;
+	private byte[] z1;
 	
-	public OTRGroupElementQuadMsg(GroupElementSendableData x, GroupElementSendableData y, 
-							 GroupElementSendableData z0, GroupElementSendableData z1){
+	public OTRGroupElementQuadMsg(byte[] x, byte[] y, 
+							 byte[] z0, byte[] z1){
 		this.x = x;
 		this.y = y;
 		this.z0 = z0;
 		this.z1 = z1;
 	}
 	
-	public GroupElementSendableData getX(){
+	public byte[] getX(){
 		return x;
 	}
 	
-	public GroupElementSendableData getY(){
+	public byte[] getY(){
 		return y;
 	}
 	
-	public GroupElementSendableData getZ0(){
+	public byte[] getZ0(){
 		return z0;
 	}
 	
-	public GroupElementSendableData getZ1(){
+	public byte[] getZ1(){
 		return z1;
 	}
 }
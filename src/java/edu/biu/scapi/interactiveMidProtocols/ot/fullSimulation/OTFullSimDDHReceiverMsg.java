@@ -26,11 +26,11 @@ package edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation;
 
 import java.io.Serializable;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT with full simulation receiver message. This implementation is common for OT on byteArray and on GroupElement.
  * The message contains tuple of three GroupElements - (h0, h1, g1).
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -41,25 +41,25 @@ class OTFullSimDDHReceiverMsg implements Serializable{
 	private static final long serialVersionUID = 694486245423097492L;
 	
 	
-	private GroupElementSendableData h0;
-	private GroupElementSendableData h1;
-	private GroupElementSendableData g1;
+	private byte[] h0;
+	private byte[] h1;
+	private byte[] g1;
 	
-	public OTFullSimDDHReceiverMsg(GroupElementSendableData g1, GroupElementSendableData h0, 
-			GroupElementSendableData h1){
+	public OTFullSimDDHReceiverMsg(byte[] g1, byte[] h0, 
+			byte[] h1){
 		this.h0 = h0;
 		this.h1 = h1;
 		this.g1 = g1;
 	}
 	
 	
-	public GroupElementSendableData getH0() {
+	public byte[] getH0() {
 		return h0;
 	}
-	public GroupElementSendableData getH1() {
+	public byte[] getH1() {
 		return h1;
 	}
-	public GroupElementSendableData getG1() {
+	public byte[] getG1() {
 		return g1;
 	}
 	
@@ -77,8 +77,8 @@ public class OTFullSimOnByteArrayReceiverTransferUtil extends OTFullSimReceiverT
 		OTOnByteArraySMsg msg = (OTOnByteArraySMsg)message;
 		
 		//Reconstruct the group elements from the given message.
-		GroupElement u0 = dlog.reconstructElement(true, msg.getW0());
-		GroupElement u1 = dlog.reconstructElement(true, msg.getW1());
+		GroupElement u0 = dlog.decodeElement(true, msg.getW0());
+		GroupElement u1 = dlog.decodeElement(true, msg.getW1());
 		
 		//Get the byte arrays from the given message.
 		byte[] c0 = msg.getC0();
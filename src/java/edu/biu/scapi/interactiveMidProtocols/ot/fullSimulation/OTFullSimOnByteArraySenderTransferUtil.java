@@ -103,7 +103,7 @@ public class OTFullSimOnByteArraySenderTransferUtil extends OTFullSimSenderTrans
 		}
 		
 		//Create and return sender message.
-		return new OTOnByteArraySMsg(u0.generateSendableData(), c0, u1.generateSendableData(), c1);
+		return new OTOnByteArraySMsg(dlog.encodeElement(u0), c0, dlog.encodeElement(u1), c1);
 	}
 
 }
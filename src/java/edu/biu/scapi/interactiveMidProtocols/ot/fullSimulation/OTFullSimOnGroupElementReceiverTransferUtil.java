@@ -70,10 +70,10 @@ public class OTFullSimOnGroupElementReceiverTransferUtil extends OTFullSimReceiv
 		OTOnGroupElementSMsg msg = (OTOnGroupElementSMsg)message;
 		
 		//Reconstruct the group elements from the given message.
-		GroupElement u0 = dlog.reconstructElement(true, msg.getW0());
-		GroupElement u1 = dlog.reconstructElement(true, msg.getW1());
-		GroupElement c0 = dlog.reconstructElement(true, msg.getC0());
-		GroupElement c1 = dlog.reconstructElement(true, msg.getC1());
+		GroupElement u0 = dlog.decodeElement(true, msg.getW0());
+		GroupElement u1 = dlog.decodeElement(true, msg.getW1());
+		GroupElement c0 = dlog.decodeElement(true, msg.getC0());
+		GroupElement c1 = dlog.decodeElement(true, msg.getC1());
 				
 		//Compute the validity checks of the given message.		
 		checkReceivedTuple(u0, u1, c0, c1);
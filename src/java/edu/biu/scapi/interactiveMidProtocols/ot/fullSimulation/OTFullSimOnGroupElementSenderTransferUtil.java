@@ -80,8 +80,8 @@ public class OTFullSimOnGroupElementSenderTransferUtil extends OTFullSimSenderTr
 		GroupElement c1 = dlog.multiplyGroupElements(x1, v1);
 		
 		//Create and return sender message.
-		return new OTOnGroupElementSMsg(u0.generateSendableData(), 
-				c0.generateSendableData(), u1.generateSendableData(), c1.generateSendableData());
+		return new OTOnGroupElementSMsg(dlog.encodeElement(u0), 
+				dlog.encodeElement(c0), dlog.encodeElement(u1), dlog.encodeElement(c1));
 	}
 
 }
@@ -82,7 +82,7 @@ public class OTFullSimReceiverPreprocessUtil {
 		GroupElement h0 = dlog.exponentiate(g0, alpha0);
 		GroupElement h1 = dlog.exponentiate(g1, alpha1);
 		
-		OTFullSimDDHReceiverMsg tuple = new OTFullSimDDHReceiverMsg(g1.generateSendableData(), h0.generateSendableData(), h1.generateSendableData());
+		OTFullSimDDHReceiverMsg tuple = new OTFullSimDDHReceiverMsg(dlog.encodeElement(g1), dlog.encodeElement(h0), dlog.encodeElement(h1));
 				
 		//Send tuple to sender.
 		sendTupleToSender(channel, tuple);
@@ -150,7 +150,7 @@ public abstract class OTFullSimReceiverTransferUtilAbs {
 			h = dlog.exponentiate(preprocessValues.getH1(), r);
 		}
 		
-		return new OTRGroupElementPairMsg(g.generateSendableData(), h.generateSendableData());
+		return new OTRGroupElementPairMsg(dlog.encodeElement(g), dlog.encodeElement(h));
 	}
 	
 	/**
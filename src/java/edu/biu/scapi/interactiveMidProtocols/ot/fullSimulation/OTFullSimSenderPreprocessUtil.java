@@ -62,9 +62,9 @@ public class OTFullSimSenderPreprocessUtil {
 		//Wait for message from R
 		OTFullSimDDHReceiverMsg message = waitForFullSimMessageFromReceiver(channel);
 		
-		GroupElement g1 = dlog.reconstructElement(true, message.getG1());
-		GroupElement h0 = dlog.reconstructElement(true, message.getH0());
-		GroupElement h1 = dlog.reconstructElement(true, message.getH1());
+		GroupElement g1 = dlog.decodeElement(true, message.getG1());
+		GroupElement h0 = dlog.decodeElement(true, message.getH0());
+		GroupElement h1 = dlog.decodeElement(true, message.getH1());
 		
 		//Run the verifier in ZKPOK_FROM_SIGMA with Sigma protocol SIGMA_DH.
 		GroupElement g1Inv = dlog.getInverse(g1);
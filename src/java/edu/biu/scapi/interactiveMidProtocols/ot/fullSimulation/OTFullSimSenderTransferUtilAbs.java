@@ -91,8 +91,8 @@ public abstract class OTFullSimSenderTransferUtilAbs {
 		//Wait for message from R
 		OTRGroupElementPairMsg message = waitForMessageFromReceiver(channel);
 				
-		GroupElement g = dlog.reconstructElement(true, message.getFirstGE());
-		GroupElement h = dlog.reconstructElement(true, message.getSecondGE());
+		GroupElement g = dlog.decodeElement(true, message.getFirstGE());
+		GroupElement h = dlog.decodeElement(true, message.getSecondGE());
 		
 		//COMPUTE (u0,v0) = RAND(g0,g,h0,h)
 		//COMPUTE (u1,v1) = RAND(g1,g,h1,h)
@@ -277,16 +277,16 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 		
 		//Create the tuple.
 		if (sigma == 0){
-			return new OTRGroupElementQuadMsg(gAlpha.generateSendableData(), 
-										 gBeta.generateSendableData(), 
-										 gAlphaBeta.generateSendableData(), 
-										 gGamma.generateSendableData());
+			return new OTRGroupElementQuadMsg(dlog.encodeElement(gAlpha), 
+										 dlog.encodeElement(gBeta), 
+										 dlog.encodeElement(gAlphaBeta), 
+										 dlog.encodeElement(gGamma));
 		}
 		else {
-			return new OTRGroupElementQuadMsg(gAlpha.generateSendableData(), 
-										 gBeta.generateSendableData(), 
-										 gGamma.generateSendableData(), 
-										 gAlphaBeta.generateSendableData());
+			return new OTRGroupElementQuadMsg(dlog.encodeElement(gAlpha), 
+										 dlog.encodeElement(gBeta), 
+										 dlog.encodeElement(gGamma), 
+										 dlog.encodeElement(gAlphaBeta));
 		}
 	}
 	
@@ -0,0 +1,82 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+
+/**
+ * Concrete implementation of batch OT sender (on byteArray) message.<p>
+ * For each i=1,...,m, the sender sends two GroupElements wi0, wi1 and two binary strings ci0, ci1 of the same length.<p>
+ * The GroupElements of the batch are packed one after the other in a single array, using the compact encoding of the 
+ * Dlog group. The binary strings are concatenated in a second array (ci0 followed by ci1 for each i), and the length 
+ * of each couple is held separately.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTBatchOnByteArraySMsg implements OTSMsg{
+
+	private static final long serialVersionUID = 4378209811673520741L;
+
+	private byte[] elements;
+	private byte[] ciphertexts;
+	private int[] lengths;
+	
+	/**
+	 * Sets the tuples calculated by the protocol.
+	 * @param elements the encodings of w10, w11, w20, w21, ... one after the other.
+	 * @param ciphertexts c10, c11, c20, c21, ... one after the other.
+	 * @param lengths lengths[i] is the length of ci0 and of ci1. The number of OTs in the batch is the size of this array.
+	 */
+	public OTBatchOnByteArraySMsg(byte[] elements, byte[] ciphertexts, int[] lengths){
+		this.elements = elements;
+		this.ciphertexts = ciphertexts;
+		this.lengths = lengths;
+	}
+	
+	/**
+	 * Returns the encoded GroupElements calculated by the protocol.
+	 * @return the encodings of w10, w11, w20, w21, ... one after the other.
+	 */
+	public byte[] getElements(){
+		return elements;
+	}
+	
+	/**
+	 * Returns the binary strings calculated by the protocol.
+	 * @return c10, c11, c20, c21, ... one after the other.
+	 */
+	public byte[] getCiphertexts(){
+		return ciphertexts;
+	}
+	
+	/**
+	 * Returns the length of each couple of binary strings.
+	 * @return an array that holds in index i the length of ci0 (which is also the length of ci1).
+	 */
+	public int[] getLengths(){
+		return lengths;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+
+/**
+ * Concrete implementation of batch OT sender (on GroupElement) message.<p>
+ * For each i=1,...,m, the sender sends four GroupElements - wi0, ci0, wi1 and ci1.<p>
+ * All the elements of the batch are packed one after the other in a single array, using the compact encoding of the Dlog group 
+ * (see {@link edu.biu.scapi.primitives.dlog.DlogGroup#encodeElement(edu.biu.scapi.primitives.dlog.GroupElement, java.nio.ByteBuffer)}).
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTBatchOnGroupElementSMsg implements OTSMsg{
+
+	private static final long serialVersionUID = -2316780954124338512L;
+
+	private byte[] elements;
+	private int size;
+	
+	/**
+	 * Sets the encoded tuples calculated by the protocol.
+	 * @param elements the encodings of w10, c10, w11, c11, w20, ... one after the other.
+	 * @param size the number of OTs in the batch.
+	 */
+	public OTBatchOnGroupElementSMsg(byte[] elements, int size){
+		this.elements = elements;
+		this.size = size;
+	}
+	
+	/**
+	 * Returns the encoded tuples calculated by the protocol.
+	 * @return the encodings of w10, c10, w11, c11, w20, ... one after the other.
+	 */
+	public byte[] getElements(){
+		return elements;
+	}
+	
+	/**
+	 * Returns the number of OTs in the batch.
+	 */
+	public int getSize(){
+		return size;
+	}
+}
@@ -22,40 +22,50 @@
 * %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
 * 
 */
-package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-
-import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 
 /**
  * Concrete implementation of OT receiver message used by batch OT receivers implementations. <p>
- * This implementation is common for OT on byteArray and on GroupElement.
- * The message contains tuples of two GroupElements.
+ * This implementation is common for OT on byteArray and on GroupElement, and is used by both the semi-honest and the 
+ * full simulation batch OTs.
+ * The message contains tuples of two GroupElements.<p>
+ * The tuples (hi0, hi1) are packed one after the other in a single array, using the compact encoding of the Dlog group 
+ * (see {@link edu.biu.scapi.primitives.dlog.DlogGroup#encodeElement(edu.biu.scapi.primitives.dlog.GroupElement, java.nio.ByteBuffer)}).
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
- class OTRGroupElementBatchMsg implements Serializable{
+public class OTRGroupElementBatchMsg implements Serializable{
 
 	private static final long serialVersionUID = 8741959627688845620L;
 
-	private ArrayList<OTRGroupElementPairMsg> tuples;
+	private byte[] tuples;
+	private int size;
 	
 	/**
-	 * Sets the array contains messages of the underlying OT.
-	 * @param tuples contains messages of the underlying OT.
+	 * Sets the encoded tuples of the underlying OT.
+	 * @param tuples the encodings of h10, h11, h20, h21, ... one after the other.
+	 * @param size the number of tuples.
 	 */
-	OTRGroupElementBatchMsg(ArrayList<OTRGroupElementPairMsg> tuples){
+	public OTRGroupElementBatchMsg(byte[] tuples, int size){
 		this.tuples = tuples;
+		this.size = size;
 	}
 	
 	/**
-	 * Returns the messages array of underlying OT.
-	 * @return the messages array of underlying OT.
+	 * Returns the encoded tuples of the underlying OT.
+	 * @return the encodings of h10, h11, h20, h21, ... one after the other.
 	 */
-	ArrayList<OTRGroupElementPairMsg> getTuples(){
+	public byte[] getTuples(){
 		return tuples;
 	}
+	
+	/**
+	 * Returns the number of tuples in this message.
+	 */
+	public int getSize(){
+		return size;
+	}
 }
@@ -0,0 +1,141 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * This class executes the computations in the transfer function that related to the byte[] inputs in batch OT's 
+ * that achieve full simulation.<p>
+ * The exponentiations are divided between the available processors, while the KDF, which holds an internal state, 
+ * is applied by the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimBatchOnByteArrayReceiverTransferUtil extends OTFullSimBatchReceiverTransferUtilAbs{
+	
+	private KeyDerivationFunction kdf;
+	
+	/**
+	 * Sets the given dlog, kdf and random.
+	 * @param dlog
+	 * @param kdf
+	 * @param random
+	 */
+	public OTFullSimBatchOnByteArrayReceiverTransferUtil(DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) {
+		super(dlog, random);
+		this.kdf = kdf;
+	}
+
+	/**
+	 * Run the following lines from the protocol:
+	 * "IF NOT 
+	 *		1. ui0, ui1 in the DlogGroup, AND
+	 *		2. ci0, ci1 are binary strings of the same length
+	 *	   REPORT ERROR
+	 *	OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)"
+	 * @param sigmaArr input of the protocol
+	 * @param r random values sampled in the protocol
+	 * @param message received from the sender. MUST be OTBatchOnByteArraySMsg.
+	 * @return OTBatchOnByteArrayROutput contains xiSigma for every i.
+	 * @throws CheatAttemptException if the message does not contain a valid tuple for every OT, or one of the elements is not a member of the DlogGroup.
+	 */
+	protected OTBatchROutput checkMessageAndComputeX(final ArrayList<Byte> sigmaArr, final BigInteger[] r, OTSMsg message) throws CheatAttemptException {
+		//If message is not instance of OTBatchOnByteArraySMsg, throw Exception.
+		if(!(message instanceof OTBatchOnByteArraySMsg)){
+			throw new IllegalArgumentException("message should be instance of OTBatchOnByteArraySMsg");
+		}
+		
+		OTBatchOnByteArraySMsg msg = (OTBatchOnByteArraySMsg)message;
+		int size = r.length;
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] elements = msg.getElements();
+		byte[] ciphertexts = msg.getCiphertexts();
+		int[] lengths = msg.getLengths();
+		if (lengths.length != size || elements.length != 2 * size * elementSize){
+			throw new CheatAttemptException("the message of the sender does not contain " + size + " tuples");
+		}
+		long totalLength = 0;
+		for (int i=0; i<size; i++){
+			if (lengths[i] < 0){
+				throw new CheatAttemptException("the message of the sender contains a negative length");
+			}
+			totalLength += 2L * lengths[i];
+		}
+		if (totalLength != ciphertexts.length){
+			throw new CheatAttemptException("the binary strings in the message of the sender do not match their lengths");
+		}
+		
+		//Reconstruct ui0, ui1, check that they are members of the DlogGroup and compute (uiSigma)^ri.
+		final GroupElement[] kdfInput = new GroupElement[size];
+		try {
+			new ParallelIndexBatch(){
+				protected void compute(int i){
+					ByteBuffer tuple = ByteBuffer.wrap(elements, 2 * i * elementSize, 2 * elementSize);
+					GroupElement[] u = dlog.decodeElements(true, tuple, 2);
+					kdfInput[i] = dlog.exponentiate(u[sigmaArr.get(i)], r[i]);
+				}
+			}.run(size);
+		} catch (IllegalArgumentException e) {
+			throw new CheatAttemptException("the sender sent an element that is not a member in the current DlogGroup");
+		}
+		
+		ArrayList<byte[]> xSigmaArr = new ArrayList<byte[]>(size);
+		int offset = 0;
+		for (int i=0; i<size; i++){
+			//ciSigma starts after ci0 if sigmaI = 1.
+			int len = lengths[i];
+			int cSigmaOffset = offset + sigmaArr.get(i) * len;
+			
+			//Compute kdf result:
+			byte[] kdfBytes = dlog.mapAnyGroupElementToByteArray(kdfInput[i]);
+			byte[] xSigma = kdf.deriveKey(kdfBytes, 0, kdfBytes.length, len).getEncoded();
+			
+			//Xores the result from the kdf with ciSigma.
+			for(int j=0; j<len; j++){
+				xSigma[j] = (byte) (ciphertexts[cSigmaOffset + j] ^ xSigma[j]);
+			}
+			xSigmaArr.add(xSigma);
+			offset += 2 * len;
+		}
+		
+		//Create and return the output containing xSigma
+		return new OTBatchOnByteArrayROutput(xSigmaArr);
+	}
+}
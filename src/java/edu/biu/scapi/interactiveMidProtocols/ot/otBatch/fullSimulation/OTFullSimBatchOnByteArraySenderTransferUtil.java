@@ -0,0 +1,150 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+
+/**
+ * This class executes the computations in the transfer function that related to the byte[] inputs in batch OT's 
+ * that achieve full simulation.<p>
+ * The KDF holds an internal state, so these computations are done by the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimBatchOnByteArraySenderTransferUtil extends OTFullSimBatchSenderTransferUtilAbs{
+	
+	private KeyDerivationFunction kdf;
+	
+	/**
+	 * Sets the given dlog, kdf and random.
+	 * @param dlog
+	 * @param kdf
+	 * @param random
+	 */
+	public OTFullSimBatchOnByteArraySenderTransferUtil(DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) {
+		super(dlog, random);
+		this.kdf = kdf;
+	}
+	
+	/**
+	 * Returns the number of OTs in the given input.
+	 * @param input MUST be OTBatchOnByteArraySInput.
+	 * @return the number of couples (xi0, xi1) in the input.
+	 */
+	protected int getNumOfOts(OTBatchSInput input) {
+		//If input is not instance of OTBatchOnByteArraySInput, throw Exception.
+		if (!(input instanceof OTBatchOnByteArraySInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput.");
+		}
+		
+		int size = ((OTBatchOnByteArraySInput) input).getX0Arr().size();
+		if (((OTBatchOnByteArraySInput) input).getX1Arr().size() != size){
+			throw new IllegalArgumentException("x0 and x1 should contain the same number of elements.");
+		}
+		return size;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "For every i=1,...,m, COMPUTE:
+	 *		ci0 = xi0 XOR KDF(|xi0|,vi0)
+	 *		ci1 = xi1 XOR KDF(|xi1|,vi1)"
+	 * @param input MUST be OTBatchOnByteArraySInput.
+	 * @param u0
+	 * @param u1
+	 * @param v0
+	 * @param v1
+	 * @return OTBatchOnByteArraySMsg that contains (ui0, ci0, ui1, ci1) for every i.
+	 */
+	protected OTSMsg computeMsg(OTBatchSInput input, GroupElement[] u0, GroupElement[] u1, GroupElement[] v0, GroupElement[] v1) {
+		//If input is not instance of OTBatchOnByteArraySInput, throw Exception.
+		if (!(input instanceof OTBatchOnByteArraySInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput.");
+		}
+		
+		//Get x0, x1.
+		ArrayList<byte[]> x0Arr = ((OTBatchOnByteArraySInput) input).getX0Arr();
+		ArrayList<byte[]> x1Arr = ((OTBatchOnByteArraySInput) input).getX1Arr();
+		int size = u0.length;
+		
+		//If xi0, xi1 are not of the same length, throw Exception.
+		int[] lengths = new int[size];
+		int totalLength = 0;
+		for (int i=0; i<size; i++){
+			lengths[i] = x0Arr.get(i).length;
+			if (lengths[i] != x1Arr.get(i).length){
+				throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+			}
+			totalLength += 2 * lengths[i];
+		}
+		
+		ByteBuffer elements = ByteBuffer.allocate(2 * size * dlog.getCompactElementSize());
+		byte[] ciphertexts = new byte[totalLength];
+		int offset = 0;
+		for (int i=0; i<size; i++){
+			dlog.encodeElement(u0[i], elements);
+			dlog.encodeElement(u1[i], elements);
+			
+			//Calculate ci0 and ci1.
+			offset = encrypt(x0Arr.get(i), v0[i], ciphertexts, offset);
+			offset = encrypt(x1Arr.get(i), v1[i], ciphertexts, offset);
+		}
+		
+		//Create and return sender message.
+		return new OTBatchOnByteArraySMsg(elements.array(), ciphertexts, lengths);
+	}
+	
+	/**
+	 * Computes x XOR KDF(|x|,v) and writes it into the given array.
+	 * @param x the input string.
+	 * @param v the element to derive the key from.
+	 * @param out the array to write the result into.
+	 * @param offset the index in out to start writing from.
+	 * @return the index in out that follows the written bytes.
+	 */
+	private int encrypt(byte[] x, GroupElement v, byte[] out, int offset){
+		byte[] vBytes = dlog.mapAnyGroupElementToByteArray(v);
+		int len = x.length;
+		byte[] key = kdf.deriveKey(vBytes, 0, vBytes.length, len).getEncoded();
+		
+		//Xores the result from the kdf with x.
+		for(int j=0; j<len; j++){
+			out[offset + j] = (byte) (key[j] ^ x[j]);
+		}
+		return offset + len;
+	}
+
+}
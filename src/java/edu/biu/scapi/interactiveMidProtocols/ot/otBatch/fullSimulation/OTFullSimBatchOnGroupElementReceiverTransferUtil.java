@@ -0,0 +1,109 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * This class executes the computations in the transfer function that related to the GroupElement inputs in batch OT's 
+ * that achieve full simulation.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimBatchOnGroupElementReceiverTransferUtil extends OTFullSimBatchReceiverTransferUtilAbs{
+
+	/**
+	 * Sets the given dlog and random.
+	 * @param dlog
+	 * @param random
+	 */
+	public OTFullSimBatchOnGroupElementReceiverTransferUtil(DlogGroup dlog, SecureRandom random) {
+		super(dlog, random);
+	}
+
+	/**
+	 * Run the following lines from the protocol:
+	 * "IF  NOT 
+	 *		1. ui0, ui1, ci0, ci1 in the DlogGroup
+	 *	REPORT ERROR
+	 *	OUTPUT xiSigma = ciSigma * (uiSigma)^(-ri)"
+	 * @param sigmaArr input of the protocol
+	 * @param r random values sampled in the protocol
+	 * @param message received from the sender. MUST be OTBatchOnGroupElementSMsg.
+	 * @return OTBatchOnGroupElementROutput contains xiSigma for every i.
+	 * @throws CheatAttemptException if the message does not contain a tuple for every OT, or one of the elements is not a member of the DlogGroup.
+	 */
+	protected OTBatchROutput checkMessageAndComputeX(final ArrayList<Byte> sigmaArr, final BigInteger[] r, OTSMsg message) throws CheatAttemptException {
+		//If message is not instance of OTBatchOnGroupElementSMsg, throw Exception.
+		if(!(message instanceof OTBatchOnGroupElementSMsg)){
+			throw new IllegalArgumentException("message should be instance of OTBatchOnGroupElementSMsg");
+		}
+		
+		OTBatchOnGroupElementSMsg msg = (OTBatchOnGroupElementSMsg)message;
+		int size = r.length;
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] elements = msg.getElements();
+		if (msg.getSize() != size || elements.length != 4 * size * elementSize){
+			throw new CheatAttemptException("the message of the sender does not contain " + size + " tuples");
+		}
+		
+		final BigInteger q = dlog.getOrder();
+		final GroupElement[] xSigma = new GroupElement[size];
+		try {
+			new ParallelIndexBatch(){
+				protected void compute(int i){
+					//Reconstruct ui0, ci0, ui1, ci1 and check that they are members of the DlogGroup.
+					ByteBuffer tuple = ByteBuffer.wrap(elements, 4 * i * elementSize, 4 * elementSize);
+					GroupElement[] tupleElements = dlog.decodeElements(true, tuple, 4);
+					
+					//Compute xiSigma = ciSigma * (uiSigma)^(-ri).
+					int sigma = sigmaArr.get(i);
+					GroupElement uSigma = tupleElements[2 * sigma];
+					GroupElement cSigma = tupleElements[2 * sigma + 1];
+					xSigma[i] = dlog.multiplyGroupElements(cSigma, dlog.exponentiate(uSigma, q.subtract(r[i])));
+				}
+			}.run(size);
+		} catch (IllegalArgumentException e) {
+			throw new CheatAttemptException("the sender sent an element that is not a member in the current DlogGroup");
+		}
+		
+		//Create and return the output containing xSigma
+		return new OTBatchOnGroupElementROutput(new ArrayList<GroupElement>(Arrays.asList(xSigma)));
+	}
+}
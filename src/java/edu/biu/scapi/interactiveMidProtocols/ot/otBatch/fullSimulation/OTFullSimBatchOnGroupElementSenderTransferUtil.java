@@ -0,0 +1,119 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * This class executes the computations in the transfer function that related to the GroupElement inputs in batch OT's 
+ * that achieve full simulation.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimBatchOnGroupElementSenderTransferUtil extends OTFullSimBatchSenderTransferUtilAbs{
+	
+	/**
+	 * Sets the given dlog and random.
+	 * @param dlog
+	 * @param random
+	 */
+	public OTFullSimBatchOnGroupElementSenderTransferUtil(DlogGroup dlog, SecureRandom random) {
+		super(dlog, random);
+	}
+	
+	/**
+	 * Returns the number of OTs in the given input.
+	 * @param input MUST be OTBatchOnGroupElementSInput.
+	 * @return the number of couples (xi0, xi1) in the input.
+	 */
+	protected int getNumOfOts(OTBatchSInput input) {
+		//If input is not instance of OTBatchOnGroupElementSInput, throw Exception.
+		if (!(input instanceof OTBatchOnGroupElementSInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnGroupElementSInput.");
+		}
+		
+		int size = ((OTBatchOnGroupElementSInput) input).getX0Arr().size();
+		if (((OTBatchOnGroupElementSInput) input).getX1Arr().size() != size){
+			throw new IllegalArgumentException("x0 and x1 should contain the same number of elements.");
+		}
+		return size;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "For every i=1,...,m, COMPUTE:
+	 *		ci0 = xi0 * vi0
+	 *		ci1 = xi1 * vi1"
+	 * @param input MUST be OTBatchOnGroupElementSInput.
+	 * @param u0
+	 * @param u1
+	 * @param v0
+	 * @param v1
+	 * @return OTBatchOnGroupElementSMsg that contains (ui0, ci0, ui1, ci1) for every i.
+	 */
+	protected OTSMsg computeMsg(OTBatchSInput input, final GroupElement[] u0, final GroupElement[] u1, final GroupElement[] v0, final GroupElement[] v1) {
+		//If input is not instance of OTBatchOnGroupElementSInput, throw Exception.
+		if (!(input instanceof OTBatchOnGroupElementSInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnGroupElementSInput.");
+		}
+		
+		//Get x0, x1.
+		final ArrayList<GroupElement> x0Arr = ((OTBatchOnGroupElementSInput) input).getX0Arr();
+		final ArrayList<GroupElement> x1Arr = ((OTBatchOnGroupElementSInput) input).getX1Arr();
+		int size = u0.length;
+		
+		//All the elements are packed in one array using the compact encoding of the group.
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] elements = new byte[4 * size * elementSize];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				//Calculate ci0 and ci1:
+				GroupElement c0 = dlog.multiplyGroupElements(x0Arr.get(i), v0[i]);
+				GroupElement c1 = dlog.multiplyGroupElements(x1Arr.get(i), v1[i]);
+				
+				ByteBuffer tuple = ByteBuffer.wrap(elements, 4 * i * elementSize, 4 * elementSize);
+				dlog.encodeElement(u0[i], tuple);
+				dlog.encodeElement(c0, tuple);
+				dlog.encodeElement(u1[i], tuple);
+				dlog.encodeElement(c1, tuple);
+			}
+		}.run(size);
+		
+		//Create and return sender message.
+		return new OTBatchOnGroupElementSMsg(elements, size);
+	}
+
+}
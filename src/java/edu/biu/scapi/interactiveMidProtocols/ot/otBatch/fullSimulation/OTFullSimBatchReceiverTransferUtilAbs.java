@@ -0,0 +1,224 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementBatchMsg;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * This class execute the common functionality of the transfer function of all batch OT's that achieve full simulation.<p>
+ * 
+ * All the OTs of the batch use the values of a single preprocess phase (or common reference string in the UC case), 
+ * and are transferred with one message in each direction. The exponentiations of g0, g1, h0, h1 use the pre-computed 
+ * tables of the DlogGroup, and the work of the batch is divided between the available processors.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class OTFullSimBatchReceiverTransferUtilAbs {
+	
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	private BigInteger qMinusOne;
+	
+	/**
+	 * Sets the given dlog and random.
+	 * @param dlog
+	 * @param random
+	 */
+	public OTFullSimBatchReceiverTransferUtilAbs(DlogGroup dlog, SecureRandom random){
+		this.dlog = dlog;
+		this.random = random;
+		qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+	}
+	
+	/**
+	 * Runs the transfer phase of the batch OT protocol.<p>
+	 * Transfer Phase (with inputs sigmaI for every i=1,...,m) <p>
+	 *		For every i=1,...,m:<p>
+	 *			SAMPLE a random value ri <- {0, . . . , q-1} <p>
+	 *			COMPUTE<p>
+	 *			4.	gi = (gSigmaI)^ri<p>
+	 *			5.	hi = (hSigmaI)^ri<p>
+	 *		SEND (gi,hi) for every i=1,...,m to S<p>
+	 *		WAIT for messages (ui0,ci0) and (ui1,ci1) for every i=1,...,m from S<p>
+	 *		In ByteArray scenario:<p>
+	 *		IF  NOT<p>
+	 *			ui0, ui1 in G, AND<p>
+	 *			ci0, ci1 are binary strings of the same length<p>
+	 *		      REPORT ERROR<p>
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)<p>
+	 *		In GroupElement scenario:<p>
+	 *		IF  NOT<p>
+	 *			ui0, ui1, ci0, ci1 in G<p>
+	 *		      REPORT ERROR<p>
+	 *		OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)<p>
+	 * @param channel each call should get a different one.
+	 * @param input MUST be OTBatchRBasicInput. 
+	 * @param preprocessValues hold the values calculated in the preprocess phase.
+	 * @return OTBatchROutput, the output of the protocol.
+	 * @throws CheatAttemptException if there was a cheat attempt during the execution of the protocol.
+	 * @throws IOException if the send or receive functions failed
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input, OTFullSimPreprocessPhaseValues preprocessValues) throws IOException, ClassNotFoundException, CheatAttemptException {
+		//check if the input is valid.
+		//If input is not instance of OTBatchRBasicInput, throw Exception.
+		if (!(input instanceof OTBatchRBasicInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchRBasicInput");
+		}
+		
+		ArrayList<Byte> sigmaArr = ((OTBatchRBasicInput) input).getSigmaArr();
+		int size = sigmaArr.size();
+		for (int i=0; i<size; i++){
+			//The given sigmaI should be 0 or 1.
+			if ((sigmaArr.get(i) != 0) && (sigmaArr.get(i)!= 1)){
+				throw new IllegalArgumentException("Sigma should be 0 or 1");
+			}
+		}
+		
+		//For every i=1,...,m, sample a random value ri <- {0, . . . , q-1} 
+		BigInteger[] r = new BigInteger[size];
+		for (int i=0; i<size; i++){
+			r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		//Compute tuples (gi,hi) for sender.
+		OTRGroupElementBatchMsg a = computeTuples(sigmaArr, r, preprocessValues);
+		
+		//Send tuples to sender.
+		sendTupleToSender(channel, a);
+		
+		//Wait for message from sender.
+		OTSMsg message = waitForMessageFromSender(channel);
+		
+		//Compute the final calculations to get xSigma.
+		return checkMessageAndComputeX(sigmaArr, r, message);
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "For every i=1,...,m, COMPUTE 
+	 * 4.	gi = (gSigmaI)^ri
+	 * 5.	hi = (hSigmaI)^ri"
+	 * @param sigmaArr input of the protocol
+	 * @param r random values sampled in the protocol
+	 * @return OTRGroupElementBatchMsg contains the tuples (gi,hi).
+	 */
+	private OTRGroupElementBatchMsg computeTuples(final ArrayList<Byte> sigmaArr, final BigInteger[] r, OTFullSimPreprocessPhaseValues preprocessValues) {
+		final GroupElement[] g = new GroupElement[]{preprocessValues.getG0(), preprocessValues.getG1()};
+		final GroupElement[] h = new GroupElement[]{preprocessValues.getH0(), preprocessValues.getH1()};
+		
+		//All the tuples are packed in one array using the compact encoding of the group.
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] tuples = new byte[2 * r.length * elementSize];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				int sigma = sigmaArr.get(i);
+				ByteBuffer tuple = ByteBuffer.wrap(tuples, 2 * i * elementSize, 2 * elementSize);
+				dlog.encodeElement(dlog.exponentiateWithPreComputedValues(g[sigma], r[i]), tuple);
+				dlog.encodeElement(dlog.exponentiateWithPreComputedValues(h[sigma], r[i]), tuple);
+			}
+		}.run(r.length);
+		
+		return new OTRGroupElementBatchMsg(tuples, r.length);
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "SEND tuples to S"
+	 * @param channel
+	 * @param a the tuples to send to the sender.
+	 * @throws IOException 
+	 */
+	private static void sendTupleToSender(Channel channel, Serializable a) throws IOException {
+		try {
+			channel.send(a);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for message pairs (ui0, ci0) and (ui1, ci1)  from S"
+	 * @param channel
+	 * @return OTSMsg contains the tuples of the sender.
+	 * @throws IOException if failed to receive.
+	 * @throws ClassNotFoundException
+	 */
+	private OTSMsg waitForMessageFromSender(Channel channel) throws IOException, ClassNotFoundException {
+		Serializable message = null;
+		try {
+			message =  channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTSMsg)){
+			throw new IllegalArgumentException("the given message should be an instance of OTSMsg");
+		}
+		return (OTSMsg) message;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "In ByteArray scenario:
+	 *		IF  NOT 
+	 *			1. ui0, ui1 in the DlogGroup, AND
+	 *			2. ci0, ci1 are binary strings of the same length
+	 *		   REPORT ERROR
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)
+	 *	In GroupElement scenario:
+	 *		IF  NOT 
+	 *			1. ui0, ui1, ci0, ci1 in the DlogGroup
+	 *		   REPORT ERROR
+	 *	OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)"
+	 * @param sigmaArr input of the protocol
+	 * @param r random values sampled in the protocol
+	 * @param message received from the sender
+	 * @return OTBatchROutput contains xiSigma for every i.
+	 * @throws CheatAttemptException if the message of the sender is not valid.
+	 */
+	protected abstract OTBatchROutput checkMessageAndComputeX(ArrayList<Byte> sigmaArr, BigInteger[] r, OTSMsg message) throws CheatAttemptException;
+	
+}
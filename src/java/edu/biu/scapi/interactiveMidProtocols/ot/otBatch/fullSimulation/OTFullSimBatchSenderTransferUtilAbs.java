@@ -0,0 +1,226 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementBatchMsg;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * This class execute the common functionality of the transfer function of all batch OT's that achieve full simulation.<p>
+ * 
+ * All the OTs of the batch use the values of a single preprocess phase (or common reference string in the UC case), 
+ * and are transferred with one message in each direction. The exponentiations of the fixed bases g0, g1, h0, h1 use 
+ * the pre-computed tables of the DlogGroup and the work of the batch is divided between the available processors.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class OTFullSimBatchSenderTransferUtilAbs {
+
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	private BigInteger qMinusOne;
+	
+	/**
+	 * Sets the given dlog and random.
+	 * @param dlog
+	 * @param random
+	 */
+	public OTFullSimBatchSenderTransferUtilAbs(DlogGroup dlog, SecureRandom random){
+		this.dlog = dlog;
+		this.random = random;
+		qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+	}
+	
+	/**
+	 * Runs the transfer phase of the batch OT protocol.<p>
+	 * Transfer Phase (with inputs xi0,xi1 for every i=1,...,m)<p>
+	 *	WAIT for message from R<p>
+	 *	DENOTE the values received by (gi,hi) <p>
+	 *	For every i=1,...,m:<p>
+	 *		COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)<p>
+	 *		COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)<p>
+	 *		in the byte array scenario:<p>
+	 *			COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)<p>
+	 *			COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)<p>
+	 *		in the GroupElement scenario:<p>
+	 *			COMPUTE ci0 = xi0 * vi0<p>
+	 *			COMPUTE ci1 = xi1 * vi1<p>
+	 *	SEND (ui0,ci0) and (ui1,ci1) for every i=1,...,m to R<p>
+	 *	OUTPUT nothing<p>
+	 * @param channel each call should get a different one.
+	 * @param input the parameters given in the input must match the DlogGroup member of this class, which given in the constructor.
+	 * @param preprocessValues hold the values calculated in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver requested a different number of OTs than the input contains, or sent a wrong 
+	 * number of elements, or elements that are not members of the DlogGroup.
+	 * @throws IOException if the send or receive functions failed
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism
+	 */
+	public void transfer(Channel channel, OTBatchSInput input, OTFullSimPreprocessPhaseValues preprocessValues) throws IOException, ClassNotFoundException, CheatAttemptException{
+		
+		int numOfOts = getNumOfOts(input);
+		
+		//Wait for message from R
+		OTRGroupElementBatchMsg message = waitForMessageFromReceiver(channel);
+		
+		//The size is chosen by the receiver, so it is checked against the input before anything is allocated.
+		int size = message.getSize();
+		if (size != numOfOts){
+			throw new CheatAttemptException("the receiver requested " + size + " OTs, but the input contains " + numOfOts + " couples");
+		}
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] tuples = message.getTuples();
+		if (tuples.length != 2L * size * elementSize){
+			throw new CheatAttemptException("The received message does not contain " + size + " tuples");
+		}
+		
+		//SAMPLE random values s,t <- {0, . . . , q-1} for both RAND computations of every OT.
+		final BigInteger[][] s = new BigInteger[2][size];
+		final BigInteger[][] t = new BigInteger[2][size];
+		for (int i=0; i<size; i++){
+			s[0][i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			t[0][i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			s[1][i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			t[1][i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		final GroupElement g0 = preprocessValues.getG0();
+		final GroupElement g1 = preprocessValues.getG1();
+		final GroupElement h0 = preprocessValues.getH0();
+		final GroupElement h1 = preprocessValues.getH1();
+		final GroupElement[] u0 = new GroupElement[size];
+		final GroupElement[] u1 = new GroupElement[size];
+		final GroupElement[] v0 = new GroupElement[size];
+		final GroupElement[] v1 = new GroupElement[size];
+		
+		//For every i=1,...,m:
+		//COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)
+		//COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)
+		try {
+			new ParallelIndexBatch(){
+				protected void compute(int i){
+					ByteBuffer tuple = ByteBuffer.wrap(tuples, 2 * i * elementSize, 2 * elementSize);
+					GroupElement gi = dlog.decodeElement(true, tuple);
+					GroupElement hi = dlog.decodeElement(true, tuple);
+					
+					u0[i] = dlog.multiplyGroupElements(dlog.exponentiateWithPreComputedValues(g0, s[0][i]), 
+							dlog.exponentiateWithPreComputedValues(h0, t[0][i]));
+					v0[i] = dlog.multiplyGroupElements(dlog.exponentiate(gi, s[0][i]), dlog.exponentiate(hi, t[0][i]));
+					u1[i] = dlog.multiplyGroupElements(dlog.exponentiateWithPreComputedValues(g1, s[1][i]), 
+							dlog.exponentiateWithPreComputedValues(h1, t[1][i]));
+					v1[i] = dlog.multiplyGroupElements(dlog.exponentiate(gi, s[1][i]), dlog.exponentiate(hi, t[1][i]));
+				}
+			}.run(size);
+		} catch (IllegalArgumentException e) {
+			throw new CheatAttemptException("The receiver sent an element that is not a member in the current DlogGroup");
+		}
+		
+		//Compute ci0, ci1.
+		OTSMsg tuple = computeMsg(input, u0, u1, v0, v1);
+		
+		//Send the tuples for the receiver.
+		sendTupleToReceiver(channel, tuple);
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for message (gi,hi) from R"
+	 * @param channel
+	 * @return the received message.
+	 * @throws ClassNotFoundException 
+	 * @throws IOException if failed to receive a message.
+	 */
+	private OTRGroupElementBatchMsg waitForMessageFromReceiver(Channel channel) throws ClassNotFoundException, IOException{
+		Serializable message = null;
+		try {
+			message = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTRGroupElementBatchMsg)){
+			throw new IllegalArgumentException("The received message should be an instance of OTRGroupElementBatchMsg");
+		}
+		return (OTRGroupElementBatchMsg) message;
+	}
+	
+	/**
+	 * Returns the number of OTs in the given input.
+	 * @param input
+	 * @return the number of couples (xi0, xi1) in the input.
+	 * @throws IllegalArgumentException if the input does not match this OT, or x0 and x1 contain a different number of elements.
+	 */
+	protected abstract int getNumOfOts(OTBatchSInput input);
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "For every i=1,...,m:
+	 * 		in the byte array scenario:
+	 *			COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)
+	 *			COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)
+	 *		in the GroupElement scenario:
+	 *			COMPUTE ci0 = xi0 * vi0
+	 *			COMPUTE ci1 = xi1 * vi1"
+	 * @param input
+	 * @param u0 
+	 * @param u1 
+	 * @param v0 
+	 * @param v1 
+	 * @return the message that contains (ui0, ci0, ui1, ci1) for every i, to send to the receiver.
+	 * @throws IllegalArgumentException if the input does not match this OT.
+	 */
+	protected abstract OTSMsg computeMsg(OTBatchSInput input, GroupElement[] u0, GroupElement[] u1, GroupElement[] v0, GroupElement[] v1);
+
+	/**
+	 * Runs the following lines from the protocol:
+	 * "SEND (ui0,ci0) and (ui1,ci1) to R"
+	 * @param channel
+	 * @param message to send to the receiver
+	 * @throws IOException if failed to send the message.
+	 */
+	private void sendTupleToReceiver(Channel channel, OTSMsg message) throws IOException {
+
+		try {
+			//Send the message by the channel.
+			channel.send(message);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}	
+	}
+}
@@ -0,0 +1,187 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimSenderPreprocessUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenVerifier;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.securityLevel.Malicious;
+import edu.biu.scapi.securityLevel.StandAlone;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * Concrete implementation of the sender side in batch oblivious transfer based on the DDH assumption that achieves full simulation.<p>
+ * 
+ * The preprocess phase (including the zero knowledge proof of the receiver) is executed once, at construction time. 
+ * Every call to transfer then carries out a whole batch of OTs using one message in each direction. 
+ * Since all the OTs use the same preprocess values, there are no per-OT proofs to verify.<p>
+ * 
+ * This class implements the functionality related to the byte array inputs.<p>
+ * 
+ * For more information see Protocol 7.5.1 page 201 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell; 
+ * this is the protocol of [PVW] adapted to the stand-alone setting <P>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.4 of pseudo codes document at <a href="http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf">http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf</a>.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimDDHBatchOnByteArraySender implements OTBatchSender, Malicious, StandAlone{
+	
+	private DlogGroup dlog;
+	private KeyDerivationFunction kdf; //Used in the calculation.
+	private SecureRandom random;
+	
+	private OTFullSimPreprocessPhaseValues preprocessOutput; //Values calculated by the preprocess phase.
+	
+	/**
+	 * Constructor that gets the channel and chooses default values of DlogGroup, ZKPOK, KDF and SecureRandom.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the sender suspects that the receiver is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnByteArraySender(Channel channel) throws ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		KeyDerivationFunction kdf = null;
+		try {
+			kdf = KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))");
+		} catch (FactoriesException e1) {
+			// Should not occur since the given KDF name is valid.
+		}
+		
+		try {
+			doConstruct(channel, dlog, kdf, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+
+	/**
+	 * Constructor that sets the given channel, dlogGroup, kdf and random.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param kdf
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the sender suspects that the receiver is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnByteArraySender(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+
+		doConstruct(channel, dlog, kdf, random);
+	}
+
+	/**
+	 * Sets the given members and runs the preprocess phase.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param kdf
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws CheatAttemptException if the receiver failed to prove the validity of its tuple.
+	 * @throws IOException if failed to receive a message during pre process.
+	 * @throws ClassNotFoundException 
+	 * @throws CommitValueException 
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException, CommitValueException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		// Runs the following part of the protocol:
+		//	IF NOT VALID_PARAMS(G,q,g0)
+	    //   REPORT ERROR and HALT.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+
+		this.dlog = dlog;
+		this.kdf = kdf;
+		this.random = random;
+		
+		//read the default statistical parameter used in sigma protocols from a configuration file.
+		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
+		int t = Integer.parseInt(statisticalParameter);
+		
+		//Create the underlying ZKPOK
+		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), random);
+		
+		//The preprocess phase is executed once and its values are used by all the batches of this instance.
+		preprocessOutput = OTFullSimSenderPreprocessUtil.preProcess(channel, dlog, zkVerifier);
+	}
+	
+	/**
+	 * Runs the transfer phase of the batch OT protocol.<p>
+	 *	Transfer Phase (with inputs xi0,xi1 for every i=1,...,m)<p>
+	 *	WAIT for message from R<p>
+	 *	DENOTE the values received by (gi,hi) <p>
+	 *	For every i=1,...,m:<p>
+	 *		COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)<p>
+	 *		COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)<p>
+	 *		COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)<p>
+	 *		COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)<p>
+	 *	SEND (ui0,ci0) and (ui1,ci1) for every i=1,...,m to R<p>
+	 *	OUTPUT nothing<p>
+	 * @param input MUST be OTBatchOnByteArraySInput.
+	 * @return null, this protocol has no output.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		//Creates the utility class that executes the transfer phase.
+		OTFullSimBatchOnByteArraySenderTransferUtil transferUtil = new OTFullSimBatchOnByteArraySenderTransferUtil(dlog, kdf, random);
+		transferUtil.transfer(channel, input, preprocessOutput);
+		return null;
+	}
+}
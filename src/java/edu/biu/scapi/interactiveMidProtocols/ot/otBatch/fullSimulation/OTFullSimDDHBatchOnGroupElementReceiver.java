@@ -0,0 +1,173 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimReceiverPreprocessUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenProver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.securityLevel.Malicious;
+import edu.biu.scapi.securityLevel.StandAlone;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Concrete implementation of the receiver side in batch oblivious transfer based on the DDH assumption that achieves full simulation.<p>
+ * 
+ * The preprocess phase (including the zero knowledge proof of the receiver) is executed once, at construction time. 
+ * Every call to transfer then carries out a whole batch of OTs using one message in each direction.<p>
+ * 
+ * This class implements the functionality related to the GroupElement inputs.<p>
+ * 
+ * For more information see Protocol 7.5.1 page 201 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell; 
+ * this is the protocol of [PVW] adapted to the stand-alone setting <P>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.4 of pseudo codes document at <a href="http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf">http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf</a>.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimDDHBatchOnGroupElementReceiver implements OTBatchReceiver, Malicious, StandAlone{
+	
+	private DlogGroup dlog;
+	private SecureRandom random;
+	
+	private OTFullSimPreprocessPhaseValues preprocessOutput; //Values calculated by the preprocess phase.
+	
+	/**
+	 * Constructor that gets the channel and chooses default values of DlogGroup, ZKPOK and SecureRandom.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnGroupElementReceiver(Channel channel) throws IOException, CheatAttemptException, ClassNotFoundException, CommitValueException{
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		
+		try {
+			doConstruct(channel, dlog, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given channel, dlogGroup and random.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnGroupElementReceiver(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, CheatAttemptException, ClassNotFoundException, CommitValueException{
+		
+		doConstruct(channel, dlog, random);
+	}
+	
+	/**
+	 * Sets the given members and runs the preprocess phase.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws CheatAttemptException 
+	 * @throws IOException if failed to send a message during pre process.
+	 * @throws ClassNotFoundException 
+	 * @throws CommitValueException 
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, CheatAttemptException, ClassNotFoundException, CommitValueException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		//Check that the given dlog is valid.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+		
+		this.dlog = dlog;
+		this.random = random;
+		
+		//read the default statistical parameter used in sigma protocols from a configuration file.
+		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
+		int t = Integer.parseInt(statisticalParameter);
+		
+		//Creates the underlying ZKPOK. 
+		ZKPOKFromSigmaCmtPedersenProver zkProver = new ZKPOKFromSigmaCmtPedersenProver(channel, new SigmaDHProverComputation(dlog, t, random));
+		
+		//The preprocess phase is executed once and its values are used by all the batches of this instance.
+		preprocessOutput = OTFullSimReceiverPreprocessUtil.preProcess(dlog, zkProver, channel, random);
+	}
+	
+	/**
+	 * Runs the transfer phase of the batch OT protocol.<p>
+	 * Transfer Phase (with inputs sigmaI for every i=1,...,m) <p>
+	 *	For every i=1,...,m:<p>
+	 *		SAMPLE a random value ri <- {0, . . . , q-1} <p>
+	 *		COMPUTE<p>
+	 *		4.	gi = (gSigmaI)^ri<p>
+	 *		5.	hi = (hSigmaI)^ri<p>
+	 *	SEND (gi,hi) for every i=1,...,m to S<p>
+	 *	WAIT for messages (ui0,ci0) and (ui1,ci1) for every i=1,...,m from S<p>
+	 *	IF  NOT<p>
+	 *		ui0, ui1, ci0, ci1 in G<p>
+	 *		  REPORT ERROR<p>
+	 *	OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)<p>
+	 * @param input MUST be OTBatchRBasicInput.
+	 * @return OTBatchOnGroupElementROutput that contains xiSigma for every i.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		//Creates the utility class that executes the transfer phase.
+		OTFullSimBatchOnGroupElementReceiverTransferUtil transferUtil = new OTFullSimBatchOnGroupElementReceiverTransferUtil(dlog, random);
+		return transferUtil.transfer(channel, input, preprocessOutput);
+	}
+}
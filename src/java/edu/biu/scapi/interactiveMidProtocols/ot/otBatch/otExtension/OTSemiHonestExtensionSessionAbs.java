@@ -0,0 +1,335 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+import edu.biu.scapi.primitives.prg.ScPrgFromPrf;
+import edu.biu.scapi.tools.InstanceFactory;
+import edu.biu.scapi.tools.ParallelBatch;
+import edu.biu.scapi.tools.ParallelIndexBatch;
+
+/**
+ * Abstract class for a session of the Semi-Honest OT extension of Ishai, Kilian, Nissim and Petrank (IKNP) that runs over a SCAPI channel. <p>
+ * 
+ * The base OTs are executed once, when the session is created. Each party then keeps a PRG for each base OT seed. 
+ * Every call to transfer continues the streams of these PRGs, so any number of transfer calls, of any size, are served by the same base OTs.<p>
+ * 
+ * This class holds the functionality that is common to the sender and the receiver: expanding the seeds, transposing the matrix and hashing 
+ * its rows. These computations are split between the threads of the session. 
+ * The class also keeps the statistics of the last transfer, in order to let the user measure the throughput of the online phase.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class OTSemiHonestExtensionSessionAbs {
+	
+	protected static final int NUM_OF_BASE_OTS = 128;				//The security parameter. Number of base OTs and number of bits in each row of the matrix.
+	protected static final int ROW_SIZE = NUM_OF_BASE_OTS / 8;		//Size of each row of the matrix in bytes.
+	protected static final int SEED_SIZE = 16;						//Size of each base OT seed in bytes.
+	
+	protected Channel channel;					//The channel that was used for the base OTs. Used in transfer calls that get no channel.
+	protected CryptographicHash hash;			//Used to compute the outputs from the rows of the matrix.
+	private InstanceFactory<CryptographicHash> hashFactory;	//Creates the hash of each thread. May be null.
+	protected SecureRandom random;
+	protected int numOfThreads;
+	protected long numOfDoneOts;				//Number of OTs that were done in this session. Used to give each OT a unique index.
+	
+	private long baseOtTime;					//Time of the base OTs in nanoseconds.
+	private int lastNumOfOts;					//Number of OTs in the last transfer.
+	private long lastTransferTime;				//Time of the last transfer in nanoseconds.
+	private boolean broken;						//True if a transfer failed after it changed the state of the session.
+	
+	/**
+	 * Sets the given members.
+	 */
+	OTSemiHonestExtensionSessionAbs(Channel channel, CryptographicHash hash, SecureRandom random, int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("numOfThreads should be positive");
+		}
+		this.channel = channel;
+		this.hash = hash;
+		this.random = random;
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Sets the factory that creates the hash of each thread in the transfer calls.
+	 * The created hashes should be the same function as the hash given in the constructor. 
+	 * If no factory is set, the threads share the given hash, one at a time.
+	 * @param hashFactory creates hash objects that are equal to the hash of this session.
+	 */
+	public void setHashFactory(InstanceFactory<CryptographicHash> hashFactory){
+		this.hashFactory = hashFactory;
+	}
+	
+	/**
+	 * Creates a factory of the default hash, which is BcSHA256.
+	 */
+	static InstanceFactory<CryptographicHash> createDefaultHashFactory(){
+		return new InstanceFactory<CryptographicHash>() {
+			public CryptographicHash create() {
+				return new BcSHA256();
+			}
+		};
+	}
+	
+	/**
+	 * @return the time that the base OTs of this session took, in nanoseconds.
+	 */
+	public long getBaseOtTime(){
+		return baseOtTime;
+	}
+	
+	/**
+	 * @return the number of OTs in the last call to transfer.
+	 */
+	public int getLastNumOfOts(){
+		return lastNumOfOts;
+	}
+	
+	/**
+	 * @return the time that the last call to transfer took, in nanoseconds.
+	 */
+	public long getLastTransferTime(){
+		return lastTransferTime;
+	}
+	
+	/**
+	 * @return the throughput of the last call to transfer, in OTs per second.
+	 */
+	public double getLastThroughput(){
+		if (lastTransferTime == 0){
+			return 0;
+		}
+		return lastNumOfOts * 1e9 / lastTransferTime;
+	}
+	
+	/**
+	 * @return the number of OTs that were done in this session.
+	 */
+	public long getNumOfDoneOts(){
+		return numOfDoneOts;
+	}
+	
+	/**
+	 * Keeps the time of the base OTs.
+	 * @param startTime the value of System.nanoTime() when the base OTs started.
+	 */
+	protected void baseOtDone(long startTime){
+		baseOtTime = System.nanoTime() - startTime;
+	}
+	
+	/**
+	 * Checks the sizes of a transfer. The sender and the receiver use the same checks, so that they accept the same transfers.
+	 * @param numOfOts the number of OTs in the transfer.
+	 * @param elementBits the size of each element in bits.
+	 * @return the size of each element in bytes.
+	 * @throws IllegalArgumentException if the number of OTs is not positive, the element size is not a positive multiple of 8, 
+	 * or both elements of all the OTs do not fit in one array.
+	 */
+	protected static int getElementSize(int numOfOts, long elementBits){
+		if (numOfOts <= 0 || elementBits <= 0 || elementBits % 8 != 0){
+			throw new IllegalArgumentException("the number of OTs should be positive and the element size should be a positive multiple of 8");
+		}
+		if (2L * numOfOts * (elementBits / 8) > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("the elements of " + numOfOts + " OTs do not fit in an array");
+		}
+		return (int) (elementBits / 8);
+	}
+	
+	/**
+	 * Called by a transfer after its input was checked and before it changes the state of the session.<p>
+	 * A transfer that fails after this call leaves the PRGs of the base OTs and the index of the next OT out of step with the 
+	 * other party, so the session can not be used anymore. 
+	 * @throws IllegalStateException if a previous transfer of this session failed.
+	 */
+	protected void startTransfer(){
+		if (broken){
+			throw new IllegalStateException("a previous transfer of this session failed, so the session can not be used anymore");
+		}
+		broken = true;
+	}
+	
+	/**
+	 * Keeps the statistics of the transfer and advances the index of the next OT.
+	 * @param numOfOts the number of OTs in the transfer.
+	 * @param startTime the value of System.nanoTime() when the transfer started.
+	 */
+	protected void transferDone(int numOfOts, long startTime){
+		lastTransferTime = System.nanoTime() - startTime;
+		lastNumOfOts = numOfOts;
+		numOfDoneOts += numOfOts;
+		broken = false;
+	}
+	
+	/**
+	 * Creates a PRG that expands the given base OT seed.
+	 * @param seed
+	 * @return the created PRG.
+	 */
+	protected PseudorandomGenerator createSeedPrg(byte[] seed){
+		PseudorandomGenerator prg = new ScPrgFromPrf();
+		try {
+			prg.setKey(new SecretKeySpec(seed, "AES"));
+		} catch (InvalidKeyException e) {
+			// Should not occur since the seed is a valid AES key.
+		}
+		return prg;
+	}
+	
+	/**
+	 * Puts the next columnSize bytes of each PRG in the matching column of the given matrix. 
+	 * Column i starts at index i*columnSize of the matrix.
+	 * @param prgs the PRGs of the base OT seeds.
+	 * @param matrix the matrix to fill.
+	 * @param columnSize the size of each column in bytes.
+	 */
+	protected void expandSeeds(final PseudorandomGenerator[] prgs, final byte[] matrix, final int columnSize){
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				prgs[i].getPRGBytes(matrix, i * columnSize, columnSize);
+			}
+		}.run(prgs.length, numOfThreads);
+	}
+	
+	/**
+	 * Transposes the given matrix of NUM_OF_BASE_OTS columns into numOfOts rows of ROW_SIZE bytes.<p>
+	 * Bit j of column i is bit i of row j. Bits are ordered from the most significant bit of each byte.
+	 * @param columns the matrix, column after column.
+	 * @param numOfOts the number of bits in each column.
+	 * @return the rows of the matrix, row after row.
+	 */
+	protected byte[] transpose(final byte[] columns, final int numOfOts){
+		final int columnSize = (numOfOts + 7) / 8;
+		final byte[] rows = new byte[numOfOts * ROW_SIZE];
+		
+		//Each thread handles a range of bytes in the columns, which matches a range of 8 rows for each byte.
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+					int rowByte = i / 8;
+					byte rowBit = (byte) (0x80 >>> (i % 8));
+					for (int b = from; b < to; b++){
+						int columnByte = columns[i * columnSize + b];
+						if (columnByte == 0){
+							continue;
+						}
+						int firstRow = b * 8;
+						for (int bit = 0; bit < 8 && firstRow + bit < numOfOts; bit++){
+							if (((columnByte >>> (7 - bit)) & 1) != 0){
+								rows[(firstRow + bit) * ROW_SIZE + rowByte] |= rowBit;
+							}
+						}
+					}
+				}
+			}
+		}.run(columnSize, numOfThreads);
+		
+		return rows;
+	}
+	
+	/**
+	 * Computes H(index, row) for each row of the given matrix, with output of elementSize bytes.<p>
+	 * The index of row j is firstIndex + j, so that no two OTs of the session use the same input to the hash.
+	 * Outputs that are longer than the hash are computed in counter mode.
+	 * @param rows the rows of the matrix, row after row.
+	 * @param mask if not null, each row is XORed with the mask before it is hashed.
+	 * @param firstIndex the index of the first row in the session.
+	 * @param numOfOts the number of rows.
+	 * @param elementSize the size of each output in bytes.
+	 * @return all the outputs, one after the other.
+	 */
+	protected byte[] hashRows(final byte[] rows, final byte[] mask, final long firstIndex, int numOfOts, final int elementSize){
+		final byte[] out = new byte[numOfOts * elementSize];
+		
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				//Each thread uses its own hash, if there is a hash factory. 
+				CryptographicHash threadHash = (hashFactory == null) ? null : hashFactory.create();
+				if (threadHash == null){
+					synchronized (hash){
+						hashRange(hash, from, to);
+					}
+				} else{
+					hashRange(threadHash, from, to);
+				}
+			}
+			
+			private void hashRange(CryptographicHash h, int from, int to){
+				int digestSize = h.getHashedMsgSize();
+				byte[] digest = new byte[digestSize];
+				//The input to the hash is row || index || counter.
+				byte[] input = new byte[ROW_SIZE + 8 + 4];
+				for (int j = from; j < to; j++){
+					System.arraycopy(rows, j * ROW_SIZE, input, 0, ROW_SIZE);
+					if (mask != null){
+						for (int b = 0; b < ROW_SIZE; b++){
+							input[b] ^= mask[b];
+						}
+					}
+					long index = firstIndex + j;
+					for (int b = 0; b < 8; b++){
+						input[ROW_SIZE + b] = (byte) (index >>> (56 - 8 * b));
+					}
+					for (int done = 0, counter = 0; done < elementSize; done += digestSize, counter++){
+						input[ROW_SIZE + 8] = (byte) (counter >>> 24);
+						input[ROW_SIZE + 9] = (byte) (counter >>> 16);
+						input[ROW_SIZE + 10] = (byte) (counter >>> 8);
+						input[ROW_SIZE + 11] = (byte) counter;
+						h.update(input, 0, input.length);
+						h.hashFinal(digest, 0);
+						System.arraycopy(digest, 0, out, j * elementSize + done, Math.min(digestSize, elementSize - done));
+					}
+				}
+			}
+		}.run(numOfOts, numOfThreads);
+		
+		return out;
+	}
+	
+	/**
+	 * XORs the second array into the first array.
+	 */
+	protected static void xor(byte[] result, byte[] other){
+		for (int i = 0; i < result.length; i++){
+			result[i] ^= other[i];
+		}
+	}
+	
+	/**
+	 * @return bit i of the given array. Bits are ordered from the most significant bit of each byte.
+	 */
+	protected static int getBit(byte[] bits, int i){
+		return (bits[i / 8] >>> (7 - i % 8)) & 1;
+	}
+}
@@ -0,0 +1,224 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArraySender;
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A concrete class for the receiver of a Semi-Honest OT extension session. <P>
+ * 
+ * Unlike {@link OTSemiHonestExtensionReceiver}, this class runs in Java over a SCAPI channel, so it can share the channel (and the connection setup) 
+ * with the rest of the protocol. The base OTs are done once in the construction time, using any batch OT sender. 
+ * After that, every call to transfer extends the base OT seeds, so repeated online executions do not pay for the base OTs again.<p>
+ * 
+ * The protocol is the OT extension of "Y. Ishai, J. Kilian, K. Nissim and E. Petrank. Extending Oblivious Transfers Efficiently. CRYPTO 2003".<p>
+ * 
+ * The version of the OT extension is chosen by the given input: OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput, 
+ * and should match the input that the sender gives in the same transfer call.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTSemiHonestExtensionSessionReceiver extends OTSemiHonestExtensionSessionAbs implements SemiHonest, OTBatchReceiver{
+	
+	private PseudorandomGenerator[] prgs0;		//The PRGs of the first seed of each base OT.
+	private PseudorandomGenerator[] prgs1;		//The PRGs of the second seed of each base OT.
+	
+	/**
+	 * Constructor that runs the base OTs over the given channel using the default batch OT sender, hash and SecureRandom. 
+	 * Transfer calls use all the available processors.
+	 * @param channel used for the base OTs and for transfer calls that get no channel.
+	 * @throws CheatAttemptException if there was a cheat attempt during the base OTs.
+	 * @throws InvalidDlogGroupException if the dlog group of the base OT is not valid.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestExtensionSessionReceiver(Channel channel) throws CheatAttemptException, InvalidDlogGroupException, IOException, ClassNotFoundException{
+		this(channel, new OTSemiHonestDDHBatchOnByteArraySender(), new BcSHA256(), new SecureRandom(), Runtime.getRuntime().availableProcessors());
+		setHashFactory(createDefaultHashFactory());
+	}
+	
+	/**
+	 * Constructor that runs the base OTs over the given channel, using the given batch OT sender.<p>
+	 * In the base OTs the roles are reversed: the receiver of the OT extension acts as the sender.
+	 * @param channel used for the base OTs and for transfer calls that get no channel.
+	 * @param baseOT batch OT sender on byte arrays, used to run the base OTs. 
+	 * @param hash used to compute the outputs. The sender should use the same hash.
+	 * @param random used to choose the seeds of the base OTs.
+	 * @param numOfThreads number of threads used in each transfer.
+	 * @throws CheatAttemptException if there was a cheat attempt during the base OTs.
+	 * @throws InvalidDlogGroupException if the dlog group of the base OT is not valid.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestExtensionSessionReceiver(Channel channel, OTBatchSender baseOT, CryptographicHash hash, SecureRandom random, int numOfThreads) 
+			throws CheatAttemptException, InvalidDlogGroupException, IOException, ClassNotFoundException{
+		super(channel, hash, random, numOfThreads);
+		
+		long start = System.nanoTime();
+		
+		//Choose a pair of seeds for each base OT and send them.
+		ArrayList<byte[]> seeds0 = new ArrayList<byte[]>(NUM_OF_BASE_OTS);
+		ArrayList<byte[]> seeds1 = new ArrayList<byte[]>(NUM_OF_BASE_OTS);
+		prgs0 = new PseudorandomGenerator[NUM_OF_BASE_OTS];
+		prgs1 = new PseudorandomGenerator[NUM_OF_BASE_OTS];
+		for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+			byte[] seed0 = new byte[SEED_SIZE];
+			byte[] seed1 = new byte[SEED_SIZE];
+			random.nextBytes(seed0);
+			random.nextBytes(seed1);
+			seeds0.add(seed0);
+			seeds1.add(seed1);
+			prgs0[i] = createSeedPrg(seed0);
+			prgs1[i] = createSeedPrg(seed1);
+		}
+		baseOT.transfer(channel, new OTBatchOnByteArraySInput(seeds0, seeds1));
+		
+		baseOtDone(start);
+	}
+
+	/**
+	 * Runs the transfer phase of the OT extension.<p>
+	 * 	"For every i=1,...,k, COMPUTE ti = G(k_i^0) and ui = ti XOR G(k_i^1) XOR r<p>
+	 * 	SEND the matrix U to S<p>
+	 * 	For every j=1,...,m, let Tj be row j of the matrix T. COMPUTE:<p>
+	 * 		In the general version: WAIT for (yj0, yj1) from S and OUTPUT yj^rj XOR H(j, Tj).<p>
+	 * 		In the correlated version: WAIT for yj from S and OUTPUT H(j, Tj) if rj = 0 and yj XOR H(j, Tj) otherwise.<p>
+	 * 		In the random version: OUTPUT H(j, Tj)"<p>
+	 * @param channel used to communicate with the sender. If null, the channel that was given in the constructor is used.
+	 * @param input MUST be an instance of OTExtensionRInput. Its element size, in bits, should be a multiple of 8.
+	 * @return OTOnByteArrayROutput that contains the chosen elements, one after the other.
+	 * @throws IllegalStateException if a previous transfer of this session failed.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws IOException, ClassNotFoundException {
+		long start = System.nanoTime();
+		if (channel == null){
+			channel = this.channel;
+		}
+		
+		//Check if the input is valid. If input is not instance of OTExtensionRInput, throw Exception.
+		if (!(input instanceof OTExtensionRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionRInput.");
+		}
+		byte[] sigmaArr = ((OTExtensionRInput) input).getSigmaArr();
+		int numOfOts = sigmaArr.length;
+		int elementSize = getElementSize(numOfOts, ((OTExtensionRInput) input).getElementSize());
+		startTransfer();
+		
+		//Pack the choice bits. 
+		int columnSize = (numOfOts + 7) / 8;
+		byte[] r = new byte[columnSize];
+		for (int j = 0; j < numOfOts; j++){
+			if (sigmaArr[j] != 0){
+				r[j / 8] |= (byte) (0x80 >>> (j % 8));
+			}
+		}
+		
+		//COMPUTE ti = G(k_i^0) and ui = ti XOR G(k_i^1) XOR r and SEND U to S.
+		byte[] t = new byte[NUM_OF_BASE_OTS * columnSize];
+		byte[] u = new byte[NUM_OF_BASE_OTS * columnSize];
+		expandSeeds(prgs0, t, columnSize);
+		expandSeeds(prgs1, u, columnSize);
+		for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+			int offset = i * columnSize;
+			for (int b = 0; b < columnSize; b++){
+				u[offset + b] ^= t[offset + b] ^ r[b];
+			}
+		}
+		channel.send(u);
+		
+		//Compute H(j, Tj) for each OT.
+		byte[] rows = transpose(t, numOfOts);
+		byte[] output = hashRows(rows, null, numOfDoneOts, numOfOts, elementSize);
+		
+		if (input instanceof OTExtensionGeneralRInput){
+			//Unmask the chosen element of each pair.
+			byte[] y = receiveMessage(channel, 2 * numOfOts * elementSize);
+			for (int j = 0; j < numOfOts; j++){
+				int offset = j * elementSize;
+				int yOffset = (sigmaArr[j] == 0) ? offset : numOfOts * elementSize + offset;
+				for (int b = 0; b < elementSize; b++){
+					output[offset + b] ^= y[yOffset + b];
+				}
+			}
+			
+		} else if (input instanceof OTExtensionCorrelatedRInput){
+			//x0 is H(j, Tj) and x1 should be unmasked.
+			byte[] y = receiveMessage(channel, numOfOts * elementSize);
+			for (int j = 0; j < numOfOts; j++){
+				if (sigmaArr[j] != 0){
+					int offset = j * elementSize;
+					for (int b = 0; b < elementSize; b++){
+						output[offset + b] ^= y[offset + b];
+					}
+				}
+			}
+		}
+		
+		transferDone(numOfOts, start);
+		return new OTOnByteArrayROutput(output);
+	}
+	
+	/**
+	 * Receives the masked elements from the sender.
+	 * @param channel
+	 * @param size the expected size of the message.
+	 * @return the received message.
+	 * @throws IOException if failed to receive the message.
+	 * @throws ClassNotFoundException
+	 */
+	private byte[] receiveMessage(Channel channel, int size) throws ClassNotFoundException, IOException{
+		Serializable message = null;
+		try {
+			message = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof byte[]) || ((byte[]) message).length != size){
+			throw new IllegalArgumentException("The received message should be an array of " + size + " bytes");
+		}
+		return (byte[]) message;
+	}
+}
@@ -0,0 +1,238 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A concrete class for the sender of a Semi-Honest OT extension session. <P>
+ * 
+ * Unlike {@link OTSemiHonestExtensionSender}, this class runs in Java over a SCAPI channel, so it can share the channel (and the connection setup) 
+ * with the rest of the protocol. The base OTs are done once in the construction time, using any batch OT receiver. 
+ * After that, every call to transfer extends the base OT seeds, so repeated online executions do not pay for the base OTs again.<p>
+ * 
+ * The protocol is the OT extension of "Y. Ishai, J. Kilian, K. Nissim and E. Petrank. Extending Oblivious Transfers Efficiently. CRYPTO 2003".<p>
+ * 
+ * The three versions of OT extension are supported, and are chosen by the given input like in {@link OTSemiHonestExtensionSender}: 
+ * OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput. 
+ * Every call to transfer can run a different version with a different number of OTs and element size, 
+ * as long as the receiver calls transfer with the matching input.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTSemiHonestExtensionSessionSender extends OTSemiHonestExtensionSessionAbs implements SemiHonest, OTBatchSender{
+	
+	private byte[] s;							//The choice bits of the base OTs.
+	private PseudorandomGenerator[] prgs;		//The PRGs of the received base OT seeds.
+	
+	/**
+	 * Constructor that runs the base OTs over the given channel using the default batch OT receiver, hash and SecureRandom. 
+	 * Transfer calls use all the available processors.
+	 * @param channel used for the base OTs and for transfer calls that get no channel.
+	 * @throws CheatAttemptException if there was a cheat attempt during the base OTs.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestExtensionSessionSender(Channel channel) throws CheatAttemptException, IOException, ClassNotFoundException{
+		this(channel, new OTSemiHonestDDHBatchOnByteArrayReceiver(), new BcSHA256(), new SecureRandom(), Runtime.getRuntime().availableProcessors());
+		setHashFactory(createDefaultHashFactory());
+	}
+	
+	/**
+	 * Constructor that runs the base OTs over the given channel, using the given batch OT receiver.<p>
+	 * In the base OTs the roles are reversed: the sender of the OT extension acts as the receiver.
+	 * @param channel used for the base OTs and for transfer calls that get no channel.
+	 * @param baseOT batch OT receiver on byte arrays, used to run the base OTs. 
+	 * @param hash used to compute the outputs. The receiver should use the same hash.
+	 * @param random used to choose the choice bits of the base OTs.
+	 * @param numOfThreads number of threads used in each transfer.
+	 * @throws CheatAttemptException if there was a cheat attempt during the base OTs.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestExtensionSessionSender(Channel channel, OTBatchReceiver baseOT, CryptographicHash hash, SecureRandom random, int numOfThreads) 
+			throws CheatAttemptException, IOException, ClassNotFoundException{
+		super(channel, hash, random, numOfThreads);
+		
+		long start = System.nanoTime();
+		
+		//Choose the choice bits of the base OTs and receive the matching seed of each pair.
+		s = new byte[ROW_SIZE];
+		random.nextBytes(s);
+		ArrayList<Byte> sigmaArr = new ArrayList<Byte>(NUM_OF_BASE_OTS);
+		for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+			sigmaArr.add((byte) getBit(s, i));
+		}
+		OTBatchROutput output = baseOT.transfer(channel, new OTBatchRBasicInput(sigmaArr));
+		if (!(output instanceof OTBatchOnByteArrayROutput)){
+			throw new IllegalArgumentException("the base OT should output an instance of OTBatchOnByteArrayROutput");
+		}
+		ArrayList<byte[]> seeds = ((OTBatchOnByteArrayROutput) output).getXSigmaArr();
+		
+		prgs = new PseudorandomGenerator[NUM_OF_BASE_OTS];
+		for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+			prgs[i] = createSeedPrg(seeds.get(i));
+		}
+		
+		baseOtDone(start);
+	}
+
+	/**
+	 * Runs the transfer phase of the OT extension.<p>
+	 * 	"WAIT for the matrix U from R<p>
+	 * 	For every i=1,...,k, COMPUTE qi = G(k_i^si) XOR si*ui<p>
+	 * 	For every j=1,...,m, let Qj be row j of the matrix Q. COMPUTE:<p>
+	 * 		In the general version: yj0 = xj0 XOR H(j, Qj) and yj1 = xj1 XOR H(j, Qj XOR s) and SEND (yj0, yj1) to R.<p>
+	 * 		In the correlated version: xj0 = H(j, Qj), xj1 = xj0 XOR deltaj and yj = xj1 XOR H(j, Qj XOR s) and SEND yj to R.<p>
+	 * 		In the random version: xj0 = H(j, Qj), xj1 = H(j, Qj XOR s)"<p>
+	 * @param channel used to communicate with the receiver. If null, the channel that was given in the constructor is used.
+	 * @param input MUST be an instance of OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput.
+	 * @return OTExtensionSOutput that contains x0 and x1 in the correlated and random versions, and null in the general version.
+	 * @throws IllegalArgumentException if the input does not contain numOfOts elements of the same size, which is a positive number of bytes.
+	 * @throws IllegalStateException if a previous transfer of this session failed.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws ClassNotFoundException, IOException {
+		long start = System.nanoTime();
+		if (channel == null){
+			channel = this.channel;
+		}
+		
+		//The element size is computed from the input, so the arrays should contain exactly numOfOts elements.
+		int numOfOts;
+		int elementSize;
+		if (input instanceof OTExtensionGeneralSInput){
+			numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			byte[] x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			byte[] x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			if (numOfOts <= 0 || x0.length % numOfOts != 0 || x1.length != x0.length){
+				throw new IllegalArgumentException("x0 and x1 should contain " + numOfOts + " elements of the same size");
+			}
+			elementSize = getElementSize(numOfOts, 8L * (x0.length / numOfOts));
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			byte[] delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			if (numOfOts <= 0 || delta.length % numOfOts != 0){
+				throw new IllegalArgumentException("delta should contain " + numOfOts + " elements of the same size");
+			}
+			elementSize = getElementSize(numOfOts, 8L * (delta.length / numOfOts));
+		} else if (input instanceof OTExtensionRandomSInput){
+			numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			elementSize = getElementSize(numOfOts, ((OTExtensionRandomSInput) input).getBitLength());
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+		startTransfer();
+		
+		//WAIT for the matrix U from R and compute the matrix Q.
+		byte[] q = computeQ(channel, numOfOts);
+		byte[] rows = transpose(q, numOfOts);
+		
+		//Compute H(j, Qj) and H(j, Qj XOR s) for each OT.
+		byte[] h0 = hashRows(rows, null, numOfDoneOts, numOfOts, elementSize);
+		byte[] h1 = hashRows(rows, s, numOfDoneOts, numOfOts, elementSize);
+		
+		OTBatchSOutput output = null;
+		if (input instanceof OTExtensionGeneralSInput){
+			//The hashes are masks of x0 and x1. 
+			xor(h0, ((OTExtensionGeneralSInput) input).getX0Arr());
+			xor(h1, ((OTExtensionGeneralSInput) input).getX1Arr());
+			byte[] y = new byte[2 * h0.length];
+			System.arraycopy(h0, 0, y, 0, h0.length);
+			System.arraycopy(h1, 0, y, h0.length, h1.length);
+			channel.send(y);
+			
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			//x0 = H(j, Qj) and x1 = x0 XOR delta. The receiver gets y = x1 XOR H(j, Qj XOR s).
+			byte[] x1 = h0.clone();
+			xor(x1, ((OTExtensionCorrelatedSInput) input).getDelta());
+			xor(h1, x1);
+			channel.send(h1);
+			output = new OTExtensionSOutput(h0, x1);
+			
+		} else {
+			output = new OTExtensionSOutput(h0, h1);
+		}
+		
+		transferDone(numOfOts, start);
+		return output;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "WAIT for the matrix U from R
+	 * 	For every i=1,...,k, COMPUTE qi = G(k_i^si) XOR si*ui"
+	 * @param channel
+	 * @param numOfOts
+	 * @return the matrix Q, column after column.
+	 * @throws IOException if failed to receive the message.
+	 * @throws ClassNotFoundException
+	 */
+	private byte[] computeQ(Channel channel, int numOfOts) throws ClassNotFoundException, IOException{
+		int columnSize = (numOfOts + 7) / 8;
+		Serializable message = null;
+		try {
+			message = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof byte[]) || ((byte[]) message).length != NUM_OF_BASE_OTS * columnSize){
+			throw new IllegalArgumentException("The received message should be a matrix of " + NUM_OF_BASE_OTS + " columns of " + numOfOts + " bits");
+		}
+		byte[] u = (byte[]) message;
+		
+		byte[] q = new byte[NUM_OF_BASE_OTS * columnSize];
+		expandSeeds(prgs, q, columnSize);
+		for (int i = 0; i < NUM_OF_BASE_OTS; i++){
+			if (getBit(s, i) == 1){
+				int offset = i * columnSize;
+				for (int b = 0; b < columnSize; b++){
+					q[offset + b] ^= u[offset + b];
+				}
+			}
+		}
+		return q;
+	}
+}
@@ -96,16 +96,20 @@ public class OTSemiHonestDDHBatchOnByteArrayReceiver extends OTSemiHonestDDHBatc
 		OTSemiHonestDDHBatchOnByteArraySenderMsg msg = (OTSemiHonestDDHBatchOnByteArraySenderMsg)message;
 		int size = sigmaArr.size();
 		ArrayList<byte[]> xSigmaArr = new ArrayList<byte[]> ();
-		GroupElement u, kSigma;
 		byte[] vSigma, xSigma;
+		
+		//Compute kSigma = u^alpha for all the OTs:
+		byte[][] uArr = new byte[size][];
+		for (int i=0; i<size; i++){
+			uArr[i] = msg.getTuples().get(i).getU();
+		}
+		GroupElement[] kSigma = exponentiateU(uArr, alphaArr.toArray(new BigInteger[size]));
 
+		//The KDF holds an internal state, so the rest of the computation is done sequentially.
 		for (int i=0; i<size; i++){
 			
 			OTSemiHonestDDHOnByteArraySenderMsg tuple = msg.getTuples().get(i);
-			//Compute kSigma:
-			u = dlog.reconstructElement(true, tuple.getU());
-			kSigma = dlog.exponentiate(u, alphaArr.get(i));
-			byte[] kBytes = dlog.mapAnyGroupElementToByteArray(kSigma);
+			byte[] kBytes = dlog.mapAnyGroupElementToByteArray(kSigma[i]);
 			
 			//Get v0 or v1 according to sigma.
 			if (sigmaArr.get(i) == 0){
@@ -99,6 +99,9 @@ public class OTSemiHonestDDHBatchOnByteArraySender extends OTSemiHonestDDHBatchS
 		
 		ArrayList<OTSemiHonestDDHOnByteArraySenderMsg> tuples = new ArrayList<OTSemiHonestDDHOnByteArraySenderMsg>();
 		
+		//All the tuples hold the same u, so it is encoded once.
+		byte[] uBytes = dlog.encodeElement(u);
+		
 		for (int i=0; i<size; i++){
 			//If x0, x1 are not of the same length, throw Exception.
 			int len = x0Arr.get(i).length;
@@ -128,7 +131,7 @@ public class OTSemiHonestDDHBatchOnByteArraySender extends OTSemiHonestDDHBatchS
 				v1[j] = (byte) (v1[j] ^ x1Arr.get(i)[j]);
 			}
 			
-			tuples.add(i, new OTSemiHonestDDHOnByteArraySenderMsg(u.generateSendableData(), v0, v1));
+			tuples.add(i, new OTSemiHonestDDHOnByteArraySenderMsg(uBytes, v0, v1));
 		}
 		//Return sender message.
 		return new OTSemiHonestDDHBatchOnByteArraySenderMsg(tuples);
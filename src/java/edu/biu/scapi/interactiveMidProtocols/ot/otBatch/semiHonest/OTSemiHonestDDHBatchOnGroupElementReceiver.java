@@ -27,6 +27,7 @@ package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
@@ -36,6 +37,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.securityLevel.SemiHonest;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
  * Concrete class for batch Semi-Honest OT assuming DDH receiver ON GROUP ELEMENT.<p>
@@ -76,41 +78,45 @@ public class OTSemiHonestDDHBatchOnGroupElementReceiver extends OTSemiHonestDDHB
 	 * @param message received from the sender. must be OTSemiHonestDDHBatchOnGroupElementSenderMsg
 	 * @return OTROutput contains xSigma
 	 */
-	protected OTBatchROutput computeFinalXSigma(ArrayList<Byte> sigmaArr, ArrayList<BigInteger> alphaArr, OTSMsg message) {
+	protected OTBatchROutput computeFinalXSigma(final ArrayList<Byte> sigmaArr, ArrayList<BigInteger> alphaArr, OTSMsg message) {
 		//If message is not instance of OTSemiHonestDDHBatchOnGroupElementSenderMsg, throw Exception.
 		if(!(message instanceof OTSemiHonestDDHBatchOnGroupElementSenderMsg)){
 			throw new IllegalArgumentException("message should be instance of OTSemiHonestDDHBatchOnGroupElementSenderMsg");
 		}
 		
 		OTSemiHonestDDHBatchOnGroupElementSenderMsg msg = (OTSemiHonestDDHBatchOnGroupElementSenderMsg)message;
+		final ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> tuples = msg.getTuples();
 		int size = sigmaArr.size();
-		ArrayList<GroupElement> xSigmaArr = new ArrayList<GroupElement>();
-		GroupElement u, kSigma, vSigma;
-		BigInteger beta;
-
+		
+		//Compute (kSigma)^(-1) = u^(-alpha) for all the OTs:
+		byte[][] uArr = new byte[size][];
+		BigInteger[] betaArr = new BigInteger[size];
 		for (int i=0; i<size; i++){
-			
-			OTSemiHonestDDHOnGroupElementSenderMsg tuple = msg.getTuples().get(i);
-			//Compute (kSigma)^(-1) = u^(-alpha):
-			u = dlog.reconstructElement(true, tuple.getU());	//Get u
-			beta = dlog.getOrder().subtract(alphaArr.get(i));	//Get -alpha
-			kSigma = dlog.exponentiate(u, beta);
-			
-			
-			//Get v0 or v1 according to sigma.
-			vSigma = null;
-			if (sigmaArr.get(i) == 0){
-				vSigma = dlog.reconstructElement(true, tuple.getV0());
-			} else {
-				vSigma = dlog.reconstructElement(true, tuple.getV1());
-			}
-			
-			//Compue xSigma
-			GroupElement xSigma = dlog.multiplyGroupElements(vSigma, kSigma);
-			
-			//Create and return the output containing xSigma
-			xSigmaArr.add(i, xSigma);
+			uArr[i] = tuples.get(i).getU();	//Get u
+			betaArr[i] = dlog.getOrder().subtract(alphaArr.get(i));	//Get -alpha
 		}
+		final GroupElement[] kSigma = exponentiateU(uArr, betaArr);
+		
+		final GroupElement[] xSigma = new GroupElement[size];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				OTSemiHonestDDHOnGroupElementSenderMsg tuple = tuples.get(i);
+				
+				//Get v0 or v1 according to sigma.
+				GroupElement vSigma = null;
+				if (sigmaArr.get(i) == 0){
+					vSigma = dlog.decodeElement(true, tuple.getV0());
+				} else {
+					vSigma = dlog.decodeElement(true, tuple.getV1());
+				}
+				
+				//Compue xSigma
+				xSigma[i] = dlog.multiplyGroupElements(vSigma, kSigma[i]);
+			}
+		}.run(size);
+		
+		//Create and return the output containing xSigma
+		ArrayList<GroupElement> xSigmaArr = new ArrayList<GroupElement>(Arrays.asList(xSigma));
 		return new OTBatchOnGroupElementROutput(xSigmaArr);
 	
 	}
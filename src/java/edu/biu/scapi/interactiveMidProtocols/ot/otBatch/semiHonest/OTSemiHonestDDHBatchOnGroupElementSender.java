@@ -26,6 +26,7 @@ package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
@@ -35,6 +36,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.securityLevel.SemiHonest;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
  * Concrete class for Batch Semi-Honest OT assuming DDH sender ON GROUP ELEMENT.<p>
@@ -76,32 +78,35 @@ public class OTSemiHonestDDHBatchOnGroupElementSender extends OTSemiHonestDDHBat
 	 * @param u 
 	 * @return tuple contains (ui, vi0, vi1) to send to the receiver.
 	 */
-	protected OTSMsg computeMsg(OTBatchSInput input, GroupElement u, ArrayList<GroupElement> k0Arr, ArrayList<GroupElement> k1Arr) {
+	protected OTSMsg computeMsg(OTBatchSInput input, GroupElement u, final ArrayList<GroupElement> k0Arr, final ArrayList<GroupElement> k1Arr) {
 		//If input is not instance of OTSBatchOnGroupElementInput, throw Exception.
 		if (!(input instanceof OTBatchOnGroupElementSInput)){
 			throw new IllegalArgumentException("input should be an instance of OTSBatchOnGroupElementInput.");
 		}
 				
 		//Set x0, x1.
-		ArrayList<GroupElement> x0Arr = ((OTBatchOnGroupElementSInput) input).getX0Arr();
-		ArrayList<GroupElement> x1Arr = ((OTBatchOnGroupElementSInput) input).getX1Arr();
+		final ArrayList<GroupElement> x0Arr = ((OTBatchOnGroupElementSInput) input).getX0Arr();
+		final ArrayList<GroupElement> x1Arr = ((OTBatchOnGroupElementSInput) input).getX1Arr();
 		int size = x0Arr.size();
 		
-		ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> tuples = new ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg>();
+		//All the tuples hold the same u, so it is encoded once.
+		final byte[] uBytes = dlog.encodeElement(u);
+		final OTSemiHonestDDHOnGroupElementSenderMsg[] tuples = new OTSemiHonestDDHOnGroupElementSenderMsg[size];
 		
-		for (int i=0; i<size; i++){
-			//Calculate v0:
-			GroupElement v0 = dlog.multiplyGroupElements(x0Arr.get(i), k0Arr.get(i));
-			
-			//Calculate v1:
-			GroupElement v1 = dlog.multiplyGroupElements(x1Arr.get(i), k1Arr.get(i));
-			
-			tuples.add(i, new OTSemiHonestDDHOnGroupElementSenderMsg(u.generateSendableData(), 
-								v0.generateSendableData(), v1.generateSendableData()));
-		}
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				//Calculate v0:
+				GroupElement v0 = dlog.multiplyGroupElements(x0Arr.get(i), k0Arr.get(i));
+				
+				//Calculate v1:
+				GroupElement v1 = dlog.multiplyGroupElements(x1Arr.get(i), k1Arr.get(i));
+				
+				tuples[i] = new OTSemiHonestDDHOnGroupElementSenderMsg(uBytes, dlog.encodeElement(v0), dlog.encodeElement(v1));
+			}
+		}.run(size);
 		
 		//Create and return sender message.
-		return new OTSemiHonestDDHBatchOnGroupElementSenderMsg(tuples);
+		return new OTSemiHonestDDHBatchOnGroupElementSenderMsg(new ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg>(Arrays.asList(tuples)));
 	}
 
 }
@@ -27,8 +27,10 @@ package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -36,8 +38,8 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
-import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementBatchMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
@@ -45,6 +47,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
 /**
@@ -54,6 +57,10 @@ import edu.biu.scapi.tools.Factories.DlogGroupFactory;
  * 
  * In spite that, there is a common behavior for both modes which this class is implementing.<p>
  * 
+ * The exponentiations of the batch are divided between the available processors. The powers of g use the pre-computed 
+ * table of the generator, and the powers of u use a table built for the batch, since an honest sender uses the same u 
+ * in all the tuples.<p>
+ * 
  * The pseudo code of this protocol can be found in Protocol 5.1 of pseudo codes document at {@link http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf}.<p>
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
@@ -195,27 +202,33 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 	 * @param sigma input for the protocol
 	 * @return OTRSemiHonestMessage contains the tuple (h0, h1).
 	 */
-	private OTRGroupElementBatchMsg computeTuples(ArrayList<BigInteger> alphaArr, ArrayList<GroupElement> hArr, ArrayList<Byte> sigmaArr) {
+	private OTRGroupElementBatchMsg computeTuples(final ArrayList<BigInteger> alphaArr, final ArrayList<GroupElement> hArr, final ArrayList<Byte> sigmaArr) {
 		int size = alphaArr.size();
-		GroupElement g = dlog.getGenerator();
-		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>();
-		for (int i=0; i<size; i++){
-			//Calculate g^alphaI.
-			GroupElement gAlpha = dlog.exponentiate(g, alphaArr.get(i));
-					
-			GroupElement h0 = null;
-			GroupElement h1 = null;
-			//If SigmaI = 0 then hi0 = g^alphaI  and hi1=hi
-			if (sigmaArr.get(i) == 0){
-				h0 = gAlpha;
-				h1 = hArr.get(i);
-			} else{ //If SigmaI = 1 then hi0=hi and hi1 = g^alphaI
-				h0 = hArr.get(i);
-				h1 = gAlpha;
+		final GroupElement g = dlog.getGenerator();
+		//All the tuples are packed in one array using the compact encoding of the group.
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] tuples = new byte[2 * size * elementSize];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				//Calculate g^alphaI.
+				GroupElement gAlpha = dlog.exponentiateWithPreComputedValues(g, alphaArr.get(i));
+						
+				GroupElement h0 = null;
+				GroupElement h1 = null;
+				//If SigmaI = 0 then hi0 = g^alphaI  and hi1=hi
+				if (sigmaArr.get(i) == 0){
+					h0 = gAlpha;
+					h1 = hArr.get(i);
+				} else{ //If SigmaI = 1 then hi0=hi and hi1 = g^alphaI
+					h0 = hArr.get(i);
+					h1 = gAlpha;
+				}
+				ByteBuffer tuple = ByteBuffer.wrap(tuples, 2 * i * elementSize, 2 * elementSize);
+				dlog.encodeElement(h0, tuple);
+				dlog.encodeElement(h1, tuple);
 			}
-			tuples.add(i, new OTRGroupElementPairMsg(h0.generateSendableData(), h1.generateSendableData()));
-		}
-		return new OTRGroupElementBatchMsg(tuples);
+		}.run(size);
+		return new OTRGroupElementBatchMsg(tuples, size);
 	}
 	
 	/**
@@ -270,4 +283,44 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 	 */
 	protected abstract OTBatchROutput computeFinalXSigma(ArrayList<Byte> sigma, ArrayList<BigInteger> alpha, OTSMsg message);
 
+	
+	/**
+	 * Computes ui^exponentI for every i=1,...,m.<p>
+	 * If all the tuples hold the same u (as sent by an honest sender), u is decoded once and the exponentiations use 
+	 * its pre-computed table, which is released at the end of the batch.
+	 * @param uArr the encodings of u in the tuples received from the sender.
+	 * @param exponents the exponent of each u.
+	 * @return the results of the exponentiations, in the same order.
+	 */
+	protected GroupElement[] exponentiateU(byte[][] uArr, final BigInteger[] exponents) {
+		int size = uArr.length;
+		final GroupElement[] uElements = new GroupElement[size];
+		boolean sameU = true;
+		for (int i=0; i<size; i++){
+			if (i > 0 && Arrays.equals(uArr[i], uArr[i-1])){
+				uElements[i] = uElements[i-1];
+			} else {
+				uElements[i] = dlog.decodeElement(true, uArr[i]);
+				sameU = (i == 0);
+			}
+		}
+		
+		final boolean usePreComputed = sameU && size > 1;
+		final GroupElement[] results = new GroupElement[size];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				if (usePreComputed){
+					results[i] = dlog.exponentiateWithPreComputedValues(uElements[i], exponents[i]);
+				} else {
+					results[i] = dlog.exponentiate(uElements[i], exponents[i]);
+				}
+			}
+		}.run(size);
+		
+		if (usePreComputed){
+			dlog.endExponentiateWithPreComputedValues(uElements[0]);
+		}
+		return results;
+	}
+
 }
@@ -27,8 +27,10 @@ package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
@@ -38,14 +40,15 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
-import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementBatchMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
 /**
@@ -56,6 +59,10 @@ import edu.biu.scapi.tools.Factories.DlogGroupFactory;
  * 
  * The pseudo code of this protocol can be found in Protocol 5.1 of pseudo codes document at {@link http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf}.<p>
  * 
+ * All the OTs in the batch share the same exponent r. The decoding of the received elements and the exponentiations 
+ * are divided between the available processors, and u = g^r uses the pre-computed table of the generator so that 
+ * consecutive batches do not repeat the squarings of g.<p>
+ * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
@@ -157,34 +164,33 @@ abstract class OTSemiHonestDDHBatchSenderAbs implements OTBatchSender{
 		OTRGroupElementBatchMsg message = waitForMessageFromReceiver(channel);
 		
 		//SAMPLE a random value r in  [0, . . . , q-1] 
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		final BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		GroupElement g = dlog.getGenerator(); //Get the group generator.
 		
 		//Calculate u = g^r.
-		GroupElement u = dlog.exponentiate(g, r);
+		GroupElement u = dlog.exponentiateWithPreComputedValues(g, r);
 		
-		ArrayList<OTRGroupElementPairMsg> tuples = message.getTuples();
-		int size = tuples.size();
-		ArrayList<GroupElement> k0Array = new ArrayList<GroupElement>();
-		ArrayList<GroupElement> k1Array = new ArrayList<GroupElement>();
-		GroupElement h0, h1;
-		OTRGroupElementPairMsg tuple;
+		int size = message.getSize();
+		final int elementSize = dlog.getCompactElementSize();
+		final byte[] tuples = message.getTuples();
+		if (tuples.length != 2L * size * elementSize){
+			throw new IllegalArgumentException("The received message does not contain " + size + " tuples");
+		}
+		final GroupElement[] k0Array = new GroupElement[size];
+		final GroupElement[] k1Array = new GroupElement[size];
 		
-		//For every i=1,...,m, COMPUTE:
+		//For every i=1,...,m, recreate hi0, hi1 from the data in the received message and COMPUTE:
 		//	ki0 = (hi0)^r
 		//	ki1 = (hi1)^r
-		for (int i=0; i<size; i++){
-			tuple = tuples.get(i);
-			//Recreate h0 from the data in the received message.
-			h0 = dlog.reconstructElement(true, tuple.getFirstGE());
-			h1 = dlog.reconstructElement(true, tuple.getSecondGE());
-			
-			//Calculate k0 = h0^r.
-			k0Array.add(i, dlog.exponentiate(h0, r));
-			k1Array.add(i, dlog.exponentiate(h1, r));
-		}
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				ByteBuffer tuple = ByteBuffer.wrap(tuples, 2 * i * elementSize, 2 * elementSize);
+				k0Array[i] = dlog.exponentiate(dlog.decodeElement(true, tuple), r);
+				k1Array[i] = dlog.exponentiate(dlog.decodeElement(true, tuple), r);
+			}
+		}.run(size);
 		
-		OTSMsg messageToSend = computeMsg(input, u, k0Array, k1Array);
+		OTSMsg messageToSend = computeMsg(input, u, new ArrayList<GroupElement>(Arrays.asList(k0Array)), new ArrayList<GroupElement>(Arrays.asList(k1Array)));
 		sendTupleToReceiver(channel, messageToSend);
 		
 		return null;//sould not return any data
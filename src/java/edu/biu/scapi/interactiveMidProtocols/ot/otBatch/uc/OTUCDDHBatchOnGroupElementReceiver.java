@@ -0,0 +1,114 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.uc;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation.OTFullSimBatchOnGroupElementReceiverTransferUtil;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.securityLevel.Malicious;
+import edu.biu.scapi.securityLevel.UC;
+
+/**
+ * Concrete class for batch OT receiver based on the DDH assumption that achieves UC security in
+ * the common reference string model.<p>
+ * This implementation is based on the protocol of Peikert, Vaikuntanathan and Waters (CRYPTO 2008) for achieving UC-secure OT.<p>
+ * 
+ * All the OTs of a batch use the same common reference string and are carried out using one message in each direction.
+ * This class implements the functionality related to the GroupElement inputs.<p>
+ * 
+ * The pseudo code of the single OT protocol can be found in Protocol 4.6 of pseudo codes document at <a href="http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf">http://cryptobiu.github.io/scapi/SDK_Pseudocode.pdf</a>.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTUCDDHBatchOnGroupElementReceiver implements OTBatchReceiver, Malicious, UC{
+	
+	private DlogGroup dlog;
+	private SecureRandom random;
+	private GroupElement g0, g1, h0, h1; //Common reference string
+	
+	/**
+	 * Constructor that sets the given common reference string composed of a DLOG 
+	 * description (G,q,g0) and (g0,g1,h0,h1) which is a randomly chosen non-DDH tuple, 
+	 * and random.
+	 * @param dlog must be DDH secure.
+	 * @param g0 
+	 * @param g1 
+	 * @param h0 
+	 * @param h1 
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 */
+	public OTUCDDHBatchOnGroupElementReceiver(DlogGroup dlog, GroupElement g0, GroupElement g1, 
+			GroupElement h0, GroupElement h1, SecureRandom random) throws SecurityLevelException{
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		
+		this.dlog = dlog;
+		this.random = random;
+		this.g0 = g0;
+		this.g1 = g1;
+		this.h0 = h0;
+		this.h1 = h1;
+		
+		// This protocol has no pre process stage.	
+	}
+
+	/**
+	 * Runs the transfer phase of the batch OT protocol.<p>
+	 * Transfer Phase (with inputs sigmaI for every i=1,...,m) <p>
+	 *	For every i=1,...,m:<p>
+	 *		SAMPLE a random value ri <- {0, . . . , q-1} <p>
+	 *		COMPUTE<p>
+	 *		4.	gi = (gSigmaI)^ri<p>
+	 *		5.	hi = (hSigmaI)^ri<p>
+	 *	SEND (gi,hi) for every i=1,...,m to S<p>
+	 *	WAIT for messages (ui0,ci0) and (ui1,ci1) for every i=1,...,m from S<p>
+	 *	IF  NOT<p>
+	 *		ui0, ui1, ci0, ci1 in G<p>
+	 *		  REPORT ERROR<p>
+	 *	OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)<p>
+	 * @param input MUST be OTBatchRBasicInput.
+	 * @return OTBatchOnGroupElementROutput that contains xiSigma for every i.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		//Creates the utility class that executes the transfer phase.
+		OTFullSimBatchOnGroupElementReceiverTransferUtil transferUtil = new OTFullSimBatchOnGroupElementReceiverTransferUtil(dlog, random);
+		return transferUtil.transfer(channel, input, new OTFullSimPreprocessPhaseValues(g0, g1, h0, h1));
+	}
+}
@@ -131,8 +131,8 @@ public class OTPrivacyOnlyDDHOnByteArrayReceiver extends OTPrivacyOnlyDDHReceive
 		OTOnByteArraySMsg msg = (OTOnByteArraySMsg)message;
 		
 		//Reconstruct the group elements from the given message.
-		GroupElement w0 = dlog.reconstructElement(true, msg.getW0());
-		GroupElement w1 = dlog.reconstructElement(true, msg.getW1());
+		GroupElement w0 = dlog.decodeElement(true, msg.getW0());
+		GroupElement w1 = dlog.decodeElement(true, msg.getW1());
 		
 		//Get the byte arrays from the given message.
 		byte[] c0 = msg.getC0();
@@ -126,6 +126,6 @@ public class OTPrivacyOnlyDDHOnByteArraySender extends OTPrivacyOnlyDDHSenderAbs
 		}
 		
 		//Create and return sender message.
-		return new OTOnByteArraySMsg(w0.generateSendableData(), c0, w1.generateSendableData(), c1);
+		return new OTOnByteArraySMsg(dlog.encodeElement(w0), c0, dlog.encodeElement(w1), c1);
 	}
 }
@@ -117,10 +117,10 @@ public class OTPrivacyOnlyDDHOnGroupElementReceiver extends OTPrivacyOnlyDDHRece
 		OTOnGroupElementSMsg msg = (OTOnGroupElementSMsg)message;
 		
 		//Reconstruct the group elements from the given message.
-		GroupElement w0 = dlog.reconstructElement(true, msg.getW0());
-		GroupElement w1 = dlog.reconstructElement(true, msg.getW1());
-		GroupElement c0 = dlog.reconstructElement(true, msg.getC0());
-		GroupElement c1 = dlog.reconstructElement(true, msg.getC1());
+		GroupElement w0 = dlog.decodeElement(true, msg.getW0());
+		GroupElement w1 = dlog.decodeElement(true, msg.getW1());
+		GroupElement c0 = dlog.decodeElement(true, msg.getC0());
+		GroupElement c1 = dlog.decodeElement(true, msg.getC1());
 				
 		//Compute the validity checks of the given message. 
 		checkReceivedTuple(w0, w1, c0, c1);
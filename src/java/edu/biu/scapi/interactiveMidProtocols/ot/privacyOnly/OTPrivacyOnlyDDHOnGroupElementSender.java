@@ -98,7 +98,7 @@ public class OTPrivacyOnlyDDHOnGroupElementSender extends OTPrivacyOnlyDDHSender
 		GroupElement c1 = dlog.multiplyGroupElements(x1, k1);
 		
 		//Create and return sender message.
-		return new OTOnGroupElementSMsg(w0.generateSendableData(), 
-				c0.generateSendableData(), w1.generateSendableData(), c1.generateSendableData());
+		return new OTOnGroupElementSMsg(dlog.encodeElement(w0), 
+				dlog.encodeElement(c0), dlog.encodeElement(w1), dlog.encodeElement(c1));
 	}
 }
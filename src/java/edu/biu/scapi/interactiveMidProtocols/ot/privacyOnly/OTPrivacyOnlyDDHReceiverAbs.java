@@ -250,16 +250,16 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 		GroupElement gAlphaBeta = dlog.exponentiate(g, alpha.multiply(beta));
 		
 		if (sigma == 0){
-			return new OTRGroupElementQuadMsg(gAlpha.generateSendableData(), 
-										 gBeta.generateSendableData(), 
-										 gAlphaBeta.generateSendableData(), 
-										 gGamma.generateSendableData());
+			return new OTRGroupElementQuadMsg(dlog.encodeElement(gAlpha), 
+										 dlog.encodeElement(gBeta), 
+										 dlog.encodeElement(gAlphaBeta), 
+										 dlog.encodeElement(gGamma));
 		}
 		else {
-			return new OTRGroupElementQuadMsg(gAlpha.generateSendableData(), 
-										 gBeta.generateSendableData(), 
-										 gGamma.generateSendableData(), 
-										 gAlphaBeta.generateSendableData());
+			return new OTRGroupElementQuadMsg(dlog.encodeElement(gAlpha), 
+										 dlog.encodeElement(gBeta), 
+										 dlog.encodeElement(gGamma), 
+										 dlog.encodeElement(gAlphaBeta));
 		}
 	}
 	
@@ -185,10 +185,10 @@ abstract class OTPrivacyOnlyDDHSenderAbs implements OTSender{
 		OTRGroupElementQuadMsg message = waitForMessageFromReceiver(channel);
 		
 		//Reconstruct the group elements from the given message.
-		GroupElement x = dlog.reconstructElement(true, message.getX());
-		GroupElement y = dlog.reconstructElement(true, message.getY());
-		GroupElement z0 = dlog.reconstructElement(true, message.getZ0());
-		GroupElement z1 = dlog.reconstructElement(true, message.getZ1());
+		GroupElement x = dlog.decodeElement(true, message.getX());
+		GroupElement y = dlog.decodeElement(true, message.getY());
+		GroupElement z0 = dlog.decodeElement(true, message.getZ0());
+		GroupElement z1 = dlog.decodeElement(true, message.getZ1());
 		
 		//Check the received message
 		checkReceivedTuple(x, y, z0, z1);
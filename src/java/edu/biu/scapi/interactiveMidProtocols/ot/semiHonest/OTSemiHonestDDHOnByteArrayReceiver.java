@@ -93,7 +93,7 @@ public class OTSemiHonestDDHOnByteArrayReceiver extends OTSemiHonestDDHReceiverA
 		OTSemiHonestDDHOnByteArraySenderMsg msg = (OTSemiHonestDDHOnByteArraySenderMsg)message;
 		
 		//Compute kSigma:
-		GroupElement u = dlog.reconstructElement(true, msg.getU());
+		GroupElement u = dlog.decodeElement(true, msg.getU());
 		GroupElement kSigma = dlog.exponentiate(u, alpha);
 		byte[] kBytes = dlog.mapAnyGroupElementToByteArray(kSigma);
 		
@@ -120,7 +120,7 @@ public class OTSemiHonestDDHOnByteArraySender extends OTSemiHonestDDHSenderAbs i
 		}
 		
 		//Create and return sender message.
-		return new OTSemiHonestDDHOnByteArraySenderMsg(u.generateSendableData(), v0, v1);
+		return new OTSemiHonestDDHOnByteArraySenderMsg(dlog.encodeElement(u), v0, v1);
 	}
 
 }
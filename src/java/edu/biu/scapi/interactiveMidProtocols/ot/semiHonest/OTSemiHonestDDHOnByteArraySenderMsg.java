@@ -25,11 +25,11 @@
 package edu.biu.scapi.interactiveMidProtocols.ot.semiHonest;
 
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT sender (on byteArray) message.<p>
  * In the byteArray scenario, the sender sends GroupElement u and two binary strings v0, v1.
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -37,7 +37,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 public class OTSemiHonestDDHOnByteArraySenderMsg implements OTSMsg{
 	
 	private static final long serialVersionUID = -8231788505353019414L;
-	private GroupElementSendableData u;
+	private byte[] u;
 	private byte[] v0;
 	private byte[] v1;
 	
@@ -47,13 +47,13 @@ public class OTSemiHonestDDHOnByteArraySenderMsg implements OTSMsg{
 	 * @param v0
 	 * @param v1
 	 */
-	public OTSemiHonestDDHOnByteArraySenderMsg(GroupElementSendableData u, byte[] v0, byte[] v1){
+	public OTSemiHonestDDHOnByteArraySenderMsg(byte[] u, byte[] v0, byte[] v1){
 		this.u = u;
 		this.v0 = v0;
 		this.v1 = v1;
 	}
 	
-	public GroupElementSendableData getU(){
+	public byte[] getU(){
 		return u;
 	}
 	
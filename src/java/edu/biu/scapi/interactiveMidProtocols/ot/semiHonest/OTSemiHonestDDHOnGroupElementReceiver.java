@@ -82,7 +82,7 @@ public class OTSemiHonestDDHOnGroupElementReceiver extends OTSemiHonestDDHReceiv
 		OTSemiHonestDDHOnGroupElementSenderMsg msg = (OTSemiHonestDDHOnGroupElementSenderMsg)message;
 		
 		//Compute (kSigma)^(-1) = u^(-alpha):
-		GroupElement u = dlog.reconstructElement(true, msg.getU());	//Get u
+		GroupElement u = dlog.decodeElement(true, msg.getU());	//Get u
 		BigInteger beta = dlog.getOrder().subtract(alpha);			//Get -alpha
 		GroupElement kSigma = dlog.exponentiate(u, beta);
 		
@@ -90,10 +90,10 @@ public class OTSemiHonestDDHOnGroupElementReceiver extends OTSemiHonestDDHReceiv
 		//Get v0 or v1 according to sigma.
 		GroupElement vSigma = null;
 		if (sigma == 0){
-			vSigma = dlog.reconstructElement(true, msg.getV0());
+			vSigma = dlog.decodeElement(true, msg.getV0());
 		} 
 		if (sigma == 1){
-			vSigma = dlog.reconstructElement(true, msg.getV1());
+			vSigma = dlog.decodeElement(true, msg.getV1());
 		}
 		
 		//Compue xSigma
@@ -90,6 +90,6 @@ public class OTSemiHonestDDHOnGroupElementSender extends OTSemiHonestDDHSenderAb
 		GroupElement v1 = dlog.multiplyGroupElements(x1, k1);
 		
 		//Create and return sender message.
-		return new OTSemiHonestDDHOnGroupElementSenderMsg(u.generateSendableData(), v0.generateSendableData(), v1.generateSendableData());
+		return new OTSemiHonestDDHOnGroupElementSenderMsg(dlog.encodeElement(u), dlog.encodeElement(v0), dlog.encodeElement(v1));
 	}
 }
@@ -25,11 +25,11 @@
 package edu.biu.scapi.interactiveMidProtocols.ot.semiHonest;
 
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of OT sender (on GroupElement) message.<p>
  * In the byteArray scenario, the sender sends three GroupElement - u, v0, v1.
+ * The GroupElements are held in the compact encoding of the Dlog group.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -37,9 +37,9 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 public class OTSemiHonestDDHOnGroupElementSenderMsg implements OTSMsg{
 	
 	private static final long serialVersionUID = -5540829944975370558L;
-	private GroupElementSendableData u;
-	private GroupElementSendableData v0;
-	private GroupElementSendableData v1;
+	private byte[] u;
+	private byte[] v0;
+	private byte[] v1;
 	
 	/**
 	 * SEts the given values calculated by the protocol.
@@ -47,21 +47,21 @@ public class OTSemiHonestDDHOnGroupElementSenderMsg implements OTSMsg{
 	 * @param v0
 	 * @param v1
 	 */
-	public OTSemiHonestDDHOnGroupElementSenderMsg(GroupElementSendableData u, GroupElementSendableData v0, GroupElementSendableData v1){
+	public OTSemiHonestDDHOnGroupElementSenderMsg(byte[] u, byte[] v0, byte[] v1){
 		this.u = u;
 		this.v0 = v0;
 		this.v1 = v1;
 	}
 	
-	public GroupElementSendableData getU(){
+	public byte[] getU(){
 		return u;
 	}
 	
-	public GroupElementSendableData getV0(){
+	public byte[] getV0(){
 		return v0;
 	}
 	
-	public GroupElementSendableData getV1(){
+	public byte[] getV1(){
 		return v1;
 	}
 }
@@ -200,7 +200,7 @@ abstract class OTSemiHonestDDHReceiverAbs implements OTReceiver{
 			h0 = h;
 			h1 = gAlpha;
 		}
-		return new OTRGroupElementPairMsg(h0.generateSendableData(), h1.generateSendableData());
+		return new OTRGroupElementPairMsg(dlog.encodeElement(h0), dlog.encodeElement(h1));
 	}
 	
 	/**
@@ -211,7 +211,7 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 	private GroupElement computeK0(BigInteger r, OTRGroupElementPairMsg message) {
 
 		//Recreate h0 from the data in the received message.
-		GroupElement h0 = dlog.reconstructElement(true, message.getFirstGE());
+		GroupElement h0 = dlog.decodeElement(true, message.getFirstGE());
 		
 		//Calculate k0 = h0^r.
 		return dlog.exponentiate(h0, r);
@@ -227,7 +227,7 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 	private GroupElement computeK1(BigInteger r, OTRGroupElementPairMsg message) {
 		
 		//Recreate h0, h1 from the data in the received message.
-		GroupElement h1 = dlog.reconstructElement(true, message.getSecondGE());
+		GroupElement h1 = dlog.decodeElement(true, message.getSecondGE());
 
 		//Calculate k1 = h1^r.
 		return dlog.exponentiate(h1, r);
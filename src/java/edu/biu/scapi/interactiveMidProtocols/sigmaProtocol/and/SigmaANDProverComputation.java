@@ -26,10 +26,13 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.and;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaSimulator;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaMultipleMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
@@ -57,6 +60,7 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 	private int len;									// number of underlying provers.
 	private int t;										//Soundness parameter.
 	private SecureRandom random;
+	private Executor executor;							// Runs the underlying provers concurrently. May be null.
 	
 	/**
 	 * Constructor that sets the underlying provers.
@@ -66,6 +70,21 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 	 * @throws IllegalArgumentException if the given t is not equal to all t values of the underlying provers object.
 	 */
 	public SigmaANDProverComputation(ArrayList<SigmaProverComputation> provers, int t, SecureRandom random) {
+		this(provers, t, random, null);
+	}
+	
+	/**
+	 * Constructor that sets the underlying provers and an executor that runs them concurrently.<p>
+	 * The underlying provers are independent, so their messages can be computed in parallel. 
+	 * The executor may be shared with other protocols; a null executor means sequential computation.
+	 * @param provers array of SigmaProverComputation, where each object represent a statement 
+	 * 		  and the prover wants to prove to the verify that the AND of all statements are true. 
+	 * @param t soundness parameter. t MUST be equal to all t values of the underlying provers object.
+	 * @param random source of randomness
+	 * @param executor runs the underlying provers' computations.
+	 * @throws IllegalArgumentException if the given t is not equal to all t values of the underlying provers object.
+	 */
+	public SigmaANDProverComputation(ArrayList<SigmaProverComputation> provers, int t, SecureRandom random, Executor executor) {
 		//If the given t is different from one of the underlying object's t values, throw exception.
 		for (int i = 0; i < provers.size(); i++){
 			if (t != provers.get(i).getSoundnessParam()){
@@ -76,6 +95,7 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 		len = provers.size();
 		this.t = t; 
 		this.random = random;
+		this.executor = executor;
 	}
 
 	/**
@@ -116,14 +136,25 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 	public SigmaProtocolMsg computeFirstMsg(SigmaProverInput in) {
 		//Checks that the input is as expected.
 		checkInput(in);
-		ArrayList<SigmaProverInput> proversInput = ((SigmaANDProverInput) in).getInputs();
-		
-		//Create an array to hold all messages.
-		ArrayList<SigmaProtocolMsg> firstMessages = new ArrayList<SigmaProtocolMsg>();
+		final ArrayList<SigmaProverInput> proversInput = ((SigmaANDProverInput) in).getInputs();
 		
-		//Compute all first messages and add them to the array list.
+		//Create a computation for each first message.
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(len);
 		for (int i = 0; i < len; i++){
-			firstMessages.add(provers.get(i).computeFirstMsg(proversInput.get(i)));
+			final int index = i;
+			computations.add(new Computation<SigmaProtocolMsg>() {
+				public SigmaProtocolMsg compute() {
+					return provers.get(index).computeFirstMsg(proversInput.get(index));
+				}
+			});
+		}
+		
+		//Compute all first messages.
+		ArrayList<SigmaProtocolMsg> firstMessages = null;
+		try {
+			firstMessages = SigmaComputationRunner.run(executor, computations);
+		} catch (CheatAttemptException e) {
+			// Should not occur since computeFirstMsg does not throw CheatAttemptException.
 		}
 		//Create a SigmaMultipleMsg with the messages array.
 		return new SigmaMultipleMsg(firstMessages);
@@ -137,15 +168,22 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 	 * @return SigmaMultipleMsg contains z1, ..., zm.
 	 * @throws CheatAttemptException if the received challenge's length is not equal to the soundness parameter.
 	 */
-	public SigmaProtocolMsg computeSecondMsg(byte[] challenge) throws CheatAttemptException {
+	public SigmaProtocolMsg computeSecondMsg(final byte[] challenge) throws CheatAttemptException {
 		
-		//Create an array to hold all messages.
-		ArrayList<SigmaProtocolMsg> secondMessages = new ArrayList<SigmaProtocolMsg>();
-		//Compute all second messages and add them to the array list.
+		//Create a computation for each second message.
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(len);
 		for (int i = 0; i < len; i++){
-			secondMessages.add(provers.get(i).computeSecondMsg(challenge));
+			final int index = i;
+			computations.add(new Computation<SigmaProtocolMsg>() {
+				public SigmaProtocolMsg compute() throws CheatAttemptException {
+					return provers.get(index).computeSecondMsg(challenge);
+				}
+			});
 		}
 		
+		//Compute all second messages.
+		ArrayList<SigmaProtocolMsg> secondMessages = SigmaComputationRunner.run(executor, computations);
+		
 		//Create a SigmaMultipleMsg with the messages array.
 		return new SigmaMultipleMsg(secondMessages);
 		
@@ -160,7 +198,7 @@ public class SigmaANDProverComputation implements SigmaProverComputation{
 		for (int i=0; i < len; i++){
 			simulators.add(provers.get(i).getSimulator());
 		}
-		return new SigmaANDSimulator(simulators, t, random);
+		return new SigmaANDSimulator(simulators, t, random, executor);
 	}
 
 }
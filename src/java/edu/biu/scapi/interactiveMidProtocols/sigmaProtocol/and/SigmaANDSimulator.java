@@ -26,10 +26,13 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.and;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaSimulator;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaMultipleMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaSimulatorOutput;
@@ -57,6 +60,7 @@ public class SigmaANDSimulator implements SigmaSimulator{
 	private int len;								// Number of underlying simulators.
 	private int t;									// Soundness parameter.
 	private SecureRandom random;
+	private Executor executor;						// Runs the underlying simulators concurrently. May be null.
 	
 	/**
 	 * Constructor that gets the underlying simulators.
@@ -66,6 +70,18 @@ public class SigmaANDSimulator implements SigmaSimulator{
 	 * @param random source of randomness
 	 */
 	public SigmaANDSimulator(ArrayList<SigmaSimulator> simulators, int t, SecureRandom random) {
+		this(simulators, t, random, null);
+	}
+	
+	/**
+	 * Constructor that gets the underlying simulators and an executor that runs them concurrently.
+	 * @param simulators array of SigmaSimulator, where each object represent a statement 
+	 * 		  where the prover wants to prove to the verify that that the AND of all statements are true. 
+	 * @param t soundness parameter. t MUST be equal to all t values of the underlying simulators object.
+	 * @param random source of randomness
+	 * @param executor runs the underlying simulators. If null, the simulators are executed sequentially.
+	 */
+	public SigmaANDSimulator(ArrayList<SigmaSimulator> simulators, int t, SecureRandom random, Executor executor) {
 		
 		//If the given t is different from one of the underlying object's t values, throw exception.
 		for (int i = 0; i < simulators.size(); i++){
@@ -77,6 +93,7 @@ public class SigmaANDSimulator implements SigmaSimulator{
 		len = simulators.size();
 		this.t = t;
 		this.random = random;
+		this.executor = executor;
 	}
 	
 	/**
@@ -95,7 +112,7 @@ public class SigmaANDSimulator implements SigmaSimulator{
 	 * @throws CheatAttemptException if the received challenge's length is not equal to the soundness parameter.
 	 * @throws IllegalArgumentException if the given input is not an instance of SigmaANDCommonInput.
 	 */
-	public SigmaSimulatorOutput simulate(SigmaCommonInput input, byte[] challenge) throws CheatAttemptException{
+	public SigmaSimulatorOutput simulate(SigmaCommonInput input, final byte[] challenge) throws CheatAttemptException{
 		if (!checkChallengeLength(challenge)){
 			throw new CheatAttemptException("the length of the given challenge is differ from the soundness parameter");
 		}
@@ -104,7 +121,7 @@ public class SigmaANDSimulator implements SigmaSimulator{
 			throw new IllegalArgumentException("the given input must be an instance of SigmaANDCommonInput");
 		}
 		SigmaANDCommonInput andInput = (SigmaANDCommonInput) input;
-		ArrayList<SigmaCommonInput> simulatorsInput = andInput.getInputs();
+		final ArrayList<SigmaCommonInput> simulatorsInput = andInput.getInputs();
 		int inputLen = simulatorsInput.size();
 		
 		// If number of inputs is not equal to number of provers, throw exception.
@@ -112,14 +129,23 @@ public class SigmaANDSimulator implements SigmaSimulator{
 			throw new IllegalArgumentException("number of inputs is different from number of underlying simulators.");
 		}
 		
+		//Run each Sigma protocol simulator with the given challenge.
+		ArrayList<Computation<SigmaSimulatorOutput>> computations = new ArrayList<Computation<SigmaSimulatorOutput>>(len);
+		for (int i = 0; i < len; i++){
+			final int index = i;
+			computations.add(new Computation<SigmaSimulatorOutput>() {
+				public SigmaSimulatorOutput compute() throws CheatAttemptException {
+					return simulators.get(index).simulate(simulatorsInput.get(index), challenge);
+				}
+			});
+		}
+		ArrayList<SigmaSimulatorOutput> outputs = SigmaComputationRunner.run(executor, computations);
+		
 		ArrayList<SigmaProtocolMsg> aOutputs = new ArrayList<SigmaProtocolMsg>();
 		ArrayList<SigmaProtocolMsg> zOutputs = new ArrayList<SigmaProtocolMsg>();
-		SigmaSimulatorOutput output = null;
-		//Run each Sigma protocol simulator with the given challenge.
 		for (int i = 0; i < len; i++){
-			output = simulators.get(i).simulate(simulatorsInput.get(i), challenge);
-			aOutputs.add(output.getA());
-			zOutputs.add(output.getZ());
+			aOutputs.add(outputs.get(i).getA());
+			zOutputs.add(outputs.get(i).getZ());
 		}
 		
 		//Create a SigmaMultipleMsg from the simulates function's outputs to create a and z.
@@ -25,11 +25,10 @@
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation SigmaProtocol message. <p>
- * This message contains two GroupElement sendable data and used when the DH prover send the first message to the verifier.
+ * This message contains two GroupElements in the compact encoding of the Dlog group and used when the DH prover send the first message to the verifier.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -38,19 +37,19 @@ class SigmaDHMsg implements SigmaProtocolMsg {
 
 	private static final long serialVersionUID = 1208840175220495797L;
 	
-	private GroupElementSendableData a;
-	private GroupElementSendableData b;
+	private byte[] a;
+	private byte[] b;
 	
-	SigmaDHMsg(GroupElementSendableData a, GroupElementSendableData b){
+	SigmaDHMsg(byte[] a, byte[] b){
 		this.a = a;
 		this.b = b;
 	}
 	
-	GroupElementSendableData getA(){
+	byte[] getA(){
 		return a;
 	}
 	
-	GroupElementSendableData getB(){
+	byte[] getB(){
 		return b;
 	}
 }
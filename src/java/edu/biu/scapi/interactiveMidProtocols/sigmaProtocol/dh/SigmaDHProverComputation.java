@@ -133,7 +133,7 @@ public class SigmaDHProverComputation implements SigmaProverComputation, DlogBas
 		//Compute b = h^r.
 		GroupElement b = dlog.exponentiate(this.input.getCommonParams().getH(), r);
 		//Create and return SigmaDHMsg with a and b.
-		return new SigmaDHMsg(a.generateSendableData(), b.generateSendableData());
+		return new SigmaDHMsg(dlog.encodeElement(a), dlog.encodeElement(b));
 	}
 
 	/**
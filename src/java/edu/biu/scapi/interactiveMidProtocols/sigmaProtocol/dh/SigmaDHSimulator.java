@@ -137,7 +137,7 @@ public class SigmaDHSimulator implements SigmaSimulator{
 		GroupElement b = dlog.multiplyGroupElements(hToZ, vToE);
 		
 		//Output ((a,b),e,z).
-		return new SigmaDHSimulatorOutput(new SigmaDHMsg(a.generateSendableData(), b.generateSendableData()), challenge, new SigmaBIMsg(z));
+		return new SigmaDHSimulatorOutput(new SigmaDHMsg(dlog.encodeElement(a), dlog.encodeElement(b)), challenge, new SigmaBIMsg(z));
 				
 	}
 	
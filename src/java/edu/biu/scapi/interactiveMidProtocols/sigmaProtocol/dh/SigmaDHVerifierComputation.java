@@ -167,8 +167,8 @@ public class SigmaDHVerifierComputation implements SigmaVerifierComputation, Dlo
 		
 		//Get the elements of the first message from the prover.
 		SigmaDHMsg firstMsg = (SigmaDHMsg) a;
-		GroupElement aElement = dlog.reconstructElement(true, firstMsg.getA());
-		GroupElement bElement = dlog.reconstructElement(true, firstMsg.getB());
+		GroupElement aElement = dlog.decodeElement(true, firstMsg.getA());
+		GroupElement bElement = dlog.decodeElement(true, firstMsg.getB());
 		
 		//Get the exponent in the second message from the prover.
 		SigmaBIMsg exponent = (SigmaBIMsg) z;
@@ -130,7 +130,7 @@ public class SigmaDlogProverComputation implements SigmaProverComputation, DlogB
 		//Compute a = g^r.
 		GroupElement a = dlog.exponentiate(dlog.getGenerator(), r);
 		//Create and return SigmaGroupElementMsg with a.
-		return new SigmaGroupElementMsg(a.generateSendableData());
+		return new SigmaGroupElementMsg(dlog.encodeElement(a));
 	}
 
 	/**
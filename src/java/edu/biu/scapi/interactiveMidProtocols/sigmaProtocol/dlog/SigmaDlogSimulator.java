@@ -138,7 +138,7 @@ public class SigmaDlogSimulator implements SigmaSimulator{
 		GroupElement a = dlog.multiplyGroupElements(gToZ, hToE);
 		
 		//OUTPUT (a,e,z).
-		return new SigmaDlogSimulatorOutput(new SigmaGroupElementMsg(a.generateSendableData()), challenge, new SigmaBIMsg(z));
+		return new SigmaDlogSimulatorOutput(new SigmaGroupElementMsg(dlog.encodeElement(a)), challenge, new SigmaBIMsg(z));
 				
 	}
 	
@@ -163,7 +163,7 @@ public class SigmaDlogVerifierComputation implements SigmaVerifierComputation, D
 		
 		//Get the element of the first message from the prover.
 		SigmaGroupElementMsg firstMsg = (SigmaGroupElementMsg) a;
-		GroupElement aElement = dlog.reconstructElement(true, firstMsg.getElement());
+		GroupElement aElement = dlog.decodeElement(true, firstMsg.getElement());
 		
 		//Get the exponent in the second message from the prover.
 		SigmaBIMsg exponent = (SigmaBIMsg) z;
@@ -28,11 +28,14 @@ import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaSimulator;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaMultipleMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
@@ -72,6 +75,7 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 	private int t;												// Soundness parameter.
 	private int k;												//number of witnesses.
 	private SecureRandom random;								// The indexes of the statements which the prover knows the witnesses.
+	private Executor executor;									// Runs the underlying provers and simulators concurrently. May be null.
 	
 	private SigmaORMultipleProverInput input;					// Used in computeFirstMsg function.
 	
@@ -110,6 +114,21 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 	 * @throws IllegalArgumentException if the given t is not equal to all t values of the underlying provers object.
 	 */
 	public SigmaORMultipleProverComputation(Hashtable<Integer, SigmaProverComputation> provers, Hashtable<Integer, SigmaSimulator> simulators, int t, SecureRandom random) {
+		this(provers, simulators, t, random, null);
+	}
+	
+	/**
+	 * Constructor that gets the underlying provers and simulators and an executor that runs them concurrently.<p>
+	 * The field operations (sampling and interpolation) are still done by the calling thread.
+	 * @param provers array of SigmaProverComputation, where each object represent a statement 
+	 * 		  and the prover wants to prove to the verify that the OR of all statements are true. 
+	 * @param simulators the simulators of the statements that the prover does not know the witnesses for.
+	 * @param t soundness parameter. t MUST be equal to all t values of the underlying provers object.
+	 * @param random source of randomness
+	 * @param executor runs the underlying provers and simulators. If null, they are executed sequentially.
+	 * @throws IllegalArgumentException if the given t is not equal to all t values of the underlying provers object.
+	 */
+	public SigmaORMultipleProverComputation(Hashtable<Integer, SigmaProverComputation> provers, Hashtable<Integer, SigmaSimulator> simulators, int t, SecureRandom random, Executor executor) {
 		//If the given t is different from one of the underlying object's t values, throw exception.
 		
 		Enumeration<SigmaProverComputation> proversEl = provers.elements();
@@ -130,6 +149,7 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 		len = k + simulators.size();
 		this.t = t; 
 		this.random = random;
+		this.executor = executor;
 		//Initialize the field GF2E with a random irreducible polynomial with degree t.
 		initField(t, random.nextInt());
 	}
@@ -208,8 +228,8 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 	public SigmaProtocolMsg computeFirstMsg(SigmaProverInput in) {
 		//Check the given input.
 		checkInput(in);
-		Hashtable<Integer, SigmaProverInput> proversInput = input.getProversInput();
-		Hashtable<Integer, SigmaCommonInput> simulatorsInput = input.getSimulatorsInput();
+		final Hashtable<Integer, SigmaProverInput> proversInput = input.getProversInput();
+		final Hashtable<Integer, SigmaCommonInput> simulatorsInput = input.getSimulatorsInput();
 		
 		//Sample random values for this protocol.
 		fieldElements = new long[len - k];
@@ -227,29 +247,41 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 			}
 		}
 		
-		//Create an array to hold all messages.
-		ArrayList<SigmaProtocolMsg> firstMessages = new ArrayList<SigmaProtocolMsg>();
-		//Create an array to hold all simaultor's outputs.
+		//Create a hashtable to hold all simaultor's outputs. Hashtable is synchronized, so the simulators may fill it concurrently.
 		simulatorsOutput = new Hashtable<Integer, SigmaSimulatorOutput>();
-		SigmaSimulatorOutput output;
-		//Compute all first messages and add them to the array list.
+		
+		//Create a computation for each first message.
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(len);
 		for (int i = 0; i < len; i++){
-			SigmaProverComputation prover = provers.get(i);
+			final int statement = i;
+			final SigmaProverComputation prover = provers.get(i);
 			
 			//If i in I, call the underlying computeFirstMsg.
 			if (prover != null){
-				firstMessages.add(prover.computeFirstMsg(proversInput.get(i)));
+				computations.add(new Computation<SigmaProtocolMsg>() {
+					public SigmaProtocolMsg compute() {
+						return prover.computeFirstMsg(proversInput.get(statement));
+					}
+				});
 			//If i not in I, run the simulator for xi.
 			} else{
-				try {
-					output = simulators.get(i).simulate(simulatorsInput.get(i), challenges[i]);
-					firstMessages.add(output.getA());
-					simulatorsOutput.put(i, output);
-				} catch (CheatAttemptException e) {
-					// This exception will not be thrown because the length of the challenges is valid.
-				}
+				computations.add(new Computation<SigmaProtocolMsg>() {
+					public SigmaProtocolMsg compute() throws CheatAttemptException {
+						SigmaSimulatorOutput output = simulators.get(statement).simulate(simulatorsInput.get(statement), challenges[statement]);
+						simulatorsOutput.put(statement, output);
+						return output.getA();
+					}
+				});
 			}
 		}
+		
+		//Compute all first messages.
+		ArrayList<SigmaProtocolMsg> firstMessages = null;
+		try {
+			firstMessages = SigmaComputationRunner.run(executor, computations);
+		} catch (CheatAttemptException e) {
+			// This exception will not be thrown because the length of the challenges is valid.
+		}
 		//Create a SigmaMultipleMsg with the messages array.
 		return new SigmaMultipleMsg(firstMessages);
 		
@@ -291,21 +323,32 @@ public class SigmaORMultipleProverComputation implements SigmaProverComputation{
 			}
 		}
 		
-		//Create an array to hold all messages.
-		ArrayList<SigmaProtocolMsg> secondMessages = new ArrayList<SigmaProtocolMsg>();
-		
-		//Compute all second messages and add them to the array list.
+		//Create a computation for each second message.
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(len);
 		for (int i = 0; i < len; i++){
-			SigmaProverComputation prover = provers.get(i);
+			final int statement = i;
+			final SigmaProverComputation prover = provers.get(i);
 			//If i in I, call the underlying computeSecondMsg.
 			if (prover != null){	
-				secondMessages.add(prover.computeSecondMsg(challenges[i]));
+				computations.add(new Computation<SigmaProtocolMsg>() {
+					public SigmaProtocolMsg compute() throws CheatAttemptException {
+						return prover.computeSecondMsg(challenges[statement]);
+					}
+				});
 			//If i not in I, get z from the simulator output for xi.
 			} else{
-				secondMessages.add(simulatorsOutput.get(i).getZ());
+				final SigmaProtocolMsg z = simulatorsOutput.get(i).getZ();
+				computations.add(new Computation<SigmaProtocolMsg>() {
+					public SigmaProtocolMsg compute() {
+						return z;
+					}
+				});
 			}
 		}
 		
+		//Compute all second messages.
+		ArrayList<SigmaProtocolMsg> secondMessages = SigmaComputationRunner.run(executor, computations);
+		
 		//Get the byte array that represent the polynomial
 		byte[][] polynomBytes = getPolynomialBytes(polynomial);
 		
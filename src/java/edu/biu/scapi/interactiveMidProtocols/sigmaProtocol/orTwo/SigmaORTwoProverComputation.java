@@ -25,10 +25,14 @@
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orTwo;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaSimulator;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaSimulatorOutput;
@@ -66,6 +70,7 @@ public class SigmaORTwoProverComputation implements SigmaProverComputation{
 	private int b;								// The bit b such that (xb,w) is in R.
 	private byte[] eOneMinusB;					//Sampled challenge for the simulator.
 	private SigmaProtocolMsg zOneMinusB;		// The output of the simulator.
+	private Executor executor;					// Runs the prover and the simulator concurrently. May be null.
 	
 	
 	/**
@@ -76,6 +81,21 @@ public class SigmaORTwoProverComputation implements SigmaProverComputation{
 	 * @throws IllegalArgumentException if the given provers array does not contains two objects.
 	 */
 	public SigmaORTwoProverComputation(SigmaProverComputation prover, SigmaSimulator simulator, int t, SecureRandom random) {
+		this(prover, simulator, t, random, null);
+	}
+	
+	/**
+	 * Constructor that gets the underlying prover and simulator and an executor that runs them concurrently.<p>
+	 * The first message of the real branch and the simulated transcript of the other branch are independent, 
+	 * so they are computed in parallel.
+	 * @param prover underlying prover.
+	 * @param simulator underlying simulator.
+	 * @param t soundness parameter. t MUST be equal to both t values of the underlying provers object.
+	 * @param random source of randomness
+	 * @param executor runs the prover and the simulator. If null, they are executed sequentially.
+	 * @throws IllegalArgumentException if the given t is not equal to both t values of the underlying provers.
+	 */
+	public SigmaORTwoProverComputation(SigmaProverComputation prover, SigmaSimulator simulator, int t, SecureRandom random, Executor executor) {
 		
 		//If the given t is different from one of the underlying object's t values, throw exception.
 		if ((t != prover.getSoundnessParam()) || (t != simulator.getSoundnessParam())){
@@ -86,6 +106,7 @@ public class SigmaORTwoProverComputation implements SigmaProverComputation{
 		this.simulator = simulator;
 		this.t = t; 
 		this.random = random;
+		this.executor = executor;
 	}
 
 	/**
@@ -110,7 +131,7 @@ public class SigmaORTwoProverComputation implements SigmaProverComputation{
 		if (!(in instanceof SigmaORTwoProverInput)){
 			throw new IllegalArgumentException("The given input must be an instance of SigmaORTwoProverInput");
 		}
-		SigmaORTwoProverInput input = (SigmaORTwoProverInput) in;
+		final SigmaORTwoProverInput input = (SigmaORTwoProverInput) in;
 		//Get b such that (xb,w) is in R.
 		b = input.getB();
 		
@@ -120,20 +141,32 @@ public class SigmaORTwoProverComputation implements SigmaProverComputation{
 		//fills the byte array with random values.
 		random.nextBytes(eOneMinusB);
 				
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(2);
 		//Call the sigma WITH THE WITNESS to compute first message ab.
 		//The second prover will not be in use so it does not need to compute messages.
-		SigmaProtocolMsg aB = prover.computeFirstMsg(input.getProverInput());
+		computations.add(new Computation<SigmaProtocolMsg>() {
+			public SigmaProtocolMsg compute() {
+				return prover.computeFirstMsg(input.getProverInput());
+			}
+		});
+		
+		//Simulate Sigma 1-b on input (x1-b, e1-b) to obtain (a1-b, e1-b, z1-b), save the z1-b to the future.
+		computations.add(new Computation<SigmaProtocolMsg>() {
+			public SigmaProtocolMsg compute() throws CheatAttemptException {
+				SigmaSimulatorOutput output = simulator.simulate(input.getSimulatorInput(), eOneMinusB);
+				zOneMinusB = output.getZ();
+				return output.getA();
+			}
+		});
 		
-		//Simulate Sigma 1-b on input (x1-b, e1-b) to obtain (a1-b, e1-b, z1-b), save the output.
-		SigmaSimulatorOutput output = null;
+		ArrayList<SigmaProtocolMsg> aMessages = null;
 		try {
-			output = simulator.simulate(input.getSimulatorInput(), eOneMinusB);
+			aMessages = SigmaComputationRunner.run(executor, computations);
 		} catch (CheatAttemptException e) {
 			// Since the challenge eOneMinusB's size it t, this exception will not be thrown.
 		}
-		SigmaProtocolMsg aOneMinusB = output.getA();
-		//Save the z1-b to the future.
-		zOneMinusB = output.getZ();
+		SigmaProtocolMsg aB = aMessages.get(0);
+		SigmaProtocolMsg aOneMinusB = aMessages.get(1);
 		
 		//Create and return SigmaORTwoFirstMsg with a0, a1.
 		SigmaORTwoFirstMsg msg = null;
@@ -131,7 +131,7 @@ public class SigmaPedersenCmtKnowledgeProverComputation implements SigmaProverCo
 		GroupElement a = dlog.multiplyGroupElements(hToAlpha, gToBeta);
 		
 		//Create and return SigmaGroupElementMsg with a.
-		return new SigmaGroupElementMsg(a.generateSendableData());
+		return new SigmaGroupElementMsg(dlog.encodeElement(a));
 	}
 
 	/**
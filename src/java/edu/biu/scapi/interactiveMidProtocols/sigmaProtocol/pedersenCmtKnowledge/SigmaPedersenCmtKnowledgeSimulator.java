@@ -143,7 +143,7 @@ public class SigmaPedersenCmtKnowledgeSimulator implements SigmaSimulator{
 		a = dlog.multiplyGroupElements(a, cToE);
 		
 		//OUTPUT (a,e,z).
-		SigmaGroupElementMsg first = new SigmaGroupElementMsg(a.generateSendableData());
+		SigmaGroupElementMsg first = new SigmaGroupElementMsg(dlog.encodeElement(a));
 		SigmaPedersenCmtKnowledgeMsg second = new SigmaPedersenCmtKnowledgeMsg(u,v);
 		return new SigmaPedersenCmtKnowledgeSimulatorOutput(first, challenge, second);
 				
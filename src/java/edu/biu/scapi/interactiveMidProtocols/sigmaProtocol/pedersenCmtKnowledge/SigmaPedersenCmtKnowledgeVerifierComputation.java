@@ -189,7 +189,7 @@ public class SigmaPedersenCmtKnowledgeVerifierComputation implements SigmaVerifi
 		GroupElement c = params.getCommitment();
 		GroupElement cToe = dlog.exponentiate(c, eBI);
 		//Calculate a*c^e (right side of the verify equation
-		GroupElement aElement = dlog.reconstructElement(true, firstMsg.getElement());
+		GroupElement aElement = dlog.decodeElement(true, firstMsg.getElement());
 		GroupElement right = dlog.multiplyGroupElements(aElement, cToe);
 		
 		//If left and right sides of the equation are not equal, set verified to false.
@@ -0,0 +1,129 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
+
+/**
+ * Runs the independent computations of compound Sigma protocols (the branches of AND and OR protocols, 
+ * or a batch of independent proofs) on a shared executor.<p>
+ * 
+ * The calling thread takes part in the computation: every task that was not yet picked up by the executor is run 
+ * by the caller itself. This way nested compound protocols that share the same bounded executor cannot deadlock, 
+ * and a null executor simply means that all the computations are done sequentially by the caller.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class SigmaComputationRunner {
+
+	/**
+	 * A single computation of an underlying prover, verifier or simulator.
+	 */
+	public interface Computation<T> {
+		T compute() throws CheatAttemptException;
+	}
+	
+	private SigmaComputationRunner() {}
+	
+	/**
+	 * Runs the given computations and returns their results in the same order.
+	 * @param executor the executor to run the computations on. If null, the computations are executed sequentially.
+	 * @param computations the computations to run.
+	 * @return the results of the computations.
+	 * @throws CheatAttemptException if one of the computations threw CheatAttemptException.
+	 */
+	public static <T> ArrayList<T> run(Executor executor, List<? extends Computation<T>> computations) throws CheatAttemptException {
+		int size = computations.size();
+		ArrayList<T> results = new ArrayList<T>(size);
+		
+		//Nothing to gain from the executor, compute in the calling thread.
+		if (executor == null || size < 2){
+			for (int i = 0; i < size; i++){
+				results.add(computations.get(i).compute());
+			}
+			return results;
+		}
+		
+		//Hand all the computations but the first to the executor.
+		ArrayList<FutureTask<T>> tasks = new ArrayList<FutureTask<T>>(size);
+		for (int i = 0; i < size; i++){
+			final Computation<T> computation = computations.get(i);
+			FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+				public T call() throws Exception {
+					return computation.compute();
+				}
+			});
+			tasks.add(task);
+			if (i > 0){
+				executor.execute(task);
+			}
+		}
+		
+		//Run the tasks that were not started yet in the calling thread. 
+		//FutureTask.run does nothing if the task was already started by the executor.
+		tasks.get(0).run();
+		for (int i = size - 1; i > 0; i--){
+			tasks.get(i).run();
+		}
+		
+		for (int i = 0; i < size; i++){
+			results.add(getResult(tasks.get(i)));
+		}
+		return results;
+	}
+	
+	/**
+	 * Waits for the given task and unwraps the exception it threw, if any.
+	 */
+	private static <T> T getResult(FutureTask<T> task) throws CheatAttemptException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ScapiRuntimeException("interrupted while waiting for a sigma computation");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CheatAttemptException){
+				throw (CheatAttemptException) cause;
+			}
+			if (cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw new ScapiRuntimeException(cause.getMessage());
+		}
+	}
+}
@@ -24,11 +24,10 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
 
-import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
  * Concrete implementation of SigmaProtocol message. <p>
- * This message contains one GroupElement sendable data and used when the prover sends a message to the verifier.
+ * This message contains one GroupElement in the compact encoding of the Dlog group and used when the prover sends a message to the verifier.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -37,13 +36,13 @@ public class SigmaGroupElementMsg implements SigmaProtocolMsg {
 
 	private static final long serialVersionUID = 103982768646661614L;
 	
-	private GroupElementSendableData element;
+	private byte[] element;
 	
-	public SigmaGroupElementMsg(GroupElementSendableData el){
+	public SigmaGroupElementMsg(byte[] el){
 		this.element = el;
 	}
 	
-	public GroupElementSendableData getElement(){
+	public byte[] getElement(){
 		return element;
 	}
 }
@@ -28,10 +28,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
 import edu.biu.scapi.primitives.randomOracle.HKDFBasedRO;
@@ -98,6 +102,23 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 		sendMsgToVerifier(msg);
 		
 	}
+	
+	/**
+	 * Runs the prover side of many independent Zero Knowledge proofs and sends all the proofs in one message.<p>
+	 * The proofs are generated by {@link #generateFiatShamirProofs(SigmaProverComputation[], ZKProverInput[], Executor)}.
+	 * @param provers the sigma protocol's provers, one for each statement.
+	 * @param inputs the inputs of the statements, in the same order of the provers.
+	 * @param executor runs the underlying provers. If null, the provers are executed sequentially.
+	 * @throws IllegalArgumentException if the number of provers and inputs differ or one of the inputs is not valid.
+	 * @throws IOException if failed to send the message.
+	 * @throws CheatAttemptException if the prover suspects the verifier is trying to cheat.
+	 */
+	public void proveBatch(SigmaProverComputation[] provers, ZKProverInput[] inputs, Executor executor) throws IOException, CheatAttemptException {
+		ZKPOKFiatShamirProof[] proofs = generateFiatShamirProofs(provers, inputs, executor);
+		
+		//Send all (a,e,z) to V and output nothing.
+		sendMsgToVerifier(proofs);
+	}
 
 	/**
 	 * Let (a,e,z) denote the prover1, verifier challenge and prover2 messages of the sigma protocol.<p>
@@ -115,25 +136,13 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 	 * @throws IOException if failed to send the message.
 	 */
 	public ZKPOKFiatShamirProof generateFiatShamirProof(ZKProverInput input) throws CheatAttemptException, IOException{
-		//The given input must be an instance of ZKPOKFiatShamirProverInput that holds input for the underlying sigma protocol 
-		//and possible context information cont, or just the input for the underlying sigma protocol
-		if (!(input instanceof ZKPOKFiatShamirProverInput) && !(input instanceof SigmaProverInput)){
-			throw new IllegalArgumentException("the given input must be an instance of ZKPOKFiatShamirProverInput or SigmaProverInput");
-		}
-		
-		ZKPOKFiatShamirProverInput fsInput;
-		//In case the input is the input for the underlying sigma protocol, create input for this protocol with no context information.
-		if (input instanceof SigmaProverInput){
-			fsInput = new ZKPOKFiatShamirProverInput((SigmaProverInput) input);
-		} else{
-			fsInput = (ZKPOKFiatShamirProverInput) input;
-		}
+		ZKPOKFiatShamirProverInput fsInput = toFiatShamirInput(input);
 		
 		//Compute the first message a in sigma, using (x,w) as input and 
 		SigmaProtocolMsg a = sProver.computeFirstMsg(fsInput.getSigmaInput());
 		
 		//Compute e=H(x,a,cont)
-		byte[] e = computeChallenge(fsInput, a);
+		byte[] e = computeChallenge(fsInput, a, sProver.getSoundnessParam()/8, new ByteArrayOutputStream());
 		
 		//Compute the response z to (a,e) according to sigma
 		SigmaProtocolMsg z = sProver.computeSecondMsg(e);
@@ -142,48 +151,125 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 		return new ZKPOKFiatShamirProof(a, e, z);
 	}
 	
+	/**
+	 * Generates many independent Fiat Shamir proofs in one call.<p>
+	 * Each proof is exactly the proof that {@link #generateFiatShamirProof(ZKProverInput)} outputs for its statement, 
+	 * with e=H(x,a,cont) computed separately for each statement, so every proof can be verified on its own.<p>
+	 * The first messages of all the statements are computed concurrently by the given executor, then all the challenges 
+	 * are computed by the calling thread using one transcript buffer, and finally the responses are computed concurrently.
+	 * @param provers the sigma protocol's provers, one for each statement. The provers are stateful, so the same object 
+	 * 		  must not appear twice in the array.
+	 * @param inputs the inputs of the statements, in the same order of the provers. 
+	 * 		  Each input can be an instance of ZKPOKFiatShamirProverInput or SigmaProverInput.
+	 * @param executor runs the underlying provers. If null, the provers are executed sequentially.
+	 * @return the proofs, in the same order of the inputs.
+	 * @throws IllegalArgumentException if the number of provers and inputs differ or one of the inputs is not valid.
+	 * @throws CheatAttemptException if the prover suspects the verifier is trying to cheat.
+	 * @throws IOException if there was a problem with the serialization of the data in order to compute a challenge.
+	 */
+	public ZKPOKFiatShamirProof[] generateFiatShamirProofs(final SigmaProverComputation[] provers, ZKProverInput[] inputs, Executor executor) throws CheatAttemptException, IOException{
+		if (provers.length != inputs.length){
+			throw new IllegalArgumentException("the number of provers is different from the number of inputs");
+		}
+		int size = inputs.length;
+		final ZKPOKFiatShamirProverInput[] fsInputs = new ZKPOKFiatShamirProverInput[size];
+		for (int i = 0; i < size; i++){
+			fsInputs[i] = toFiatShamirInput(inputs[i]);
+		}
+		
+		//Compute the first messages a1,...,an, using (xi,wi) as input.
+		ArrayList<Computation<SigmaProtocolMsg>> computations = new ArrayList<Computation<SigmaProtocolMsg>>(size);
+		for (int i = 0; i < size; i++){
+			final int index = i;
+			computations.add(new Computation<SigmaProtocolMsg>() {
+				public SigmaProtocolMsg compute() {
+					return provers[index].computeFirstMsg(fsInputs[index].getSigmaInput());
+				}
+			});
+		}
+		ArrayList<SigmaProtocolMsg> a = SigmaComputationRunner.run(executor, computations);
+		
+		//Compute ei=H(xi,ai,conti). The random oracle is not thread safe, so this is done by the calling thread.
+		final byte[][] e = new byte[size][];
+		ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+		for (int i = 0; i < size; i++){
+			e[i] = computeChallenge(fsInputs[i], a.get(i), provers[i].getSoundnessParam()/8, transcript);
+		}
+		
+		//Compute the responses zi to (ai,ei) according to sigma.
+		computations.clear();
+		for (int i = 0; i < size; i++){
+			final int index = i;
+			computations.add(new Computation<SigmaProtocolMsg>() {
+				public SigmaProtocolMsg compute() throws CheatAttemptException {
+					return provers[index].computeSecondMsg(e[index]);
+				}
+			});
+		}
+		ArrayList<SigmaProtocolMsg> z = SigmaComputationRunner.run(executor, computations);
+		
+		//return all (a,e,z).
+		ZKPOKFiatShamirProof[] proofs = new ZKPOKFiatShamirProof[size];
+		for (int i = 0; i < size; i++){
+			proofs[i] = new ZKPOKFiatShamirProof(a.get(i), e[i], z.get(i));
+		}
+		return proofs;
+	}
+	
+	/**
+	 * Converts the given input to ZKPOKFiatShamirProverInput.
+	 * @param input can be an instance of ZKPOKFiatShamirProverInput or SigmaProverInput.
+	 * @throws IllegalArgumentException if the given input is not an instance of ZKPOKFiatShamirProverInput or SigmaProverInput.
+	 */
+	private ZKPOKFiatShamirProverInput toFiatShamirInput(ZKProverInput input){
+		//The given input must be an instance of ZKPOKFiatShamirProverInput that holds input for the underlying sigma protocol 
+		//and possible context information cont, or just the input for the underlying sigma protocol
+		if (!(input instanceof ZKPOKFiatShamirProverInput) && !(input instanceof SigmaProverInput)){
+			throw new IllegalArgumentException("the given input must be an instance of ZKPOKFiatShamirProverInput or SigmaProverInput");
+		}
+		
+		//In case the input is the input for the underlying sigma protocol, create input for this protocol with no context information.
+		if (input instanceof SigmaProverInput){
+			return new ZKPOKFiatShamirProverInput((SigmaProverInput) input);
+		} 
+		return (ZKPOKFiatShamirProverInput) input;
+	}
+	
 	/**
 	 * Run the following line from the protocol:
 	 * "COMPUTE e=H(x,a,cont)".
 	 * @param input 
 	 * @param a first message of the sigma protocol.
+	 * @param challengeSize the required challenge size in bytes.
+	 * @param transcript buffer that the input to the random oracle is written to. Its content is overwritten.
 	 * @return the computed challenge
 	 * @throws IOException 
 	 */
-	private byte[] computeChallenge(ZKPOKFiatShamirProverInput input, SigmaProtocolMsg a) throws IOException {
+	private byte[] computeChallenge(ZKPOKFiatShamirProverInput input, SigmaProtocolMsg a, int challengeSize, ByteArrayOutputStream transcript) throws IOException {
 		//The input to the random oracle should include the common data of the prover 
 		//and verifier, and not the prover's private input.
-		byte[] inputArray = convertToBytes(((SigmaProverInput) input.getSigmaInput()).getCommonParams());
-		byte[] messageArray = convertToBytes(a);
+		transcript.reset();
+		writeObject(transcript, ((SigmaProverInput) input.getSigmaInput()).getCommonParams());
+		writeObject(transcript, a);
 		byte[] cont = input.getContext();
-
-		byte[] inputToRO = null;
-		
 		if (cont != null){
-			inputToRO = new byte[inputArray.length + messageArray.length + cont.length];
-			System.arraycopy(cont, 0, inputToRO, inputArray.length + messageArray.length, cont.length);
-		} else{
-			inputToRO = new byte[inputArray.length + messageArray.length];
+			transcript.write(cont);
 		}
-		System.arraycopy(inputArray, 0, inputToRO, 0, inputArray.length);
-		System.arraycopy(messageArray, 0, inputToRO, inputArray.length, messageArray.length);
 		
-		return ro.compute(inputToRO, 0, inputToRO.length, sProver.getSoundnessParam()/8);
+		byte[] inputToRO = transcript.toByteArray();
+		return ro.compute(inputToRO, 0, inputToRO.length, challengeSize);
 	}
 	
 	/**
-	 * Converts the given data to byte array using serialization mechanism.
+	 * Appends the serialization of the given data to the given buffer.
+	 * @param bOut the buffer to write to.
 	 * @param data to convert.
-	 * @return the converted bytes.
 	 * @throws IOException
 	 */
-	private byte[] convertToBytes(Serializable data) throws IOException{
-		ByteArrayOutputStream bOut = new ByteArrayOutputStream();  
-	    ObjectOutputStream oOut  = new ObjectOutputStream(bOut);
+	private void writeObject(ByteArrayOutputStream bOut, Serializable data) throws IOException{
+		ObjectOutputStream oOut  = new ObjectOutputStream(bOut);
 		oOut.writeObject(data);  
-		oOut.close();
-		
-		return bOut.toByteArray();
+		oOut.flush();
 	}
 	
 	/**
@@ -191,7 +277,7 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 	 * @param message to send to the verifier.
 	 * @throws IOException if failed to send the message.
 	 */
-	private void sendMsgToVerifier(ZKPOKFiatShamirProof msg) throws IOException{
+	private void sendMsgToVerifier(Serializable msg) throws IOException{
 		try {
 			//Send the message by the channel.
 			channel.send(msg);
@@ -28,10 +28,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaComputationRunner.Computation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.primitives.randomOracle.HKDFBasedRO;
 import edu.biu.scapi.primitives.randomOracle.RandomOracle;
@@ -118,34 +123,146 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 	 * @throws IllegalArgumentException if the given input is not an instance of ZKPOKFiatShamirInput or SigmaCommonInput.
 	 */
 	public boolean verifyFiatShamirProof(ZKCommonInput input, ZKPOKFiatShamirProof msg) throws IOException{
+		ZKPOKFiatShamirCommonInput fsInput = toFiatShamirInput(input);
+		
+		//get the given a
+		SigmaProtocolMsg a = msg.getA();
+		
+		//Compute e=H(x,a,cont)
+		byte[] computedE = computeChallenge(fsInput, a, sVerifier.getSoundnessParam()/8, new ByteArrayOutputStream());
+		
+		//check that e=H(x,a,cont):
+		boolean valid = isEqual(computedE, msg.getE());
+		
+		//get the received z
+		SigmaProtocolMsg z = msg.getZ();
+		
+		//If transcript (a, e, z) is accepting in sigma on input x, output ACC
+		//Else outupt REJ
+		valid = valid && proccessVerify(fsInput.getSigmaInput(), a, computedE, z);
+		
+		return valid;
+	}
+	
+	/**
+	 * Runs the verifier side of many independent Zero Knowledge proofs that were sent in one message 
+	 * by {@link ZKPOKFiatShamirFromSigmaProver#proveBatch(edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation[], ZKProverInput[], Executor)}.
+	 * @param verifiers the sigma protocol's verifiers, one for each statement.
+	 * @param inputs the common inputs of the statements, in the same order of the verifiers.
+	 * @param executor runs the underlying verifiers. If null, the verifiers are executed sequentially.
+	 * @return true if all the proofs are valid; false, otherwise.
+	 * @throws IOException if failed to receive the message.
+	 * @throws ClassNotFoundException if there was a problem with the serialization mechanism.
+	 */
+	public boolean verifyBatch(SigmaVerifierComputation[] verifiers, ZKCommonInput[] inputs, Executor executor) throws ClassNotFoundException, IOException{
+		Serializable msg = null;
+		try {
+			//receive the mesage.
+			msg = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive the proofs message. The thrown message is: " + e.getMessage());
+		}
+		
+		//If the given message is not an array of proofs, throw exception.
+		if (!(msg instanceof ZKPOKFiatShamirProof[])){
+			throw new IllegalArgumentException("the given message should be an array of ZKPOKFiatShamirProof");
+		}
+		ZKPOKFiatShamirProof[] proofs = (ZKPOKFiatShamirProof[]) msg;
+		//The prover should send exactly one proof for each statement.
+		if (proofs.length != inputs.length){
+			return false;
+		}
+		
+		return verifyFiatShamirProofs(verifiers, inputs, proofs, executor);
+	}
+	
+	/**
+	 * Verifies many independent Fiat Shamir proofs.<p>
+	 * Each proof is verified exactly as in {@link #verifyFiatShamirProof(ZKCommonInput, ZKPOKFiatShamirProof)}.
+	 * The challenges are recomputed by the calling thread using one transcript buffer, and then the transcripts 
+	 * are checked concurrently by the given executor.
+	 * @param verifiers the sigma protocol's verifiers, one for each statement. The verifiers are stateful, so the same 
+	 * 		  object must not appear twice in the array.
+	 * @param inputs the common inputs of the statements, in the same order of the verifiers. 
+	 * 		  Each input can be an instance of ZKPOKFiatShamirCommonInput or SigmaCommonInput.
+	 * @param proofs the proofs received from the prover, in the same order of the inputs.
+	 * @param executor runs the underlying verifiers. If null, the verifiers are executed sequentially.
+	 * @return true if all the proofs are valid; false, otherwise.
+	 * @throws IOException if there was problem with the serialization of the data on order to achieve a challenge.
+	 * @throws IllegalArgumentException if the number of verifiers, inputs and proofs differ or one of the inputs is not valid.
+	 */
+	public boolean verifyFiatShamirProofs(final SigmaVerifierComputation[] verifiers, ZKCommonInput[] inputs, final ZKPOKFiatShamirProof[] proofs, Executor executor) throws IOException{
+		if (verifiers.length != inputs.length || proofs.length != inputs.length){
+			throw new IllegalArgumentException("the number of verifiers, inputs and proofs must be equal");
+		}
+		int size = inputs.length;
+		final ZKPOKFiatShamirCommonInput[] fsInputs = new ZKPOKFiatShamirCommonInput[size];
+		final byte[][] computedE = new byte[size][];
+		
+		//Compute ei=H(xi,ai,conti) and check that it is the received challenge. 
+		//The random oracle is not thread safe, so this is done by the calling thread.
+		ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+		for (int i = 0; i < size; i++){
+			fsInputs[i] = toFiatShamirInput(inputs[i]);
+			computedE[i] = computeChallenge(fsInputs[i], proofs[i].getA(), verifiers[i].getSoundnessParam()/8, transcript);
+			if (!isEqual(computedE[i], proofs[i].getE())){
+				return false;
+			}
+		}
+		
+		//Check that all the transcripts (ai, ei, zi) are accepting in sigma on input xi.
+		ArrayList<Computation<Boolean>> computations = new ArrayList<Computation<Boolean>>(size);
+		for (int i = 0; i < size; i++){
+			final int index = i;
+			computations.add(new Computation<Boolean>() {
+				public Boolean compute() {
+					verifiers[index].setChallenge(computedE[index]);
+					return verifiers[index].verify(fsInputs[index].getSigmaInput(), proofs[index].getA(), proofs[index].getZ());
+				}
+			});
+		}
+		ArrayList<Boolean> results = null;
+		try {
+			results = SigmaComputationRunner.run(executor, computations);
+		} catch (CheatAttemptException e) {
+			// Should not occur since verify does not throw CheatAttemptException.
+		}
+		
+		for (int i = 0; i < size; i++){
+			if (!results.get(i)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Converts the given input to ZKPOKFiatShamirCommonInput.
+	 * @param input can be an instance of ZKPOKFiatShamirCommonInput or SigmaCommonInput.
+	 * @throws IllegalArgumentException if the given input is not an instance of ZKPOKFiatShamirCommonInput or SigmaCommonInput.
+	 */
+	private ZKPOKFiatShamirCommonInput toFiatShamirInput(ZKCommonInput input){
 		//The given input can be an instance of ZKPOKFiatShamirInput that holds input for the underlying sigma protocol and 
 		//possible context information cont, or just the input for the underlying sigma protocol.
 		if (!(input instanceof ZKPOKFiatShamirCommonInput) && !(input instanceof SigmaCommonInput)){
 			throw new IllegalArgumentException("the given input must be an instance of ZKPOKFiatShamirInput or SigmaCommonInput");
 		}
 		
-		ZKPOKFiatShamirCommonInput fsInput;
 		//In case the input is the input for the underlying sigma protocol, create input for this protocol with no context information.
 		if (input instanceof SigmaCommonInput){
-			fsInput = new ZKPOKFiatShamirCommonInput((SigmaCommonInput) input);
-		} else{
-			fsInput = (ZKPOKFiatShamirCommonInput) input;
-		}
-		
-		//get the given a
-		SigmaProtocolMsg a = msg.getA();
-		
-		//Compute e=H(x,a,cont)
-		byte[] computedE = computeChallenge(fsInput, a);
-		
-		//get the given challenge.
-		byte[] receivedE = msg.getE();
-		
-		//check that e=H(x,a,cont):
+			return new ZKPOKFiatShamirCommonInput((SigmaCommonInput) input);
+		} 
+		return (ZKPOKFiatShamirCommonInput) input;
+	}
+	
+	/**
+	 * Checks that the computed challenge is equal to the received one.
+	 */
+	private boolean isEqual(byte[] computedE, byte[] receivedE){
 		boolean valid = true;
 		//In case that lengths of computed e and received e are not the same, set valid to false.
 		if (computedE.length != receivedE.length){
-			valid = false;
+			return false;
 		}
 		
 		//In case that  computed e and received e are not the same, set valid to false.
@@ -154,14 +271,6 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 				valid = false;
 			}
 		}
-			
-		//get the received z
-		SigmaProtocolMsg z = msg.getZ();
-		
-		//If transcript (a, e, z) is accepting in sigma on input x, output ACC
-		//Else outupt REJ
-		valid = valid && proccessVerify(fsInput.getSigmaInput(), a, computedE, z);
-		
 		return valid;
 	}
 	
@@ -192,41 +301,34 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 	 * "COMPUTE e=H(x,a,cont)".
 	 * @param input 
 	 * @param a first message of the sigma protocol.
+	 * @param challengeSize the required challenge size in bytes.
+	 * @param transcript buffer that the input to the random oracle is written to. Its content is overwritten.
 	 * @return the computed challenge
 	 * @throws IOException 
 	 */
-	private byte[] computeChallenge(ZKPOKFiatShamirCommonInput input, SigmaProtocolMsg a) throws IOException {
-		byte[] inputArray = convertToBytes(input.getSigmaInput());
-		byte[] messageArray = convertToBytes(a);
+	private byte[] computeChallenge(ZKPOKFiatShamirCommonInput input, SigmaProtocolMsg a, int challengeSize, ByteArrayOutputStream transcript) throws IOException {
+		transcript.reset();
+		writeObject(transcript, input.getSigmaInput());
+		writeObject(transcript, a);
 		byte[] cont = input.getContext();
-		
-		byte[] inputToRO = null;
-		
 		if (cont != null){
-			inputToRO = new byte[inputArray.length + messageArray.length + cont.length];
-			System.arraycopy(cont, 0, inputToRO, inputArray.length + messageArray.length, cont.length);
-		} else{
-			inputToRO = new byte[inputArray.length + messageArray.length];
+			transcript.write(cont);
 		}
-		System.arraycopy(inputArray, 0, inputToRO, 0, inputArray.length);
-		System.arraycopy(messageArray, 0, inputToRO, inputArray.length, messageArray.length);
 		
-		return ro.compute(inputToRO, 0, inputToRO.length, sVerifier.getSoundnessParam()/8);
+		byte[] inputToRO = transcript.toByteArray();
+		return ro.compute(inputToRO, 0, inputToRO.length, challengeSize);
 	}
 	
 	/**
-	 * Converts the given data to byte array using serialization mechanism.
+	 * Appends the serialization of the given data to the given buffer.
+	 * @param bOut the buffer to write to.
 	 * @param data to convert.
-	 * @return the converted bytes.
 	 * @throws IOException
 	 */
-	private byte[] convertToBytes(Serializable data) throws IOException{
-		ByteArrayOutputStream bOut = new ByteArrayOutputStream();  
-	    ObjectOutputStream oOut  = new ObjectOutputStream(bOut);
+	private void writeObject(ByteArrayOutputStream bOut, Serializable data) throws IOException{
+		ObjectOutputStream oOut  = new ObjectOutputStream(bOut);
 		oOut.writeObject(data);  
-		oOut.close();
-		
-		return bOut.toByteArray();
+		oOut.flush();
 	}
 	
 	/**
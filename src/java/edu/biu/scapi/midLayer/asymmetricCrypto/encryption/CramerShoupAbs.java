@@ -28,6 +28,7 @@ package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
 
 import java.math.BigInteger;
 import java.security.InvalidKeyException;
+import java.security.KeyException;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -57,6 +58,7 @@ import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.hash.cryptopp.CryptoPpSHA1;
 import edu.biu.scapi.securityLevel.CollisionResistant;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 import edu.biu.scapi.tools.Factories.CryptographicHashFactory;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -388,6 +390,138 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		return encrypt(plaintext, r);
 	}
 	
+	/**
+	 * Encrypts the given plaintexts using this Cramer Shoup encryption scheme.<p>
+	 * An independent random value is chosen for each plaintext. See {@link #encryptBatch(Plaintext[], BigInteger[])} for the details.
+	 * @param plaintexts messages to encrypt. Each plaintext must match this Cramer-Shoup type.
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given Plaintexts does not match this Cramer-Shoup type.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts){
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		
+		//Chooses all the random values before the encryption starts.
+		BigInteger[] r = new BigInteger[plaintexts.length];
+		for (int i = 0; i < r.length; i++){
+			r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		return encryptBatch(plaintexts, r);
+	}
+	
+	/**
+	 * Encrypts the given plaintexts using this Cramer Shoup encryption scheme and the given random values.<p>
+	 * The result equals calling encrypt(plaintexts[i], r[i]) for each i, but all the exponentiations are of the fixed bases 
+	 * g1, g2, h, c and d. They are done using the pre-computed tables of the underlying DlogGroup 
+	 * (see {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, BigInteger)}) and are divided between the available processors. 
+	 * The hash is computed sequentially.
+	 * @param plaintexts messages to encrypt. Each plaintext must match this Cramer-Shoup type.
+	 * @param r the random values to use in the encryption. r[i] is used to encrypt plaintexts[i].
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the arrays have different lengths, one of the random values is not in Zq or 
+	 * 									one of the given Plaintexts does not match this Cramer-Shoup type.
+	 */
+	public abstract AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts, BigInteger[] r);
+	
+	/**
+	 * Decrypts the given ciphertexts using this Cramer-Shoup encryption scheme.<p>
+	 * The hash is computed sequentially; the validity checks and the exponentiations are divided between the available processors.
+	 * @param ciphertexts ciphertexts to decrypt. Each ciphertext must match this Cramer-Shoup type.
+	 * @return the decrypted plaintexts, in the same order.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given ciphertexts does not match this Cramer-Shoup type.
+	 * @throws ScapiRuntimeException if one of the given ciphertexts is not valid.
+	 */
+	public abstract Plaintext[] decryptBatch(AsymmetricCiphertext[] ciphertexts) throws KeyException;
+	
+	/**
+	 * Checks the arguments of encryptBatch.
+	 * @param numOfPlaintexts the number of plaintexts to encrypt.
+	 * @param r the random values to use in the encryption.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the number of random values is wrong or one of them is not in Zq.
+	 */
+	protected void checkBatchArguments(int numOfPlaintexts, BigInteger[] r){
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		if (numOfPlaintexts != r.length){
+			throw new IllegalArgumentException("the number of random values should be equal to the number of plaintexts");
+		}
+		//Check that the random values passed to this function are in Zq.
+		for (int i = 0; i < r.length; i++){
+			if ((r[i].signum() < 0) || (r[i].compareTo(qMinusOne) > 0)) {
+				throw new IllegalArgumentException("r must be in Zq");
+			}
+		}
+	}
+	
+	/**
+	 * Calculates u1 = g1^r, u2 = g2^r and h^r for each of the given random values, using the pre-computed tables of g1, g2 and h.
+	 * @param r the random values.
+	 * @return an array of three arrays: the u1 values, the u2 values and the h^r values.
+	 */
+	protected GroupElement[][] calcU1U2HExpRBatch(final BigInteger[] r) {
+		final GroupElement g1 = publicKey.getGenerator1();
+		final GroupElement g2 = publicKey.getGenerator2();
+		final GroupElement h = publicKey.getH();
+		final GroupElement[][] result = new GroupElement[3][r.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				result[0][i] = dlogGroup.exponentiateWithPreComputedValues(g1, r[i]);
+				result[1][i] = dlogGroup.exponentiateWithPreComputedValues(g2, r[i]);
+				result[2][i] = dlogGroup.exponentiateWithPreComputedValues(h, r[i]);
+			}
+		}.run(r.length);
+		return result;
+	}
+	
+	/**
+	 * Calculates v = c^r * d^(r*alpha) for each pair of random value and hash result, using the pre-computed tables of c and d.
+	 * @param r the random values.
+	 * @param alphas the values returned from the hash calculations.
+	 * @return the calculated v values.
+	 */
+	protected GroupElement[] calcVBatch(final BigInteger[] r, final byte[][] alphas) {
+		final GroupElement c = publicKey.getC();
+		final GroupElement d = publicKey.getD();
+		final BigInteger q = dlogGroup.getOrder();
+		final GroupElement[] v = new GroupElement[r.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				GroupElement cExpr = dlogGroup.exponentiateWithPreComputedValues(c, r[i]);
+				BigInteger rAlphaModQ = (r[i].multiply(new BigInteger(alphas[i]))).mod(q);
+				GroupElement dExpRAlpha = dlogGroup.exponentiateWithPreComputedValues(d, rAlphaModQ);
+				v[i] = dlogGroup.multiplyGroupElements(cExpr, dExpRAlpha);
+			}
+		}.run(r.length);
+		return v;
+	}
+	
+	/**
+	 * Validates each of the given ciphers and calculates u1^z for it.
+	 * @param ciphers the ciphers to decrypt.
+	 * @param alphas the hash results of the ciphers.
+	 * @return the u1^z values, where z is the private value held by this object.
+	 * @throws ScapiRuntimeException if one of the given ciphers is not valid.
+	 */
+	protected GroupElement[] calcU1ExpZBatch(final CramerShoupCiphertext[] ciphers, final byte[][] alphas) {
+		final BigInteger z = privateKey.getPrivateExp5();
+		final GroupElement[] u1ExpZ = new GroupElement[ciphers.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				checkValidity(ciphers[i], alphas[i]);
+				u1ExpZ[i] = dlogGroup.exponentiate(ciphers[i].getU1(), z);
+			}
+		}.run(ciphers.length);
+		return u1ExpZ;
+	}
+	
 	/**
 	 * Calculates h^r
 	 * @param r a random value.
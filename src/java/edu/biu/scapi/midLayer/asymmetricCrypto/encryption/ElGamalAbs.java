@@ -29,6 +29,7 @@ package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.security.InvalidKeyException;
+import java.security.KeyException;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -54,6 +55,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.primitives.dlog.cryptopp.CryptoPpDlogZpSafePrime;
 import edu.biu.scapi.primitives.dlog.miracl.MiraclDlogECFp;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
 /**
@@ -324,6 +326,7 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(qMinusOne)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
+		checkPlaintext(plaintext);
 		
 		//Calculates c1 = g^y and c2 = msg * h^y.
 		GroupElement generator = dlog.getGenerator();
@@ -333,8 +336,150 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		return completeEncryption(c1, hy, plaintext);
 	}
 	
+	/**
+	 * Checks that the given plaintext matches this ElGamal type. Called before any exponentiation is done.
+	 * @param plaintext the plaintext to check.
+	 * @throws IllegalArgumentException if the given Plaintext does not match this ElGamal type.
+	 */
+	protected abstract void checkPlaintext(Plaintext plaintext);
+	
+	/**
+	 * Completes the encryption operation.
+	 * @param c1 g^r.
+	 * @param hy h^r.
+	 * @param plaintext contains message to encrypt. Was already checked by {@link #checkPlaintext(Plaintext)}.
+	 * @return the ciphertext of the given plaintext.
+	 */
 	protected abstract AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext);
 	
+	/**
+	 * Encrypts the given plaintexts using ElGamal encryption scheme.<p>
+	 * An independent random value is chosen for each plaintext. See {@link #encryptBatch(Plaintext[], BigInteger[])} for the details.
+	 * 
+	 * @param plaintexts contains the messages to encrypt. Each plaintext must match this ElGamal type.
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given Plaintexts does not match this ElGamal type.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts) {
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		
+		//Chooses all the random values before the encryption starts.
+		BigInteger[] r = new BigInteger[plaintexts.length];
+		for (int i = 0; i < r.length; i++){
+			r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		return encryptBatch(plaintexts, r);
+	}
+	
+	/**
+	 * Encrypts the given plaintexts using ElGamal encryption scheme and the given random values.<p>
+	 * 
+	 * All the ciphertexts use the same bases g and h, so the exponentiations are done using the pre-computed tables of the 
+	 * underlying DlogGroup (see {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, BigInteger)}), and are divided 
+	 * between the available processors. The tables are built by the first batch and are reused by the following ones.
+	 * 
+	 * @param plaintexts contains the messages to encrypt. Each plaintext must match this ElGamal type.
+	 * @param r the random values to use in the encryption. r[i] is used to encrypt plaintexts[i].
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the arrays have different lengths, one of the random values is not in Zq or 
+	 * 									one of the given Plaintexts does not match this ElGamal type.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts, final BigInteger[] r) {
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		if (plaintexts.length != r.length){
+			throw new IllegalArgumentException("the number of random values should be equal to the number of plaintexts");
+		}
+		
+		//Check that the random values passed to this function are in Zq.
+		for (int i = 0; i < r.length; i++){
+			if ((r[i].signum() < 0) || (r[i].compareTo(qMinusOne) > 0)) {
+				throw new IllegalArgumentException("r must be in Zq");
+			}
+		}
+		//Check all the plaintexts before the exponentiations start.
+		for (int i = 0; i < plaintexts.length; i++){
+			checkPlaintext(plaintexts[i]);
+		}
+		
+		//Calculates c1 = g^r and h^r for all the plaintexts.
+		final GroupElement generator = dlog.getGenerator();
+		final GroupElement h = publicKey.getH();
+		final GroupElement[] c1 = new GroupElement[r.length];
+		final GroupElement[] hy = new GroupElement[r.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				c1[i] = dlog.exponentiateWithPreComputedValues(generator, r[i]);
+				hy[i] = dlog.exponentiateWithPreComputedValues(h, r[i]);
+			}
+		}.run(r.length);
+		
+		//The completion may use objects that hold an internal state (like KDF), so it is done sequentially.
+		AsymmetricCiphertext[] ciphertexts = new AsymmetricCiphertext[r.length];
+		for (int i = 0; i < r.length; i++){
+			ciphertexts[i] = completeEncryption(c1[i], hy[i], plaintexts[i]);
+		}
+		
+		return ciphertexts;
+	}
+	
+	/**
+	 * Decrypts the given ciphertexts using ElGamal encryption scheme.<p>
+	 * The exponentiations of the ciphertexts by the private key are divided between the available processors.
+	 * 
+	 * @param ciphertexts the ciphertexts to decrypt. Each ciphertext must match this ElGamal type.
+	 * @return the decrypted plaintexts, in the same order.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given ciphertexts does not match this ElGamal type.
+	 */
+	public Plaintext[] decryptBatch(final AsymmetricCiphertext[] ciphertexts) throws KeyException {
+		//If there is no private key, throws exception.
+		if (privateKey == null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		//Calculates s = c1^x for all the ciphertexts.
+		final BigInteger x = privateKey.getX();
+		final GroupElement[] s = new GroupElement[ciphertexts.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				s[i] = dlog.exponentiate(getC1(ciphertexts[i]), x);
+			}
+		}.run(ciphertexts.length);
+		
+		//The completion may use objects that hold an internal state (like KDF), so it is done sequentially.
+		Plaintext[] plaintexts = new Plaintext[ciphertexts.length];
+		for (int i = 0; i < ciphertexts.length; i++){
+			plaintexts[i] = completeDecryption(ciphertexts[i], s[i]);
+		}
+		
+		return plaintexts;
+	}
+	
+	/**
+	 * Returns the first element of the given ciphertext, which is g^r.
+	 * @param cipher the ciphertext. Must match this ElGamal type.
+	 * @return the first element of the ciphertext.
+	 * @throws IllegalArgumentException if the given ciphertext does not match this ElGamal type.
+	 */
+	protected abstract GroupElement getC1(AsymmetricCiphertext cipher);
+	
+	/**
+	 * Completes the decryption operation.
+	 * @param cipher the ciphertext to decrypt. Must match this ElGamal type.
+	 * @param s the first element of the ciphertext raised to the private key.
+	 * @return the decrypted plaintext.
+	 */
+	protected abstract Plaintext completeDecryption(AsymmetricCiphertext cipher, GroupElement s);
+	
 	
 	
 }
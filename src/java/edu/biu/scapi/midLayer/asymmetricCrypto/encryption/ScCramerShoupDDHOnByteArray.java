@@ -214,6 +214,97 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 		return new CramerShoupOnByteArrayCiphertext(u1, u2, e, v);
 	}
 	
+	/**
+	 * Encrypts the given plaintexts using this CramerShoup encryption scheme and the given random values.
+	 * @param plaintexts messages to encrypt. MUST be instances of ByteArrayPlaintext.
+	 * @param r the random values to use in the encryption. r[i] is used to encrypt plaintexts[i].
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given Plaintexts is not instance of ByteArrayPlaintext, 
+	 * 									or one of the random values is not in Zq.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts, BigInteger[] r){
+		checkBatchArguments(plaintexts.length, r);
+		for (int i = 0; i < plaintexts.length; i++){
+			if (!(plaintexts[i] instanceof ByteArrayPlaintext)){
+				throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
+			}
+		}
+		
+		//Calculates u1, u2 and h^r of all the plaintexts.
+		GroupElement[][] exps = calcU1U2HExpRBatch(r);
+		GroupElement[] u1 = exps[0];
+		GroupElement[] u2 = exps[1];
+		byte[][] e = new byte[r.length][];
+		byte[][] alphas = new byte[r.length][];
+		
+		//Calculates e = KDF(h^r) XOR msg and alpha = hash(u1 + u2 + e). 
+		//The kdf and the hash are not thread safe so this is done sequentially.
+		for (int i = 0; i < r.length; i++){
+			byte[] msg = ((ByteArrayPlaintext) plaintexts[i]).getText();
+			byte[] hrBytes = dlogGroup.mapAnyGroupElementToByteArray(exps[2][i]);
+			e[i] = kdf.deriveKey(hrBytes, 0, hrBytes.length, msg.length).getEncoded();
+			for(int j=0; j<msg.length; j++){
+				e[i][j] = (byte) (e[i][j] ^ msg[j]);
+			}
+			alphas[i] = calcAlpha(dlogGroup.mapAnyGroupElementToByteArray(u1[i]), dlogGroup.mapAnyGroupElementToByteArray(u2[i]), e[i]);
+		}
+		
+		//Calculates v = c^r * d^(r*alpha).
+		GroupElement[] v = calcVBatch(r, alphas);
+		
+		AsymmetricCiphertext[] ciphers = new AsymmetricCiphertext[r.length];
+		for (int i = 0; i < r.length; i++){
+			ciphers[i] = new CramerShoupOnByteArrayCiphertext(u1[i], u2[i], e[i], v[i]);
+		}
+		return ciphers;
+	}
+	
+	/**
+	 * Decrypts the given ciphertexts using this Cramer-Shoup encryption scheme.
+	 * @param ciphertexts ciphertexts to decrypt. MUST be instances of CramerShoupOnByteArrayCiphertext.
+	 * @return the decrypted plaintexts, in the same order.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given Ciphertexts is not instance of CramerShoupOnByteArrayCiphertext.
+	 * @throws ScapiRuntimeException if one of the given ciphertexts is not valid.
+	 */
+	public Plaintext[] decryptBatch(AsymmetricCiphertext[] ciphertexts) throws KeyException{
+		//If there is no private key, throws exception.
+		if (privateKey == null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		CramerShoupOnByteArrayCiphertext[] ciphers = new CramerShoupOnByteArrayCiphertext[ciphertexts.length];
+		byte[][] alphas = new byte[ciphertexts.length][];
+		for (int i = 0; i < ciphertexts.length; i++){
+			//Ciphertext should be Cramer Shoup ciphertext.
+			if (!(ciphertexts[i] instanceof CramerShoupOnByteArrayCiphertext)){
+				throw new IllegalArgumentException("ciphertext should be instance of CramerShoupOnByteArrayCiphertext");
+			}
+			ciphers[i] = (CramerShoupOnByteArrayCiphertext) ciphertexts[i];
+			
+			//Calculates the hash(u1 + u2 + e).
+			alphas[i] = calcAlpha(dlogGroup.mapAnyGroupElementToByteArray(ciphers[i].getU1()), 
+					dlogGroup.mapAnyGroupElementToByteArray(ciphers[i].getU2()), ciphers[i].getE());
+		}
+		
+		//Validates the ciphers and calculates u1^z.
+		GroupElement[] u1ExpZ = calcU1ExpZBatch(ciphers, alphas);
+		
+		//Calculates m = KDF(u1^z) XOR e. 
+		Plaintext[] plaintexts = new Plaintext[ciphers.length];
+		for (int i = 0; i < ciphers.length; i++){
+			byte[] e = ciphers[i].getE();
+			byte[] u1ExpZBytes = dlogGroup.mapAnyGroupElementToByteArray(u1ExpZ[i]);
+			byte[] m = kdf.deriveKey(u1ExpZBytes, 0, u1ExpZBytes.length, e.length).getEncoded();
+			for(int j=0; j<e.length; j++){
+				m[j] = (byte) (m[j] ^ e[j]);
+			}
+			plaintexts[i] = new ByteArrayPlaintext(m);
+		}
+		return plaintexts;
+	}
+	
 	/**
 	 * Decrypts the given ciphertext using this Cramer-Shoup encryption scheme.
 	 * @param ciphertext ciphertext to decrypt. MUST be an instance of CramerShoupOnByteArrayCiphertext.
@@ -206,6 +206,86 @@ public class ScCramerShoupDDHOnGroupElement extends CramerShoupAbs {
 		
 	}
 	
+	/**
+	 * Encrypts the given plaintexts using this CramerShoup encryption scheme and the given random values.
+	 * @param plaintexts messages to encrypt. MUST be instances of GroupElementPlaintext.
+	 * @param r the random values to use in the encryption. r[i] is used to encrypt plaintexts[i].
+	 * @return the ciphertexts of the given plaintexts, in the same order.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given Plaintexts is not instance of GroupElementPlaintext, 
+	 * 									or one of the random values is not in Zq.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts, BigInteger[] r){
+		checkBatchArguments(plaintexts.length, r);
+		for (int i = 0; i < plaintexts.length; i++){
+			if (!(plaintexts[i] instanceof GroupElementPlaintext)){
+				throw new IllegalArgumentException("plaintext should be instance of GroupElementPlaintext");
+			}
+		}
+		
+		//Calculates u1, u2 and h^r of all the plaintexts.
+		GroupElement[][] exps = calcU1U2HExpRBatch(r);
+		GroupElement[] u1 = exps[0];
+		GroupElement[] u2 = exps[1];
+		GroupElement[] e = new GroupElement[r.length];
+		byte[][] alphas = new byte[r.length][];
+		
+		//Calculates e = h^r * msg and alpha = hash(u1 + u2 + e). The hash is not thread safe so this is done sequentially.
+		for (int i = 0; i < r.length; i++){
+			e[i] = dlogGroup.multiplyGroupElements(exps[2][i], ((GroupElementPlaintext) plaintexts[i]).getElement());
+			alphas[i] = calcAlpha(dlogGroup.mapAnyGroupElementToByteArray(u1[i]), dlogGroup.mapAnyGroupElementToByteArray(u2[i]), 
+					dlogGroup.mapAnyGroupElementToByteArray(e[i]));
+		}
+		
+		//Calculates v = c^r * d^(r*alpha).
+		GroupElement[] v = calcVBatch(r, alphas);
+		
+		AsymmetricCiphertext[] ciphers = new AsymmetricCiphertext[r.length];
+		for (int i = 0; i < r.length; i++){
+			ciphers[i] = new CramerShoupOnGroupElementCiphertext(u1[i], u2[i], e[i], v[i]);
+		}
+		return ciphers;
+	}
+	
+	/**
+	 * Decrypts the given ciphertexts using this Cramer-Shoup encryption scheme.
+	 * @param ciphertexts ciphertexts to decrypt. MUST be instances of CramerShoupOnGroupElementCiphertext.
+	 * @return the decrypted plaintexts, in the same order.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given Ciphertexts is not instance of CramerShoupOnGroupElementCiphertext.
+	 * @throws ScapiRuntimeException if one of the given ciphertexts is not valid.
+	 */
+	public Plaintext[] decryptBatch(AsymmetricCiphertext[] ciphertexts) throws KeyException{
+		//If there is no private key, throws exception.
+		if (privateKey == null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		CramerShoupOnGroupElementCiphertext[] ciphers = new CramerShoupOnGroupElementCiphertext[ciphertexts.length];
+		byte[][] alphas = new byte[ciphertexts.length][];
+		for (int i = 0; i < ciphertexts.length; i++){
+			//Ciphertext should be Cramer Shoup ciphertext.
+			if (!(ciphertexts[i] instanceof CramerShoupOnGroupElementCiphertext)){
+				throw new IllegalArgumentException("ciphertext should be instance of CramerShoupCiphertext");
+			}
+			ciphers[i] = (CramerShoupOnGroupElementCiphertext) ciphertexts[i];
+			
+			//Calculates the hash(u1 + u2 + e).
+			alphas[i] = calcAlpha(dlogGroup.mapAnyGroupElementToByteArray(ciphers[i].getU1()), 
+					dlogGroup.mapAnyGroupElementToByteArray(ciphers[i].getU2()), dlogGroup.mapAnyGroupElementToByteArray(ciphers[i].getE()));
+		}
+		
+		//Validates the ciphers and calculates u1^zInv.
+		GroupElement[] u1ExpInvZ = calcU1ExpZBatch(ciphers, alphas);
+		
+		//Calculates m = e*((u1^z)^ -1). 
+		Plaintext[] plaintexts = new Plaintext[ciphers.length];
+		for (int i = 0; i < ciphers.length; i++){
+			plaintexts[i] = new GroupElementPlaintext(dlogGroup.multiplyGroupElements(ciphers[i].getE(), u1ExpInvZ[i]));
+		}
+		return plaintexts;
+	}
+	
 	/**
 	 * Decrypts the given ciphertext using this Cramer-Shoup encryption scheme.
 	 * @param ciphertext ciphertext to decrypt. MUST be an instance of CramerShoupCiphertext.
@@ -204,11 +204,21 @@ public class ScElGamalKEM extends ElGamalAbs{
 		return new ByteArrayPlaintext(text);
 	}
 	
+	/**
+	 * Checks that the given plaintext is an instance of ByteArrayPlaintext.
+	 * @param plaintext the plaintext to check.
+	 * @throws IllegalArgumentException if the given Plaintext is not an instance of ByteArrayPlaintext.
+	 */
+	protected void checkPlaintext(Plaintext plaintext){
+		if (!(plaintext instanceof ByteArrayPlaintext)){
+			throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
+		}
+	}
+	
 	/**
 	 * Completes the encryption operation.
-	 * @param plaintext contains message to encrypt. MUST be of type ByteArrayPlaintext.
+	 * @param plaintext contains message to encrypt. Was already checked by {@link #checkPlaintext(Plaintext)}.
 	 * @return Ciphertext of type ElGamalKEMCiphertext containing the encrypted message.
-	 * @throws IllegalArgumentException if the given Plaintext is not an instance of ByteArrayPlaintext.
 	 */
 	protected AsymmetricCiphertext completeEncryption(GroupElement u, GroupElement v, Plaintext plaintext){
 		
@@ -221,9 +231,6 @@ public class ScElGamalKEM extends ElGamalAbs{
 		 *     	Encrypt m with key k, using the CPA-secure symmetric encryption scheme; denote the resulting ciphertext by w
 		 *     	Output the ciphertext c=(u,w)
 		 */
-		if (!(plaintext instanceof ByteArrayPlaintext)){
-			throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
-		}
 	
 		//calculate a key for the symmetric encryption.
 		byte[] vBytes = dlog.mapAnyGroupElementToByteArray(v);
@@ -274,6 +281,31 @@ public class ScElGamalKEM extends ElGamalAbs{
 		//Calculates v = u^x.
 		GroupElement v = dlog.exponentiate(ciphertext.getU(), privateKey.getX());
 		
+		return completeDecryption(ciphertext, v);
+	}
+	
+	/**
+	 * Returns the u element of the given ciphertext.
+	 * @param cipher MUST be of type ElGamalKEMCiphertext.
+	 * @throws IllegalArgumentException if the given cipher is not instance of ElGamalKEMCiphertext.
+	 */
+	protected GroupElement getC1(AsymmetricCiphertext cipher){
+		//Ciphertext should be ElGamalKEM ciphertext.
+		if (!(cipher instanceof ElGamalKEMCiphertext)){
+			throw new IllegalArgumentException("ciphertext should be instance of ElGamalKEMCiphertext");
+		}
+		return ((ElGamalKEMCiphertext) cipher).getU();
+	}
+	
+	/**
+	 * Completes the decryption operation.
+	 * @param cipher of type ElGamalKEMCiphertext.
+	 * @param v the u element of the ciphertext raised to the private key.
+	 * @return Plaintext of type ByteArrayPlaintext which containing the decrypted message.
+	 */
+	protected Plaintext completeDecryption(AsymmetricCiphertext cipher, GroupElement v){
+		ElGamalKEMCiphertext ciphertext = (ElGamalKEMCiphertext) cipher;
+		
 		//calculate a key for the symmetric encryption.
 		byte[] vBytes = dlog.mapAnyGroupElementToByteArray(v);
 		byte[] k = kdf.deriveKey(vBytes, 0, vBytes.length, symKeySize/8).getEncoded();
@@ -159,17 +159,23 @@ public class ScElGamalOnByteArray extends ElGamalAbs{
 	}
 	
 	/**
-	 * Completes the encryption operation.
-	 * @param plaintext contains message to encrypt. MUST be of type ByteArrayPlaintext.
-	 * @return Ciphertext of type ElGamalOnByteArrayCiphertext containing the encrypted message.
+	 * Checks that the given plaintext is an instance of ByteArrayPlaintext.
+	 * @param plaintext the plaintext to check.
 	 * @throws IllegalArgumentException if the given Plaintext is not an instance of ByteArrayPlaintext.
 	 */
-	protected AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext){
-		
+	protected void checkPlaintext(Plaintext plaintext){
 		if (!(plaintext instanceof ByteArrayPlaintext)){
 			throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
 		}
+	}
 	
+	/**
+	 * Completes the encryption operation.
+	 * @param plaintext contains message to encrypt. Was already checked by {@link #checkPlaintext(Plaintext)}.
+	 * @return Ciphertext of type ElGamalOnByteArrayCiphertext containing the encrypted message.
+	 */
+	protected AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext){
+		
 		//Gets the message.
 		byte[] msg = ((ByteArrayPlaintext) plaintext).getText();
 	
@@ -212,6 +218,31 @@ public class ScElGamalOnByteArray extends ElGamalAbs{
 		ElGamalOnByteArrayCiphertext ciphertext = (ElGamalOnByteArrayCiphertext) cipher;
 		//Calculates s = ciphertext.getC1() ^ x.
 		GroupElement s = dlog.exponentiate(ciphertext.getC1(), privateKey.getX());
+		
+		return completeDecryption(ciphertext, s);
+	}
+	
+	/**
+	 * Returns the first element of the given ciphertext.
+	 * @param cipher MUST be of type ElGamalOnByteArrayCiphertext.
+	 * @throws IllegalArgumentException if the given cipher is not instance of ElGamalOnByteArrayCiphertext.
+	 */
+	protected GroupElement getC1(AsymmetricCiphertext cipher){
+		//Ciphertext should be ElGamal ciphertext.
+		if (!(cipher instanceof ElGamalOnByteArrayCiphertext)){
+			throw new IllegalArgumentException("ciphertext should be instance of ElGamalOnByteArrayCiphertext");
+		}
+		return ((ElGamalOnByteArrayCiphertext) cipher).getC1();
+	}
+	
+	/**
+	 * Completes the decryption operation.
+	 * @param cipher of type ElGamalOnByteArrayCiphertext.
+	 * @param s the first element of the ciphertext raised to the private key.
+	 * @return Plaintext of type ByteArrayPlaintext which containing the decrypted message.
+	 */
+	protected Plaintext completeDecryption(AsymmetricCiphertext cipher, GroupElement s){
+		ElGamalOnByteArrayCiphertext ciphertext = (ElGamalOnByteArrayCiphertext) cipher;
 		byte[] sBytes = dlog.mapAnyGroupElementToByteArray(s);
 		byte[] c2 = ciphertext.getC2();
 		//Calculates the plaintext element m = KDF(s) ^ c2.
@@ -46,6 +46,7 @@ import edu.biu.scapi.midLayer.plaintext.GroupElementPlaintext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
  * This class performs the El Gamal encryption scheme that perform the encryption on a GroupElement. <P>
@@ -155,17 +156,23 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 	}
 	
 	/**
-	 * Completes the encryption operation.
-	 * @param plaintext contains message to encrypt. MUST be of type GroupElementPlaintext.
-	 * @return Ciphertext of type ElGamalOnGroupElementCiphertext containing the encrypted message.
+	 * Checks that the given plaintext is an instance of GroupElementPlaintext.
+	 * @param plaintext the plaintext to check.
 	 * @throws IllegalArgumentException if the given Plaintext is not an instance of GroupElementPlaintext.
 	 */
-	protected AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext){
-		
+	protected void checkPlaintext(Plaintext plaintext){
 		if (!(plaintext instanceof GroupElementPlaintext)){
 			throw new IllegalArgumentException("plaintext should be instance of GroupElementPlaintext");
 		}
+	}
 	
+	/**
+	 * Completes the encryption operation.
+	 * @param plaintext contains message to encrypt. Was already checked by {@link #checkPlaintext(Plaintext)}.
+	 * @return Ciphertext of type ElGamalOnGroupElementCiphertext containing the encrypted message.
+	 */
+	protected AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext){
+		
 		//Gets the element.
 		GroupElement msgElement = ((GroupElementPlaintext) plaintext).getElement();
 	
@@ -203,8 +210,32 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 		ElGamalOnGroupElementCiphertext ciphertext = (ElGamalOnGroupElementCiphertext) cipher;
 		//Calculates sInv = ciphertext.getC1() ^ x.
 		GroupElement sInv = dlog.exponentiate(ciphertext.getC1(), privateKey.getX());
+		
+		return completeDecryption(ciphertext, sInv);
+	}
+	
+	/**
+	 * Returns the first element of the given ciphertext.
+	 * @param cipher MUST be of type ElGamalOnGroupElementCiphertext.
+	 * @throws IllegalArgumentException if the given cipher is not instance of ElGamalOnGroupElementCiphertext.
+	 */
+	protected GroupElement getC1(AsymmetricCiphertext cipher){
+		//Ciphertext should be ElGamal ciphertext.
+		if (!(cipher instanceof ElGamalOnGroupElementCiphertext)){
+			throw new IllegalArgumentException("ciphertext should be instance of ElGamalOnGroupElementCiphertext");
+		}
+		return ((ElGamalOnGroupElementCiphertext) cipher).getC1();
+	}
+	
+	/**
+	 * Completes the decryption operation.
+	 * @param cipher of type ElGamalOnGroupElementCiphertext.
+	 * @param sInv the first element of the ciphertext raised to the private key.
+	 * @return Plaintext of type GroupElementPlaintext which containing the decrypted message.
+	 */
+	protected Plaintext completeDecryption(AsymmetricCiphertext cipher, GroupElement sInv){
 		//Calculates the plaintext element m = ciphertext.getC2() * sInv.
-		GroupElement m = dlog.multiplyGroupElements(ciphertext.getC2(), sInv);
+		GroupElement m = dlog.multiplyGroupElements(((ElGamalOnGroupElementCiphertext) cipher).getC2(), sInv);
 		
 		//Creates a plaintext object with the element and returns it.
 		return new GroupElementPlaintext(m);
@@ -307,6 +338,89 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 		return new ElGamalOnGroupElementCiphertext(u,v);
 	}
 	
+	/**
+	 * Calculates the ciphertexts resulting of multiplying each pair of ciphertexts in the given vectors.<p>
+	 * A new random value is chosen for each pair. See {@link #multiplyBatch(AsymmetricCiphertext[], AsymmetricCiphertext[], BigInteger[])} for the details.
+	 * @param ciphers1 the first ciphertexts to multiply.
+	 * @param ciphers2 the second ciphertexts to multiply.
+	 * @return the multiplication of ciphers1[i] and ciphers2[i] for each i.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the same cases as {@link #multiply(AsymmetricCiphertext, AsymmetricCiphertext)}, 
+	 * 									or if the given vectors have different lengths.
+	 */
+	public AsymmetricCiphertext[] multiplyBatch(AsymmetricCiphertext[] ciphers1, AsymmetricCiphertext[] ciphers2) {
+		
+		//Choose the random values in Zq.
+		BigInteger[] w = new BigInteger[ciphers1.length];
+		for (int i = 0; i < w.length; i++){
+			w[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		//Call the other function that computes the multiplication.
+		return multiplyBatch(ciphers1, ciphers2, w);
+	}
+	
+	/**
+	 * Calculates the ciphertexts resulting of multiplying each pair of ciphertexts in the given vectors, using the given random values.<p>
+	 * The result equals calling {@link #multiply(AsymmetricCiphertext, AsymmetricCiphertext, BigInteger)} on each pair, 
+	 * but the exponentiations of g and h use the pre-computed tables of the underlying DlogGroup and all the pairs are 
+	 * divided between the available processors.
+	 * @param ciphers1 the first ciphertexts to multiply.
+	 * @param ciphers2 the second ciphertexts to multiply.
+	 * @param w the random values to use. w[i] is used to multiply ciphers1[i] and ciphers2[i].
+	 * @return the multiplication of ciphers1[i] and ciphers2[i] for each i.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the same cases as {@link #multiply(AsymmetricCiphertext, AsymmetricCiphertext, BigInteger)}, 
+	 * 									or if the given vectors have different lengths.
+	 */
+	public AsymmetricCiphertext[] multiplyBatch(final AsymmetricCiphertext[] ciphers1, final AsymmetricCiphertext[] ciphers2, final BigInteger[] w) {
+		
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		if ((ciphers1.length != ciphers2.length) || (ciphers1.length != w.length)){
+			throw new IllegalArgumentException("the given vectors should have the same length");
+		}
+		
+		for (int i = 0; i < w.length; i++){
+			// Cipher1 and cipher2 should be ElGamal ciphertexts.
+			if (!(ciphers1[i] instanceof ElGamalOnGroupElementCiphertext) || !(ciphers2[i] instanceof ElGamalOnGroupElementCiphertext)){
+				throw new IllegalArgumentException("ciphertexts should be instance of ElGamalCiphertext");
+			}
+			//Check that the random value passed to this function is in Zq.
+			if ((w[i].signum() < 0) || (w[i].compareTo(qMinusOne) > 0)) {
+				throw new IllegalArgumentException("the given random value must be in Zq");
+			}
+		}
+		
+		final GroupElement generator = dlog.getGenerator();
+		final GroupElement h = publicKey.getH();
+		final AsymmetricCiphertext[] result = new AsymmetricCiphertext[w.length];
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				ElGamalOnGroupElementCiphertext c1 = (ElGamalOnGroupElementCiphertext) ciphers1[i];
+				ElGamalOnGroupElementCiphertext c2 = (ElGamalOnGroupElementCiphertext) ciphers2[i];
+				
+				if (!(dlog.isMember(c1.getC1())) || !(dlog.isMember(c1.getC2())) || !(dlog.isMember(c2.getC1())) || !(dlog.isMember(c2.getC2()))){
+					throw new IllegalArgumentException("GroupElements in the given ciphertexts must be a members in the DlogGroup of type " + dlog.getGroupType());
+				}
+				
+				//Calculates u = g^w*u1*u2.
+				GroupElement gExpW = dlog.exponentiateWithPreComputedValues(generator, w[i]);
+				GroupElement u = dlog.multiplyGroupElements(dlog.multiplyGroupElements(gExpW, c1.getC1()), c2.getC1());
+				
+				//Calculates v = h^w*v1*v2.
+				GroupElement hExpW = dlog.exponentiateWithPreComputedValues(h, w[i]);
+				GroupElement v = dlog.multiplyGroupElements(dlog.multiplyGroupElements(hExpW, c1.getC2()), c2.getC2());
+				
+				result[i] = new ElGamalOnGroupElementCiphertext(u, v);
+			}
+		}.run(w.length);
+		
+		return result;
+	}
+	
 	/** 
 	 * @see edu.biu.scapi.midLayer.asymmetricCrypto.encryption.AsymmetricEnc#generateCiphertext(edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertextSendableData)
 	 * @deprecated  As of SCAPI-V1-0-2-2 use reconstructCiphertext(AsymmetricCiphertextSendableData data)
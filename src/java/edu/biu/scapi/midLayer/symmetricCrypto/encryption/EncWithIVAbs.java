@@ -30,6 +30,8 @@ package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  */
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -204,10 +206,62 @@ abstract class EncWithIVAbs implements SymmetricEnc {
 	}
 	
 
+	/**
+	 * Encrypts the remaining bytes of the given plaintext buffer. It lets the system choose the random IV.<p>
+	 * The IV is written to the ciphertext buffer followed by the encrypted data.
+	 * @param plaintext the bytes to encrypt.
+	 * @param ciphertext the buffer to put the IV and the encrypted data in.
+	 * @return the number of bytes written to the ciphertext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws BufferOverflowException if there is not enough space in the ciphertext buffer.
+	 */
+	public int encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		//Generates a random IV.
+		byte[] iv = new byte[prp.getBlockSize()];
+		this.random.nextBytes(iv);
+		
+		//Each implementing class writes the IV and the encrypted data in "encAlg" function.
+		return encAlg(plaintext, iv, ciphertext);
+	}
+	
+	/**
+	 * Decrypts the remaining bytes of the given ciphertext buffer, which should contain the IV followed by the encrypted data.
+	 * @param ciphertext the IV and the encrypted data.
+	 * @param plaintext the buffer to put the decrypted data in.
+	 * @return the number of bytes written to the plaintext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the given ciphertext is shorter than the IV.
+	 * @throws BufferOverflowException if there is not enough space in the plaintext buffer.
+	 */
+	public int decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		int blockSize = prp.getBlockSize();
+		if (ciphertext.remaining() < blockSize){
+			throw new IllegalArgumentException("The ciphertext is shorter than the IV");
+		}
+		//Reads the IV from the beginning of the ciphertext.
+		byte[] iv = new byte[blockSize];
+		ciphertext.get(iv);
+		
+		//Each implementing class writes the actual decryption algorithm in "decAlg" function.
+		return decAlg(ciphertext, iv, plaintext);
+	}
+
 	//This protected function must be implemented in each concrete class.
 	//In CTREnc this function performs the CTR mode of operation.
 	//In CBCEnc this function performs the CBC mode of operation.
 	protected abstract IVCiphertext encAlg(byte[] plaintext, byte[] iv);
+	
+	//The following protected functions perform the mode of operation over ByteBuffers and must be implemented in each concrete class.
+	//encAlg writes the given iv followed by the encrypted data and returns the number of written bytes.
+	//decAlg gets the encrypted data that follows the iv and returns the number of written plaintext bytes.
+	protected abstract int encAlg(ByteBuffer plaintext, byte[] iv, ByteBuffer ciphertext);
+	protected abstract int decAlg(ByteBuffer ciphertext, byte[] iv, ByteBuffer plaintext);
 
 	
 }
@@ -116,6 +116,16 @@ public class OpenSSLCBCEncRandomIV extends OpenSSLEncWithIVAbs implements CBCEnc
 		return "CBC Encryption with" + prpName;
 		
 	}
+	
+	/**
+	 * Returns the maximal number of bytes written by {@link #encrypt(java.nio.ByteBuffer, java.nio.ByteBuffer)} - the IV followed by the padded encrypted data.
+	 */
+	@Override
+	public int getCiphertextLength(int plaintextLength) {
+		//In CBC mode the IV size is the block size, and OpenSSL pads the plaintext with between one byte and a whole block.
+		int blockSize = getIVSize();
+		return blockSize + (plaintextLength / blockSize + 1) * blockSize;
+	}
 
 	static {
 		//loads the OpenSSL dll.
@@ -112,6 +112,14 @@ public class OpenSSLCTREncRandomIV extends OpenSSLEncWithIVAbs implements CTREnc
 	/**
 	 * @return the algorithm name - CTR and the underlying prp name.
 	 */
+	/**
+	 * Returns the number of bytes written by {@link #encrypt(java.nio.ByteBuffer, java.nio.ByteBuffer)} - the IV followed by an encrypted data of the same length as the plaintext.
+	 */
+	@Override
+	public int getCiphertextLength(int plaintextLength) {
+		return getIVSize() + plaintextLength;
+	}
+	
 	@Override
 	public String getAlgorithmName() {
 		return "CTR Encryption with" + prpName;
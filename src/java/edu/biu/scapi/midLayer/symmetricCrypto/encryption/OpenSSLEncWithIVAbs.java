@@ -24,6 +24,8 @@
 */
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
@@ -63,6 +65,10 @@ public abstract class OpenSSLEncWithIVAbs implements SymmetricEnc{
 	private native int getIVSize(long enc);		// Return the size of the Iv in the current encryption scheme.
 	private native byte[] encrypt(long enc, byte[] plaintext, byte[] iv);	//Encrypt the given plaintext.
 	private native byte[] decrypt(long dec, byte[] cipher, byte[] iv);		//Decrypt the given ciphertext.
+	//Encrypt and decrypt the given region of a direct buffer and put the result in the given offset of the other direct buffer.
+	//Return the number of written bytes or -1 in case of failure.
+	private native int encryptDirect(long enc, ByteBuffer in, int inOffset, int inLen, ByteBuffer out, int outOffset, byte[] iv);
+	private native int decryptDirect(long dec, ByteBuffer in, int inOffset, int inLen, ByteBuffer out, int outOffset, byte[] iv);
 	private native void deleteNative(long enc, long dec);					//Delete teh native objects.
 	
 	/**
@@ -299,6 +305,115 @@ public abstract class OpenSSLEncWithIVAbs implements SymmetricEnc{
 		return new ByteArrayPlaintext(plaintext);
 	}
 	
+	/**
+	 * Encrypts the remaining bytes of the given plaintext buffer. It lets the system choose the random IV.<p>
+	 * The IV is written to the ciphertext buffer followed by the encrypted data.
+	 * In case both buffers are direct, OpenSSL reads and writes them in place without any copy.
+	 * @param plaintext the bytes to encrypt.
+	 * @param ciphertext the buffer to put the IV and the encrypted data in.
+	 * @return the number of bytes written to the ciphertext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws BufferOverflowException if there is not enough space in the ciphertext buffer.
+	 */
+	public int encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		int length = plaintext.remaining();
+		if (ciphertext.remaining() < getCiphertextLength(length)){
+			throw new BufferOverflowException();
+		}
+		
+		//Generate a random IV and write it in the beginning of the output.
+		byte[] iv = new byte[getIVSize(enc)];
+		this.random.nextBytes(iv);
+		ciphertext.put(iv);
+		
+		int written;
+		if (plaintext.isDirect() && ciphertext.isDirect()){
+			written = encryptDirect(enc, plaintext, plaintext.position(), length, ciphertext, ciphertext.position(), iv);
+			if (written < 0){
+				throw new IllegalStateException("OpenSSL failed to encrypt the given plaintext");
+			}
+			plaintext.position(plaintext.limit());
+			ciphertext.position(ciphertext.position() + written);
+		} else {
+			byte[] cipher = encrypt(enc, getRemaining(plaintext), iv);
+			ciphertext.put(cipher);
+			written = cipher.length;
+		}
+		
+		return iv.length + written;
+	}
+	
+	/**
+	 * Decrypts the remaining bytes of the given ciphertext buffer, which should contain the IV followed by the encrypted data.
+	 * In case both buffers are direct, OpenSSL reads and writes them in place without any copy.
+	 * @param ciphertext the IV and the encrypted data.
+	 * @param plaintext the buffer to put the decrypted data in.
+	 * @return the number of bytes written to the plaintext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the given ciphertext is not a valid encryption.
+	 * @throws BufferOverflowException if there is not enough space in the plaintext buffer.
+	 */
+	public int decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		int ivSize = getIVSize(enc);
+		if (ciphertext.remaining() < ivSize){
+			throw new IllegalArgumentException("The ciphertext is shorter than the IV");
+		}
+		
+		//Read the IV from the beginning of the ciphertext.
+		byte[] iv = new byte[ivSize];
+		ciphertext.get(iv);
+		int length = ciphertext.remaining();
+		
+		int written;
+		if (ciphertext.isDirect() && plaintext.isDirect()){
+			//OpenSSL may write up to the length of the ciphertext before removing the pad.
+			if (plaintext.remaining() < length){
+				throw new BufferOverflowException();
+			}
+			written = decryptDirect(dec, ciphertext, ciphertext.position(), length, plaintext, plaintext.position(), iv);
+			if (written < 0){
+				throw new IllegalArgumentException("The given ciphertext could not be decrypted");
+			}
+			ciphertext.position(ciphertext.limit());
+			plaintext.position(plaintext.position() + written);
+		} else {
+			byte[] text = decrypt(dec, getRemaining(ciphertext), iv);
+			if (text == null){
+				throw new IllegalArgumentException("The given ciphertext could not be decrypted");
+			}
+			plaintext.put(text);
+			written = text.length;
+		}
+		
+		return written;
+	}
+	
+	/**
+	 * Returns the size of the IV of this encryption scheme.
+	 */
+	protected int getIVSize(){
+		return getIVSize(enc);
+	}
+	
+	//Returns the remaining bytes of the given buffer. The backing array is used as is if it contains exactly these bytes.
+	private byte[] getRemaining(ByteBuffer buffer){
+		byte[] bytes;
+		if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length){
+			bytes = buffer.array();
+			buffer.position(buffer.limit());
+		} else {
+			bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+		}
+		return bytes;
+	}
+	
 	/**
 	 * Deletes the native objects.
 	 */
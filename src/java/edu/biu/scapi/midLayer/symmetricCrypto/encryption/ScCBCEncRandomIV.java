@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.logging.Level;
@@ -136,6 +138,19 @@ public class ScCBCEncRandomIV extends EncWithIVAbs implements CBCEnc {
 		
 	}
 
+	/**
+	 * Returns the number of bytes written by {@link #encrypt(ByteBuffer, ByteBuffer)} - the IV followed by the padded encrypted data.
+	 */
+	@Override
+	public int getCiphertextLength(int plaintextLength) {
+		int blockSize = prp.getBlockSize();
+		if (padding instanceof NoPadding){
+			return blockSize + plaintextLength;
+		}
+		//The padding always adds between one byte and a whole block.
+		return blockSize + (plaintextLength / blockSize + 1) * blockSize;
+	}
+	
 	/**
 	 * Decrypts the given ciphertext using the CBC mode of operation and the underlying prp as the block cipher function.
 	 * 
@@ -293,6 +308,93 @@ public class ScCBCEncRandomIV extends EncWithIVAbs implements CBCEnc {
 		} 
 	}
 
+	/**
+	 * Encrypts the plaintext buffer using the CBC mode of operation and writes the IV and the ciphertext to the ciphertext buffer.
+	 * Only the last partial block of the plaintext is copied in order to be padded.
+	 */
+	@Override
+	protected int encAlg(ByteBuffer plaintext, byte[] iv, ByteBuffer ciphertext) {
+		int blockSize = prp.getBlockSize();
+		int length = plaintext.remaining();
+		
+		//If padding is "NoPadding" and the plaintext is not aligned, throws exception.
+		if ((padding instanceof NoPadding) && ((length % blockSize) != 0)){
+			throw new IllegalArgumentException("plaintext is not aligned to blockSize");
+		}
+		if (ciphertext.remaining() < getCiphertextLength(length)){
+			throw new BufferOverflowException();
+		}
+		ciphertext.put(iv);
+		
+		byte[] block = new byte[blockSize];
+		//The previous ciphertext block. The result of each block is computed in place.
+		byte[] chain = iv.clone();
+		
+		//Process the whole blocks. ciphertext [i] = prp.computeBlock(ciphertext [i-1] XOR plaintext[i]).
+		int numberOfBlocks = length / blockSize;
+		for (int i=0; i<numberOfBlocks; i++){
+			plaintext.get(block);
+			encryptBlock(block, 0, chain, 0, chain, 0);
+			ciphertext.put(chain);
+		}
+		
+		//Pads the remaining bytes and process the padded block.
+		if (!(padding instanceof NoPadding)){
+			byte[] lastBytes = new byte[length % blockSize];
+			plaintext.get(lastBytes);
+			byte[] padded = padding.pad(lastBytes, numBytesToPad(lastBytes));
+			encryptBlock(padded, 0, chain, 0, chain, 0);
+			ciphertext.put(chain);
+			numberOfBlocks++;
+		}
+		
+		return blockSize + numberOfBlocks * blockSize;
+	}
+	
+	/**
+	 * Decrypts the ciphertext buffer using the CBC mode of operation and writes the plaintext to the plaintext buffer.
+	 * Only the last block of the plaintext is copied in order to remove the pad.
+	 */
+	@Override
+	protected int decAlg(ByteBuffer ciphertext, byte[] iv, ByteBuffer plaintext) {
+		int blockSize = prp.getBlockSize();
+		int length = ciphertext.remaining();
+		boolean isPadded = !(padding instanceof NoPadding);
+		
+		if (((length % blockSize) != 0) || (isPadded && (length == 0))){
+			throw new IllegalArgumentException("The ciphertext is not aligned to blockSize");
+		}
+		
+		byte[] block = new byte[blockSize];
+		byte[] plainBlock = new byte[blockSize];
+		byte[] chain = iv.clone();
+		
+		//Process the blocks that do not contain pad. plaintext[i] : = prp.invert(cipher[i]) XOR ciphertext[i-1].
+		int numberOfBlocks = length / blockSize;
+		int unpaddedBlocks = isPadded ? numberOfBlocks - 1 : numberOfBlocks;
+		for (int i=0; i<unpaddedBlocks; i++){
+			ciphertext.get(block);
+			decryptBlock(block, 0, chain, 0, plainBlock, 0);
+			plaintext.put(plainBlock);
+			//The current cipher block is the chaining value of the next block.
+			byte[] temp = chain;
+			chain = block;
+			block = temp;
+		}
+		int written = unpaddedBlocks * blockSize;
+		
+		//Process the last block and removes the pad.
+		if (isPadded){
+			ciphertext.get(block);
+			decryptBlock(block, 0, chain, 0, plainBlock, 0);
+			byte[] lastBytes = padding.removePad(plainBlock);
+			plaintext.put(lastBytes);
+			written += lastBytes.length;
+		}
+		
+		return written;
+	}
+
 	/**
 	 * Calculates the number of bytes to pad.
 	 * If the input is aligned to block size, returns block size.
@@ -26,10 +26,19 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
+import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.midLayer.ciphertext.ByteArraySymCiphertext;
@@ -38,6 +47,7 @@ import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
+import edu.biu.scapi.primitives.prf.openSSL.OpenSSLPRP;
 
 /**
  * This class performs the randomized Counter Mode encryption and decryption.
@@ -47,6 +57,14 @@ import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
  */
 public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 
+	private static final int BATCH_BLOCKS = 64;	//Number of counter blocks that are encrypted together when processing ByteBuffers.
+	
+	private byte[] counters;				//Reusable buffer that holds a batch of consecutive counters.
+	private byte[] keyStream;				//Reusable buffer that holds the encryption of the counters.
+	private ByteBuffer keyStreamBuffer;		//A view of the key stream used to xor it word by word.
+	private Cipher jceCipher;				//AES in counter mode provided by the JCE. Used to process ByteBuffers in case the underlying prp is AES.
+	private SecretKeySpec jceKey;			//The key of the JCE cipher.
+	
 	/**
 	 * Default constructor. Uses default implementation of prp and SecureRandom.
 	 */
@@ -100,6 +118,39 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 		super(prp, random);
 	}
 	
+	/**
+	 * Supply the encryption scheme with a Secret Key.<p>
+	 * In case the underlying prp is AES, the JCE implementation of AES in counter mode is also initialized with the key, 
+	 * in order to encrypt ByteBuffers using the hardware support of the JVM. 
+	 */
+	@Override
+	public void setKey(SecretKey secretKey) throws InvalidKeyException{
+		super.setKey(secretKey);
+		
+		jceCipher = null;
+		jceKey = null;
+		if (prp.getAlgorithmName().equals("AES")){
+			try {
+				jceCipher = Cipher.getInstance("AES/CTR/NoPadding");
+				jceKey = new SecretKeySpec(secretKey.getEncoded(), "AES");
+				//Checks that the JCE accepts the key.
+				jceCipher.init(Cipher.ENCRYPT_MODE, jceKey, new IvParameterSpec(new byte[prp.getBlockSize()]));
+			} catch (GeneralSecurityException e) {
+				//The JCE does not provide AES in counter mode with this key size. The key stream will be computed by the prp.
+				jceCipher = null;
+				jceKey = null;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes written by {@link #encrypt(ByteBuffer, ByteBuffer)} - the IV followed by an encrypted data of the same length as the plaintext.
+	 */
+	@Override
+	public int getCiphertextLength(int plaintextLength) {
+		return prp.getBlockSize() + plaintextLength;
+	}
+	
 	/** This function returns a string that is the result of concatenating "CTRwith" with the name of the underlying PRP. 
 	 *  For example: "CTRwithAES"
 	 */
@@ -215,6 +266,119 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 	}
 
 
+	/**
+	 * Writes the IV and the encryption of the plaintext buffer to the ciphertext buffer.
+	 */
+	@Override
+	protected int encAlg(ByteBuffer plaintext, byte[] iv, ByteBuffer ciphertext) {
+		if (ciphertext.remaining() < getCiphertextLength(plaintext.remaining())){
+			throw new BufferOverflowException();
+		}
+		ciphertext.put(iv);
+		return iv.length + processBuffer(plaintext, iv, ciphertext);
+	}
+	
+	/**
+	 * Writes the decryption of the ciphertext buffer to the plaintext buffer.
+	 */
+	@Override
+	protected int decAlg(ByteBuffer ciphertext, byte[] iv, ByteBuffer plaintext) {
+		return processBuffer(ciphertext, iv, plaintext);
+	}
+	
+	/*
+	 * Processes all the remaining bytes of the in buffer and puts the result in the out buffer. It can be called both by encrypt and by decrypt.<p>
+	 * Instead of processing the data block by block, a batch of counters is encrypted at once and the resulting key stream is xored 
+	 * with the data eight bytes at a time. In case the underlying prp is AES, the whole data is processed by the JCE. 
+	 * 
+	 * @return the number of processed bytes.
+	 */
+	private int processBuffer(ByteBuffer in, byte[] iv, ByteBuffer out){
+		int length = in.remaining();
+		if (out.remaining() < length){
+			throw new BufferOverflowException();
+		}
+		
+		if (jceCipher != null){
+			try {
+				jceCipher.init(Cipher.ENCRYPT_MODE, jceKey, new IvParameterSpec(iv));
+				return jceCipher.doFinal(in, out);
+			} catch (GeneralSecurityException e) {
+				//Should not occur since the key was checked in setKey, the iv is of block size and the output buffer is long enough.
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		int blockSize = prp.getBlockSize();
+		if (counters == null){
+			counters = new byte[BATCH_BLOCKS * blockSize];
+			keyStream = new byte[BATCH_BLOCKS * blockSize];
+			keyStreamBuffer = ByteBuffer.wrap(keyStream).order(ByteOrder.nativeOrder());
+		}
+		
+		//Views the buffers with the same byte order as the key stream, so that xoring longs is the same as xoring the bytes.
+		ByteBuffer src = in.duplicate().order(ByteOrder.nativeOrder());
+		ByteBuffer dst = out.duplicate().order(ByteOrder.nativeOrder());
+		byte[] ctr = iv.clone();
+		
+		int processed = 0;
+		while (processed < length){
+			int chunk = Math.min(length - processed, keyStream.length);
+			computeKeyStream(ctr, (chunk + blockSize - 1) / blockSize);
+			
+			keyStreamBuffer.clear();
+			int i = 0;
+			for (; i <= chunk - 8; i += 8){
+				dst.putLong(src.getLong() ^ keyStreamBuffer.getLong());
+			}
+			for (; i < chunk; i++){
+				dst.put((byte) (src.get() ^ keyStreamBuffer.get()));
+			}
+			processed += chunk;
+		}
+		
+		in.position(in.limit());
+		out.position(out.position() + length);
+		return length;
+	}
+	
+	/*
+	 * Puts the encryption of the next numBlocks counters in the key stream buffer and increases the counter accordingly.
+	 * A full batch is computed using one call to the native prp in case the prp supports it.
+	 */
+	private void computeKeyStream(byte[] ctr, int numBlocks){
+		int blockSize = prp.getBlockSize();
+		for (int i = 0; i < numBlocks; i++){
+			System.arraycopy(ctr, 0, counters, i * blockSize, blockSize);
+			increaseCounter(ctr);
+		}
+		
+		if ((prp instanceof OpenSSLPRP) && (numBlocks == BATCH_BLOCKS)){
+			((OpenSSLPRP) prp).optimizedCompute(counters, keyStream);
+		} else {
+			try {
+				for (int i = 0; i < numBlocks; i++){
+					prp.computeBlock(counters, i * blockSize, keyStream, i * blockSize);
+				}
+			} catch (IllegalBlockSizeException e) {
+				//Should not occur since the counters are of block size.
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	
+	/*
+	 * Increases the given counter by one.
+	 */
+	private static void increaseCounter(byte[] ctr){
+		for (int i = ctr.length - 1; i >= 0; i--){
+			ctr[i]++;
+			if (ctr[i] != 0){
+				return;
+			}
+		}
+	}
+
 	/* This function processes a single block. It can be called both by encrypt and by decrypt.<p>
 	 * If called by encrypt then the first two arguments refer to the plaintext being processed and the resulting cipher is written to "out".<p>
 	 * If called by decrypt then the first two arguments refer to the cipher being processed and the resulting plaintext is written to "out". <p>
@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -57,6 +59,7 @@ public class ScEncryptThenMac implements AuthenticatedEnc {
 	
 	private SymmetricEnc encryptor;		//The symmetric encryption object used to perform the encrypt part of encrypt-then-mac algorithm.
 	private Mac mac;					//The mac object used to perform the authentication part of encrypt-then-mac algorithm.
+	private byte[] macInput;			//Reusable array used to mac the content of buffers that are not backed by an array.
 	
 	/**
 	 * Default constructor. Uses default implementations of symmetricEncryption and Mac.
@@ -205,4 +208,107 @@ public class ScEncryptThenMac implements AuthenticatedEnc {
 		//Now that the message has been verified we can decrypt it:
 		return encryptor.decrypt(encMacCipher.getCipher());
 	}
+	
+	/**
+	 * Returns the maximal number of bytes written by {@link #encrypt(ByteBuffer, ByteBuffer)} - the output of the underlying encryption followed by the tag.
+	 */
+	@Override
+	public int getCiphertextLength(int plaintextLength) {
+		return encryptor.getCiphertextLength(plaintextLength) + mac.getMacSize();
+	}
+	
+	/**
+	 * Encrypts the remaining bytes of the given plaintext buffer using the underlying encryption and writes the tag of the encrypted data right after it.
+	 * @param plaintext the bytes to encrypt.
+	 * @param ciphertext the buffer to put the encrypted data and the tag in.
+	 * @return the number of bytes written to the ciphertext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws BufferOverflowException if there is not enough space in the ciphertext buffer.
+	 */
+	@Override
+	public int encrypt(ByteBuffer plaintext, ByteBuffer ciphertext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		if (ciphertext.remaining() < getCiphertextLength(plaintext.remaining())){
+			throw new BufferOverflowException();
+		}
+		
+		int start = ciphertext.position();
+		int cipherLength = encryptor.encrypt(plaintext, ciphertext);
+		byte[] tag = macRegion(ciphertext, start, cipherLength);
+		ciphertext.put(tag);
+		
+		return cipherLength + tag.length;
+	}
+	
+	/**
+	 * Verifies the tag at the end of the given ciphertext buffer. If verified, decrypts the rest of the buffer using the underlying encryption.
+	 * @param ciphertext the encrypted data followed by the tag.
+	 * @param plaintext the buffer to put the decrypted data in.
+	 * @return the number of bytes written to the plaintext buffer, or -1 if the ciphertext was not verified. In that case the buffers are not changed.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the given ciphertext is shorter than the tag.
+	 * @throws BufferOverflowException if there is not enough space in the plaintext buffer.
+	 */
+	@Override
+	public int decrypt(ByteBuffer ciphertext, ByteBuffer plaintext) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		int macSize = mac.getMacSize();
+		int cipherLength = ciphertext.remaining() - macSize;
+		if (cipherLength < 0){
+			throw new IllegalArgumentException("The ciphertext is shorter than the tag");
+		}
+		
+		//Reads the tag without changing the position of the buffer.
+		byte[] tag = new byte[macSize];
+		int start = ciphertext.position();
+		for (int i = 0; i < macSize; i++){
+			tag[i] = ciphertext.get(start + cipherLength + i);
+		}
+		
+		boolean isVerified;
+		if (ciphertext.hasArray()){
+			isVerified = mac.verify(ciphertext.array(), ciphertext.arrayOffset() + start, cipherLength, tag);
+		} else {
+			copyRegion(ciphertext, start, cipherLength);
+			isVerified = mac.verify(macInput, 0, cipherLength, tag);
+		}
+		if(!isVerified){
+			return -1;
+		}
+		
+		//Now that the message has been verified we can decrypt it. The underlying encryption should not read the tag.
+		int limit = ciphertext.limit();
+		ciphertext.limit(start + cipherLength);
+		int written;
+		try {
+			written = encryptor.decrypt(ciphertext, plaintext);
+		} finally {
+			ciphertext.limit(limit);
+		}
+		ciphertext.position(limit);
+		return written;
+	}
+	
+	//Computes the tag of the given region of the buffer. Buffers that are not backed by an array are copied to a reusable array.
+	private byte[] macRegion(ByteBuffer buffer, int offset, int length){
+		if (buffer.hasArray()){
+			return mac.mac(buffer.array(), buffer.arrayOffset() + offset, length);
+		}
+		copyRegion(buffer, offset, length);
+		return mac.mac(macInput, 0, length);
+	}
+	
+	//Copies the given region of the buffer to the reusable array, without changing the position of the buffer.
+	private void copyRegion(ByteBuffer buffer, int offset, int length){
+		if (macInput == null || macInput.length < length){
+			macInput = new byte[length];
+		}
+		ByteBuffer region = buffer.duplicate();
+		region.limit(offset + length).position(offset);
+		region.get(macInput, 0, length);
+	}
 }
@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -116,5 +118,42 @@ public interface SymmetricEnc extends Eav, Indistinguishable{
 	 */
 	public Plaintext decrypt(SymmetricCiphertext ciphertext);
 	
+	/**
+	 * Returns the maximal number of bytes that {@link #encrypt(ByteBuffer, ByteBuffer)} writes when encrypting a plaintext of the given length.
+	 * This includes the IV and, in authenticated schemes, the tag.
+	 * @param plaintextLength the length of the plaintext in bytes.
+	 * @return the maximal length of the encrypted data.
+	 */
+	public int getCiphertextLength(int plaintextLength);
+	
+	/**
+	 * Encrypts the remaining bytes of the given plaintext buffer. It lets the system choose the random IV.<p>
+	 * The IV is written to the ciphertext buffer followed by the encrypted data (and the tag, in authenticated schemes), 
+	 * so that the output can be passed as is to {@link #decrypt(ByteBuffer, ByteBuffer)}.
+	 * This function does not create Plaintext and Ciphertext objects and reuses internal buffers, so it should be used to encrypt large messages.<p>
+	 * The position of the plaintext buffer is advanced to its limit and the position of the ciphertext buffer is advanced by the number of written bytes.
+	 * @param plaintext the bytes to encrypt.
+	 * @param ciphertext the buffer to put the encrypted data in. Should have at least {@link #getCiphertextLength(int)} remaining bytes.
+	 * @return the number of bytes written to the ciphertext buffer.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the given plaintext does not match this encryption scheme.
+	 * @throws BufferOverflowException if there is not enough space in the ciphertext buffer.
+	 */
+	public int encrypt(ByteBuffer plaintext, ByteBuffer ciphertext);
+	
+	/**
+	 * Decrypts the remaining bytes of the given ciphertext buffer, which should be the output of {@link #encrypt(ByteBuffer, ByteBuffer)}.<p>
+	 * The position of the ciphertext buffer is advanced to its limit and the position of the plaintext buffer is advanced by the number of written bytes.
+	 * The decrypted data is never longer than the ciphertext.
+	 * @param ciphertext the bytes to decrypt.
+	 * @param plaintext the buffer to put the decrypted data in.
+	 * @return the number of bytes written to the plaintext buffer, or -1 in case an authenticated scheme failed to verify the ciphertext. 
+	 * In that case, the positions of both buffers are not changed.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the given ciphertext is too short or does not match this encryption scheme.
+	 * @throws BufferOverflowException if there is not enough space in the plaintext buffer.
+	 */
+	public int decrypt(ByteBuffer ciphertext, ByteBuffer plaintext);
+	
 	
 }
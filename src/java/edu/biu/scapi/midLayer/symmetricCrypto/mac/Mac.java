@@ -107,6 +107,15 @@ public interface Mac {
 	 */
 	public boolean verify(byte[] msg, int offset, int msgLength, byte[] tag);
 	
+	/**
+	 * Computes the mac operation on each one of the given messages. <p>
+	 * The messages are independent, so the implementation may compute them in parallel. 
+	 * A message that was started using the update function is not affected by this function.
+	 * @param msgs the messages to operate the mac on.
+	 * @return the tags of the messages, in the same order.
+	 */
+	public byte[][] macBatch(byte[][] msgs);
+	
 	/**
 	 * Adds the byte array to the existing message to mac.
 	 * @param msg the message to add.
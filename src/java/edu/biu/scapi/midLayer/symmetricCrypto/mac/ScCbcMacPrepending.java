@@ -27,6 +27,7 @@
 package edu.biu.scapi.midLayer.symmetricCrypto.mac;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -42,6 +43,9 @@ import edu.biu.scapi.generals.Logging;
 import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
 import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.tools.ByteBufferAdapter;
+import edu.biu.scapi.tools.InstanceFactory;
+import edu.biu.scapi.tools.ParallelBatch;
 import edu.biu.scapi.tools.Factories.PrfFactory;
 
 /**
@@ -53,6 +57,8 @@ import edu.biu.scapi.tools.Factories.PrfFactory;
 public class ScCbcMacPrepending implements CbcMac {
 
 	private PrpFixed prp; 						// The underlying prp
+	private SecretKey key;						// The key of the underlying prp. Used to create more prps in the batch computation.
+	private InstanceFactory<PrpFixed> prpFactory;	// Creates the prps of the threads in the batch computation. May be null.
 	private SecureRandom random;				// Source of randomness used in key generation
 	private int expectedMsgLength; 				// The length of the msg, as given in the startMac function
 	private int actualMsgLength; 				// The length of the msg that the update function already got
@@ -67,6 +73,11 @@ public class ScCbcMacPrepending implements CbcMac {
 	 */
 	public ScCbcMacPrepending() {
 		this(new BcAES(), new SecureRandom());
+		setPrpFactory(new InstanceFactory<PrpFixed>() {
+			public PrpFixed create() {
+				return new BcAES();
+			}
+		});
 	}
 	
 	
@@ -87,6 +98,7 @@ public class ScCbcMacPrepending implements CbcMac {
 		}
 		// Sets the prp.
 		prp = (PrpFixed) prf;
+		prpFactory = createPrpFactory(prpName);
 		// Sets default SecureRandom.
 		this.random = new SecureRandom();
 	}
@@ -110,6 +122,7 @@ public class ScCbcMacPrepending implements CbcMac {
 		}
 		// Sets the prp.
 		prp = (PrpFixed) prf;
+		prpFactory = createPrpFactory(prpName);
 		// Sets default SecureRandom.
 		this.random = SecureRandom.getInstance(randNumGenAlg);
 	}
@@ -134,6 +147,32 @@ public class ScCbcMacPrepending implements CbcMac {
 		//Set the random variable.
 		this.random = random;
 	}
+	
+	/**
+	 * Creates a factory that creates prps by the given name, the same way the name constructors create the underlying prp.
+	 */
+	private static InstanceFactory<PrpFixed> createPrpFactory(final String prpName) {
+		return new InstanceFactory<PrpFixed>() {
+			public PrpFixed create() {
+				try {
+					return (PrpFixed) PrfFactory.getInstance().getObject(prpName);
+				} catch (FactoriesException e) {
+					// The same name already created the underlying prp, so this can not happen.
+					return null;
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Sets the factory that creates the prp of each thread in {@link #macBatch(byte[][])}.
+	 * The created prps should be the same permutation as the underlying prp; they get the key that was given to this object. 
+	 * If no factory is set, the threads share the underlying prp, one at a time.
+	 * @param prpFactory creates prp objects that are equal to the underlying prp.
+	 */
+	public void setPrpFactory(InstanceFactory<PrpFixed> prpFactory) {
+		this.prpFactory = prpFactory;
+	}
 
 	
 	/**
@@ -144,6 +183,7 @@ public class ScCbcMacPrepending implements CbcMac {
 	public void setKey(SecretKey secretKey) throws InvalidKeyException {
 		// Supply the underlying prp with the key
 		prp.setKey(secretKey);
+		key = secretKey;
 	}
 
 	public boolean isKeySet(){
@@ -277,6 +317,58 @@ public class ScCbcMacPrepending implements CbcMac {
 		return equal;
 	}
 
+	/**
+	 * Computes the CBC-Mac operation on each one of the given messages.<p>
+	 * The messages are split between the available processors. Each thread uses its own prp, created by the factory given in 
+	 * {@link #setPrpFactory(InstanceFactory)}, with the same key. If there is no factory or the key was not given to this object, 
+	 * the threads share this object.
+	 * @param msgs the messages to calculate the mac on.
+	 * @return the tags of the messages, in the same order.
+	 * @throws IllegalStateException if no secret key was set.
+	 */
+	public byte[][] macBatch(final byte[][] msgs) {
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		final byte[][] tags = new byte[msgs.length][];
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				ScCbcMacPrepending threadMac = createCopy();
+				for (int i = from; i < to; i++){
+					if (threadMac != null){
+						tags[i] = threadMac.mac(msgs[i], 0, msgs[i].length);
+					} else {
+						synchronized (ScCbcMacPrepending.this) {
+							tags[i] = mac(msgs[i], 0, msgs[i].length);
+						}
+					}
+				}
+			}
+		}.run(msgs.length);
+		return tags;
+	}
+	
+	/**
+	 * Creates a CBC-Mac with a new prp from the prp factory, with the same key.
+	 * @return the created CBC-Mac, or null if there is no factory or the key is not known to this object.
+	 */
+	private ScCbcMacPrepending createCopy(){
+		//The prp may have been keyed before it was given to this object. Then the key is not known here and the prp can not be copied.
+		if (key == null || prpFactory == null){
+			return null;
+		}
+		PrpFixed threadPrp = prpFactory.create();
+		if (threadPrp == null){
+			return null;
+		}
+		try {
+			threadPrp.setKey(key);
+		} catch (InvalidKeyException e) {
+			return null;
+		}
+		return new ScCbcMacPrepending(threadPrp, random);
+	}
+	
 	/**
 	 * Adds the byte array to the existing message to mac.
 	 * @param msg the message to add.
@@ -458,5 +550,15 @@ public class ScCbcMacPrepending implements CbcMac {
 		System.arraycopy(tag, 0, outBytes, outOff, getMacSize());
 
 	}
-
+	
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+	}
 }
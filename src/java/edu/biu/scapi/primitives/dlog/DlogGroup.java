@@ -27,6 +27,7 @@
 package edu.biu.scapi.primitives.dlog;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
 
@@ -48,6 +49,14 @@ import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
 *  - {@code mapAnyGroupElementToByteArray(GroupElement element) : byte[]}<p>
 *  
 *  The first two work as a pair and decodeGroupElementToByteArray is the inverse of encodeByteArrayToGroupElement, whereas the last one works alone and does not have an inverse. 
+*  <p>
+*  Concurrency: after construction, a DlogGroup object may be shared by many threads without external locking. 
+*  The group parameters and the generator are never changed after construction. The caches of pre-computed values 
+*  used by {@code exponentiateWithPreComputedValues} may be filled concurrently; readers never block. 
+*  Implementations that use native code keep their scratch contexts per thread (for example, a BN_CTX in OpenSSL 
+*  and a Miracl instance in Miracl), so the same group object scales across cores. 
+*  The only exception is {@code endExponentiateWithPreComputedValues}, which should not be called while other threads 
+*  still exponentiate the same base.
 
 * 
 * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
@@ -267,4 +276,65 @@ public interface DlogGroup {
 	 * @return a byte array representation of the given group element
 	 */
 	public byte[] mapAnyGroupElementToByteArray(GroupElement groupElement);
+	
+	/**
+	 * Returns the number of bytes that {@link #encodeElement(GroupElement, ByteBuffer)} writes for every element of this group.<p>
+	 * The compact encoding has a fixed width, so arrays of elements can be packed one after the other without length prefixes.
+	 * For elliptic curves this is the size of a compressed point (SEC1 style, one prefix byte followed by the x coordinate) 
+	 * and for Zp groups this is the byte length of p.
+	 * @return the size in bytes of the compact encoding of an element of this group.
+	 */
+	public int getCompactElementSize();
+	
+	/**
+	 * Writes the compact binary encoding of the given element into the given buffer.<p>
+	 * Exactly {@link #getCompactElementSize()} bytes are written, starting at the current position of the buffer.
+	 * This encoding is much shorter than the serialization of the element's {@link GroupElementSendableData} and should be 
+	 * preferred when elements are sent over a channel. The element can be reconstructed by {@link #decodeElement(boolean, ByteBuffer)}.
+	 * @param groupElement the element to encode.
+	 * @param buffer the buffer to write to.
+	 * @throws IllegalArgumentException if the given element does not match this group.
+	 * @throws java.nio.BufferOverflowException if there is not enough space left in the buffer.
+	 */
+	public void encodeElement(GroupElement groupElement, ByteBuffer buffer);
+	
+	/**
+	 * Returns the compact binary encoding of the given element, as written by {@link #encodeElement(GroupElement, ByteBuffer)}.
+	 * @param groupElement the element to encode.
+	 * @return a byte array of size {@link #getCompactElementSize()} that contains the encoding of the element.
+	 * @throws IllegalArgumentException if the given element does not match this group.
+	 */
+	public byte[] encodeElement(GroupElement groupElement);
+	
+	/**
+	 * Reads one compactly encoded element from the current position of the given buffer.<p>
+	 * Decoding always checks that the bytes are a valid encoding (for example, that a compressed point lies on the curve). 
+	 * If bCheckMembership is true, it is also checked that the element belongs to the prime order sub-group. 
+	 * @param bCheckMembership whether to check that the decoded element is a member of this group.
+	 * @param buffer the buffer to read from.
+	 * @return the decoded element.
+	 * @throws IllegalArgumentException if the bytes are not a valid encoding, or if bCheckMembership is true and the element is not a member of this group.
+	 * @throws java.nio.BufferUnderflowException if there are less than {@link #getCompactElementSize()} bytes left in the buffer.
+	 */
+	public GroupElement decodeElement(boolean bCheckMembership, ByteBuffer buffer);
+	
+	/**
+	 * Reads one compactly encoded element from the given byte array.
+	 * @see #decodeElement(boolean, ByteBuffer)
+	 */
+	public GroupElement decodeElement(boolean bCheckMembership, byte[] encoding);
+	
+	/**
+	 * Reads count compactly encoded elements that were written one after the other, starting at the current position of the given buffer.<p>
+	 * The result is the same as calling {@link #decodeElement(boolean, ByteBuffer)} count times. 
+	 * The membership checks use the cheapest test that the group allows instead of an exponentiation by the order. For example, 
+	 * curves with cofactor 1 need no check beyond the point decompression, binary curves use trace checks and Zp groups 
+	 * compute a Legendre symbol.
+	 * @param bCheckMembership whether to check that the decoded elements are members of this group.
+	 * @param buffer the buffer to read from.
+	 * @param count the number of elements to read.
+	 * @return an array with the decoded elements.
+	 * @throws IllegalArgumentException if one of the encodings is invalid, or if bCheckMembership is true and one of the elements is not a member of this group.
+	 */
+	public GroupElement[] decodeElements(boolean bCheckMembership, ByteBuffer buffer, int count);
 }
@@ -27,9 +27,9 @@
 package edu.biu.scapi.primitives.dlog;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -44,8 +44,8 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 
 	protected GroupParams groupParams;			//group parameters
 	protected GroupElement generator;			//generator of the group
-	//map for multExponentiationsWithSameBase calculations
-	private HashMap<GroupElement, GroupElementsExponentiations> exponentiationsMap = new HashMap<GroupElement, GroupElementsExponentiations>();
+	//map for multExponentiationsWithSameBase calculations. It can be read and filled concurrently by different threads.
+	private ConcurrentHashMap<GroupElement, GroupElementsExponentiations> exponentiationsMap = new ConcurrentHashMap<GroupElement, GroupElementsExponentiations>();
 	protected SecureRandom random;				//Source of randomness to use.
 	//k is the maximum length of a string to be converted to a Group Element of this group. If a string exceeds the k length it cannot be converted.
  	protected int k;
@@ -325,10 +325,14 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		//extracts from the map the GroupElementsExponentiations object corresponding to the accepted base
 		GroupElementsExponentiations exponentiations = exponentiationsMap.get(groupElement);
 	
-		// if there is no object that matches this base - create it and add it to the map
+		// if there is no object that matches this base - create it and add it to the map.
+		// In case another thread added an object for the same base in the meantime, use the object of that thread.
 		if (exponentiations == null) {
 			exponentiations = new GroupElementsExponentiations(groupElement);
-			exponentiationsMap.put(groupElement, exponentiations);
+			GroupElementsExponentiations existing = exponentiationsMap.putIfAbsent(groupElement, exponentiations);
+			if (existing != null) {
+				exponentiations = existing;
+			}
 		}
 		// calculates the required exponent
 		return exponentiations.getExponentiation(exponent);
@@ -347,50 +351,59 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	 * The class GroupElementExponentiations is a nested class of DlogGroupAbs.<p>
 	 * It performs the actual work of pre-computation of the exponentiations for one base.
 	 * It is composed of two main elements. The group element for which the optimized computations 
-	 * are built for, called the base and a vector of group elements that are the result of 
-	 * exponentiations of order 1,2,4,8,
+	 * are built for, called the base and an array of group elements that are the result of 
+	 * exponentiations of order 1,2,4,8, <p>
+	 * The array is never changed after it is published. When more exponentiations are needed, a longer copy is created 
+	 * and published instead. This way, threads that only read the exponentiations never block.
 	 */
 	private class GroupElementsExponentiations {
-		private Vector<GroupElement> exponentiations; //vector of group elements that are the result of exponentiations
+		private volatile GroupElement[] exponentiations; //array of group elements that are the result of exponentiations
 		private GroupElement base;  //group element for which the optimized computations are built for
 		
 		/**
-		 * The constructor creates a map structure in memory. 
-		 * Then calculates the exponentiations of order 1,2,4,8 for the given base and save them in the map.
+		 * The constructor creates an array in memory. 
+		 * Then calculates the exponentiations of order 1,2,4,8 for the given base and save them in the array.
 		 * @param base
 		 * @throws IllegalArgumentException
 		 */
 		public GroupElementsExponentiations(GroupElement base) {
 			this.base = base;
-			// build new vector of exponentiations
-			exponentiations = new Vector<GroupElement>();
-			exponentiations.add(0, this.base); // add the base - base^1
+			// build new array of exponentiations
+			GroupElement[] initial = new GroupElement[4];
+			initial[0] = this.base; // add the base - base^1
 			
 			BigInteger two = new BigInteger("2");
 			for (int i=1; i<4; i++) {
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), two);
-					
-				exponentiations.add(i, multI);
+				initial[i] = exponentiate(initial[i-1], two);
 			}
+			exponentiations = initial;
 		}
 		
 		/**
-		 * Calculates the necessary additional exponentiations and fills the exponentiations vector with them.
+		 * Calculates the necessary additional exponentiations and publishes a longer array that contains them.
 		 * @param size - the required exponent
+		 * @return the array of exponentiations that contains the required exponent.
 		 * @throws IllegalArgumentException
 		 */
-		private void prepareExponentiations(BigInteger size) {
+		private synchronized GroupElement[] prepareExponentiations(BigInteger size) {
 			//find log of the number - this is the index of the size-exponent in the exponentiation array 
 			int index = size.bitLength()-1; 
 			
-			/* calculates the necessary exponentiations and put them in the exponentiations vector */
-			for (int i=exponentiations.size(); i<=index; i++){
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), new BigInteger("2"));
-					
-				exponentiations.add(i, multI);	
+			//Another thread may have already calculated the exponentiations.
+			GroupElement[] current = exponentiations;
+			if (current.length > index) {
+				return current;
 			}
+			
+			/* calculates the necessary exponentiations and put them in a copy of the exponentiations array */
+			GroupElement[] extended = new GroupElement[index + 1];
+			System.arraycopy(current, 0, extended, 0, current.length);
+			BigInteger two = new BigInteger("2");
+			for (int i=current.length; i<=index; i++){
+				extended[i] = exponentiate(extended[i-1], two);
+			}
+			exponentiations = extended;
+			return extended;
 		}
 		
 		
@@ -402,19 +415,19 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		 */
 		public GroupElement getExponentiation(BigInteger size) {
 			/**
-			 * The exponents in the exponents vector are all power of 2.
-			 * In order to achieve the exponent size, we calculate its closest power 2 in the exponents vector 
+			 * The exponents in the exponents array are all power of 2.
+			 * In order to achieve the exponent size, we calculate its closest power 2 in the exponents array 
 			 * and continue the calculations from there.
 			 */
 			// find the the closest power 2 exponent
 			int index = size.bitLength()-1;
 			
-			GroupElement exponent = null;
-			/* if the requested index out of the vector bounds, the exponents have not been calculated yet, so calculates them.*/
-			if (exponentiations.size() <= index)
-				prepareExponentiations(size);
+			GroupElement[] current = exponentiations;
+			/* if the requested index out of the array bounds, the exponents have not been calculated yet, so calculates them.*/
+			if (current.length <= index)
+				current = prepareExponentiations(size);
 			
-			exponent = exponentiations.get(index); //get the closest exponent in the exponentiations vector
+			GroupElement exponent = current[index]; //get the closest exponent in the exponentiations array
 			/* if size is not power 2, calculates the additional multiplications */
 			BigInteger lastExp = new BigInteger("2").pow(index);
 			BigInteger difference = size.subtract(lastExp);
@@ -436,4 +449,36 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		return k;
 	}
 	
+	/**
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#encodeElement(GroupElement)
+	 */
+	public byte[] encodeElement(GroupElement groupElement){
+		ByteBuffer buffer = ByteBuffer.allocate(getCompactElementSize());
+		encodeElement(groupElement, buffer);
+		return buffer.array();
+	}
+	
+	/**
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#decodeElement(boolean, byte[])
+	 */
+	public GroupElement decodeElement(boolean bCheckMembership, byte[] encoding){
+		if (encoding.length != getCompactElementSize()){
+			throw new IllegalArgumentException("the encoding length doesn't match the group");
+		}
+		return decodeElement(bCheckMembership, ByteBuffer.wrap(encoding));
+	}
+	
+	/**
+	 * Default implementation that decodes the elements one by one. 
+	 * Groups that can share work between the elements may override this function.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#decodeElements(boolean, ByteBuffer, int)
+	 */
+	public GroupElement[] decodeElements(boolean bCheckMembership, ByteBuffer buffer, int count){
+		GroupElement[] elements = new GroupElement[count];
+		for (int i = 0; i < count; i++){
+			elements[i] = decodeElement(bCheckMembership, buffer);
+		}
+		return elements;
+	}
+	
 }
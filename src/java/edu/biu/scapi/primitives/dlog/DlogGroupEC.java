@@ -28,9 +28,24 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Properties;
 
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
+import org.bouncycastle.math.ec.ECPoint;
+
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mKoblitz;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mPentanomialBasis;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mTrinomialBasis;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.ECGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
+
 
 /**
  * This class manages the creation of NIST recommended elliptic curves.
@@ -45,6 +60,12 @@ public abstract class DlogGroupEC extends DlogGroupAbs implements DlogEllipticCu
 	protected static final String NISTEC_PROPERTIES_FILE =  "/propertiesFiles/NISTEC.properties";
 	protected String curveName;
 	protected String fileName;
+	//BC curve that is used to compress and decompress the points in the compact encoding. Created on first use.
+	private volatile ECCurve compactEncodingCurve;
+	//For binary curves, the bits i such that the trace of t^i is 1. Created on first use.
+	private volatile BigInteger traceMask;
+	//For binary curves of odd degree, the half-traces of t^0, ..., t^(m-1). Created on first use.
+	private volatile BigInteger[] halfTraceTable;
 	
 	protected DlogGroupEC(){};
 	
@@ -174,4 +195,315 @@ public abstract class DlogGroupEC extends DlogGroupAbs implements DlogEllipticCu
 			throw new IllegalArgumentException("data type doesn't match the group type");
 		return generateElement(bCheckMembership, ((ECElementSendableData)data).getX(), ((ECElementSendableData)data).getY());
 	}
+	
+	/**
+	 * The compact encoding of a point is the SEC1 compressed encoding: one byte that is 02 or 03 according to the 
+	 * compressed y coordinate, followed by the x coordinate in the size of the field. 
+	 * The infinity point is encoded as a block of zeros of the same size.
+	 * @return the size in bytes of a compressed point of this curve.
+	 */
+	public int getCompactElementSize(){
+		if (groupParams instanceof ECFpGroupParams){
+			return 1 + (((ECFpGroupParams) groupParams).getP().bitLength() + 7) / 8;
+		}
+		return 1 + (((ECF2mGroupParams) groupParams).getM() + 7) / 8;
+	}
+	
+	/**
+	 * Writes the given point in its compressed form.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#encodeElement(GroupElement, ByteBuffer)
+	 */
+	public void encodeElement(GroupElement groupElement, ByteBuffer buffer){
+		if (!(groupElement instanceof ECElement)){
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		ECElement element = (ECElement) groupElement;
+		
+		//The infinity point has no coordinates. It is encoded as zeros, which is not a legal compressed point.
+		if (element.isInfinity()){
+			buffer.put(new byte[getCompactElementSize()]);
+			return;
+		}
+		
+		ECPoint point = getCompactEncodingCurve().createPoint(element.getX(), element.getY());
+		buffer.put(point.getEncoded(true));
+	}
+	
+	/**
+	 * Decompresses a point of this curve. The decompression itself guarantees that the point is on the curve, 
+	 * so the membership check only needs to verify that the point is in the prime order sub-group.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#decodeElement(boolean, ByteBuffer)
+	 */
+	public GroupElement decodeElement(boolean bCheckMembership, ByteBuffer buffer){
+		byte[] encoding = new byte[getCompactElementSize()];
+		buffer.get(encoding);
+		
+		ECElement element = decompressPoint(encoding);
+		if (bCheckMembership && !isSubGroupMember(element)){
+			throw new IllegalArgumentException("the given encoding is not a member of this group");
+		}
+		return element;
+	}
+	
+	/*
+	 * Creates a group element from the given compressed point.
+	 * Throws IllegalArgumentException if the bytes are not a compressed point of this curve.
+	 */
+	private ECElement decompressPoint(byte[] encoding){
+		boolean isZero = true;
+		for (int i = 0; i < encoding.length && isZero; i++){
+			isZero = (encoding[i] == 0);
+		}
+		if (isZero){
+			return getInfinity();
+		}
+		
+		if (encoding[0] != 0x02 && encoding[0] != 0x03){
+			throw new IllegalArgumentException("the given bytes are not a compressed point of this curve");
+		}
+		if (groupParams instanceof ECF2mGroupParams && ((ECF2mGroupParams) groupParams).getM() % 2 == 1){
+			return decompressBinaryPoint(encoding);
+		}
+		
+		ECPoint point;
+		try{
+			//BC computes the y coordinate from the curve equation and fails if there is no such point.
+			point = getCompactEncodingCurve().decodePoint(encoding).normalize();
+		} catch (RuntimeException e){
+			throw new IllegalArgumentException("the given bytes are not a compressed point of this curve");
+		}
+		
+		//The point is on the curve, there is no need to check it again.
+		return (ECElement) generateElement(false, point.getAffineXCoord().toBigInteger(), point.getAffineYCoord().toBigInteger());
+	}
+	
+	/*
+	 * Decompresses a point of a binary curve of odd degree m.
+	 * For x != 0, y = xz where z^2 + z = x + a + b/x^2. If the trace of the right side is 0, the solutions are the half-trace H 
+	 * of the right side and H + 1, and the compression bit chooses between them. 
+	 * The half-trace is linear, so it is computed with a pre-computed table instead of the m squarings that BC performs.
+	 */
+	private ECElement decompressBinaryPoint(byte[] encoding){
+		ECCurve curve = getCompactEncodingCurve();
+		BigInteger xValue = new BigInteger(1, Arrays.copyOfRange(encoding, 1, encoding.length));
+		if (xValue.bitLength() > curve.getFieldSize()){
+			throw new IllegalArgumentException("the given bytes are not a compressed point of this curve");
+		}
+		
+		ECFieldElement x = curve.fromBigInteger(xValue);
+		ECFieldElement y;
+		if (x.isZero()){
+			//The only point with x = 0 is (0, sqrt(b)).
+			y = curve.getB().sqrt();
+		} else {
+			ECFieldElement beta = x.add(curve.getA()).add(curve.getB().multiply(x.square().invert()));
+			BigInteger betaValue = beta.toBigInteger();
+			if (trace(betaValue) != 0){
+				throw new IllegalArgumentException("the given bytes are not a compressed point of this curve");
+			}
+			BigInteger z = halfTrace(betaValue);
+			if (z.testBit(0) != (encoding[0] == 0x03)){
+				z = z.flipBit(0);
+			}
+			y = x.multiply(curve.fromBigInteger(z));
+		}
+		
+		//The point is on the curve, there is no need to check it again.
+		return (ECElement) generateElement(false, xValue, y.toBigInteger());
+	}
+	
+	/*
+	 * Returns the half-trace of the given element of F2m, for odd m: the sum of x^(2^(2i)) for i = 0, ..., (m-1)/2.
+	 */
+	private BigInteger halfTrace(BigInteger fieldElement){
+		BigInteger[] table = halfTraceTable;
+		if (table == null){
+			table = computeHalfTraceTable();
+			halfTraceTable = table;
+		}
+		BigInteger result = BigInteger.ZERO;
+		for (int i = fieldElement.getLowestSetBit(); i >= 0 && i < table.length; i++){
+			if (fieldElement.testBit(i)){
+				result = result.xor(table[i]);
+			}
+		}
+		return result;
+	}
+	
+	/*
+	 * Computes the half-traces of the basis elements t^0, ..., t^(m-1). 
+	 * Since the half-trace commutes with squaring, H(t^2i) = H(t^i)^2 and only the odd powers need the full computation.
+	 */
+	private BigInteger[] computeHalfTraceTable(){
+		ECCurve curve = getCompactEncodingCurve();
+		int m = curve.getFieldSize();
+		ECFieldElement[] table = new ECFieldElement[m];
+		for (int i = 0; i < m; i++){
+			if (i % 2 == 0 && i > 0){
+				table[i] = table[i / 2].square();
+				continue;
+			}
+			ECFieldElement power = curve.fromBigInteger(BigInteger.ONE.shiftLeft(i));
+			ECFieldElement sum = power;
+			for (int j = 0; j < (m - 1) / 2; j++){
+				power = power.square().square();
+				sum = sum.add(power);
+			}
+			table[i] = sum;
+		}
+		
+		BigInteger[] result = new BigInteger[m];
+		for (int i = 0; i < m; i++){
+			result[i] = table[i].toBigInteger();
+		}
+		return result;
+	}
+	
+	/*
+	 * Checks that a point that is known to be on the curve is in the prime order sub-group, using the cheapest test the cofactor allows.
+	 */
+	private boolean isSubGroupMember(ECElement element){
+		if (element.isInfinity()){
+			return true;
+		}
+		
+		BigInteger h = ((ECGroupParams) groupParams).getCofactor();
+		
+		//For a binary curve y^2 + xy = x^3 + ax^2 + b, a point is in 2E if and only if Tr(x) = Tr(a). 
+		//This takes a few word operations instead of an exponentiation.
+		//A binary curve always has a point of order 2, so its cofactor is even and the check is needed even if the 
+		//parameters declare a cofactor of 1 (as the B-curves do in the NIST file). If the cofactor is 2, 2E is exactly the sub-group of order q.
+		if (groupParams instanceof ECF2mGroupParams){
+			int traceOfA = trace(((ECGroupParams) groupParams).getA());
+			if (trace(element.getX()) != traceOfA){
+				return false;
+			}
+			if (h.compareTo(BigInteger.valueOf(2)) <= 0){
+				return true;
+			}
+			
+			//If the cofactor is 4 (as in the Koblitz curves K-233 and up), the points of order 2^k form a cyclic group, 
+			//so a point P in 2E is in 4E if and only if its halves are in 2E. The halves Q = (u, v) of P = (x, y) satisfy 
+			//u^2 = y + (l + 1)x where l is a solution of l^2 + l = x + a, and Tr(u) = Tr(u^2), so there is no need to compute u.
+			if (h.equals(BigInteger.valueOf(4)) && ((ECF2mGroupParams) groupParams).getM() % 2 == 1){
+				ECCurve curve = getCompactEncodingCurve();
+				ECFieldElement x = curve.fromBigInteger(element.getX());
+				ECFieldElement lambda = curve.fromBigInteger(halfTrace(x.add(curve.getA()).toBigInteger()));
+				ECFieldElement uSquare = curve.fromBigInteger(element.getY()).add(lambda.addOne().multiply(x));
+				return trace(uSquare.toBigInteger()) == traceOfA;
+			}
+		}
+		
+		//If the cofactor is 1 the sub-group is the whole curve.
+		if (h.equals(BigInteger.ONE)){
+			return true;
+		}
+		
+		//Otherwise, check that q*P is the infinity with plain double and add. 
+		//The BC multipliers assume that the point is in the sub-group (for example, the Koblitz multiplier reduces the scalar), 
+		//so they cannot be used for this check.
+		ECPoint point = getCompactEncodingCurve().createPoint(element.getX(), element.getY());
+		ECPoint result = point.getCurve().getInfinity();
+		BigInteger q = getOrder();
+		for (int i = q.bitLength() - 1; i >= 0; i--){
+			result = result.twice();
+			if (q.testBit(i)){
+				result = result.add(point);
+			}
+		}
+		return result.isInfinity();
+	}
+	
+	/*
+	 * Returns the trace of the given element of F2m, 0 or 1.
+	 * The trace is linear, so it is the parity of the bits of the element that have trace 1.
+	 */
+	private int trace(BigInteger fieldElement){
+		BigInteger mask = traceMask;
+		if (mask == null){
+			mask = computeTraceMask();
+			traceMask = mask;
+		}
+		return fieldElement.and(mask).bitCount() & 1;
+	}
+	
+	/*
+	 * Computes the traces of the basis elements t^0, ..., t^(m-1) of the field F2m[t]/f(t).
+	 * The trace of t^i is the i-th power sum of the roots of f. Since f has at most five terms, 
+	 * Newton's identities give all the power sums in O(m) operations:
+	 * s_i = sum of s_(i-j) for every coefficient t^(m-j) of f with j < i, plus i when t^(m-i) is a coefficient of f (in GF(2)).
+	 */
+	private BigInteger computeTraceMask(){
+		GroupParams params = groupParams;
+		if (params instanceof ECF2mKoblitz){
+			params = ((ECF2mKoblitz) params).getCurve();
+		}
+		int m = ((ECF2mGroupParams) params).getM();
+		int[] middleTerms;
+		if (params instanceof ECF2mTrinomialBasis){
+			middleTerms = new int[]{((ECF2mTrinomialBasis) params).getK1()};
+		} else {
+			ECF2mPentanomialBasis pentaParams = (ECF2mPentanomialBasis) params;
+			middleTerms = new int[]{pentaParams.getK1(), pentaParams.getK2(), pentaParams.getK3()};
+		}
+		
+		boolean[] s = new boolean[m];
+		//The trace of 1 is m mod 2.
+		s[0] = (m % 2 == 1);
+		BigInteger mask = s[0] ? BigInteger.ONE : BigInteger.ZERO;
+		for (int i = 1; i < m; i++){
+			boolean sum = false;
+			for (int k : middleTerms){
+				int j = m - k;
+				if (j < i){
+					sum ^= s[i - j];
+				} else if (j == i && i % 2 == 1){
+					sum = !sum;
+				}
+			}
+			s[i] = sum;
+			if (sum){
+				mask = mask.setBit(i);
+			}
+		}
+		return mask;
+	}
+	
+	/*
+	 * Returns the BC curve that is used to compress and decompress points.
+	 */
+	private ECCurve getCompactEncodingCurve(){
+		ECCurve curve = compactEncodingCurve;
+		if (curve == null){
+			curve = createCompactEncodingCurve();
+			compactEncodingCurve = curve;
+		}
+		return curve;
+	}
+	
+	/**
+	 * Creates a BC curve with the parameters of this group. It is used only for the compression and decompression of points, 
+	 * so it is used for all the implementations of elliptic curves, including the native ones.<p>
+	 * Implementations that already have a BC curve can return it instead.
+	 * @return a BC curve with the parameters of this group.
+	 */
+	protected ECCurve createCompactEncodingCurve(){
+		if (groupParams instanceof ECFpGroupParams){
+			ECFpGroupParams fpParams = (ECFpGroupParams) groupParams;
+			//The coefficient a may be given as a negative number (for example, -3 in the NIST curves).
+			return new ECCurve.Fp(fpParams.getP(), fpParams.getA().mod(fpParams.getP()), fpParams.getB());
+		}
+		
+		GroupParams params = groupParams;
+		if (params instanceof ECF2mKoblitz){
+			params = ((ECF2mKoblitz) params).getCurve();
+		}
+		if (params instanceof ECF2mTrinomialBasis){
+			ECF2mTrinomialBasis triParams = (ECF2mTrinomialBasis) params;
+			return new ECCurve.F2m(triParams.getM(), triParams.getK1(), triParams.getA(), triParams.getB());
+		}
+		//we assume that if it's not trinomial then it's pentanomial.
+		ECF2mPentanomialBasis pentaParams = (ECF2mPentanomialBasis) params;
+		return new ECCurve.F2m(pentaParams.getM(), pentaParams.getK1(), pentaParams.getK2(), pentaParams.getK3(), pentaParams.getA(), pentaParams.getB());
+	}
 }
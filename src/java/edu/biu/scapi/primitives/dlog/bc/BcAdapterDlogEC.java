@@ -201,6 +201,14 @@ public abstract class BcAdapterDlogEC extends DlogGroupEC
 		return computeLL(groupElements, exponentiations);
 	}
 	
+	/**
+	 * This group already holds a BC curve, so there is no need to create another one for the compact encoding.
+	 */
+	@Override
+	protected ECCurve createCompactEncodingCurve(){
+		return curve;
+	}
+	
 	/*
 	 * Each of the concrete classes implements this function.
 	 * BcDlogECFp creates an ECPoint.Fp
@@ -27,9 +27,12 @@
 package edu.biu.scapi.primitives.dlog.cryptopp;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
+import org.bouncycastle.util.BigIntegers;
+
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.DlogGroupAbs;
 import edu.biu.scapi.primitives.dlog.DlogZpSafePrime;
@@ -494,6 +497,44 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 		}
 		return ((ZpElement) groupElement).getElementValue().toByteArray();		
 	}
+	
+	/**
+	 * The compact encoding of an element is its value as an unsigned big-endian number in the byte length of p.
+	 * @return the byte length of p.
+	 */
+	public int getCompactElementSize(){
+		return (((ZpGroupParams) groupParams).getP().bitLength() + 7) / 8;
+	}
+	
+	/**
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#encodeElement(GroupElement, ByteBuffer)
+	 */
+	public void encodeElement(GroupElement groupElement, ByteBuffer buffer){
+		if (!(groupElement instanceof ZpSafePrimeElementCryptoPp)){
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		buffer.put(BigIntegers.asUnsignedByteArray(getCompactElementSize(), ((ZpElement) groupElement).getElementValue()));
+	}
+	
+	/**
+	 * The elements of this group are the quadratic residues mod p. 
+	 * Instead of the exponentiation x^q mod p, the membership check computes the Legendre symbol of x, which is much cheaper.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#decodeElement(boolean, ByteBuffer)
+	 */
+	public GroupElement decodeElement(boolean bCheckMembership, ByteBuffer buffer){
+		byte[] encoding = new byte[getCompactElementSize()];
+		buffer.get(encoding);
+		
+		BigInteger p = ((ZpGroupParams) groupParams).getP();
+		BigInteger x = new BigInteger(1, encoding);
+		if (x.signum() == 0 || x.compareTo(p) >= 0){
+			throw new IllegalArgumentException("the given bytes are not an element of Zp*");
+		}
+		if (bCheckMembership && MathAlgorithms.jacobiSymbol(x, p) != 1){
+			throw new IllegalArgumentException("the given encoding is not a member of this group");
+		}
+		return new ZpSafePrimeElementCryptoPp(x, p, false);
+	}
 
 	// upload CryptoPP library
 	static {
@@ -30,7 +30,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import edu.biu.scapi.primitives.dlog.DlogEllipticCurve;
 import edu.biu.scapi.primitives.dlog.DlogGroupEC;
@@ -51,8 +52,9 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	
 	//Class members:
 	protected int window = 0;
-	protected long mip; ///MIRACL pointer
-	protected HashMap <GroupElement, Long> exponentiationsMap; // Map that holds a pointer to the precomputed values of exponentiating a given group element (the base) 
+	private volatile ThreadLocal<Long> threadMip;		//The MIRACL pointer of each thread. Miracl instances are not thread safe, so each thread uses its own instance.
+	private volatile ConcurrentLinkedQueue<Long> allMips;	//All the MIRACL pointers that were created by this group, used to delete them.
+	protected ConcurrentHashMap <GroupElement, Long> exponentiationsMap; // Map that holds a pointer to the precomputed values of exponentiating a given group element (the base) 
 																//calculated in Miracl's native code
 	
 	
@@ -69,20 +71,39 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	
 	public MiraclAdapterDlogEC(String fileName, String curveName, SecureRandom random) throws IOException {
 		super(fileName, curveName, random);
-		exponentiationsMap = new HashMap <GroupElement, Long>();
+		exponentiationsMap = new ConcurrentHashMap <GroupElement, Long>();
+		//Sets up the Miracl instance of the constructing thread before the group can be shared.
+		getMip();
 	}
 
 	protected abstract boolean basicAndInfinityChecksForExpForPrecomputedValues(GroupElement base);
 	protected abstract long initExponentiateWithPrecomputedValues(GroupElement baseElement, BigInteger exponent, int window, int maxBits);
 	protected abstract GroupElement computeExponentiateWithPrecomputedValues(long ebrickPointer, BigInteger exponent);
+	protected abstract void initCurve(long mip);
 	
 	/*
-	 * 
+	 * Returns the Miracl instance of the calling thread. 
+	 * In case this is the first call of the thread, a new instance is created and the curve of this group is set in it.
 	 * @return mip - miracl pointer
 	 */
 	public long getMip(){
-		if (mip==0)
+		//The first call is done by the super constructor, before the initializers of this class run, so the members can not 
+		//be final. They are created once under a lock and published by the volatile write to threadMip.
+		if (threadMip == null){
+			synchronized (this){
+				if (threadMip == null){
+					allMips = new ConcurrentLinkedQueue<Long>();
+					threadMip = new ThreadLocal<Long>();
+				}
+			}
+		}
+		Long mip = threadMip.get();
+		if (mip == null){
 			mip = createMip();
+			initCurve(mip);
+			allMips.add(mip);
+			threadMip.set(mip);
+		}
 		return mip;
 	}
 	
@@ -108,8 +129,14 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 			//the actual pre-computation is performed by Miracl. The call to this function returns a pointer to an "ebrick"
 			//structure created and held by the Miracl code. We save this pointer in the map for the current base and pass it on
 			//to the actual computation of the exponentiation in the step below.
-			ebrickPointer = initExponentiateWithPrecomputedValues(base, exponent, getWindow(), getOrder().bitLength());
-			exponentiationsMap.put(base, ebrickPointer);
+			//Only the creation is synchronized, so that two threads will not compute the same ebrick. Reading the map does not block.
+			synchronized (exponentiationsMap) {
+				ebrickPointer = exponentiationsMap.get(base);
+				if(ebrickPointer == null){
+					ebrickPointer = initExponentiateWithPrecomputedValues(base, exponent, getWindow(), getOrder().bitLength());
+					exponentiationsMap.put(base, ebrickPointer);
+				}
+			}
 		}
 		//At this stage we have a pointer to the ebrick pointer in native code, and we pass it on to compute base^exponent and obtain the resulting Group Element
 		return computeExponentiateWithPrecomputedValues(ebrickPointer, exponent);
@@ -136,8 +163,12 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	 */
 	public void finalize() throws Throwable {
 
-		// delete from the dll the dynamic allocation of MIRACL pointer.
-		deleteMip(mip);
+		// delete from the dll the dynamic allocation of the MIRACL pointers of all threads.
+		if (allMips != null){
+			for (Long mip : allMips){
+				deleteMip(mip);
+			}
+		}
 
 		super.finalize();
 	}
@@ -120,31 +120,40 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 	}
 
 	private void createUnderlyingCurveAndGenerator(){
-		BigInteger x;
-		BigInteger y;
-		GroupParams params = groupParams;
-		if (groupParams instanceof ECF2mKoblitz){
-			params = ((ECF2mKoblitz) groupParams).getCurve();
-		}
+		ECF2mGroupParams params = getCurveParams();
+
+		// create the generator. The curve is created in the Miracl instance of this thread when the generator asks for it.
+		// here we assume that (x,y) are the coordinates of a point that is indeed a generator
+		generator = new ECF2mPointMiracl(params.getXg(), params.getYg(), this);
+	}
+	
+	/**
+	 * Creates the curve in the given Miracl instance.
+	 * @param mip A new Miracl instance of the current thread.
+	 */
+	protected void initCurve(long mip){
+		ECF2mGroupParams params = getCurveParams();
 		if(params instanceof ECF2mTrinomialBasis){
 			ECF2mTrinomialBasis triParams = (ECF2mTrinomialBasis)params;
 			int k2 = 0;
 			int k3 = 0;
-			initF2mCurve(getMip(), triParams.getM(), triParams.getK1(), k2, k3, triParams.getA().toByteArray(), triParams.getB().toByteArray());
-			x = triParams.getXg();
-			y = triParams.getYg();
+			initF2mCurve(mip, triParams.getM(), triParams.getK1(), k2, k3, triParams.getA().toByteArray(), triParams.getB().toByteArray());
 		}else{
 			//we assume that if it's not trinomial then it's pentanomial. We do not check.
 			ECF2mPentanomialBasis pentaParams = (ECF2mPentanomialBasis) params;
 			//Miracl defines the parameters k1, k2, k3 of pentanomial curves in the opposite way to the way we hold them. 
-			initF2mCurve(getMip(), pentaParams.getM(), pentaParams.getK3(), pentaParams.getK2(), pentaParams.getK1(), pentaParams.getA().toByteArray(), pentaParams.getB().toByteArray());
-			x = pentaParams.getXg();
-			y = pentaParams.getYg();
+			initF2mCurve(mip, pentaParams.getM(), pentaParams.getK3(), pentaParams.getK2(), pentaParams.getK1(), pentaParams.getA().toByteArray(), pentaParams.getB().toByteArray());
 		}
-
-		// create the generator
-		// here we assume that (x,y) are the coordinates of a point that is indeed a generator
-		generator = new ECF2mPointMiracl(x, y, this);
+	}
+	
+	/**
+	 * Returns the parameters of the underlying curve. In case of Koblitz curve these are the parameters of the curve it is defined on.
+	 */
+	private ECF2mGroupParams getCurveParams(){
+		if (groupParams instanceof ECF2mKoblitz){
+			return ((ECF2mKoblitz) groupParams).getCurve();
+		}
+		return (ECF2mGroupParams) groupParams;
 	}
 
 	/**
@@ -174,7 +183,7 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 
 		long point = ((ECF2mPointMiracl) groupElement).getPoint();
 		// call to native inverse function
-		long result = invertF2mPoint(mip, point);
+		long result = invertF2mPoint(getMip(), point);
 		// build a ECF2mPointMiracl element from the result value
 		return new ECF2mPointMiracl(result, this);
 
@@ -210,7 +219,7 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		long point2 = ((ECF2mPointMiracl) groupElement2).getPoint();
 
 		// call to native multiply function
-		long result = multiplyF2mPoints(mip, point1, point2);
+		long result = multiplyF2mPoints(getMip(), point1, point2);
 		// build a ECF2mPointMiracl element from the result value
 		return new ECF2mPointMiracl(result, this);
 
@@ -243,7 +252,7 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		
 		long point = ((ECF2mPointMiracl) base).getPoint();
 		// call to native exponentiate function
-		long result = exponentiateF2mPoint(mip, point, exponent.toByteArray());
+		long result = exponentiateF2mPoint(getMip(), point, exponent.toByteArray());
 		// build a ECF2mPointMiracl element from the result value
 		return new ECF2mPointMiracl(result, this);
 
@@ -288,7 +297,7 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		}
 
 		// call to native exponentiate function
-		long result = simultaneousMultiplyF2m(mip, nativePoints, exponents);
+		long result = simultaneousMultiplyF2m(getMip(), nativePoints, exponents);
 		// build a ECF2mPointMiracl element from the result value
 		return new ECF2mPointMiracl(result, this);
 	}
@@ -371,14 +380,14 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		// 1.	Checking that the point is on the curve, performed by checkCurveMembership
 		// 2.	Checking that the point is in the Dlog group,performed by checkSubGroupMembership
 
-		boolean valid = isF2mMember(mip, point.getPoint());
+		boolean valid = isF2mMember(getMip(), point.getPoint());
 		valid = valid && util.checkSubGroupMembership(this, point);
 
 		return valid;
 	}
 
 	public ECElement getInfinity() {
-		long infinity = createInfinityF2mPoint(mip);
+		long infinity = createInfinityF2mPoint(getMip());
 		return new ECF2mPointMiracl(infinity, this);
 	}
 
@@ -487,9 +496,9 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		//createECF2mObject(long mip, int m, int k1, int k2, int k3, byte[] a, byte[] b);
 		//initF2mExponentiateWithPrecomputedValues(long mip, int m, int k1, int k2, int k3, byte[] a, byte[] b, long base, int window, int maxBits);
 		if (trinomial) {
-			ebrick2 = initF2mExponentiateWithPrecomputedValues(mip, m, k1, 0, 0, a.toByteArray(), b.toByteArray(),((ECF2mPointMiracl)baseElement).getPoint(),window, maxBits );
+			ebrick2 = initF2mExponentiateWithPrecomputedValues(getMip(), m, k1, 0, 0, a.toByteArray(), b.toByteArray(),((ECF2mPointMiracl)baseElement).getPoint(),window, maxBits );
 		} else{
-			ebrick2 = initF2mExponentiateWithPrecomputedValues(mip, m, k3, k2, k1, a.toByteArray(), b.toByteArray(),((ECF2mPointMiracl)baseElement).getPoint(),window, maxBits);
+			ebrick2 = initF2mExponentiateWithPrecomputedValues(getMip(), m, k3, k2, k1, a.toByteArray(), b.toByteArray(),((ECF2mPointMiracl)baseElement).getPoint(),window, maxBits);
 		}
 		return ebrick2;
 	}
@@ -499,7 +508,7 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 	@Override
 	protected GroupElement computeExponentiateWithPrecomputedValues(long ebrickPointer, BigInteger exponent) {
 		// call to native exponentiate function
-		long result = computeF2mExponentiateWithPrecomputedValues(mip, ebrickPointer, exponent.toByteArray());
+		long result = computeF2mExponentiateWithPrecomputedValues(getMip(), ebrickPointer, exponent.toByteArray());
 
 		// build a ECF2mPointMiracl element from the result value
 		return new ECF2mPointMiracl(result, this);
@@ -108,13 +108,20 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 	private void createUnderlyingCurveAndGenerator(GroupParams params){
 		//There is no need to check that the params passed are an instance of ECFpGroupParams since this function is only used by SCAPI.
 		ECFpGroupParams fpParams = (ECFpGroupParams)params;
-		// create the ECCurve
-		BigInteger p = fpParams.getP();
-		initFpCurve(getMip(), p.toByteArray(), fpParams.getA().mod(p).toByteArray(), fpParams.getB().toByteArray());
-		// create the generator
+		// create the generator. The ECCurve is created in the Miracl instance of this thread when the generator asks for it.
 		generator = new ECFpPointMiracl(fpParams.getXg(), fpParams.getYg(), this);
 	}
 	
+	/**
+	 * Creates the ECCurve in the given Miracl instance.
+	 * @param mip A new Miracl instance of the current thread.
+	 */
+	protected void initCurve(long mip){
+		ECFpGroupParams fpParams = (ECFpGroupParams)groupParams;
+		BigInteger p = fpParams.getP();
+		initFpCurve(mip, p.toByteArray(), fpParams.getA().mod(p).toByteArray(), fpParams.getB().toByteArray());
+	}
+	
 	
 	/**
 	 * @return the type of the group - ECFp
@@ -143,7 +150,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 
 		long point = ((ECFpPointMiracl) groupElement).getPoint();
 		// call the native inverse function
-		long result = invertFpPoint(mip, point);
+		long result = invertFpPoint(getMip(), point);
 		// build a ECFpPointMiracl element from the result value
 		return new ECFpPointMiracl(result, this);
 
@@ -179,7 +186,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 		long point2 = ((ECFpPointMiracl) groupElement2).getPoint();
 
 		// call the native multiply function
-		long result = multiplyFpPoints(mip, point1, point2);
+		long result = multiplyFpPoints(getMip(), point1, point2);
 		// build a ECFpPointMiracl element from the result value
 		return new ECFpPointMiracl(result, this);
 
@@ -212,7 +219,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 				
 		long point = ((ECFpPointMiracl) base).getPoint();
 		// call the native exponentiate function
-		long result = exponentiateFpPoint(mip, point, exponent.toByteArray());
+		long result = exponentiateFpPoint(getMip(), point, exponent.toByteArray());
 		// build a ECFpPointMiracl element from the result value
 		return new ECFpPointMiracl(result, this);
 
@@ -250,7 +257,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 		}
 
 		// call the native simultaneousMultiplyFp function
-		long result = simultaneousMultiplyFp(mip, nativePoints, exponents);
+		long result = simultaneousMultiplyFp(getMip(), nativePoints, exponents);
 		// build a ECF2mPointMiracl element from the result value
 		return new ECFpPointMiracl(result, this);
 	}
@@ -331,7 +338,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 	}
 
 	public ECElement getInfinity() {
-		long infinity = createInfinityFpPoint(mip);
+		long infinity = createInfinityFpPoint(getMip());
 		return new ECFpPointMiracl(infinity, this);
 	}
 
@@ -349,7 +356,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 	 */
 	public GroupElement encodeByteArrayToGroupElement(byte[] binaryString) {
 		
-		long point = encodeByteArrayToPoint(mip, binaryString, k);
+		long point = encodeByteArrayToPoint(getMip(), binaryString, k);
 		
 		if (point == 0)
 			return null;
@@ -431,7 +438,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 	protected long initExponentiateWithPrecomputedValues(GroupElement baseElement, BigInteger exponent, int window, int maxBits) {
 		
 		ECFpGroupParams params = (ECFpGroupParams) getGroupParams();
-		return initFpExponentiateWithPrecomputedValues(mip, params.getP().toByteArray(), params.getA().mod(params.getP()).toByteArray(), params.getB().toByteArray(),
+		return initFpExponentiateWithPrecomputedValues(getMip(), params.getP().toByteArray(), params.getA().mod(params.getP()).toByteArray(), params.getB().toByteArray(),
 				((ECFpPointMiracl)baseElement).getPoint() ,exponent.toByteArray(), window, maxBits);
 	}
 	/* (non-Javadoc)
@@ -442,7 +449,7 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 	@Override
 	protected GroupElement computeExponentiateWithPrecomputedValues(	long ebrickPointer, BigInteger exponent) {
 		//Perform the calculation in the native code
-		long result = computeFpExponentiateWithPrecomputedValues(mip, ebrickPointer, exponent.toByteArray());
+		long result = computeFpExponentiateWithPrecomputedValues(getMip(), ebrickPointer, exponent.toByteArray());
 		
 		//Build a ECFpPointMiracl element from the result value
 		return new ECFpPointMiracl(result, this);
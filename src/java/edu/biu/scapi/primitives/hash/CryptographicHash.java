@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.primitives.hash;
 
+import java.nio.ByteBuffer;
+
 
 /**
  * General interface for CryptographicHash. Every concrete class should implement this interface. <p>
@@ -61,4 +63,19 @@ public interface CryptographicHash {
 	 * @param outOffset the offset which to put the result bytes from
 	 */
 	public void hashFinal(byte[] out, int outOffset);
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * The position of the buffer is set to its limit.<p>
+	 * Native implementations read direct buffers in place, without copying them to the Java heap.
+	 * @param in input buffer
+	 */
+	public void update(ByteBuffer in);
+	
+	/** 
+	 * Completes the hash computation and puts the result in the given buffer, starting at its position. 
+	 * The position of the buffer is advanced by the size of the hashed message.
+	 * @param out the output buffer
+	 */
+	public void hashFinal(ByteBuffer out);
 }
@@ -26,9 +26,12 @@
 
 package edu.biu.scapi.primitives.hash.bc;
 
+import java.nio.ByteBuffer;
+
 import org.bouncycastle.crypto.Digest;
 
 import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 /** 
  * A general adapter class of hash for Bouncy Castle. <p>
@@ -110,4 +113,21 @@ public abstract class BcHash implements CryptographicHash {
 		//will update the out array.
 		digest.doFinal(out, outOffset);
 	}
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * The backing array of a heap buffer is passed to the digest without copying.
+	 * @param in input buffer
+	 */
+	public void update(ByteBuffer in) {
+		ByteBufferAdapter.update(this, in);
+	}
+
+	/** 
+	 * Completes the hash computation and puts the result in the given buffer, starting at its position.
+	 * @param out the output buffer
+	 */
+	public void hashFinal(ByteBuffer out) {
+		ByteBufferAdapter.hashFinal(this, out);
+	}
 }
@@ -26,7 +26,11 @@
 
 package edu.biu.scapi.primitives.hash.cryptopp;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 /**
  * A general adapter class of hash for Crypto++. <p>
@@ -54,10 +58,16 @@ public abstract class CryptoPpHash implements CryptographicHash {
 	private native String algName(long ptr);
 	
 	//updates the message to the hash
-	private native void updateHash(long ptr, byte[] input, long len);
+	private native void updateHash(long ptr, byte[] input, int offset, int len);
+	
+	//updates the message to the hash with bytes of a direct buffer
+	private native void updateHashDirect(long ptr, ByteBuffer input, int offset, int len);
 	
 	//finishes the hash computation
-	private native void finalHash(long ptr, byte[] output);
+	private native void finalHash(long ptr, byte[] output, int offset);
+	
+	//finishes the hash computation and puts the result in a direct buffer
+	private native void finalHashDirect(long ptr, ByteBuffer output, int offset);
 	
 	//returns the size of the hashed msg
 	private native int getDigestSize(long ptr);
@@ -112,17 +122,25 @@ public abstract class CryptoPpHash implements CryptographicHash {
 			throw new ArrayIndexOutOfBoundsException("wrong length for the given input buffer");
 		}
 		
-		//the dll function does the update from offset 0.
-		//if the given offset is greater than 0, copies the relevant bytes to a new array and send it to the dll function.
-		if (inOffset>0){
-			byte[] input = new byte[inLen];
-			System.arraycopy(in, inOffset, input, 0, inLen);
-			//calls the native function
-			updateHash(collHashPtr, input, inLen);
-		}else {
+		//calls the native function. The dll reads the array in place, starting at the given offset
+		updateHash(collHashPtr, in, inOffset, inLen);
+	}
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash.<p>
+	 * A direct buffer is read by the dll as is, other buffers are passed through their backing array.
+	 * @param in input buffer
+	 */
+	public void update(ByteBuffer in) {
 		
-			//if the offset is 0 - calls the native function with the given array
-			updateHash(collHashPtr, in, inLen);
+		if (in.isDirect()){
+			int len = in.remaining();
+			if (len > 0){
+				updateHashDirect(collHashPtr, in, in.position(), len);
+			}
+			in.position(in.limit());
+		} else {
+			ByteBufferAdapter.update(this, in);
 		}
 	}
 
@@ -138,21 +156,26 @@ public abstract class CryptoPpHash implements CryptographicHash {
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		//if the offset is greater than 0 - puts the result in a new array and copies it to the out array starting at the outOffset
-		if (outOffset>0){
-			int length = getDigestSize(collHashPtr);
-			byte[] tempOut = new byte[length];
-			//calls the native function finalHash with the temp array
-			finalHash(collHashPtr, tempOut);
-			//copies the hash result to the out array in the right place
-			System.arraycopy(tempOut, 0, out, outOffset, length);
-			
-		}else{
-			//calls the native function final. 
-			finalHash(collHashPtr, out);
-		}
+		//calls the native function final. The dll puts the result in the out array starting at the outOffset
+		finalHash(collHashPtr, out, outOffset);
+	}
+	
+	/** 
+	 * Completes the hash computation and puts the result in the given buffer, starting at its position.<p>
+	 * A direct buffer is written by the dll as is, other buffers are written through their backing array.
+	 * @param out the output buffer
+	 */
+	public void hashFinal(ByteBuffer out){
 		
-
+		if (out.isDirect() && !out.isReadOnly()){
+			if (out.remaining() < hashSize){
+				throw new BufferOverflowException();
+			}
+			finalHashDirect(collHashPtr, out, out.position());
+			out.position(out.position() + hashSize);
+		} else {
+			ByteBufferAdapter.hashFinal(this, out);
+		}
 	}
 
 	/** 
@@ -24,7 +24,11 @@
 */
 package edu.biu.scapi.primitives.hash.openSSL;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 /**
  * A general adapter class of hash for OpenSSL. <p>
@@ -53,10 +57,16 @@ public class OpenSSLHash implements CryptographicHash {
 	private native String algName(long ptr);
 	
 	//Updates the message to the hash.
-	private native void updateHash(long ptr, byte[] input, long len);
+	private native void updateHash(long ptr, byte[] input, int offset, int len);
+	
+	//Updates the message to the hash with bytes of a direct buffer, without copying them.
+	private native void updateHashDirect(long ptr, ByteBuffer input, int offset, int len);
 	
 	//Finishes the hash computation.
-	private native void finalHash(long ptr, byte[] output);
+	private native void finalHash(long ptr, byte[] output, int offset);
+	
+	//Finishes the hash computation and puts the result in a direct buffer.
+	private native void finalHashDirect(long ptr, ByteBuffer output, int offset);
 	
 	//Returns the size of the hashed msg.
 	private native int getDigestSize(long ptr);
@@ -108,17 +118,25 @@ public class OpenSSLHash implements CryptographicHash {
 			throw new ArrayIndexOutOfBoundsException("wrong length for the given input buffer");
 		}
 		
-		//The dll function does the update from offset 0.
-		//If the given offset is greater than 0, copy the relevant bytes to a new array and send it to the dll function.
-		if (inOffset>0){
-			byte[] input = new byte[inLen];
-			System.arraycopy(in, inOffset, input, 0, inLen);
-			//Call the native function
-			updateHash(hash, input, inLen);
-		}else {
+		//Call the native function. The dll reads the array in place, starting at the given offset.
+		updateHash(hash, in, inOffset, inLen);
+	}
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash.<p>
+	 * Direct buffers are passed to the native hash as they are. Other buffers are passed through their backing array. 
+	 * @param in input buffer.
+	 */
+	public void update(ByteBuffer in) {
 		
-			//If the offset is 0 - calls the native function with the given array.
-			updateHash(hash, in, inLen);
+		if (in.isDirect()){
+			int len = in.remaining();
+			if (len > 0){
+				updateHashDirect(hash, in, in.position(), len);
+			}
+			in.position(in.limit());
+		} else {
+			ByteBufferAdapter.update(this, in);
 		}
 	}
 
@@ -134,21 +152,26 @@ public class OpenSSLHash implements CryptographicHash {
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		//If the offset is greater than 0 - puts the result in a new array and copies it to the out array starting at the outOffset.
-		if (outOffset>0){
-			int length = getDigestSize(hash);
-			byte[] tempOut = new byte[length];
-			//Call the native function finalHash with the temp array.
-			finalHash(hash, tempOut);
-			//Copy the hash result to the out array in the right place.
-			System.arraycopy(tempOut, 0, out, outOffset, length);
-			
-		}else{
-			//Call the native function final. 
-			finalHash(hash, out);
-		}
+		//Call the native function final. The dll puts the result in the out array starting at the outOffset.
+		finalHash(hash, out, outOffset);
+	}
+	
+	/** 
+	 * Completes the hash computation and puts the result in the given buffer, starting at its position.<p>
+	 * Direct buffers are written by the native hash as they are. Other buffers are written through their backing array.
+	 * @param out the output buffer.
+	 */
+	public void hashFinal(ByteBuffer out){
 		
-
+		if (out.isDirect() && !out.isReadOnly()){
+			if (out.remaining() < hashSize){
+				throw new BufferOverflowException();
+			}
+			finalHashDirect(hash, out, out.position());
+			out.position(out.position() + hashSize);
+		} else {
+			ByteBufferAdapter.hashFinal(this, out);
+		}
 	}
 
 	/** 
@@ -26,11 +26,14 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 
+import edu.biu.scapi.tools.ByteBufferAdapter;
+
 /** 
  * This class implements some common functionality of PrpFixed by having an instance of prfFixed.
  * 
@@ -166,5 +169,14 @@ public abstract class PrpFromPrfFixed implements PrpFixed {
 		
 	}
 	
-	
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+	}
 }
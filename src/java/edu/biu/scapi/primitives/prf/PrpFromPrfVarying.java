@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -33,6 +34,8 @@ import java.security.spec.InvalidParameterSpecException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 
+import edu.biu.scapi.tools.ByteBufferAdapter;
+
 /** 
  * This class implements some common functionality of PrpVaryingIOLength by having an instance of prfVaryingIOLength.
  * 
@@ -144,5 +147,14 @@ public abstract class PrpFromPrfVarying implements PrpVaryingIOLength {
 		return prfVaryingIOLength.generateKey(keySize);
 	}
 	
-	
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+	}
 }
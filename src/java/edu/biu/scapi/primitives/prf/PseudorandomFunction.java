@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -128,6 +129,17 @@ public interface PseudorandomFunction {
 	 * @throws IllegalBlockSizeException 
 	 */
 	public void computeBlock(byte[] inBytes, int inOffset, int inLen, byte[] outBytes, int outOffset) throws IllegalBlockSizeException;
+	
+	/**
+	 * Computes the function using the secret key. <p>
+	 * The input is the remaining bytes of the input buffer and the output length is the number of remaining bytes in the output buffer,
+	 * as in computeBlock(inBytes, inOff, inLen, outBytes, outOff, outLen). The positions of both buffers are set to their limits.<p>
+	 * Native implementations read and write direct buffers in place, without copying them to the Java heap.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException;
 
 	
 }
@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.bc;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -42,6 +43,8 @@ import org.bouncycastle.crypto.macs.HMac;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.prf.Hmac;
+import edu.biu.scapi.tools.ByteBufferAdapter;
+import edu.biu.scapi.tools.ParallelBatch;
 import edu.biu.scapi.tools.Factories.BCFactory;
 import edu.biu.scapi.tools.Translation.BCParametersTranslator;
 
@@ -56,6 +59,8 @@ public final class BcHMAC implements Hmac {
 	 * Our class Hmac is an adapter class for the adaptee class HMac of BC.  
 	 */
 	private HMac hMac;							//The underlying wrapped hmac of BC.
+	private String hashName;					//The name of the underlying hash. Used to create more hmacs in the batch computation.
+	private CipherParameters keyParams;			//The key that was given to the underlying hmac.
 	private boolean isKeySet = false;			//until init is called set to false.
 	private SecureRandom random;				//source of randomness used in key generation
 
@@ -122,6 +127,7 @@ public final class BcHMAC implements Hmac {
 	private void construct(String hashName, SecureRandom random) throws FactoriesException{
 		//passes a digest to the hmac.
 		hMac = new HMac(BCFactory.getInstance().getDigest(hashName));
+		this.hashName = hashName;
 		//sets the random
 		this.random = random;
 		// Get 1024 random bits, this causes the random object to seed itself. Since the seeding might be a time-consuming operation 
@@ -142,6 +148,7 @@ public final class BcHMAC implements Hmac {
 		
 		//passes the key parameter to bc hmac
 		hMac.init(bcParams);
+		keyParams = bcParams;
 		
 		//sets flag to true. Object is initializing.
 		isKeySet = true;
@@ -339,6 +346,45 @@ public final class BcHMAC implements Hmac {
 		return equal;	
 	}
 	
+	/**
+	 * Computes the hmac operation on each one of the given messages.<p>
+	 * The messages are split between the available processors. Each thread uses its own BC hmac, initialized with the same key.
+	 * @param msgs the messages to operate the mac on
+	 * @return the tags of the messages, in the same order
+	 */
+	public byte[][] macBatch(final byte[][] msgs){
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		final byte[][] tags = new byte[msgs.length][];
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				HMac threadMac = createHMac();
+				for (int i = from; i < to; i++){
+					tags[i] = new byte[threadMac.getMacSize()];
+					threadMac.update(msgs[i], 0, msgs[i].length);
+					threadMac.doFinal(tags[i], 0);
+				}
+			}
+		}.run(msgs.length);
+		return tags;
+	}
+	
+	/**
+	 * Creates a new BC hmac with the same hash function and key as the underlying hmac.
+	 */
+	private HMac createHMac(){
+		HMac mac;
+		try {
+			mac = new HMac(BCFactory.getInstance().getDigest(hashName));
+		} catch (FactoriesException e) {
+			//Can not happen since the same hash was already created in the constructor.
+			throw new IllegalStateException(e);
+		}
+		mac.init(keyParams);
+		return mac;
+	}
+	
 	/**
 	 * Adds the byte array to the existing message to mac.
 	 * @param msg the message to add
@@ -374,6 +420,14 @@ public final class BcHMAC implements Hmac {
 		return tag;
 	}
 	
-	
-
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+	}
 }
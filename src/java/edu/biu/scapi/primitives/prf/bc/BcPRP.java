@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.bc;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
@@ -40,6 +41,7 @@ import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 
 import edu.biu.scapi.primitives.prf.PrpFixed;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 import edu.biu.scapi.tools.Translation.BCParametersTranslator;
 
 /** 
@@ -312,6 +314,15 @@ public abstract class BcPRP implements PrpFixed{
 			throw new IllegalBlockSizeException("Wrong size");
 		
 	}
-
-
+	
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException 
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+	}
 }
@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.cryptopp;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -37,6 +38,7 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 
 import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 /**
  * Concrete class of prf family for AES. This class wraps the implementation of Crypto++.
@@ -55,7 +57,8 @@ public class CryptoPpAES implements AES{
 	private native long createAESCompute();
 	private native long createAESInvert();
 	private native void setNativeKey(long aesCompute, long aesInvert, byte[] key);
-	private native void computeBlock(long aesCompute, byte[] in, byte[] out, int outOffset, boolean forEncrypt);
+	private native void computeBlock(long aesCompute, byte[] in, int inOffset, byte[] out, int outOffset, boolean forEncrypt);
+	private native void computeBlockDirect(long aesCompute, ByteBuffer in, int inOffset, ByteBuffer out, int outOffset, boolean forEncrypt);
 	private native void optimizedCompute(long aesCompute, byte[] in, byte[] out, boolean forEncrypt);
 	private native String getName(long aes);
 	private native int getBlockSize(long aes);
@@ -188,16 +191,34 @@ public class CryptoPpAES implements AES{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native AES object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
-		byte[] newIn = inBytes;
-		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
+		//Call the native code to perform computeBlock. The native code reads the block in place, starting at inOff.
+		computeBlock(aesCompute, inBytes, inOff, outBytes, outOff, true);
+	}
+	
+	/**
+	 * Computes the AES permutation on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Both buffers should have exactly one block remaining, otherwise, throws an exception.<p>
+	 * If both buffers are direct, the native code reads and writes them in place. Otherwise, heap buffers are passed through their backing arrays.
+	 * @param inBytes input buffer.
+	 * @param outBytes output buffer.
+	 * @throws IllegalBlockSizeException if one of the buffers does not have one block remaining.
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		if (!(inBytes.isDirect() && outBytes.isDirect() && !outBytes.isReadOnly())){
+			ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+			return;
+		}
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (inBytes.remaining() != getBlockSize() || outBytes.remaining() != getBlockSize()){
+			throw new IllegalBlockSizeException("Wrong size");
 		}
 		
-		//Call the native code to perform computeBlock
-		computeBlock(aesCompute, newIn, outBytes, outOff, true);
+		//Call the native code to perform computeBlock on the buffers' memory.
+		computeBlockDirect(aesCompute, inBytes, inBytes.position(), outBytes, outBytes.position(), true);
+		inBytes.position(inBytes.limit());
+		outBytes.position(outBytes.limit());
 	}
 	
 	/** 
@@ -299,16 +320,8 @@ public class CryptoPpAES implements AES{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native AES object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
-		byte[] newIn = inBytes;
-		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
-		}
-		
-		//Call the native code to perform invert
-		computeBlock(aesInvert, newIn, outBytes, outOff, false);	
+		//Call the native code to perform invert. The native code reads the block in place, starting at inOff.
+		computeBlock(aesInvert, inBytes, inOff, outBytes, outOff, false);	
 	}
 	
 	/**
@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prf.openSSL;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -37,6 +38,8 @@ import javax.crypto.spec.SecretKeySpec;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.prf.Hmac;
+import edu.biu.scapi.tools.ByteBufferAdapter;
+import edu.biu.scapi.tools.ParallelBatch;
 
 /**
  * Concrete class of PRF family for Hmac. This class wraps the implementation of OpenSSL library.
@@ -47,6 +50,8 @@ import edu.biu.scapi.primitives.prf.Hmac;
 public class OpenSSLHMAC implements Hmac {
 	
 	private long hmac;					//Pointer to the native hmac.
+	private String hashName;			//The OpenSSL's name of the underlying hash. Used to create more hmacs in the batch computation.
+	private byte[] key;					//The key that was given to the native hmac.
 	private boolean isKeySet;			//until setKey is called set to false.
 	private SecureRandom random;		//source of randomness used in key generation
 	
@@ -57,7 +62,11 @@ public class OpenSSLHMAC implements Hmac {
 	private native String getName(long hmac);			//Returns the name of the underlying hash.
 	private native void updateNative(long hmac, byte[] in, int inOffset, int inLen);//Updates the Hmac eith the given in array.
 	private native void updateFinal(long hmac, byte[] out, int outOffset);//Finalize the Hmac operation and puts the result in the given out array.
+	private native void updateNativeDirect(long hmac, ByteBuffer in, int inOffset, int inLen);//Updates the Hmac with the given direct buffer.
+	private native void updateFinalDirect(long hmac, ByteBuffer out, int outOffset);//Finalize the Hmac operation and puts the result in the given direct buffer.
 	private native void deleteNative(long hmac);		//Deletes the native object.
+	//Computes the Hmac on the messages in the range [from, to) and puts the result of message i in the out array, starting at i * macSize.
+	private native void macBatchNative(long hmac, byte[][] msgs, int from, int to, byte[] out);
 	
 	/**
 	 * Default constructor that uses SHA1.
@@ -139,6 +148,7 @@ public class OpenSSLHMAC implements Hmac {
 		}
 		
 		hmac = createHMAC(name);
+		this.hashName = name;
 		//Sets the random.
 		this.random = random;
 
@@ -148,7 +158,8 @@ public class OpenSSLHMAC implements Hmac {
 	 * @param secretKey the secret key 
 	 */
 	public void setKey(SecretKey secretKey) {
-		setKey(hmac, secretKey.getEncoded());
+		key = secretKey.getEncoded();
+		setKey(hmac, key);
 		
 		//Sets flag to true. Object is initialized.
 		isKeySet = true;
@@ -246,6 +257,33 @@ public class OpenSSLHMAC implements Hmac {
 		updateFinal(hmac, outBytes, outOffset);
 	}
 	
+	/**
+	 * Computes the function on the remaining bytes of the input buffer and puts the result in the output buffer. 
+	 * The output buffer should have exactly getBlockSize() bytes remaining, otherwise, throws an exception.<p>
+	 * If both buffers are direct, the native hmac reads and writes them in place. Otherwise, heap buffers are passed through their backing arrays.
+	 * @param inBytes input buffer
+	 * @param outBytes output buffer
+	 * @throws IllegalBlockSizeException if the output buffer does not have getBlockSize() bytes remaining.
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		if (!(inBytes.isDirect() && outBytes.isDirect() && !outBytes.isReadOnly())){
+			ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+			return;
+		}
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (outBytes.remaining() != getBlockSize()){
+			throw new IllegalBlockSizeException("Output size is incorrect");
+		}
+		
+		//Passes the input buffer to update and gets the output results through doFinal.
+		updateNativeDirect(hmac, inBytes, inBytes.position(), inBytes.remaining());
+		updateFinalDirect(hmac, outBytes, outBytes.position());
+		inBytes.position(inBytes.limit());
+		outBytes.position(outBytes.limit());
+	}
+	
 	/**
 	 * Generates a secret key to initialize this prf object.
 	 * @param keyParams algorithmParameterSpec contains the required secret key size in bits 
@@ -343,6 +381,39 @@ public class OpenSSLHMAC implements Hmac {
 		return equal;	
 	}
 	
+	/**
+	 * Computes the hmac operation on each one of the given messages.<p>
+	 * The messages are split between the available processors. Each thread creates its own native hmac with the same key and 
+	 * computes all its messages in one native call.
+	 * @param msgs the messages to operate the mac on.
+	 * @return the tags of the messages, in the same order.
+	 */
+	public byte[][] macBatch(final byte[][] msgs){
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		final int size = getMacSize();
+		final byte[] out = new byte[msgs.length * size];
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				long threadHmac = createHMAC(hashName);
+				try {
+					setKey(threadHmac, key);
+					macBatchNative(threadHmac, msgs, from, to, out);
+				} finally {
+					deleteNative(threadHmac);
+				}
+			}
+		}.run(msgs.length);
+		
+		//Split the output into the tags.
+		byte[][] tags = new byte[msgs.length][size];
+		for (int i = 0; i < msgs.length; i++){
+			System.arraycopy(out, i * size, tags[i], 0, size);
+		}
+		return tags;
+	}
+	
 	/**
 	 * Adds the byte array to the existing message to mac.
 	 * @param msg the message to add.
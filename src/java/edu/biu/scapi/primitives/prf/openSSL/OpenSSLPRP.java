@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prf.openSSL;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -36,6 +37,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.primitives.prf.PrpFixed;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 public abstract class OpenSSLPRP implements PrpFixed{
 	protected long computeP;	//Native object used to compute the prp.
@@ -45,8 +47,9 @@ public abstract class OpenSSLPRP implements PrpFixed{
 	private SecureRandom random;
 	
 	//Native functions that call OpenSSL functionalities.
-	private native void computeBlock(long computeP, byte[] in, byte[] out, int outOffset, int blockSize); 	//Computes the PRP on the given in block.
-	private native void invertBlock(long invertP, byte[] in, byte[] out, int outOffset, int blockSize);		//Inverts the PRP on the given in block.
+	private native void computeBlock(long computeP, byte[] in, int inOffset, byte[] out, int outOffset, int blockSize); 	//Computes the PRP on the given in block.
+	private native void invertBlock(long invertP, byte[] in, int inOffset, byte[] out, int outOffset, int blockSize);		//Inverts the PRP on the given in block.
+	private native void computeBlockDirect(long computeP, ByteBuffer in, int inOffset, ByteBuffer out, int outOffset, int blockSize); //Computes the PRP on a block of a direct buffer.
 	private native void doOptimizedCompute(long computeP, byte[] inBytes, byte[] outBytes, int blockSize);	//Computes the PRP on the given in array.
 	private native void doOptimizedInvert(long invertP, byte[] inBytes, byte[] outBytes, int blockSize);	//Inverts the PRP on the given in array.
 	private native void deleteNative(long computeP, long invertP);											//Deleted the native objects.
@@ -158,16 +161,8 @@ public abstract class OpenSSLPRP implements PrpFixed{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// We copy just the block we need to compute. else, the JNI will copy the whole array for nothing. 
-		byte[] newIn = inBytes;
-		if (inOff > 0){
-			
-			newIn = new byte[getBlockSize()];
-			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
-		}
-		
-		//Call the native code to perform computeBlock.
-		computeBlock(computeP, newIn, outBytes, outOff, getBlockSize());
+		//Call the native code to perform computeBlock. The native code reads the block in place, starting at inOff.
+		computeBlock(computeP, inBytes, inOff, outBytes, outOff, getBlockSize());
 	}
 	
 	/** 
@@ -247,6 +242,32 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		
 	}
 	
+	/**
+	 * Computes the permutation on the remaining bytes of the input buffer and puts the result in the remaining bytes of the output buffer.
+	 * Both buffers should have exactly one block remaining, otherwise, throws an exception.<p>
+	 * If both buffers are direct, the native code reads and writes them in place. Otherwise, heap buffers are passed through their backing arrays. 
+	 * @param inBytes input buffer.
+	 * @param outBytes output buffer.
+	 * @throws IllegalBlockSizeException if one of the buffers does not have one block remaining.
+	 */
+	public void computeBlock(ByteBuffer inBytes, ByteBuffer outBytes) throws IllegalBlockSizeException {
+		if (!(inBytes.isDirect() && outBytes.isDirect() && !outBytes.isReadOnly())){
+			ByteBufferAdapter.computeBlock(this, inBytes, outBytes);
+			return;
+		}
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (inBytes.remaining() != getBlockSize() || outBytes.remaining() != getBlockSize()){
+			throw new IllegalBlockSizeException("Wrong size");
+		}
+		
+		//Call the native code to perform computeBlock on the buffers' memory.
+		computeBlockDirect(computeP, inBytes, inBytes.position(), outBytes, outBytes.position(), getBlockSize());
+		inBytes.position(inBytes.limit());
+		outBytes.position(outBytes.limit());
+	}
+	
 	/** 
 	 * Inverts the permutation on the given block.
 	 * 
@@ -269,16 +290,8 @@ public abstract class OpenSSLPRP implements PrpFixed{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
-		byte[] newIn = inBytes;
-		if (inOff > 0){
-			newIn = new byte[getBlockSize()];
-			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
-		}
-		
-		//Call the native code to perform invert.
-		invertBlock(invertP, newIn, outBytes, outOff, getBlockSize());	
+		//Call the native code to perform invert. The native code reads the block in place, starting at inOff.
+		invertBlock(invertP, inBytes, inOff, outBytes, outOff, getBlockSize());	
 	}
 	
 	/**
@@ -0,0 +1,140 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.prg;
+
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+import java.security.SecureRandomSpi;
+import java.util.Arrays;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+
+/**
+ * This class adapts a pseudorandom generator to the SecureRandom API, so that it can be passed to any object that gets a source of randomness.<p>
+ * The prg should already be initialized with a key, which serves as the seed of this random. Two objects that use prgs of the same type and key 
+ * produce the same random bytes for the same sequence of calls. 
+ * A seed given to setSeed supplements the randomness: it is mixed into a new key of the prg, as required by the SecureRandom contract.
+ * The prg bytes are generated in chunks into an internal buffer, so that many short requests (for example, nextInt) are cheap. 
+ * In case the prg is an {@link ScPrgFromPrf} over AES, the chunks are generated in bulk using the hardware support of the JVM.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class PrgSecureRandom extends SecureRandom {
+
+	private static final long serialVersionUID = -2637419573648025196L;
+	
+	private final String prgName;	//The name of the underlying prg.
+
+	/**
+	 * Constructor that sets the pseudorandom generator to use.
+	 * @param prg an initialized pseudorandom generator.
+	 * @throws IllegalStateException if the given prg is not initialized with a key.
+	 */
+	public PrgSecureRandom(PseudorandomGenerator prg) {
+		super(new PrgSecureRandomSpi(prg), null);
+		prgName = prg.getAlgorithmName();
+	}
+	
+	/**
+	 * Returns the name of the underlying pseudorandom generator.
+	 */
+	@Override
+	public String getAlgorithm() {
+		return "SecureRandomFrom" + prgName;
+	}
+	
+	/**
+	 * This class implements the SecureRandom functionality using the pseudorandom generator.
+	 */
+	private static class PrgSecureRandomSpi extends SecureRandomSpi {
+		
+		private static final long serialVersionUID = 4913860716248219487L;
+		private static final int BUFFER_SIZE = 4096;	//Number of prg bytes generated in each call to the prg.
+		private static final int KEY_SIZE = 16;			//Size in bytes of the key that is set to the prg when a seed is given.
+		
+		private PseudorandomGenerator prg;
+		private byte[] buffer = new byte[BUFFER_SIZE];	//Holds prg bytes that were not used yet.
+		private int bufferPosition = BUFFER_SIZE;		//The index of the first unused byte in the buffer.
+		
+		PrgSecureRandomSpi(PseudorandomGenerator prg){
+			if (!prg.isKeySet()){
+				throw new IllegalStateException("the prg should be initialized with a key");
+			}
+			this.prg = prg;
+		}
+		
+		/**
+		 * Supplements the randomness with the given seed.<p>
+		 * The prg is rekeyed with H(r || seed), where r are the next unused prg bytes and H is SHA-256, truncated to 128 bits. 
+		 * The bytes that were already generated into the buffer are discarded.
+		 */
+		@Override
+		protected synchronized void engineSetSeed(byte[] seed) {
+			byte[] current = new byte[KEY_SIZE];
+			engineNextBytes(current);
+			
+			CryptographicHash hash = new BcSHA256();
+			hash.update(current, 0, current.length);
+			hash.update(seed, 0, seed.length);
+			byte[] digest = new byte[hash.getHashedMsgSize()];
+			hash.hashFinal(digest, 0);
+			
+			try {
+				prg.setKey(new SecretKeySpec(Arrays.copyOf(digest, KEY_SIZE), ""));
+			} catch (InvalidKeyException e) {
+				// Should not occur since every prg in SCAPI accepts a 128 bit key. In this case the seed is ignored.
+				return;
+			}
+			bufferPosition = BUFFER_SIZE;
+		}
+
+		@Override
+		protected synchronized void engineNextBytes(byte[] bytes) {
+			int offset = 0;
+			while (offset < bytes.length){
+				//Refills the buffer when all its bytes were used.
+				if (bufferPosition == BUFFER_SIZE){
+					prg.getPRGBytes(buffer, 0, BUFFER_SIZE);
+					bufferPosition = 0;
+				}
+				int len = Math.min(bytes.length - offset, BUFFER_SIZE - bufferPosition);
+				System.arraycopy(buffer, bufferPosition, bytes, offset, len);
+				bufferPosition += len;
+				offset += len;
+			}
+		}
+
+		@Override
+		protected byte[] engineGenerateSeed(int numBytes) {
+			byte[] seed = new byte[numBytes];
+			engineNextBytes(seed);
+			return seed;
+		}
+	}
+}
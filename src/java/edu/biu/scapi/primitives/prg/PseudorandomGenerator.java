@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prg;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -85,6 +86,13 @@ public interface PseudorandomGenerator {
 	 */
 	public void getPRGBytes(byte[] outBytes, int outOffset, int outlen) ;
 	
+	/**
+	 * Streams the prg bytes into the remaining bytes of the given buffer. The position of the buffer is set to its limit.<p>
+	 * Native implementations write direct buffers in place, without copying from the Java heap.
+	 * @param out - output buffer
+	 */
+	public void getPRGBytes(ByteBuffer out);
+	
 	
 
 	
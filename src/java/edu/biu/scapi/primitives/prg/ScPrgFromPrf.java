@@ -26,22 +26,31 @@
 
 package edu.biu.scapi.primitives.prg;
 
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
 
+import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.NoMaxException;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
 import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prf.openSSL.OpenSSLPRP;
 import edu.biu.scapi.tools.Factories.PrfFactory;
 
 /**
  * This is a simple way of generating a pseudorandom stream from a pseudorandom function. The seed for the pseudorandom generator is the key to the pseudorandom function. 
- * Then, the algorithm initializes a counter to 1 and applies the pseudorandom function to the counter, increments it, and repeats.
+ * Then, the algorithm initializes a counter to 1 and applies the pseudorandom function to the counter, increments it, and repeats.<p>
+ * In case the underlying prf is a fixed length prp, long outputs are generated in bulk: many counters are computed together 
+ * (using the JCE implementation of AES in counter mode when the prp is AES), without changing the generated bytes.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
@@ -50,6 +59,15 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	private PseudorandomFunction prf;	// Underlying PRF.
 	private byte[] ctr;					//Counter used for key generation.
 	private boolean isKeySet;
+	
+	private static final int BULK_BLOCKS = 256;				//Number of counter blocks that are computed together in bulk mode.
+	private static final int MIN_BULK_BLOCKS = 16;			//Outputs shorter than this number of blocks are generated block by block.
+	
+	private byte[] counters;				//Reusable buffer that holds a batch of consecutive counters.
+	private byte[] generatedBlocks;			//Reusable buffer that holds the result of computing the counters.
+	private Cipher jceCipher;				//AES in counter mode provided by the JCE. Used in bulk mode in case the underlying prp is AES.
+	private SecretKeySpec jceKey;			//The key of the JCE cipher.
+	private byte[] zeros;					//The JCE cipher encrypts zeros in order to output the encryption of the counters.
 
 	/**
 	 * Default constructor. Uses default implementation PRF.
@@ -91,6 +109,22 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 
 		//Initializes the counter to 1.
 		ctr[ctr.length-1] = 1;
+		
+		//In case the prf is AES, uses the JCE AES in counter mode in order to generate long outputs.
+		jceCipher = null;
+		jceKey = null;
+		if ((prf instanceof PrpFixed) && prf.getAlgorithmName().equals("AES")){
+			try {
+				jceCipher = Cipher.getInstance("AES/CTR/NoPadding");
+				jceKey = new SecretKeySpec(secretKey.getEncoded(), "AES");
+				//Checks that the JCE accepts the key.
+				jceCipher.init(Cipher.ENCRYPT_MODE, jceKey, new IvParameterSpec(ctr));
+			} catch (GeneralSecurityException e) {
+				//The JCE does not provide AES in counter mode with this key size. The counters will be computed by the prf.
+				jceCipher = null;
+				jceKey = null;
+			}
+		}
 		isKeySet = true;
 
 	}
@@ -146,6 +180,12 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 
+		//Long outputs of a fixed length prp are generated in bulk.
+		if ((prf instanceof PrpFixed) && (outLen >= MIN_BULK_BLOCKS * ctr.length)){
+			generateBulk(outBytes, outOffset, outLen);
+			return;
+		}
+		
 		int numGeneratedBytes = 0;	//Number of current generated bytes.
 		byte [] generatedBytes = new byte[ctr.length];
 
@@ -192,6 +232,107 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 
 	}
 
+	/**
+	 * Streams the prg bytes into the remaining bytes of the given buffer.<p>
+	 * The generated bytes are the same as the bytes generated by calling {@link #getPRGBytes(byte[], int, int)} with the same length.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied. Other buffers are filled in chunks of at most 
+	 * BULK_BLOCKS blocks.
+	 * @param buffer the buffer to fill. Its position is advanced to its limit.
+	 * @throws IllegalStateException if no key was set.
+	 */
+	public void getPRGBytes(ByteBuffer buffer){
+		int length = buffer.remaining();
+		if (buffer.hasArray()){
+			getPRGBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+			buffer.position(buffer.limit());
+			return;
+		}
+		
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		//The bytes are generated in chunks of whole blocks, so the result does not depend on the chunk size.
+		byte[] chunk = new byte[Math.min(length, BULK_BLOCKS * ctr.length)];
+		while (buffer.hasRemaining()){
+			int chunkLength = Math.min(buffer.remaining(), chunk.length);
+			getPRGBytes(chunk, 0, chunkLength);
+			buffer.put(chunk, 0, chunkLength);
+		}
+	}
+	
+	/**
+	 * Generates the given number of bytes by computing many counters together.
+	 * The output is the same as computing the prp on the counters one by one.
+	 */
+	private void generateBulk(byte[] outBytes, int outOffset, int outLen){
+		int blockSize = ctr.length;
+		int numBlocks = (outLen + blockSize - 1) / blockSize;
+		
+		if (jceCipher != null){
+			if (zeros == null){
+				zeros = new byte[BULK_BLOCKS * blockSize];
+			}
+			try {
+				//Encrypting zeros in counter mode outputs the encryption of the consecutive counters.
+				jceCipher.init(Cipher.ENCRYPT_MODE, jceKey, new IvParameterSpec(ctr));
+				int numGeneratedBytes = 0;
+				while (numGeneratedBytes < outLen){
+					int len = Math.min(outLen - numGeneratedBytes, zeros.length);
+					numGeneratedBytes += jceCipher.update(zeros, 0, len, outBytes, outOffset + numGeneratedBytes);
+				}
+			} catch (GeneralSecurityException e) {
+				//Should not occur since the key was checked in setKey and the output array is long enough.
+				throw new IllegalStateException(e);
+			}
+			addToCtr(numBlocks);
+			return;
+		}
+		
+		if (counters == null){
+			counters = new byte[BULK_BLOCKS * blockSize];
+			generatedBlocks = new byte[BULK_BLOCKS * blockSize];
+		}
+		int numGeneratedBytes = 0;
+		while (numBlocks > 0){
+			int batch = Math.min(numBlocks, BULK_BLOCKS);
+			for (int i = 0; i < batch; i++){
+				System.arraycopy(ctr, 0, counters, i * blockSize, blockSize);
+				increaseCtr();
+			}
+			
+			//A native prp computes a full batch in one call.
+			if ((prf instanceof OpenSSLPRP) && (batch == BULK_BLOCKS)){
+				((OpenSSLPRP) prf).optimizedCompute(counters, generatedBlocks);
+			} else {
+				try {
+					for (int i = 0; i < batch; i++){
+						prf.computeBlock(counters, i * blockSize, generatedBlocks, i * blockSize);
+					}
+				} catch (IllegalBlockSizeException e) {
+					//Should not occur since the counters are of block size.
+					throw new IllegalStateException(e);
+				}
+			}
+			
+			int len = Math.min(outLen - numGeneratedBytes, batch * blockSize);
+			System.arraycopy(generatedBlocks, 0, outBytes, outOffset + numGeneratedBytes, len);
+			numGeneratedBytes += len;
+			numBlocks -= batch;
+		}
+	}
+	
+	/**
+	 * Adds the given number to the ctr byte array.
+	 */
+	private void addToCtr(long value){
+		long carry = value;
+		for (int i = ctr.length - 1; (i >= 0) && (carry != 0); i--){
+			long x = (ctr[i] & 0xff) + (carry & 0xff);
+			ctr[i] = (byte) x;
+			carry = (carry >>> 8) + (x >>> 8);
+		}
+	}
+
 	/**
 	 * Increases the ctr byte array by 1 bit.
 	 */
@@ -216,7 +357,5 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 
 			ctr[i] = (byte)x;
 		}
-	} 
-
-
+	}
 }
@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prg.bc;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
@@ -38,6 +39,7 @@ import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.StreamCipher;
 
 import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 import edu.biu.scapi.tools.Translation.BCParametersTranslator;
 
 /**
@@ -164,6 +166,13 @@ public abstract class BcPRG implements PseudorandomGenerator {
 		//out array filled with pseudorandom bytes (that were xored with zeroes in the in array)
 		bcStreamCipher.processBytes(inBytes, 0, outLen, outBytes, outOffset);
 	}
-
-
+	
+	/**
+	 * Streams the prg bytes into the remaining bytes of the given buffer.
+	 * Heap buffers are passed through their backing arrays, so no bytes are copied.
+	 * @param out - output buffer
+	 */
+	public void getPRGBytes(ByteBuffer out) {
+		ByteBufferAdapter.getPRGBytes(this, out);
+	}
 }
@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prg.openSSL;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -34,6 +35,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.primitives.prg.RC4;
+import edu.biu.scapi.tools.ByteBufferAdapter;
 
 /**
  * This class wraps the OpenSSL implementation of RC4.
@@ -55,6 +57,7 @@ public class OpenSSLRC4 implements RC4{
 	private native long createRC4();						// Creates the native RC4 object.
 	private native void initRC4(long rc4, byte[] key);		// Initializes the native RC4 with the key.
 	private native void generateBytes(long rc4, int outLen, byte[] outBytes, int outOffset); //Generates RC4's bytes.
+	private native void generateBytesDirect(long rc4, int outLen, ByteBuffer outBytes, int outOffset); //Generates RC4's bytes into a direct buffer.
 	private native void deleteNative(long rc4);				//Deleted the native object.
 	
 	/**
@@ -168,6 +171,24 @@ public class OpenSSLRC4 implements RC4{
 		generateBytes(rc4, outLen, outBytes, outOffset);
 	}
 	
+	/** 
+	 * Streams the bytes using the underlying stream cipher into the remaining bytes of the given buffer.<p>
+	 * A direct buffer is filled by the native code in place. Other buffers are filled through their backing array.
+	 * @param out - output buffer.
+	 */
+	public void getPRGBytes(ByteBuffer out){
+		if (!out.isDirect() || out.isReadOnly()){
+			ByteBufferAdapter.getPRGBytes(this, out);
+			return;
+		}
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		
+		generateBytesDirect(rc4, out.remaining(), out, out.position());
+		out.position(out.limit());
+	}
+	
 	/**
 	 * deletes the native RC4 object.
 	 */
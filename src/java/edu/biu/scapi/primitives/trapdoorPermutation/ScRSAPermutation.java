@@ -44,6 +44,7 @@ import java.security.spec.RSAKeyGenParameterSpec;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
+import edu.biu.scapi.tools.ParallelIndexBatch;
 
 /**
  * Concrete class of trapdoor permutation for RSA.
@@ -54,6 +55,12 @@ import edu.biu.scapi.generals.Logging;
 public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RSAPermutation {
 
 	private SecureRandom random;
+	
+	//Values of the keys that are used in every computation. They are taken from the keys once, in setKey.
+	private BigInteger pubExponent;		//e
+	private BigInteger privExponent;	//d, used in case the private key is not a CRT key.
+	private BigInteger p, q;			//the CRT parameters, used in case the private key is a CRT key.
+	private BigInteger dP, dQ, qInv;
 
 	public ScRSAPermutation(){
 		this(new SecureRandom());
@@ -81,6 +88,21 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 		}
 
 		modulus = ((RSAPublicKey)publicKey).getModulus();
+		pubExponent = ((RSAPublicKey)publicKey).getPublicExponent();
+		
+		if (privateKey instanceof RSAPrivateCrtKey){
+			//gets the crt parameters
+			RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey)privateKey;
+			p = crtKey.getPrimeP();
+			q = crtKey.getPrimeQ();
+			dP = crtKey.getPrimeExponentP();
+			dQ = crtKey.getPrimeExponentQ();
+			qInv = crtKey.getCrtCoefficient();
+			privExponent = null;
+		} else {
+			privExponent = ((RSAPrivateKey)privateKey).getPrivateExponent();
+			p = null;
+		}
 
 		//calls the father init that sets the keys
 		super.setKey(publicKey, privateKey);
@@ -101,6 +123,7 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 		}
 
 		modulus = ((RSAPublicKey)publicKey).getModulus();
+		pubExponent = ((RSAPublicKey)publicKey).getPublicExponent();
 
 		//calls the father init that sets the key
 		super.setKey(publicKey);
@@ -167,8 +190,7 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 		// gets the value of the element 
 		BigInteger element = ((RSAElement)tpEl).getElement();
 		//compute - calculates (element^e)modN
-		BigInteger result = element.modPow(
-				((RSAPublicKey)pubKey).getPublicExponent(), ((RSAPublicKey)pubKey).getModulus());
+		BigInteger result = element.modPow(pubExponent, modulus);
 		// builds the return element
 		RSAElement returnEl = new RSAElement(modulus, result, false);	//create an RSAElement without checking since "result" is the result of the computation and it should be valid.		
 		//returns the result of the computation
@@ -206,6 +228,79 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 		return returnEl;
 	}
 
+	/** 
+	 * Computes the RSA permutation on each one of the given TPElements.<p>
+	 * The elements are divided between the available processors.
+	 * @param tpEls - the inputs for the computation
+	 * @return - the result TPElements
+	 * @throws IllegalArgumentException if one of the given elements is not a RSA element
+	 */
+	public TPElement[] compute(TPElement[] tpEls) throws IllegalArgumentException{
+
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+
+		final BigInteger[] elements = getElements(tpEls);
+		final TPElement[] results = new TPElement[elements.length];
+		
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				//calculates (element^e)modN. The result is valid, so the element is created without checking.
+				results[i] = new RSAElement(modulus, elements[i].modPow(pubExponent, modulus), false);
+			}
+		}.run(elements.length);
+		
+		return results;
+	}
+	
+	/** 
+	 * Inverts the RSA permutation on each one of the given TPElements.<p>
+	 * The elements are divided between the available processors.
+	 * @param tpEls - the inputs to invert
+	 * @return - the result TPElements
+	 * @throws IllegalArgumentException if one of the given elements is not a RSA element
+	 * @throws KeyException if the private key was not set
+	 */
+	public TPElement[] invert(TPElement[] tpEls) throws IllegalArgumentException, KeyException{
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+
+		//If the key set was only the public key and not the private key - can't do the invert, throw exception.
+		if (privKey == null && pubKey!=null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+
+		final BigInteger[] elements = getElements(tpEls);
+		final TPElement[] results = new TPElement[elements.length];
+		
+		new ParallelIndexBatch(){
+			protected void compute(int i){
+				//The result is valid, so the element is created without checking.
+				results[i] = new RSAElement(modulus, doInvert(elements[i]), false);
+			}
+		}.run(elements.length);
+		
+		return results;
+	}
+	
+	/**
+	 * Checks that all the given elements are RSA elements and returns their values.
+	 * @param tpEls the elements to check.
+	 * @throws IllegalArgumentException if one of the given elements is not a RSA element
+	 */
+	private BigInteger[] getElements(TPElement[] tpEls){
+		BigInteger[] elements = new BigInteger[tpEls.length];
+		for (int i = 0; i < tpEls.length; i++){
+			if (!(tpEls[i] instanceof RSAElement)) {
+				throw new IllegalArgumentException("trapdoor element doesn't match the trapdoor permutation");
+			}
+			elements[i] = ((RSAElement)tpEls[i]).getElement();
+		}
+		return elements;
+	}
+
 	/**
 	 * Inverts the permutation according to the RSA key.
 	 * If the key is CRT key - invert using the Chinese Remainder Theorem.
@@ -215,18 +310,9 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 	 */
 	private BigInteger doInvert(BigInteger input)
 	{
-		if (privKey instanceof RSAPrivateCrtKey) //invert with CRT parameters
+		if (p != null) //invert with CRT parameters
 		{
 			// we have the extra factors, use the Chinese Remainder Theorem 
-			RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey)privKey;
-
-			//gets the crt parameters
-			BigInteger p = crtKey.getPrimeP();
-			BigInteger q = crtKey.getPrimeQ();
-			BigInteger dP = crtKey.getPrimeExponentP();
-			BigInteger dQ = crtKey.getPrimeExponentQ();
-			BigInteger qInv = crtKey.getCrtCoefficient();
-
 			BigInteger mP, mQ, h, m;
 
 			// mP = ((input mod p) ^ dP)) mod p
@@ -247,8 +333,7 @@ public final class ScRSAPermutation extends TrapdoorPermutationAbs implements RS
 			return m;
 		}
 		else{//invert using d, modN
-			return input.modPow(
-					((RSAPrivateKey)privKey).getPrivateExponent(), ((RSAPrivateKey)pubKey).getModulus());
+			return input.modPow(privExponent, modulus);
 		}
 	}
 
@@ -112,6 +112,27 @@ public interface TrapdoorPermutation {
 	 * @throws IllegalArgumentException if the given element is invalid for this permutation
 	 */
 	public TPElement invert(TPElement tpEl) throws KeyException;
+	
+	/** 
+	 * Computes the operation of this trapdoor permutation on each one of the given TPElements.<p>
+	 * Implementations may compute the elements in parallel and share the key dependent values between them, 
+	 * so this function should be preferred over calling {@link #compute(TPElement)} in a loop.
+	 * @param tpEls - the inputs for the computation
+	 * @return - the result TPElements, in the same order as the inputs
+	 * @throws IllegalArgumentException if one of the given elements is invalid for this permutation
+	 */
+	public TPElement[] compute(TPElement[] tpEls) throws IllegalArgumentException;
+	
+	/** 
+	 * Inverts the operation of this trapdoor permutation on each one of the given TPElements.<p>
+	 * Implementations may invert the elements in parallel and share the key dependent values between them, 
+	 * so this function should be preferred over calling {@link #invert(TPElement)} in a loop.
+	 * @param tpEls - the inputs to invert
+	 * @return - the result TPElements, in the same order as the inputs
+	 * @throws KeyException if there is no private key
+	 * @throws IllegalArgumentException if one of the given elements is invalid for this permutation
+	 */
+	public TPElement[] invert(TPElement[] tpEls) throws KeyException;
 
 	/** 
 	 * Computes the hard core predicate of the given tpElement. <p>
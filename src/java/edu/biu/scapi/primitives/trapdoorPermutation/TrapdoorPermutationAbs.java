@@ -28,6 +28,7 @@ package edu.biu.scapi.primitives.trapdoorPermutation;
 
 import java.math.BigInteger;
 import java.security.InvalidKeyException;
+import java.security.KeyException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 
@@ -78,6 +79,30 @@ public abstract class TrapdoorPermutationAbs implements TrapdoorPermutation {
 	}
 	
 	
+	/**
+	 * Computes the permutation on each one of the given elements by calling {@link #compute(TPElement)}.<p>
+	 * Derived classes that can do better (in parallel or with one native call) should override this function.
+	 */
+	public TPElement[] compute(TPElement[] tpEls) throws IllegalArgumentException {
+		TPElement[] results = new TPElement[tpEls.length];
+		for (int i = 0; i < tpEls.length; i++){
+			results[i] = compute(tpEls[i]);
+		}
+		return results;
+	}
+	
+	/**
+	 * Inverts the permutation on each one of the given elements by calling {@link #invert(TPElement)}.<p>
+	 * Derived classes that can do better (in parallel or with one native call) should override this function.
+	 */
+	public TPElement[] invert(TPElement[] tpEls) throws KeyException {
+		TPElement[] results = new TPElement[tpEls.length];
+		for (int i = 0; i < tpEls.length; i++){
+			results[i] = invert(tpEls[i]);
+		}
+		return results;
+	}
+	
 	/** 
 	 * Compute the hard core predicate of the given tpElement, by return the least significant bit of the element. 
 	 *
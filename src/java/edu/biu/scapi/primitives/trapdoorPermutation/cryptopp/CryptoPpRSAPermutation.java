@@ -42,6 +42,7 @@ import java.security.interfaces.RSAPublicKey;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
 import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
@@ -49,6 +50,7 @@ import edu.biu.scapi.primitives.trapdoorPermutation.RSAPermutation;
 import edu.biu.scapi.primitives.trapdoorPermutation.TPElValidity;
 import edu.biu.scapi.primitives.trapdoorPermutation.TPElement;
 import edu.biu.scapi.primitives.trapdoorPermutation.TrapdoorPermutationAbs;
+import edu.biu.scapi.tools.ParallelBatch;
 
 /**
  * Concrete class of trapdoor permutation of RSA.
@@ -80,6 +82,10 @@ public final class CryptoPpRSAPermutation extends TrapdoorPermutationAbs impleme
 	private native long computeRSA(long tpr, long x);
 	//inverts RSA permutation
 	private native long invertRSA(long ptr, long y);
+	//computes RSA permutation on all the given elements. The native RSA object is not changed, so it can be called concurrently
+	private native long[] computeRSABatch(long tpr, long[] x);
+	//inverts RSA permutation on all the given elements. Each call uses its own random pool, so it can be called concurrently
+	private native long[] invertRSABatch(long ptr, long[] y);
 	
 	//deletes the native object
 	private native void deleteRSA(long ptr);
@@ -269,6 +275,89 @@ public final class CryptoPpRSAPermutation extends TrapdoorPermutationAbs impleme
 		return returnEl; // returns the result TPElement
 	}
 	
+	/** 
+	 * Computes the RSA permutation on each one of the given TPElements.
+	 * The elements are split between the available processors, and each thread computes its part using one call to the native code.
+	 * @param tpEls - the inputs for the computation
+	 * @return - the result elements
+	 * @throws - IllegalArgumentException if one of the given elements is not RSA element
+	 */
+	public TPElement[] compute(TPElement[] tpEls) throws IllegalArgumentException{
+		
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+		
+		final long[] pointers = getPointersToElements(tpEls);
+		final long[] results = new long[pointers.length];
+		//calls for the native function once for each part of the elements
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				long[] part = computeRSABatch(tpPtr, Arrays.copyOfRange(pointers, from, to));
+				System.arraycopy(part, 0, results, from, part.length);
+			}
+		}.run(pointers.length);
+		
+		return createElements(results); 
+	}
+	
+	/**
+	 * Inverts the RSA permutation on each one of the given elements.
+	 * The elements are split between the available processors, and each thread inverts its part using one call to the native code.
+	 * @param tpEls - the inputs to invert
+	 * @return - the result elements
+	 * @throws KeyException if the private key was not set
+	 * @throws - IllegalArgumentException if one of the given elements is not RSA element
+	 */
+	public TPElement[] invert(TPElement[] tpEls) throws IllegalArgumentException, KeyException{
+		
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+		
+		//If the key set was only the public key and not the private key - can't do the invert, throw exception.
+		if (privKey == null && pubKey!=null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		final long[] pointers = getPointersToElements(tpEls);
+		final long[] results = new long[pointers.length];
+		//calls for the native function once for each part of the elements
+		new ParallelBatch(){
+			protected void compute(int from, int to){
+				long[] part = invertRSABatch(tpPtr, Arrays.copyOfRange(pointers, from, to));
+				System.arraycopy(part, 0, results, from, part.length);
+			}
+		}.run(pointers.length);
+		
+		return createElements(results);
+	}
+	
+	/*
+	 * Returns the pointers to the native elements of the given TPElements.
+	 */
+	private long[] getPointersToElements(TPElement[] tpEls){
+		long[] elementsP = new long[tpEls.length];
+		for (int i = 0; i < tpEls.length; i++){
+			if (!(tpEls[i] instanceof CryptoPpRSAElement)){
+				throw new IllegalArgumentException("trapdoor element type doesn't match the trapdoor permutation type");
+			}
+			elementsP[i] = ((CryptoPpRSAElement)tpEls[i]).getPointerToElement();
+		}
+		return elementsP;
+	}
+	
+	/*
+	 * Creates CryptoPpRSAElements from the given pointers to native elements.
+	 */
+	private TPElement[] createElements(long[] pointers){
+		TPElement[] elements = new TPElement[pointers.length];
+		for (int i = 0; i < pointers.length; i++){
+			elements[i] = new CryptoPpRSAElement(pointers[i]);
+		}
+		return elements;
+	}
+	
 	/** 
 	 * Checks if the given element is valid for this RSA permutation
 	 * @param tpEl - the element to check
@@ -42,6 +42,7 @@ import java.security.spec.InvalidParameterSpecException;
 import java.security.spec.RSAKeyGenParameterSpec;
 import java.util.logging.Level;
 
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
 import edu.biu.scapi.generals.Logging;
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAElement;
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAPermutation;
@@ -75,6 +76,10 @@ public final class OpenSSLRSAPermutation extends TrapdoorPermutationAbs implemen
 	private native byte[] computeRSA(long tpr, byte[] x);
 	//Inverts RSA permutation.
 	private native byte[] invertRSA(long ptr, byte[] y);
+	//Computes RSA permutation on all the given elements. Each element takes exactly the size of the modulus in bytes.
+	private native byte[] computeRSABatch(long ptr, byte[] x, int numElements);
+	//Inverts RSA permutation on all the given elements. Each element takes exactly the size of the modulus in bytes.
+	private native byte[] invertRSABatch(long ptr, byte[] y, int numElements);
 	
 	//Deletes the native object.
 	private native void deleteRSA(long ptr);
@@ -274,6 +279,96 @@ public final class OpenSSLRSAPermutation extends TrapdoorPermutationAbs implemen
 		return returnEl; // return the result TPElement.
 	}
 	
+	/** 
+	 * Computes the RSA permutation on each one of the given TPElements, using one call to the native code.<p>
+	 * Unlike the other RSA permutations, the elements are computed by the calling thread only. The native RSA object creates its 
+	 * Montgomery contexts and blinding values on first use, and OpenSSL is not initialized with locks that make this safe 
+	 * when the object is shared between threads.
+	 * @param tpEls - the inputs for the computation.
+	 * @return - the result elements.
+	 * @throws - IllegalArgumentException if one of the given elements is not RSA element or is not smaller than the modulus.
+	 * @throws ScapiRuntimeException if the native computation failed.
+	 */
+	public TPElement[] compute(TPElement[] tpEls) throws IllegalArgumentException{
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+		//Call the native function on all the elements at once.
+		byte[] results = computeRSABatch(rsa, elementsToBytes(tpEls), tpEls.length); 
+		if (results == null){
+			throw new ScapiRuntimeException("failed to compute the RSA permutation");
+		}
+		return bytesToElements(results, tpEls.length);
+	}
+	
+	/**
+	 * Inverts the RSA permutation on each one of the given elements, using one call to the native code.<p>
+	 * The elements are inverted by the calling thread only, as explained in {@link #compute(TPElement[])}.
+	 * @param tpEls - the inputs to invert.
+	 * @return - the result elements.
+	 * @throws KeyException if private key was not set.
+	 * @throws IllegalArgumentException if one of the given elements is not a RSA element or is not smaller than the modulus.
+	 * @throws ScapiRuntimeException if the native inversion failed.
+	 */
+	public TPElement[] invert(TPElement[] tpEls) throws IllegalArgumentException, KeyException{
+		if (!isKeySet()){
+			throw new IllegalStateException("keys aren't set");
+		}
+		//If only the public key was set and not the private key - can't do the invert, throw exception.
+		if (privKey == null && pubKey!=null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		//Call the native function on all the elements at once.
+		byte[] results = invertRSABatch(rsa, elementsToBytes(tpEls), tpEls.length); 
+		if (results == null){
+			throw new ScapiRuntimeException("failed to invert the RSA permutation");
+		}
+		return bytesToElements(results, tpEls.length);
+	}
+	
+	/**
+	 * Puts the values of the given elements one after the other in a byte array, where each value takes exactly 
+	 * the size of the modulus in bytes.
+	 * @param tpEls the elements to convert.
+	 * @throws IllegalArgumentException if one of the given elements is not a RSA element or is not smaller than the modulus.
+	 */
+	private byte[] elementsToBytes(TPElement[] tpEls){
+		int size = (modulus.bitLength() + 7) / 8;
+		byte[] bytes = new byte[size * tpEls.length];
+		for (int i = 0; i < tpEls.length; i++){
+			if (!(tpEls[i] instanceof RSAElement)){
+				throw new IllegalArgumentException("trapdoor element type doesn't match the trapdoor permutation type");
+			}
+			BigInteger value = ((RSAElement)tpEls[i]).getElement();
+			if (value.signum() < 0 || value.compareTo(modulus) >= 0){
+				throw new IllegalArgumentException("the given element is not smaller than the modulus");
+			}
+			byte[] element = value.toByteArray();
+			//In java, BigInteger can have 0 in the first byte in order the BigInteger to be positive. Ignore it.
+			int offset = (element[0] == 0) ? 1 : 0;
+			int length = element.length - offset;
+			//Put the value at the end of the element's place, so that it is padded with zeros.
+			System.arraycopy(element, offset, bytes, (i + 1) * size - length, length);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Creates RSA elements from the given output of the native code.
+	 * @param bytes the values of the elements, one after the other.
+	 * @param numElements the number of elements.
+	 */
+	private TPElement[] bytesToElements(byte[] bytes, int numElements){
+		int size = (numElements == 0) ? 0 : bytes.length / numElements;
+		TPElement[] elements = new TPElement[numElements];
+		byte[] element = new byte[size];
+		for (int i = 0; i < numElements; i++){
+			System.arraycopy(bytes, i * size, element, 0, size);
+			elements[i] = new RSAElement(modulus, new BigInteger(1, element), false);
+		}
+		return elements;
+	}
+	
 	/** 
 	 * Checks if the given element is valid in this RSA permutation.
 	 * @param tpEl - the element to check.
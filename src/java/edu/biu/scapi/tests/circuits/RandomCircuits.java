@@ -0,0 +1,137 @@
+package edu.biu.scapi.tests.circuits;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.circuit.Wire;
+
+/**
+ * Creates random two party circuits and computes them in the clear, as a reference for the tests of circuit transformations and
+ * garbling.<p>
+ * The input wires of party 1 are numbered first, then the input wires of party 2, then one output wire for each gate in order.
+ */
+public class RandomCircuits {
+
+	private RandomCircuits() {}
+
+	/**
+	 * Creates a random circuit. Each two input gate reads two distinct earlier wires and has a random truth table, so all sixteen two input
+	 * functions can appear, including the constant ones and the ones that ignore an input. Some gates repeat the inputs of an earlier
+	 * gate, in order to create duplicated and negated gates.
+	 * @param random the source of the circuit.
+	 * @param inputsPerParty the number of input wires of each of the two parties.
+	 * @param numOfGates the number of gates.
+	 * @param numOfOutputs the number of output wires, chosen among the gates' output wires. At most numOfGates.
+	 * @param withOneInputGates true to also create gates that read a single wire (NOT and identity).
+	 * @param withConstantGates true to also create gates whose truth tables are constant. The garbled circuits can not verify 
+	 * 		  output wires that always get the same key, so circuits that are verified should not have them.
+	 */
+	public static BooleanCircuit create(Random random, int inputsPerParty, int numOfGates, int numOfOutputs, boolean withOneInputGates, 
+			boolean withConstantGates) {
+		int numOfInputs = 2 * inputsPerParty;
+		Gate[] gates = new Gate[numOfGates];
+		for (int i = 0; i < numOfGates; i++) {
+			int numOfWires = numOfInputs + i;
+			int[] earlierInputs = (i > 0) ? gates[random.nextInt(i)].getInputWireIndices() : null;
+			int[] inputs;
+			BitSet truthTable;
+			if (withOneInputGates && random.nextInt(8) == 0) {
+				inputs = new int[]{random.nextInt(numOfWires)};
+				truthTable = randomTruthTable(random, 2, withConstantGates);
+			} else if (earlierInputs != null && earlierInputs.length == 2 && random.nextInt(8) == 0) {
+				inputs = earlierInputs.clone();
+				truthTable = randomTruthTable(random, 4, withConstantGates);
+			} else {
+				int first = random.nextInt(numOfWires);
+				int second = random.nextInt(numOfWires - 1);
+				if (second >= first) {
+					second++;
+				}
+				inputs = new int[]{first, second};
+				truthTable = randomTruthTable(random, 4, withConstantGates);
+			}
+			gates[i] = new Gate(i, truthTable, inputs, new int[]{numOfWires});
+		}
+
+		List<Integer> gateWires = new ArrayList<Integer>();
+		for (int i = 0; i < numOfGates; i++) {
+			gateWires.add(numOfInputs + i);
+		}
+		Collections.shuffle(gateWires, random);
+		int[] outputs = new int[numOfOutputs];
+		for (int i = 0; i < numOfOutputs; i++) {
+			outputs[i] = gateWires.get(i);
+		}
+
+		ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+		for (int party = 0; party < 2; party++) {
+			ArrayList<Integer> partyInputs = new ArrayList<Integer>();
+			for (int i = 0; i < inputsPerParty; i++) {
+				partyInputs.add(party * inputsPerParty + i);
+			}
+			eachPartysInputWires.add(partyInputs);
+		}
+		return new BooleanCircuit(gates, outputs, eachPartysInputWires);
+	}
+
+	/**
+	 * Chooses a random value for each input wire of the given circuit.
+	 * @return maps each input wire index to its value.
+	 */
+	public static Map<Integer, Byte> randomInputs(BooleanCircuit circuit, Random random) throws Exception {
+		Map<Integer, Byte> inputs = new HashMap<Integer, Byte>();
+		for (int party = 1; party <= circuit.getNumberOfParties(); party++) {
+			for (int wire : circuit.getInputWireIndices(party)) {
+				inputs.put(wire, (byte) random.nextInt(2));
+			}
+		}
+		return inputs;
+	}
+
+	/**
+	 * Computes the given circuit in the clear.
+	 * @param inputs maps each input wire index to its value.
+	 * @return maps each output wire index to its value.
+	 */
+	public static Map<Integer, Byte> compute(BooleanCircuit circuit, Map<Integer, Byte> inputs) throws Exception {
+		for (int party = 1; party <= circuit.getNumberOfParties(); party++) {
+			Map<Integer, Wire> partyInputs = new HashMap<Integer, Wire>();
+			for (int wire : circuit.getInputWireIndices(party)) {
+				partyInputs.put(wire, new Wire(inputs.get(wire)));
+			}
+			circuit.setInputs(partyInputs, party);
+		}
+		return toValues(circuit.compute());
+	}
+
+	/**
+	 * Returns the values of the given wires.
+	 */
+	public static Map<Integer, Byte> toValues(Map<Integer, Wire> wires) {
+		Map<Integer, Byte> values = new HashMap<Integer, Byte>();
+		for (Map.Entry<Integer, Wire> wire : wires.entrySet()) {
+			values.put(wire.getKey(), wire.getValue().getValue());
+		}
+		return values;
+	}
+
+	private static BitSet randomTruthTable(Random random, int numOfRows, boolean allowConstant) {
+		BitSet truthTable;
+		do {
+			truthTable = new BitSet();
+			for (int row = 0; row < numOfRows; row++) {
+				if (random.nextBoolean()) {
+					truthTable.set(row);
+				}
+			}
+		} while (!allowConstant && (truthTable.isEmpty() || truthTable.cardinality() == numOfRows));
+		return truthTable;
+	}
+}
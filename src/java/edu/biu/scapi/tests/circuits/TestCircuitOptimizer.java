@@ -0,0 +1,75 @@
+package edu.biu.scapi.tests.circuits;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.CircuitOptimizer;
+import edu.biu.scapi.circuits.circuit.OptimizedCircuit;
+
+/**
+ * Checks that the optimized circuits compute the same outputs as the original random circuits.
+ */
+public class TestCircuitOptimizer {
+
+	private static final int NUM_OF_CIRCUITS = 200;
+	private static final int NUM_OF_INPUTS = 32;
+
+	@Test
+	public void TestRandomCircuitsAreEquivalent() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 3, 40, 6, true, true);
+			OptimizedCircuit optimized = new CircuitOptimizer().optimize(circuit);
+
+			assertArrayEquals(circuit.getOutputWireIndices(), optimized.getCircuit().getOutputWireIndices());
+			assertTrue(optimized.getOptimizedGates() <= optimized.getOriginalGates());
+			assertTrue(optimized.getOptimizedNonXorGates() <= optimized.getOriginalNonXorGates());
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), RandomCircuits.compute(optimized.getCircuit(), inputs));
+			}
+		}
+	}
+
+	@Test
+	public void TestRandomCircuitsWithFixedInputsAreEquivalent() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 3, 40, 6, true, true);
+
+			//Fixes the inputs of the first party.
+			Map<Integer, Byte> fixedInputs = new HashMap<Integer, Byte>();
+			for (int wire : circuit.getInputWireIndices(1)) {
+				fixedInputs.put(wire, (byte) random.nextInt(2));
+			}
+			OptimizedCircuit optimized = new CircuitOptimizer().optimize(circuit, fixedInputs);
+
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				inputs.putAll(fixedInputs);
+				assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), RandomCircuits.compute(optimized.getCircuit(), inputs));
+			}
+		}
+	}
+
+	@Test
+	public void TestOptimizationIsRepeatable() throws Exception {
+		//Optimizing an optimized circuit does not change its outputs, and does not add gates.
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 3, 40, 6, true, true);
+			BooleanCircuit once = new CircuitOptimizer().optimize(circuit).getCircuit();
+			OptimizedCircuit twice = new CircuitOptimizer().optimize(once);
+
+			assertTrue(twice.getOptimizedGates() <= once.getGates().length);
+			Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+			assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), RandomCircuits.compute(twice.getCircuit(), inputs));
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package edu.biu.scapi.tests.circuits;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.BooleanCircuitCache;
+import edu.biu.scapi.circuits.circuit.CompiledCircuitFormat;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+
+/**
+ * Writes random circuits in the compiled format and reads them back, directly and through the circuit cache.
+ */
+public class TestCompiledCircuitFormat {
+
+	private static final int NUM_OF_CIRCUITS = 50;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		BooleanCircuitCache.clear();
+	}
+
+	@Test
+	public void TestWriteReadRoundTrip() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 5, 100, 10, true, true);
+			File compiled = folder.newFile();
+			CompiledCircuitFormat.write(circuit, compiled);
+
+			assertTrue(CompiledCircuitFormat.isCompiled(compiled));
+			assertSameCircuit(circuit, CompiledCircuitFormat.read(compiled), random);
+		}
+	}
+
+	@Test
+	public void TestConvertTextCircuit() throws Exception {
+		Random random = new Random(0);
+		BooleanCircuit circuit = RandomCircuits.create(random, 5, 100, 10, true, true);
+		File text = writeText(circuit);
+		File compiled = folder.newFile();
+		CompiledCircuitFormat.convert(text, compiled);
+
+		assertFalse(CompiledCircuitFormat.isCompiled(text));
+		assertTrue(compiled.length() < text.length());
+		assertSameCircuit(new BooleanCircuit(text), CompiledCircuitFormat.read(compiled), random);
+	}
+
+	@Test
+	public void TestTruncatedFileIsRejected() throws Exception {
+		File compiled = folder.newFile();
+		CompiledCircuitFormat.write(RandomCircuits.create(new Random(0), 5, 100, 10, true, true), compiled);
+		byte[] bytes = Files.readAllBytes(compiled.toPath());
+
+		for (int length = 0; length < bytes.length; length += 7) {
+			try {
+				CompiledCircuitFormat.read(ByteBuffer.wrap(Arrays.copyOf(bytes, length)));
+				fail("a circuit truncated to " + length + " bytes was read");
+			} catch (CircuitFileFormatException e) {
+			}
+		}
+	}
+
+	@Test
+	public void TestCacheHit() throws Exception {
+		Random random = new Random(0);
+		BooleanCircuit circuit = RandomCircuits.create(random, 5, 100, 10, true, true);
+		File compiled = folder.newFile();
+		CompiledCircuitFormat.write(circuit, compiled);
+
+		//The second load returns a new circuit object that shares the gates of the first one.
+		BooleanCircuit first = BooleanCircuitCache.load(compiled);
+		BooleanCircuit second = BooleanCircuitCache.load(compiled);
+		assertNotSame(first, second);
+		assertSame(first.getGates(), second.getGates());
+		assertSame(first.getLayers(), second.getLayers());
+		assertSameCircuit(circuit, first, random);
+		assertSameCircuit(circuit, second, random);
+
+		//A copy of the file is found by its content.
+		File copy = folder.newFile();
+		Files.write(copy.toPath(), Files.readAllBytes(compiled.toPath()));
+		assertSame(first.getGates(), BooleanCircuitCache.load(copy).getGates());
+
+		//A text file and a changed file are loaded again.
+		BooleanCircuit fromText = BooleanCircuitCache.load(writeText(circuit));
+		assertNotSame(first.getGates(), fromText.getGates());
+		assertSameCircuit(circuit, fromText, random);
+		CompiledCircuitFormat.write(RandomCircuits.create(random, 5, 100, 10, true, true), copy);
+		assertNotSame(first.getGates(), BooleanCircuitCache.load(copy).getGates());
+
+		//After clearing the cache, the file is loaded again.
+		BooleanCircuitCache.clear();
+		assertNotSame(first.getGates(), BooleanCircuitCache.load(compiled).getGates());
+	}
+
+	/*
+	 * Checks that the circuits have the same gates, inputs, outputs and layers, and that they compute the same outputs.
+	 */
+	private void assertSameCircuit(BooleanCircuit expected, BooleanCircuit actual, Random random) throws Exception {
+		assertEquals(expected, actual);
+		assertEquals(expected.getNumberOfParties(), actual.getNumberOfParties());
+		for (int party = 1; party <= expected.getNumberOfParties(); party++) {
+			assertEquals(expected.getInputWireIndices(party), actual.getInputWireIndices(party));
+		}
+		assertArrayEquals(expected.getOutputWireIndices(), actual.getOutputWireIndices());
+		assertTrue(Arrays.deepEquals(expected.getLayers(), actual.getLayers()));
+
+		for (int i = 0; i < 8; i++) {
+			Map<Integer, Byte> inputs = RandomCircuits.randomInputs(expected, random);
+			assertEquals(RandomCircuits.compute(expected, inputs), RandomCircuits.compute(actual, inputs));
+		}
+	}
+
+	/*
+	 * Writes the given circuit in the text format of BooleanCircuit(File).
+	 */
+	private File writeText(BooleanCircuit circuit) throws Exception {
+		File text = folder.newFile();
+		PrintWriter out = new PrintWriter(new FileOutputStream(text));
+		try {
+			Gate[] gates = circuit.getGates();
+			out.println(gates.length + " " + circuit.getNumberOfParties());
+			for (int party = 1; party <= circuit.getNumberOfParties(); party++) {
+				out.print(party + " " + circuit.getNumberOfInputs(party));
+				for (int w : circuit.getInputWireIndices(party)) {
+					out.print(" " + w);
+				}
+				out.println();
+			}
+			out.print(circuit.getOutputWireIndices().length);
+			for (int w : circuit.getOutputWireIndices()) {
+				out.print(" " + w);
+			}
+			out.println();
+			for (Gate gate : gates) {
+				StringBuilder line = new StringBuilder();
+				line.append(gate.getInputWireIndices().length).append(' ').append(gate.getOutputWireIndices().length);
+				for (int w : gate.getInputWireIndices()) {
+					line.append(' ').append(w);
+				}
+				for (int w : gate.getOutputWireIndices()) {
+					line.append(' ').append(w);
+				}
+				line.append(' ');
+				for (int row = 0; row < (1 << gate.getInputWireIndices().length); row++) {
+					line.append(gate.getTruthTable().get(row) ? '1' : '0');
+				}
+				out.println(line);
+			}
+		} finally {
+			out.close();
+		}
+		return text;
+	}
+}
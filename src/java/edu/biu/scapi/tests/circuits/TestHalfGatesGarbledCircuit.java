@@ -0,0 +1,157 @@
+package edu.biu.scapi.tests.circuits;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.garbledCircuit.CircuitCreationValues;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuit;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuitImp;
+import edu.biu.scapi.circuits.garbledCircuit.HalfGatesGarblingParameters;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prg.ScPrgFromPrf;
+
+/**
+ * Garbles random circuits with half gates and checks that the garbled computation gives the outputs of the circuit, both for the
+ * party that garbled the circuit and for a party that received the garbled tables.
+ */
+public class TestHalfGatesGarbledCircuit {
+
+	private static final int NUM_OF_CIRCUITS = 30;
+	private static final int NUM_OF_INPUTS = 16;
+
+	@Test
+	public void TestGarbledOutputsMatchCircuit() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 4, 60, 8, false, true);
+			GarbledBooleanCircuit garbled = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+			CircuitCreationValues values = garbled.garble();
+
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), computeGarbled(garbled, inputs, values));
+			}
+		}
+	}
+
+	@Test
+	public void TestGarbledCircuitIsVerified() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			BooleanCircuit circuit = RandomCircuits.create(new Random(seed), 4, 60, 8, false, false);
+			GarbledBooleanCircuit garbled = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+			CircuitCreationValues values = garbled.garble();
+			assertTrue("circuit " + seed, garbled.verify(values.getAllInputWireValues()));
+
+			//A changed garbled table is found.
+			byte[][] tables = garbled.getGarbledTables().toDoubleByteArray();
+			for (byte[] table : tables) {
+				if (table != null && table.length > 0) {
+					table[0] ^= 1;
+				}
+			}
+			assertFalse("circuit " + seed, garbled.verify(values.getAllInputWireValues()));
+		}
+	}
+
+	@Test
+	public void TestHalfGateAfterConstantGateIsVerified() throws Exception {
+		//The first gate always outputs 1, so its output wire has a single key. The second gate is a half gate that reads it.
+		BitSet one = new BitSet();
+		one.set(0, 4);
+		BitSet and = new BitSet();
+		and.set(3);
+		Gate[] gates = {new Gate(0, one, new int[]{0, 1}, new int[]{2}), new Gate(1, and, new int[]{2, 0}, new int[]{3})};
+		BooleanCircuit circuit = new BooleanCircuit(gates, new int[]{3}, twoPartyInputs());
+
+		GarbledBooleanCircuit garbled = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+		CircuitCreationValues values = garbled.garble();
+		assertTrue(garbled.verify(values.getAllInputWireValues()));
+		for (int x = 0; x < 4; x++) {
+			Map<Integer, Byte> input = twoBitInput(x);
+			assertEquals(Byte.valueOf(input.get(0)), computeGarbled(garbled, input, values).get(3));
+		}
+	}
+
+	@Test
+	public void TestReceivedTablesMatchCircuit() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 4, 60, 8, false, true);
+			GarbledBooleanCircuit garbler = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+			CircuitCreationValues values = garbler.garble();
+
+			//The evaluator gets only the garbled tables, the translation table and the keys of its inputs.
+			GarbledBooleanCircuit evaluator = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+			evaluator.setGarbledTables(garbler.getGarbledTables());
+			evaluator.setTranslationTable(garbler.getTranslationTable());
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), computeGarbled(evaluator, inputs, values));
+			}
+		}
+	}
+
+	@Test
+	public void TestSeededGarblingIsRepeatable() throws Exception {
+		BooleanCircuit circuit = RandomCircuits.create(new Random(0), 4, 60, 8, false, true);
+		byte[] seed = new byte[16];
+		new Random(1).nextBytes(seed);
+
+		GarbledBooleanCircuit first = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit), new ScPrgFromPrf(new BcAES()));
+		GarbledBooleanCircuit second = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit), new ScPrgFromPrf(new BcAES()));
+		first.garble(seed);
+		second.garble(seed);
+		assertTrue(Arrays.deepEquals(first.getGarbledTables().toDoubleByteArray(), second.getGarbledTables().toDoubleByteArray()));
+		assertEquals(first.getTranslationTable(), second.getTranslationTable());
+	}
+
+	@Test
+	public void TestAndGateHasTwoCiphertexts() throws Exception {
+		BitSet and = new BitSet();
+		and.set(3);
+		BooleanCircuit circuit = new BooleanCircuit(new Gate[]{new Gate(0, and, new int[]{0, 1}, new int[]{2})}, new int[]{2}, twoPartyInputs());
+
+		GarbledBooleanCircuit garbled = new GarbledBooleanCircuitImp(new HalfGatesGarblingParameters(circuit));
+		CircuitCreationValues values = garbled.garble();
+		int size = 0;
+		for (byte[] table : garbled.getGarbledTables().toDoubleByteArray()) {
+			size += (table == null) ? 0 : table.length;
+		}
+		assertEquals(32, size);
+
+		for (int x = 0; x < 4; x++) {
+			Map<Integer, Byte> input = twoBitInput(x);
+			assertEquals(Byte.valueOf((byte) ((x & 1) & (x >> 1))), computeGarbled(garbled, input, values).get(2));
+		}
+	}
+
+	//Wire 0 is the input of party 1 and wire 1 is the input of party 2.
+	private ArrayList<ArrayList<Integer>> twoPartyInputs() {
+		ArrayList<ArrayList<Integer>> inputs = new ArrayList<ArrayList<Integer>>();
+		inputs.add(new ArrayList<Integer>(Arrays.asList(0)));
+		inputs.add(new ArrayList<Integer>(Arrays.asList(1)));
+		return inputs;
+	}
+
+	private Map<Integer, Byte> twoBitInput(int x) {
+		Map<Integer, Byte> input = new HashMap<Integer, Byte>();
+		input.put(0, (byte) (x & 1));
+		input.put(1, (byte) (x >> 1));
+		return input;
+	}
+
+	private Map<Integer, Byte> computeGarbled(GarbledBooleanCircuit garbled, Map<Integer, Byte> inputs, CircuitCreationValues values) throws Exception {
+		garbled.setGarbledInputFromUngarbledInput(inputs, values.getAllInputWireValues());
+		return RandomCircuits.toValues(garbled.translate(garbled.compute()));
+	}
+}
@@ -0,0 +1,151 @@
+package edu.biu.scapi.tests.circuits;
+
+import static org.junit.Assert.*;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import javax.crypto.SecretKey;
+
+import org.junit.Test;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.encryption.AES128MultiKeyEncryption;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+import edu.biu.scapi.circuits.garbledCircuit.CircuitCreationValues;
+import edu.biu.scapi.circuits.garbledCircuit.FreeXORGarblingParameters;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuit;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuitImp;
+import edu.biu.scapi.circuits.garbledCircuit.GarblingParameters;
+import edu.biu.scapi.circuits.garbledCircuit.HalfGatesGarblingParameters;
+import edu.biu.scapi.circuits.garbledCircuit.StandardGarblingParameters;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prg.ScPrgFromPrf;
+
+/**
+ * Checks that garbling and computing the layers of a circuit in parallel gives the same garbled circuit and outputs as the 
+ * sequential garbling, for each type of circuit.
+ */
+public class TestLayeredGarbling {
+
+	private static final int NUM_OF_THREADS = 4;
+	private static final int NUM_OF_CIRCUITS = 10;
+	private static final int NUM_OF_INPUTS = 8;
+
+	/**
+	 * Creates the garbling parameters of one thread. Each thread gets its own encryption scheme.
+	 */
+	private interface ParametersFactory {
+		GarblingParameters create(BooleanCircuit circuit);
+	}
+
+	@Test
+	public void TestStandardLayeredGarblingMatchesSequential() throws Exception {
+		assertLayeredMatchesSequential(new ParametersFactory() {
+			public GarblingParameters create(BooleanCircuit circuit) {
+				return new StandardGarblingParameters(circuit, new AES128MultiKeyEncryption(new BcAES()), new SecureRandom(), false);
+			}
+		});
+	}
+
+	@Test
+	public void TestStandardRowReductionLayeredGarblingMatchesSequential() throws Exception {
+		assertLayeredMatchesSequential(new ParametersFactory() {
+			public GarblingParameters create(BooleanCircuit circuit) {
+				return new StandardGarblingParameters(circuit, new AES128MultiKeyEncryption(new BcAES()), new SecureRandom(), true);
+			}
+		});
+	}
+
+	@Test
+	public void TestFreeXORLayeredGarblingMatchesSequential() throws Exception {
+		assertLayeredMatchesSequential(new ParametersFactory() {
+			public GarblingParameters create(BooleanCircuit circuit) {
+				return new FreeXORGarblingParameters(circuit, new AESFixedKeyMultiKeyEncryption(new BcAES()), false);
+			}
+		});
+	}
+
+	@Test
+	public void TestFreeXORRowReductionLayeredGarblingMatchesSequential() throws Exception {
+		assertLayeredMatchesSequential(new ParametersFactory() {
+			public GarblingParameters create(BooleanCircuit circuit) {
+				return new FreeXORGarblingParameters(circuit, new AESFixedKeyMultiKeyEncryption(new BcAES()), true);
+			}
+		});
+	}
+
+	@Test
+	public void TestHalfGatesLayeredGarblingMatchesSequential() throws Exception {
+		assertLayeredMatchesSequential(new ParametersFactory() {
+			public GarblingParameters create(BooleanCircuit circuit) {
+				return new HalfGatesGarblingParameters(circuit, new BcAES());
+			}
+		});
+	}
+
+	@Test
+	public void TestLayeredGarblingWithoutSeedComputesCircuit() throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 8, 200, 10, false, true);
+			GarblingParameters[] threadInputs = new GarblingParameters[NUM_OF_THREADS];
+			for (int i = 0; i < NUM_OF_THREADS; i++) {
+				threadInputs[i] = new FreeXORGarblingParameters(circuit, new AESFixedKeyMultiKeyEncryption(new BcAES()), false);
+			}
+			GarbledBooleanCircuit layered = new GarbledBooleanCircuitImp(threadInputs);
+			CircuitCreationValues values = layered.garble();
+
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				assertEquals("circuit " + seed, RandomCircuits.compute(circuit, inputs), computeGarbled(layered, inputs, values));
+			}
+		}
+	}
+
+	/*
+	 * Garbles random circuits with the same seed sequentially and in layers. Checks that the garbled tables, the translation 
+	 * tables and the input keys are the same, and that both circuits compute the outputs of the ungarbled circuit.
+	 */
+	private void assertLayeredMatchesSequential(ParametersFactory factory) throws Exception {
+		for (int seed = 0; seed < NUM_OF_CIRCUITS; seed++) {
+			Random random = new Random(seed);
+			BooleanCircuit circuit = RandomCircuits.create(random, 8, 200, 10, false, true);
+			byte[] garblingSeed = new byte[16];
+			random.nextBytes(garblingSeed);
+
+			GarbledBooleanCircuit sequential = new GarbledBooleanCircuitImp(factory.create(circuit), new ScPrgFromPrf(new BcAES()));
+			GarblingParameters[] threadInputs = new GarblingParameters[NUM_OF_THREADS];
+			for (int i = 0; i < NUM_OF_THREADS; i++) {
+				threadInputs[i] = factory.create(circuit);
+			}
+			GarbledBooleanCircuit layered = new GarbledBooleanCircuitImp(threadInputs, new ScPrgFromPrf(new BcAES()));
+
+			CircuitCreationValues sequentialValues = sequential.garble(garblingSeed);
+			CircuitCreationValues layeredValues = layered.garble(garblingSeed);
+			assertTrue("circuit " + seed, Arrays.deepEquals(sequential.getGarbledTables().toDoubleByteArray(), 
+					layered.getGarbledTables().toDoubleByteArray()));
+			assertEquals(sequential.getTranslationTable(), layered.getTranslationTable());
+			for (Map.Entry<Integer, SecretKey[]> keys : sequentialValues.getAllInputWireValues().entrySet()) {
+				SecretKey[] layeredKeys = layeredValues.getAllInputWireValues().get(keys.getKey());
+				for (int value = 0; value < 2; value++) {
+					assertArrayEquals(keys.getValue()[value].getEncoded(), layeredKeys[value].getEncoded());
+				}
+			}
+
+			for (int i = 0; i < NUM_OF_INPUTS; i++) {
+				Map<Integer, Byte> inputs = RandomCircuits.randomInputs(circuit, random);
+				Map<Integer, Byte> expected = RandomCircuits.compute(circuit, inputs);
+				assertEquals("circuit " + seed, expected, computeGarbled(sequential, inputs, sequentialValues));
+				assertEquals("circuit " + seed, expected, computeGarbled(layered, inputs, layeredValues));
+			}
+		}
+	}
+
+	private Map<Integer, Byte> computeGarbled(GarbledBooleanCircuit garbled, Map<Integer, Byte> inputs, CircuitCreationValues values) throws Exception {
+		garbled.setGarbledInputFromUngarbledInput(inputs, values.getAllInputWireValues());
+		return RandomCircuits.toValues(garbled.translate(garbled.compute()));
+	}
+}
@@ -0,0 +1,72 @@
+package edu.biu.scapi.tests.coinTossing;
+
+import static org.junit.Assert.*;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.interactiveMidProtocols.coinTossing.CTBitOutput;
+import edu.biu.scapi.interactiveMidProtocols.coinTossing.CTRandomnessPool;
+import edu.biu.scapi.interactiveMidProtocols.coinTossing.CTStringOutput;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+
+/**
+ * Checks that pools built from the same tossed seed give the same coins, also when the coins span several derived blocks.
+ */
+public class TestCTRandomnessPool {
+
+	private byte[] seed;
+	private CTRandomnessPool first;
+	private CTRandomnessPool second;
+
+	@Before
+	public void setUp() {
+		seed = new byte[32];
+		new SecureRandom().nextBytes(seed);
+		first = new CTRandomnessPool(new CTStringOutput(seed), new HKDF(new BcHMAC()));
+		second = new CTRandomnessPool(new CTStringOutput(seed), new HKDF(new BcHMAC()));
+	}
+
+	@Test
+	public void TestSameSeedGivesSameStrings() {
+		//The lengths cross the 4 KB blocks at different positions.
+		int[] lengths = {0, 8, 1000 * 8, 4096 * 8, 3 * 8, 10000 * 8};
+		for (int l : lengths) {
+			byte[] fromFirst = getString(first, l);
+			assertEquals(l / 8, fromFirst.length);
+			assertArrayEquals(fromFirst, getString(second, l));
+		}
+	}
+
+	@Test
+	public void TestSameSeedGivesSameMixedCoins() {
+		for (int i = 0; i < 2000; i++) {
+			byte bit = getBit(first);
+			assertTrue(bit == 0 || bit == 1);
+			assertEquals(bit, getBit(second));
+			if (i % 3 == 0) {
+				assertArrayEquals(getString(first, 13 * 8), getString(second, 13 * 8));
+			}
+		}
+	}
+
+	@Test
+	public void TestDifferentSeedsGiveDifferentStrings() {
+		byte[] otherSeed = seed.clone();
+		otherSeed[0] ^= 1;
+		CTRandomnessPool other = new CTRandomnessPool(new CTStringOutput(otherSeed), new HKDF(new BcHMAC()));
+		assertFalse(Arrays.equals(getString(first, 64 * 8), getString(other, 64 * 8)));
+	}
+
+	private byte[] getString(CTRandomnessPool pool, int l) {
+		return ((CTStringOutput) pool.getString(l)).getOutput();
+	}
+
+	private byte getBit(CTRandomnessPool pool) {
+		return ((CTBitOutput) pool.getBit()).getOutput();
+	}
+}
@@ -0,0 +1,110 @@
+package edu.biu.scapi.tests.comm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import edu.biu.scapi.comm.PlainChannel;
+
+/**
+ * An in-memory channel for tests. The two ends of a pair are connected by queues, and every message is serialized on send, 
+ * so that the receiver gets a copy as it would over a socket. <p>
+ * The messages that wait to be received can be taken and delivered again, in order to tamper with the traffic.
+ */
+public class LoopbackChannel extends PlainChannel {
+	
+	private static final long RECEIVE_TIMEOUT_SECONDS = 30;
+	
+	private BlockingQueue<byte[]> pending = new LinkedBlockingQueue<byte[]>();	//The messages sent to this end.
+	private LoopbackChannel peer;
+	private volatile boolean closed;
+	
+	/**
+	 * Returns two connected ends.
+	 */
+	public static LoopbackChannel[] createPair(){
+		LoopbackChannel first = new LoopbackChannel();
+		LoopbackChannel second = new LoopbackChannel();
+		first.peer = second;
+		second.peer = first;
+		first.setState(State.READY);
+		second.setState(State.READY);
+		return new LoopbackChannel[]{first, second};
+	}
+	
+	@Override
+	public void send(Serializable data) throws IOException {
+		peer.deliver(data);
+	}
+
+	/**
+	 * Waits for the next message sent by the other end.
+	 * @throws IOException if no message arrived in 30 seconds, so that a broken protocol fails the test instead of hanging it.
+	 */
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		byte[] message;
+		try {
+			message = pending.poll(RECEIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			throw new IOException("interrupted while waiting for a message");
+		}
+		if (message == null){
+			throw new IOException("no message was received");
+		}
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(message));
+		return (Serializable) in.readObject();
+	}
+	
+	/**
+	 * Takes all the messages that wait to be received by this end.
+	 */
+	public List<Serializable> takePending() throws IOException, ClassNotFoundException{
+		List<byte[]> messages = new ArrayList<byte[]>();
+		pending.drainTo(messages);
+		List<Serializable> result = new ArrayList<Serializable>();
+		for (byte[] message : messages){
+			result.add((Serializable) new ObjectInputStream(new ByteArrayInputStream(message)).readObject());
+		}
+		return result;
+	}
+	
+	/**
+	 * Puts the given message in the queue of this end, as if the other end sent it.
+	 */
+	public void deliver(Serializable data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(data);
+		out.close();
+		pending.add(bytes.toByteArray());
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	protected boolean connect() throws IOException {
+		return true;
+	}
+
+	@Override
+	protected boolean isConnected() {
+		return !closed;
+	}
+}
@@ -0,0 +1,156 @@
+package edu.biu.scapi.tests.comm;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.twoPartyComm.ActiveMQCommunicationSetup;
+import edu.biu.scapi.comm.twoPartyComm.QueuePartyData;
+import edu.biu.scapi.exceptions.DuplicatePartyException;
+
+/**
+ * Tests the asynchronous queue channels created by {@link ActiveMQCommunicationSetup} against an embedded broker.
+ */
+public class TestAsyncQueueChannel {
+	
+	private static final String BROKER_URL = "vm://scapi-test?create=false";
+	private static BrokerService broker;
+	
+	private static int connectionIndex;		//Each test uses new queues.
+	
+	private ActiveMQCommunicationSetup firstSetup;
+	private ActiveMQCommunicationSetup secondSetup;
+	private Channel first;
+	private Channel second;
+	
+	@BeforeClass
+	public static void startBroker() throws Exception {
+		broker = new BrokerService();
+		broker.setBrokerName("scapi-test");
+		broker.setPersistent(false);
+		broker.setUseJmx(false);
+		broker.start();
+		broker.waitUntilStarted();
+	}
+	
+	@AfterClass
+	public static void stopBroker() throws Exception {
+		broker.stop();
+		broker.waitUntilStopped();
+	}
+	
+	@Before
+	public void setUp() throws DuplicatePartyException, TimeoutException {
+		QueuePartyData party1 = new QueuePartyData(1);
+		QueuePartyData party2 = new QueuePartyData(2);
+		firstSetup = new ActiveMQCommunicationSetup(new ActiveMQConnectionFactory(BROKER_URL), party1, party2, true);
+		secondSetup = new ActiveMQCommunicationSetup(new ActiveMQConnectionFactory(BROKER_URL), party2, party1, true);
+		
+		String[] ids = new String[]{"async" + (connectionIndex++)};
+		Map<String, Channel> firstChannels = firstSetup.prepareForCommunication(ids, 10000);
+		Map<String, Channel> secondChannels = secondSetup.prepareForCommunication(ids, 10000);
+		first = firstChannels.get(ids[0]);
+		second = secondChannels.get(ids[0]);
+	}
+	
+	@After
+	public void tearDown() {
+		first.close();
+		second.close();
+		firstSetup.close();
+		secondSetup.close();
+	}
+	
+	@Test
+	public void TestSendReceive() throws IOException, ClassNotFoundException {
+		byte[] bytes = new byte[]{1, 2, 3, 4, 5};
+		first.send(bytes);
+		first.send("a string");
+		first.send(new int[]{7, 8});
+		first.send(null);
+		
+		assertArrayEquals(bytes, (byte[]) second.receive());
+		assertEquals("a string", second.receive());
+		assertArrayEquals(new int[]{7, 8}, (int[]) second.receive());
+		assertNull(second.receive());
+		
+		second.send(Integer.valueOf(42));
+		assertEquals(Integer.valueOf(42), first.receive());
+	}
+	
+	@Test
+	public void TestEmptyAndLargeMessages() throws IOException, ClassNotFoundException {
+		byte[] large = new byte[3 * 1024 * 1024];
+		new Random(1).nextBytes(large);
+		
+		first.send(new byte[0]);
+		first.send(large);
+		
+		assertArrayEquals(new byte[0], (byte[]) second.receive());
+		assertArrayEquals(large, (byte[]) second.receive());
+	}
+	
+	@Test
+	public void TestOrdering() throws IOException, ClassNotFoundException {
+		//More messages and bytes than one batch, with sizes that close batches at different points.
+		Random random = new Random(2);
+		List<Serializable> sent = new ArrayList<Serializable>();
+		for (int i = 0; i < 1000; i++) {
+			Serializable msg;
+			if (i % 3 == 0) {
+				msg = Integer.valueOf(i);
+			} else {
+				byte[] bytes = new byte[random.nextInt(3000)];
+				random.nextBytes(bytes);
+				msg = bytes;
+			}
+			sent.add(msg);
+			first.send(msg);
+		}
+		
+		for (int i = 0; i < sent.size(); i++) {
+			Serializable msg = second.receive();
+			if (sent.get(i) instanceof byte[]) {
+				assertTrue("message " + i + " is out of order", Arrays.equals((byte[]) sent.get(i), (byte[]) msg));
+			} else {
+				assertEquals(sent.get(i), msg);
+			}
+		}
+	}
+	
+	@Test
+	public void TestPingPong() throws IOException, ClassNotFoundException {
+		//Each party waits for the other's answer, so every send must be committed without waiting for a full batch.
+		first.send(Integer.valueOf(0));
+		for (int i = 1; i < 200; i += 2) {
+			assertEquals(Integer.valueOf(i - 1), second.receive());
+			second.send(Integer.valueOf(i));
+			assertEquals(Integer.valueOf(i), first.receive());
+			first.send(Integer.valueOf(i + 1));
+		}
+		assertEquals(Integer.valueOf(200), second.receive());
+	}
+	
+	@Test
+	public void TestSendWithoutReceiveIsDelivered() throws Exception {
+		//A send that is not followed by a receive is committed by the linger timer.
+		first.send("lonely");
+		assertEquals("lonely", second.receive());
+	}
+}
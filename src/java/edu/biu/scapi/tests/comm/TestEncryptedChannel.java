@@ -0,0 +1,70 @@
+package edu.biu.scapi.tests.comm;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.comm.EncryptedChannel;
+import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScCTREncRandomIV;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * Sends objects over two EncryptedChannels connected by a loopback channel, in both wire formats.
+ */
+public class TestEncryptedChannel {
+
+	private LoopbackChannel[] channels;
+	private EncryptedChannel sender;
+	private EncryptedChannel receiver;
+
+	@Before
+	public void setUp() throws Exception {
+		channels = LoopbackChannel.createPair();
+		ScCTREncRandomIV senderEnc = new ScCTREncRandomIV(new BcAES());
+		SecretKey key = senderEnc.generateKey(128);
+		ScCTREncRandomIV receiverEnc = new ScCTREncRandomIV(new BcAES());
+		sender = new EncryptedChannel(channels[0], senderEnc);
+		receiver = new EncryptedChannel(channels[1], receiverEnc);
+		sender.setKey(key);
+		receiver.setKey(key);
+	}
+
+	@Test
+	public void TestByteArrayFormat() throws Exception {
+		sender.send("message");
+		assertEquals("message", receiver.receive());
+	}
+
+	@Test
+	public void TestCiphertextObjectFormat() throws Exception {
+		sender.setSendCiphertextObjects(true);
+		sender.send("message");
+
+		//The message is sent as a ciphertext object, which older receivers expect.
+		List<Serializable> pending = channels[1].takePending();
+		assertEquals(1, pending.size());
+		assertTrue(pending.get(0) instanceof SymmetricCiphertext);
+		channels[1].deliver(pending.get(0));
+		assertEquals("message", receiver.receive());
+	}
+
+	@Test
+	public void TestMixedFormats() throws Exception {
+		int[] values = new int[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		for (int i = 0; i < 4; i++) {
+			sender.setSendCiphertextObjects(i % 2 == 0);
+			sender.send(values);
+			assertArrayEquals(values, (int[]) receiver.receive());
+		}
+	}
+}
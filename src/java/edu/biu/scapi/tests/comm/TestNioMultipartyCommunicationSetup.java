@@ -0,0 +1,273 @@
+package edu.biu.scapi.tests.comm;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.multiPartyComm.NioMultipartyCommunicationSetup;
+import edu.biu.scapi.comm.twoPartyComm.PartyData;
+import edu.biu.scapi.comm.twoPartyComm.SocketPartyData;
+
+public class TestNioMultipartyCommunicationSetup {
+	
+	private ExecutorService executor;
+	private List<NioMultipartyCommunicationSetup> setups;
+	
+	@Before
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+		setups = new ArrayList<NioMultipartyCommunicationSetup>();
+	}
+	
+	@After
+	public void tearDown() {
+		for (NioMultipartyCommunicationSetup setup : setups) {
+			setup.close();
+		}
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Returns the data of parties that listen on free ports of the local host, sorted by their ports.
+	 */
+	private static SocketPartyData[] createParties(int numOfParties) throws IOException {
+		int[] ports = new int[numOfParties];
+		ServerSocket[] sockets = new ServerSocket[numOfParties];
+		for (int i = 0; i < numOfParties; i++) {
+			sockets[i] = new ServerSocket(0);
+			ports[i] = sockets[i].getLocalPort();
+		}
+		for (int i = 0; i < numOfParties; i++) {
+			sockets[i].close();
+		}
+		Arrays.sort(ports);
+		
+		SocketPartyData[] parties = new SocketPartyData[numOfParties];
+		for (int i = 0; i < numOfParties; i++) {
+			parties[i] = new SocketPartyData(InetAddress.getByName("127.0.0.1"), ports[i]);
+		}
+		return parties;
+	}
+	
+	/**
+	 * Creates the setup of the given party. The other parties are given in the list.
+	 */
+	private NioMultipartyCommunicationSetup createSetup(SocketPartyData me, SocketPartyData... others) {
+		List<PartyData> list = new ArrayList<PartyData>();
+		list.add(me);
+		list.addAll(Arrays.asList(others));
+		NioMultipartyCommunicationSetup setup = new NioMultipartyCommunicationSetup(list);
+		synchronized (setups) {
+			setups.add(setup);
+		}
+		return setup;
+	}
+	
+	/**
+	 * Runs the connection stage of the given setup in another thread, with the given channel names for each of the other parties.
+	 */
+	private Future<Map<PartyData, Map<String, Channel>>> prepare(final NioMultipartyCommunicationSetup setup, SocketPartyData[] others, 
+			final String[] names, final long timeout) {
+		final Map<PartyData, Object> connections = new HashMap<PartyData, Object>();
+		for (SocketPartyData other : others) {
+			connections.put(other, names);
+		}
+		return executor.submit(new Callable<Map<PartyData, Map<String, Channel>>>() {
+			public Map<PartyData, Map<String, Channel>> call() throws Exception {
+				return setup.prepareForCommunication(connections, timeout);
+			}
+		});
+	}
+	
+	/**
+	 * Connects to the given party and keeps the socket open, waiting until the party listens.
+	 */
+	private static Socket connectWhenListening(SocketPartyData party) throws InterruptedException {
+		while (true) {
+			try {
+				return new Socket(party.getIpAddress(), party.getPort());
+			} catch (IOException e) {
+				Thread.sleep(50);
+			}
+		}
+	}
+	
+	@Test(timeout = 120000)
+	public void TestManyParties() throws Exception {
+		final int numOfParties = 12;
+		final int p2pSize = 300 * 1024;
+		final SocketPartyData[] parties = createParties(numOfParties);
+		
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		for (int i = 0; i < numOfParties; i++) {
+			final int me = i;
+			final SocketPartyData[] others = new SocketPartyData[numOfParties - 1];
+			for (int j = 0, k = 0; j < numOfParties; j++) {
+				if (j != me) {
+					others[k++] = parties[j];
+				}
+			}
+			final NioMultipartyCommunicationSetup setup = createSetup(parties[me], others);
+			final Future<Map<PartyData, Map<String, Channel>>> connected = prepare(setup, others, new String[]{"broadcast", "p2p"}, 60000);
+			
+			results.add(executor.submit(new Callable<Void>() {
+				public Void call() throws Exception {
+					Map<PartyData, Map<String, Channel>> channels = connected.get();
+					
+					//Broadcast the index of this party, and check the indices of the others.
+					setup.broadcast("broadcast", new byte[]{(byte) me});
+					setup.broadcast("broadcast", Integer.valueOf(me));
+					for (int j = 0; j < numOfParties; j++) {
+						if (j != me) {
+							Channel channel = channels.get(parties[j]).get("broadcast");
+							assertArrayEquals(new byte[]{(byte) j}, (byte[]) channel.receive());
+							assertEquals(Integer.valueOf(j), channel.receive());
+						}
+					}
+					
+					//Send a big message to each party. The content depends on the sender and the receiver.
+					for (int j = 0; j < numOfParties; j++) {
+						if (j != me) {
+							byte[] msg = new byte[p2pSize];
+							Arrays.fill(msg, (byte) (me * numOfParties + j));
+							channels.get(parties[j]).get("p2p").send(msg);
+						}
+					}
+					for (int j = 0; j < numOfParties; j++) {
+						if (j != me) {
+							byte[] msg = (byte[]) channels.get(parties[j]).get("p2p").receive();
+							assertEquals(p2pSize, msg.length);
+							assertEquals((byte) (j * numOfParties + me), msg[0]);
+							assertEquals((byte) (j * numOfParties + me), msg[p2pSize - 1]);
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		
+		for (Future<Void> result : results) {
+			result.get();
+		}
+	}
+	
+	@Test(timeout = 60000)
+	public void TestSilentCallerDoesNotBlockTheOthers() throws Exception {
+		SocketPartyData[] parties = createParties(2);
+		//The party with the bigger port accepts the call of the other party.
+		NioMultipartyCommunicationSetup acceptor = createSetup(parties[1], parties[0]);
+		Future<Map<PartyData, Map<String, Channel>>> accepted = prepare(acceptor, new SocketPartyData[]{parties[0]}, new String[]{"0"}, 30000);
+		
+		//Connect before the real party and do not send a handshake.
+		Socket silent = connectWhenListening(parties[1]);
+		try {
+			NioMultipartyCommunicationSetup caller = createSetup(parties[0], parties[1]);
+			Future<Map<PartyData, Map<String, Channel>>> called = prepare(caller, new SocketPartyData[]{parties[1]}, new String[]{"0"}, 30000);
+			
+			Channel acceptorChannel = accepted.get().get(parties[0]).get("0");
+			Channel callerChannel = called.get().get(parties[1]).get("0");
+			callerChannel.send("hello");
+			assertEquals("hello", acceptorChannel.receive());
+		} finally {
+			silent.close();
+		}
+	}
+	
+	@Test(timeout = 60000)
+	public void TestSilentCallerTimesOut() throws Exception {
+		SocketPartyData[] parties = createParties(2);
+		NioMultipartyCommunicationSetup acceptor = createSetup(parties[1], parties[0]);
+		long start = System.currentTimeMillis();
+		Future<Map<PartyData, Map<String, Channel>>> accepted = prepare(acceptor, new SocketPartyData[]{parties[0]}, new String[]{"0"}, 2000);
+		
+		Socket silent = connectWhenListening(parties[1]);
+		try {
+			accepted.get();
+			fail("the connection stage should time out");
+		} catch (java.util.concurrent.ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		} finally {
+			silent.close();
+		}
+		assertTrue("the timeout was not respected", System.currentTimeMillis() - start < 10000);
+	}
+	
+	@Test(timeout = 60000)
+	public void TestIllegalHandshakeIsRejected() throws Exception {
+		SocketPartyData[] parties = createParties(2);
+		NioMultipartyCommunicationSetup acceptor = createSetup(parties[1], parties[0]);
+		Future<Map<PartyData, Map<String, Channel>>> accepted = prepare(acceptor, new SocketPartyData[]{parties[0]}, new String[]{"0"}, 30000);
+		
+		//Send the address of the real caller with a negative name length.
+		Socket illegal = connectWhenListening(parties[1]);
+		DataOutputStream out = new DataOutputStream(illegal.getOutputStream());
+		byte[] ip = parties[0].getIpAddress().getAddress();
+		out.writeByte(ip.length);
+		out.write(ip);
+		out.writeInt(parties[0].getPort());
+		out.writeInt(-1);
+		out.flush();
+		
+		//The acceptor closes the socket.
+		InputStream in = illegal.getInputStream();
+		assertEquals(-1, in.read());
+		illegal.close();
+		
+		//The real caller is still accepted.
+		NioMultipartyCommunicationSetup caller = createSetup(parties[0], parties[1]);
+		Future<Map<PartyData, Map<String, Channel>>> called = prepare(caller, new SocketPartyData[]{parties[1]}, new String[]{"0"}, 30000);
+		called.get().get(parties[1]).get("0").send(Integer.valueOf(3));
+		assertEquals(Integer.valueOf(3), accepted.get().get(parties[0]).get("0").receive());
+	}
+	
+	@Test(timeout = 60000)
+	public void TestMessageSizeIsBounded() throws Exception {
+		SocketPartyData[] parties = createParties(2);
+		NioMultipartyCommunicationSetup acceptor = createSetup(parties[1], parties[0]);
+		acceptor.setMaxMessageSize(1000);
+		NioMultipartyCommunicationSetup caller = createSetup(parties[0], parties[1]);
+		Future<Map<PartyData, Map<String, Channel>>> accepted = prepare(acceptor, new SocketPartyData[]{parties[0]}, new String[]{"0"}, 30000);
+		Future<Map<PartyData, Map<String, Channel>>> called = prepare(caller, new SocketPartyData[]{parties[1]}, new String[]{"0"}, 30000);
+		Channel acceptorChannel = accepted.get().get(parties[0]).get("0");
+		Channel callerChannel = called.get().get(parties[1]).get("0");
+		
+		//The acceptor does not send messages longer than its limit.
+		try {
+			acceptorChannel.send(new byte[1001]);
+			fail("a message longer than the limit was sent");
+		} catch (IOException e) {
+			// expected
+		}
+		
+		//A message in the limit is received, a longer one fails the channel.
+		callerChannel.send(new byte[1000]);
+		assertEquals(1000, ((byte[]) acceptorChannel.receive()).length);
+		callerChannel.send(new byte[1001]);
+		try {
+			acceptorChannel.receive();
+			fail("a message longer than the limit was received");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -141,5 +141,28 @@ public class TestScCbcMacPrepending {
 		Channel c1 = setCommunicationNotNative(party1, party0);
 		testChannel(c1, dataFrom1To0, dataFrom0To1);
 	}
+	
+	@Test
+	public void TestMacBatchMatchesMac() throws InvalidKeyException {
+		SecretKey key = new SecretKeySpec(new byte[16], "AES");
+		//The first mac creates a prp for each thread. The prp of the second mac is keyed before it is wrapped, so the mac does 
+		//not know the key and the threads share its prp.
+		ScCbcMacPrepending keyedMac = new ScCbcMacPrepending();
+		keyedMac.setKey(key);
+		BcAES keyedPrp = new BcAES();
+		keyedPrp.setKey(key);
+		ScCbcMacPrepending wrappedMac = new ScCbcMacPrepending(keyedPrp);
+		
+		byte[][] msgs = new byte[50][];
+		for (int i = 0; i < msgs.length; i++) {
+			msgs[i] = new byte[16 * (i % 5 + 1)];
+			Arrays.fill(msgs[i], (byte) i);
+		}
+		for (ScCbcMacPrepending mac : Arrays.asList(keyedMac, wrappedMac)) {
+			byte[][] tags = mac.macBatch(msgs);
+			for (int i = 0; i < msgs.length; i++) {
+				assertArrayEquals(mac.mac(msgs[i], 0, msgs[i].length), tags[i]);
+			}
+		}
+	}
 }
-
@@ -0,0 +1,173 @@
+package edu.biu.scapi.tests.comm;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.CommunicationSetup;
+import edu.biu.scapi.comm.NaiveSuccess;
+import edu.biu.scapi.comm.Party;
+import edu.biu.scapi.comm.SessionKeyCache;
+
+/**
+ * Connects two parties that use a session cache. The key exchange protocol of the communication layer does not agree on keys, 
+ * so a connection that falls back to the full key exchange has no keys.
+ */
+public class TestSessionResumption {
+	
+	private static final char[] PASSWORD = "password".toCharArray();
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private InetAddress localhost;
+	private int port1, port2;
+	private ExecutorService parties;
+	
+	@Before
+	public void setUp() throws Exception {
+		localhost = InetAddress.getByName("127.0.0.1");
+		port1 = getFreePort();
+		port2 = getFreePort();
+		parties = Executors.newFixedThreadPool(2);
+	}
+	
+	@After
+	public void tearDown() {
+		parties.shutdownNow();
+	}
+	
+	@Test
+	public void TestResumesCommonSession() throws Exception {
+		SessionKeyCache cache1 = createCache("party1");
+		SessionKeyCache cache2 = createCache("party2");
+		putSession(cache1, cache2, 1, 1);
+		
+		Key[][] keys = connect(cache1, cache2);
+		assertNotNull(keys[0][0]);
+		assertArrayEquals(keys[0][0].getEncoded(), keys[1][0].getEncoded());
+		assertArrayEquals(keys[0][1].getEncoded(), keys[1][1].getEncoded());
+	}
+	
+	@Test
+	public void TestEachResumptionUsesTheNextSession() throws Exception {
+		SessionKeyCache cache1 = createCache("party1");
+		SessionKeyCache cache2 = createCache("party2");
+		putSession(cache1, cache2, 1, 1);
+		
+		Key[][] first = connect(cache1, cache2);
+		Key[][] second = connect(cache1, cache2);
+		assertNotNull(second[0][0]);
+		assertArrayEquals(second[0][0].getEncoded(), second[1][0].getEncoded());
+		assertFalse(Arrays.equals(first[0][0].getEncoded(), second[0][0].getEncoded()));
+		
+		//The session that was used is not accepted again.
+		cache1.put(localhost, port2, ticket(1), secret(1));
+		Key[][] replayed = connect(cache1, cache2);
+		assertNull(replayed[0][0]);
+		assertNull(replayed[1][0]);
+	}
+	
+	@Test
+	public void TestFallsBackWithoutCommonSession() throws Exception {
+		SessionKeyCache cache1 = createCache("party1");
+		SessionKeyCache cache2 = createCache("party2");
+		cache1.put(localhost, port2, ticket(1), secret(1));
+		
+		Key[][] keys = connect(cache1, cache2);
+		assertNull(keys[0][0]);
+		assertNull(keys[1][0]);
+	}
+	
+	@Test
+	public void TestFallsBackWhenKeyConfirmationFails() throws Exception {
+		SessionKeyCache cache1 = createCache("party1");
+		SessionKeyCache cache2 = createCache("party2");
+		//Same ticket, different secrets.
+		putSession(cache1, cache2, 1, 2);
+		
+		Key[][] keys = connect(cache1, cache2);
+		assertNull(keys[0][0]);
+		assertNull(keys[1][0]);
+	}
+	
+	private SessionKeyCache createCache(String name) throws Exception {
+		return new SessionKeyCache(new File(folder.getRoot(), name + ".jceks").getPath(), PASSWORD);
+	}
+	
+	private void putSession(SessionKeyCache cache1, SessionKeyCache cache2, int secret1, int secret2) throws Exception {
+		cache1.put(localhost, port2, ticket(1), secret(secret1));
+		cache2.put(localhost, port1, ticket(1), secret(secret2));
+	}
+	
+	private static byte[] ticket(int value) {
+		byte[] ticket = new byte[16];
+		Arrays.fill(ticket, (byte) value);
+		return ticket;
+	}
+	
+	private static SecretKeySpec secret(int value) {
+		byte[] secret = new byte[32];
+		Arrays.fill(secret, (byte) value);
+		return new SecretKeySpec(secret, "HKDF");
+	}
+	
+	/**
+	 * Connects the two parties and returns the encryption and MAC keys of each party.
+	 */
+	private Key[][] connect(SessionKeyCache cache1, SessionKeyCache cache2) throws Exception {
+		Future<Key[]> party1 = parties.submit(createParty(port1, port2, cache1));
+		Future<Key[]> party2 = parties.submit(createParty(port2, port1, cache2));
+		return new Key[][]{party1.get(), party2.get()};
+	}
+	
+	@SuppressWarnings("deprecation")
+	private Callable<Key[]> createParty(final int myPort, final int otherPort, final SessionKeyCache cache) {
+		return new Callable<Key[]>() {
+			public Key[] call() throws Exception {
+				List<Party> list = new ArrayList<Party>();
+				list.add(new Party(localhost, myPort));
+				list.add(new Party(localhost, otherPort));
+				
+				CommunicationSetup setup = new CommunicationSetup();
+				setup.setSessionKeyCache(cache);
+				Map<InetSocketAddress, Channel> channels = setup.prepareForCommunication(list, new NaiveSuccess(), 10000);
+				assertEquals(1, channels.size());
+				for (Channel channel : channels.values()) {
+					channel.close();
+				}
+				
+				InetSocketAddress other = new InetSocketAddress(localhost, otherPort);
+				return new Key[]{setup.getEncKey(other), setup.getMacKey(other)};
+			}
+		};
+	}
+	
+	private static int getFreePort() throws Exception {
+		ServerSocket socket = new ServerSocket(0);
+		int port = socket.getLocalPort();
+		socket.close();
+		return port;
+	}
+}
@@ -0,0 +1,184 @@
+package edu.biu.scapi.tests.comm;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.crypto.SecretKey;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.comm.PlainChannel;
+import edu.biu.scapi.comm.StreamingSecureChannel;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScCTREncRandomIV;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScEncryptThenMac;
+import edu.biu.scapi.midLayer.symmetricCrypto.keys.AuthEncKeyGenParameterSpec;
+import edu.biu.scapi.midLayer.symmetricCrypto.mac.ScCbcMacPrepending;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+public class TestStreamingSecureChannel {
+	
+	private static final int CHUNK_SIZE = 64;
+	
+	private LoopbackChannel[] plain;
+	private StreamingSecureChannel connector;
+	private StreamingSecureChannel listener;
+	
+	@Before
+	public void setUp() throws Exception {
+		plain = LoopbackChannel.createPair();
+		ScEncryptThenMac connectorEnc = new ScEncryptThenMac(new ScCTREncRandomIV(new BcAES()), new ScCbcMacPrepending(new BcAES()));
+		ScEncryptThenMac listenerEnc = new ScEncryptThenMac(new ScCTREncRandomIV(new BcAES()), new ScCbcMacPrepending(new BcAES()));
+		SecretKey key = connectorEnc.generateKey(new AuthEncKeyGenParameterSpec(128, 128));
+		
+		connector = new StreamingSecureChannel(plain[0], connectorEnc, CHUNK_SIZE, true);
+		listener = new StreamingSecureChannel(plain[1], listenerEnc, CHUNK_SIZE, false);
+		connector.setKey(key);
+		listener.setKey(key);
+	}
+	
+	@After
+	public void tearDown() {
+		connector.close();
+		listener.close();
+	}
+	
+	@Test
+	public void TestRoundTrip() throws IOException, ClassNotFoundException {
+		Random random = new Random(1);
+		//Empty, single chunk and many chunks messages, in both directions.
+		for (int size : new int[]{0, 10, CHUNK_SIZE, 10 * CHUNK_SIZE + 7, 100000}) {
+			byte[] msg = new byte[size];
+			random.nextBytes(msg);
+			
+			connector.send(msg);
+			assertArrayEquals(msg, (byte[]) listener.receive());
+			listener.send(msg);
+			assertArrayEquals(msg, (byte[]) connector.receive());
+		}
+		
+		connector.send("a string");
+		connector.send(Integer.valueOf(5));
+		assertEquals("a string", listener.receive());
+		assertEquals(Integer.valueOf(5), listener.receive());
+	}
+	
+	@Test(expected = IOException.class)
+	public void TestTamperedChunkIsRejected() throws IOException, ClassNotFoundException {
+		connector.send(new byte[5 * CHUNK_SIZE]);
+		
+		List<Serializable> chunks = plain[1].takePending();
+		byte[] tampered = (byte[]) chunks.get(2);
+		tampered[tampered.length / 2] ^= 1;
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		listener.receive();
+	}
+	
+	@Test(expected = IOException.class)
+	public void TestReorderedChunksAreRejected() throws IOException, ClassNotFoundException {
+		connector.send(new byte[5 * CHUNK_SIZE]);
+		
+		List<Serializable> chunks = plain[1].takePending();
+		Collections.swap(chunks, 1, 2);
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		listener.receive();
+	}
+	
+	@Test(expected = IOException.class)
+	public void TestDroppedChunkIsRejected() throws IOException, ClassNotFoundException {
+		connector.send(new byte[5 * CHUNK_SIZE]);
+		
+		List<Serializable> chunks = plain[1].takePending();
+		chunks.remove(chunks.size() - 1);
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		//The next message should not be accepted as the end of the truncated one.
+		connector.send(new byte[CHUNK_SIZE / 2]);
+		listener.receive();
+	}
+	
+	@Test(expected = IOException.class)
+	public void TestReplayedMessageIsRejected() throws IOException, ClassNotFoundException {
+		byte[] msg = new byte[3 * CHUNK_SIZE];
+		connector.send(msg);
+		
+		List<Serializable> chunks = plain[1].takePending();
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		assertArrayEquals(msg, (byte[]) listener.receive());
+		
+		//The same chunks again should not pass as the second message.
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		listener.receive();
+	}
+	
+	@Test
+	public void TestReflectedMessageIsRejected() throws IOException, ClassNotFoundException {
+		connector.send(new byte[3 * CHUNK_SIZE]);
+		
+		//Send the connector's own chunks back to it, as its first incoming message.
+		List<Serializable> chunks = plain[1].takePending();
+		for (Serializable chunk : chunks) {
+			plain[0].deliver(chunk);
+		}
+		try {
+			connector.receive();
+			fail("a reflected message was accepted");
+		} catch (IOException e) {
+			// expected
+		}
+		
+		//The original chunks are still accepted by the listener.
+		for (Serializable chunk : chunks) {
+			plain[1].deliver(chunk);
+		}
+		assertTrue(Arrays.equals(new byte[3 * CHUNK_SIZE], (byte[]) listener.receive()));
+	}
+	
+	@Test(expected = IOException.class, timeout = 30000)
+	public void TestFailingSendIsReported() throws Exception {
+		//The underlying channel fails with a runtime exception, which should reach the caller instead of blocking it.
+		LoopbackChannel failing = new LoopbackChannel() {
+			@Override
+			public void send(Serializable data) {
+				throw new IllegalStateException("the channel is broken");
+			}
+		};
+		failing.setState(PlainChannel.State.READY);
+		ScEncryptThenMac enc = new ScEncryptThenMac(new ScCTREncRandomIV(new BcAES()), new ScCbcMacPrepending(new BcAES()));
+		StreamingSecureChannel channel = new StreamingSecureChannel(failing, enc, CHUNK_SIZE, true);
+		channel.setKey(enc.generateKey(new AuthEncKeyGenParameterSpec(128, 128)));
+		try {
+			channel.send(new byte[100 * CHUNK_SIZE]);
+		} finally {
+			channel.close();
+		}
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void TestSendWithoutKey() throws IOException, InvalidKeyException {
+		LoopbackChannel[] channels = LoopbackChannel.createPair();
+		StreamingSecureChannel channel = new StreamingSecureChannel(channels[0], new ScEncryptThenMac(), true);
+		try {
+			channel.send("no key");
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -5,6 +5,10 @@ import static org.junit.Assert.*;
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -74,6 +78,46 @@ public abstract class TestDlogGroupInterface {
 		assertEquals(expected_res, res);
 	}
 	
+	@Test
+	public void TestConcurrentExponentiations() throws Exception {
+		final int numOfThreads = 8;
+		final int numOfExponents = 20;
+		final GroupElement base = dlog.createRandomElement();
+		final GroupElement generator = dlog.getGenerator();
+		final BigInteger[] exponents = new BigInteger[numOfExponents];
+		Random random = new Random();
+		for (int i = 0; i < numOfExponents; i++) {
+			exponents[i] = new BigInteger(dlog.getOrder().bitLength() - 1, random);
+		}
+		
+		//All the threads use the same group at the same time, including the pre computed values of the generator.
+		ExecutorService threads = Executors.newFixedThreadPool(numOfThreads);
+		try {
+			Future<?>[] results = new Future<?>[numOfThreads];
+			for (int t = 0; t < numOfThreads; t++) {
+				results[t] = threads.submit(new Callable<GroupElement[]>() {
+					public GroupElement[] call() {
+						GroupElement[] powers = new GroupElement[2 * numOfExponents];
+						for (int i = 0; i < numOfExponents; i++) {
+							powers[2 * i] = dlog.exponentiate(base, exponents[i]);
+							powers[2 * i + 1] = dlog.exponentiateWithPreComputedValues(generator, exponents[i]);
+						}
+						return powers;
+					}
+				});
+			}
+			for (Future<?> result : results) {
+				GroupElement[] powers = (GroupElement[]) result.get();
+				for (int i = 0; i < numOfExponents; i++) {
+					assertEquals(dlog.exponentiate(base, exponents[i]), powers[2 * i]);
+					assertEquals(dlog.exponentiate(generator, exponents[i]), powers[2 * i + 1]);
+				}
+			}
+		} finally {
+			threads.shutdown();
+		}
+	}
+	
 	@Test
 	public void TestEncodeDecode(){
 		int k = dlog.getMaxLengthOfByteArrayForEncoding();
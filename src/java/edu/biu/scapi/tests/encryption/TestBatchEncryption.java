@@ -0,0 +1,166 @@
+package edu.biu.scapi.tests.encryption;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.CramerShoupAbs;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ElGamalAbs;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ScCramerShoupDDHOnByteArray;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ScCramerShoupDDHOnGroupElement;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ScElGamalOnByteArray;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ScElGamalOnGroupElement;
+import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.CramerShoupCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.CramerShoupOnByteArrayCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.CramerShoupOnGroupElementCiphertext;
+import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
+import edu.biu.scapi.midLayer.plaintext.GroupElementPlaintext;
+import edu.biu.scapi.midLayer.plaintext.Plaintext;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+
+/**
+ * Checks that the batch encryption of ElGamal and Cramer-Shoup gives the same ciphertexts as the single encryption with the
+ * same random values, that the batch decryption reverses it, and that wrong plaintexts are rejected.
+ */
+public class TestBatchEncryption {
+
+	private static final int NUM_OF_PLAINTEXTS = 20;
+
+	private DlogGroup dlog;
+	private SecureRandom random;
+	private BigInteger[] r;
+
+	@Before
+	public void setUp() throws Exception {
+		dlog = new BcDlogECF2m("K-233");
+		random = new SecureRandom();
+		r = new BigInteger[NUM_OF_PLAINTEXTS];
+		BigInteger qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		for (int i = 0; i < r.length; i++) {
+			r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+	}
+
+	@Test
+	public void TestElGamalOnGroupElementBatchMatchesSingle() throws Exception {
+		ElGamalAbs elGamal = new ScElGamalOnGroupElement(dlog, random);
+		setKeys(elGamal);
+		Plaintext[] plaintexts = groupElementPlaintexts();
+
+		AsymmetricCiphertext[] ciphers = elGamal.encryptBatch(plaintexts, r);
+		for (int i = 0; i < plaintexts.length; i++) {
+			assertEquals(elGamal.encrypt(plaintexts[i], r[i]), ciphers[i]);
+		}
+		assertArrayEquals(plaintexts, elGamal.decryptBatch(ciphers));
+	}
+
+	@Test
+	public void TestElGamalOnByteArrayBatchMatchesSingle() throws Exception {
+		ElGamalAbs elGamal = new ScElGamalOnByteArray(dlog, new HKDF(new BcHMAC()), random);
+		setKeys(elGamal);
+		Plaintext[] plaintexts = byteArrayPlaintexts();
+
+		AsymmetricCiphertext[] ciphers = elGamal.encryptBatch(plaintexts, r);
+		for (int i = 0; i < plaintexts.length; i++) {
+			assertEquals(elGamal.encrypt(plaintexts[i], r[i]), ciphers[i]);
+		}
+		assertArrayEquals(plaintexts, elGamal.decryptBatch(ciphers));
+	}
+
+	@Test
+	public void TestCramerShoupOnGroupElementBatchMatchesSingle() throws Exception {
+		CramerShoupAbs cramerShoup = new ScCramerShoupDDHOnGroupElement(dlog, new BcSHA256(), random);
+		setKeys(cramerShoup);
+		Plaintext[] plaintexts = groupElementPlaintexts();
+
+		AsymmetricCiphertext[] ciphers = cramerShoup.encryptBatch(plaintexts, r);
+		for (int i = 0; i < plaintexts.length; i++) {
+			CramerShoupOnGroupElementCiphertext single = (CramerShoupOnGroupElementCiphertext) cramerShoup.encrypt(plaintexts[i], r[i]);
+			assertSameCramerShoup(single, (CramerShoupCiphertext) ciphers[i]);
+			assertEquals(single.getE(), ((CramerShoupOnGroupElementCiphertext) ciphers[i]).getE());
+		}
+		assertArrayEquals(plaintexts, cramerShoup.decryptBatch(ciphers));
+	}
+
+	@Test
+	public void TestCramerShoupOnByteArrayBatchMatchesSingle() throws Exception {
+		CramerShoupAbs cramerShoup = new ScCramerShoupDDHOnByteArray(dlog, new BcSHA256(), new HKDF(new BcHMAC()), random);
+		setKeys(cramerShoup);
+		Plaintext[] plaintexts = byteArrayPlaintexts();
+
+		AsymmetricCiphertext[] ciphers = cramerShoup.encryptBatch(plaintexts, r);
+		for (int i = 0; i < plaintexts.length; i++) {
+			CramerShoupOnByteArrayCiphertext single = (CramerShoupOnByteArrayCiphertext) cramerShoup.encrypt(plaintexts[i], r[i]);
+			assertSameCramerShoup(single, (CramerShoupCiphertext) ciphers[i]);
+			assertArrayEquals(single.getE(), ((CramerShoupOnByteArrayCiphertext) ciphers[i]).getE());
+		}
+		assertArrayEquals(plaintexts, cramerShoup.decryptBatch(ciphers));
+	}
+
+	@Test
+	public void TestBatchRejectsWrongPlaintext() throws Exception {
+		ElGamalAbs elGamal = new ScElGamalOnGroupElement(dlog, random);
+		setKeys(elGamal);
+		CramerShoupAbs cramerShoup = new ScCramerShoupDDHOnGroupElement(dlog, new BcSHA256(), random);
+		setKeys(cramerShoup);
+
+		//The wrong plaintext is the last one, so it is found only if all the plaintexts are checked.
+		Plaintext[] plaintexts = groupElementPlaintexts();
+		plaintexts[plaintexts.length - 1] = new ByteArrayPlaintext(new byte[16]);
+		try {
+			elGamal.encryptBatch(plaintexts, r);
+			fail("ElGamal encrypted a wrong plaintext");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			cramerShoup.encryptBatch(plaintexts, r);
+			fail("Cramer-Shoup encrypted a wrong plaintext");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private void setKeys(ElGamalAbs elGamal) throws Exception {
+		KeyPair pair = elGamal.generateKey();
+		elGamal.setKey(pair.getPublic(), pair.getPrivate());
+	}
+
+	private void setKeys(CramerShoupAbs cramerShoup) throws Exception {
+		KeyPair pair = cramerShoup.generateKey();
+		cramerShoup.setKey(pair.getPublic(), pair.getPrivate());
+	}
+
+	private void assertSameCramerShoup(CramerShoupCiphertext expected, CramerShoupCiphertext actual) {
+		assertEquals(expected.getU1(), actual.getU1());
+		assertEquals(expected.getU2(), actual.getU2());
+		assertEquals(expected.getV(), actual.getV());
+	}
+
+	private Plaintext[] groupElementPlaintexts() {
+		Plaintext[] plaintexts = new Plaintext[NUM_OF_PLAINTEXTS];
+		for (int i = 0; i < plaintexts.length; i++) {
+			plaintexts[i] = new GroupElementPlaintext(dlog.createRandomElement());
+		}
+		return plaintexts;
+	}
+
+	private Plaintext[] byteArrayPlaintexts() {
+		Plaintext[] plaintexts = new Plaintext[NUM_OF_PLAINTEXTS];
+		for (int i = 0; i < plaintexts.length; i++) {
+			byte[] text = new byte[16 + i];
+			random.nextBytes(text);
+			plaintexts[i] = new ByteArrayPlaintext(text);
+		}
+		return plaintexts;
+	}
+}
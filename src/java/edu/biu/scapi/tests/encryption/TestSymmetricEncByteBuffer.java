@@ -0,0 +1,136 @@
+package edu.biu.scapi.tests.encryption;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.midLayer.ciphertext.ByteArraySymCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.IVCiphertext;
+import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScCBCEncRandomIV;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScCTREncRandomIV;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScEncryptThenMac;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.SymmetricEnc;
+import edu.biu.scapi.midLayer.symmetricCrypto.keys.AuthEncKeyGenParameterSpec;
+import edu.biu.scapi.paddings.PKCS7Padding;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+import edu.biu.scapi.primitives.prf.bc.BcTripleDES;
+
+/**
+ * Checks that the ByteBuffer encryption and decryption of the symmetric encryption schemes give the same results as the byte array
+ * functions, for heap and direct buffers.
+ */
+public class TestSymmetricEncByteBuffer {
+
+	//Lengths around the block sizes and the batches of the CTR key stream.
+	private static final int[] LENGTHS = {0, 1, 7, 8, 15, 16, 17, 100, 1024, 1025, 5000};
+
+	private SecureRandom random;
+
+	@Before
+	public void setUp() {
+		random = new SecureRandom();
+	}
+
+	@Test
+	public void TestCTRWithAESMatchesByteArray() throws Exception {
+		//The AES prp is processed by the JCE cipher.
+		ScCTREncRandomIV enc = new ScCTREncRandomIV(new BcAES());
+		enc.setKey(enc.generateKey(128));
+		assertMatchesByteArray(enc, 16);
+	}
+
+	@Test
+	public void TestCTRWithTripleDESMatchesByteArray() throws Exception {
+		//Other prps are processed by the batched key stream.
+		ScCTREncRandomIV enc = new ScCTREncRandomIV(new BcTripleDES());
+		enc.setKey(enc.generateKey(168));
+		assertMatchesByteArray(enc, 8);
+	}
+
+	@Test
+	public void TestCBCMatchesByteArray() throws Exception {
+		ScCBCEncRandomIV enc = new ScCBCEncRandomIV(new BcAES(), new PKCS7Padding());
+		enc.setKey(enc.generateKey(128));
+		assertMatchesByteArray(enc, 16);
+	}
+
+	@Test
+	public void TestEncryptThenMacHeapAndDirectBuffers() throws Exception {
+		ScEncryptThenMac enc = new ScEncryptThenMac(new ScCTREncRandomIV(new BcAES()), new BcHMAC());
+		enc.setKey(enc.generateKey(new AuthEncKeyGenParameterSpec(128, 128)));
+
+		for (int length : LENGTHS) {
+			byte[] plaintext = randomBytes(length);
+			for (boolean directCipher : new boolean[]{false, true}) {
+				byte[] cipher = encrypt(enc, plaintext, directCipher);
+				for (boolean directPlain : new boolean[]{false, true}) {
+					assertArrayEquals(plaintext, decrypt(enc, cipher, directPlain));
+				}
+				//A changed ciphertext is rejected without writing to the plaintext buffer.
+				cipher[cipher.length / 2] ^= 1;
+				assertEquals(-1, enc.decrypt(ByteBuffer.wrap(cipher), ByteBuffer.allocate(cipher.length)));
+			}
+		}
+	}
+
+	/*
+	 * The ByteBuffer ciphertext is the IV followed by the encrypted data. Checks that the data is the same as the byte array encryption
+	 * with the same IV, and that each path decrypts the ciphertext of the other.
+	 */
+	private void assertMatchesByteArray(SymmetricEnc enc, int ivSize) throws Exception {
+		for (int length : LENGTHS) {
+			byte[] plaintext = randomBytes(length);
+			for (boolean direct : new boolean[]{false, true}) {
+				byte[] cipher = encrypt(enc, plaintext, direct);
+				byte[] iv = Arrays.copyOf(cipher, ivSize);
+				byte[] data = Arrays.copyOfRange(cipher, ivSize, cipher.length);
+
+				assertArrayEquals(data, enc.encrypt(new ByteArrayPlaintext(plaintext), iv).getBytes());
+				IVCiphertext ivCipher = new IVCiphertext(new ByteArraySymCiphertext(data), iv);
+				assertArrayEquals(plaintext, ((ByteArrayPlaintext) enc.decrypt(ivCipher)).getText());
+				assertArrayEquals(plaintext, decrypt(enc, cipher, direct));
+			}
+		}
+	}
+
+	private byte[] encrypt(SymmetricEnc enc, byte[] plaintext, boolean direct) {
+		ByteBuffer in = direct ? ByteBuffer.allocateDirect(plaintext.length) : ByteBuffer.allocate(plaintext.length);
+		in.put(plaintext).flip();
+		int maxLength = enc.getCiphertextLength(plaintext.length);
+		ByteBuffer out = direct ? ByteBuffer.allocateDirect(maxLength) : ByteBuffer.allocate(maxLength);
+
+		int written = enc.encrypt(in, out);
+		assertEquals(written, out.position());
+		assertFalse(in.hasRemaining());
+		byte[] cipher = new byte[written];
+		out.flip();
+		out.get(cipher);
+		return cipher;
+	}
+
+	private byte[] decrypt(SymmetricEnc enc, byte[] cipher, boolean direct) {
+		ByteBuffer in = direct ? ByteBuffer.allocateDirect(cipher.length) : ByteBuffer.allocate(cipher.length);
+		in.put(cipher).flip();
+		ByteBuffer out = direct ? ByteBuffer.allocateDirect(cipher.length) : ByteBuffer.allocate(cipher.length);
+
+		int written = enc.decrypt(in, out);
+		assertEquals(written, out.position());
+		byte[] plaintext = new byte[written];
+		out.flip();
+		out.get(plaintext);
+		return plaintext;
+	}
+
+	private byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,192 @@
+package edu.biu.scapi.tests.ot;
+
+import static org.junit.Assert.*;
+
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionCorrelatedRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionCorrelatedSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionGeneralRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionGeneralSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionRandomRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionRandomSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTSemiHonestExtensionSessionReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTSemiHonestExtensionSessionSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArraySender;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+import edu.biu.scapi.tests.comm.LoopbackChannel;
+import edu.biu.scapi.tools.InstanceFactory;
+
+/**
+ * Runs a semi-honest OT extension session over a loopback channel, with the semi-honest DDH batch OT as the base OT.
+ */
+public class TestOTSemiHonestExtensionSession {
+
+	private static final int NUM_OF_OTS = 300;
+	private static final int ELEMENT_SIZE = 16;
+
+	private SecureRandom random;
+	private byte[] sigma;
+	private LoopbackChannel[] channels;
+	private ExecutorService senderThread;
+	private OTSemiHonestExtensionSessionSender sender;
+	private OTSemiHonestExtensionSessionReceiver receiver;
+
+	@Before
+	public void setUp() throws Exception {
+		final DlogGroup dlog = new BcDlogECF2m("K-233");
+		random = new SecureRandom();
+		sigma = new byte[NUM_OF_OTS];
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			sigma[i] = (byte) random.nextInt(2);
+		}
+		channels = LoopbackChannel.createPair();
+		senderThread = Executors.newSingleThreadExecutor();
+
+		//The base OTs run when the sessions are created, so both parties are created together.
+		Future<OTSemiHonestExtensionSessionSender> created = senderThread.submit(new Callable<OTSemiHonestExtensionSessionSender>() {
+			public OTSemiHonestExtensionSessionSender call() throws Exception {
+				OTSemiHonestDDHBatchOnByteArrayReceiver baseOT = new OTSemiHonestDDHBatchOnByteArrayReceiver(dlog, new HKDF(new BcHMAC()), random);
+				return new OTSemiHonestExtensionSessionSender(channels[0], baseOT, new BcSHA256(), random, 2);
+			}
+		});
+		OTSemiHonestDDHBatchOnByteArraySender baseOT = new OTSemiHonestDDHBatchOnByteArraySender(dlog, new HKDF(new BcHMAC()), random);
+		receiver = new OTSemiHonestExtensionSessionReceiver(channels[1], baseOT, new BcSHA256(), random, 2);
+		sender = created.get();
+		//The receiver hashes in both threads with its own hashes. The sender shares its hash between the threads.
+		receiver.setHashFactory(new InstanceFactory<CryptographicHash>() {
+			public CryptographicHash create() {
+				return new BcSHA256();
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		senderThread.shutdownNow();
+	}
+
+	@Test
+	public void TestGeneralOutputsMatchChoices() throws Exception {
+		byte[] x0 = randomBytes(NUM_OF_OTS * ELEMENT_SIZE);
+		byte[] x1 = randomBytes(NUM_OF_OTS * ELEMENT_SIZE);
+
+		Future<OTExtensionSOutput> output = send(new OTExtensionGeneralSInput(x0, x1, NUM_OF_OTS));
+		byte[] xSigma = receive(new OTExtensionGeneralRInput(sigma, ELEMENT_SIZE * 8));
+		assertNull(output.get());
+
+		assertChosen(x0, x1, xSigma);
+	}
+
+	@Test
+	public void TestCorrelatedOutputsMatchChoices() throws Exception {
+		byte[] delta = randomBytes(NUM_OF_OTS * ELEMENT_SIZE);
+
+		Future<OTExtensionSOutput> output = send(new OTExtensionCorrelatedSInput(delta, NUM_OF_OTS));
+		byte[] xSigma = receive(new OTExtensionCorrelatedRInput(sigma, ELEMENT_SIZE * 8));
+		byte[] x0 = output.get().getX0Arr();
+		byte[] x1 = output.get().getX1Arr();
+
+		for (int i = 0; i < x0.length; i++) {
+			assertEquals((byte) (x0[i] ^ delta[i]), x1[i]);
+		}
+		assertChosen(x0, x1, xSigma);
+	}
+
+	@Test
+	public void TestRandomOutputsMatchChoicesInConsecutiveTransfers() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			Future<OTExtensionSOutput> output = send(new OTExtensionRandomSInput(NUM_OF_OTS, ELEMENT_SIZE * 8));
+			byte[] xSigma = receive(new OTExtensionRandomRInput(sigma, ELEMENT_SIZE * 8));
+
+			assertChosen(output.get().getX0Arr(), output.get().getX1Arr(), xSigma);
+		}
+		assertEquals(3 * NUM_OF_OTS, sender.getNumOfDoneOts());
+		assertEquals(3 * NUM_OF_OTS, receiver.getNumOfDoneOts());
+	}
+
+	@Test
+	public void TestSenderRejectsInvalidInputs() throws Exception {
+		byte[] x = randomBytes(NUM_OF_OTS * ELEMENT_SIZE);
+		assertRejected(new OTExtensionRandomSInput(NUM_OF_OTS, ELEMENT_SIZE * 8 + 4));
+		assertRejected(new OTExtensionRandomSInput(0, ELEMENT_SIZE * 8));
+		assertRejected(new OTExtensionGeneralSInput(x, randomBytes(x.length - 1), NUM_OF_OTS));
+		assertRejected(new OTExtensionGeneralSInput(randomBytes(x.length + 1), randomBytes(x.length + 1), NUM_OF_OTS));
+		assertRejected(new OTExtensionCorrelatedSInput(randomBytes(NUM_OF_OTS - 1), NUM_OF_OTS));
+
+		//A rejected input does not change the session.
+		Future<OTExtensionSOutput> output = send(new OTExtensionGeneralSInput(x, x, NUM_OF_OTS));
+		assertArrayEquals(x, receive(new OTExtensionGeneralRInput(sigma, ELEMENT_SIZE * 8)));
+		output.get();
+	}
+
+	@Test
+	public void TestSessionIsUnusableAfterFailedTransfer() throws Exception {
+		//The sender receives a matrix U of the wrong size.
+		channels[1].send(new byte[3]);
+		try {
+			sender.transfer(null, new OTExtensionRandomSInput(NUM_OF_OTS, ELEMENT_SIZE * 8));
+			fail("the sender accepted a matrix of the wrong size");
+		} catch (IllegalArgumentException e) {
+		}
+
+		try {
+			sender.transfer(null, new OTExtensionRandomSInput(NUM_OF_OTS, ELEMENT_SIZE * 8));
+			fail("the sender continued after a failed transfer");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	private Future<OTExtensionSOutput> send(final OTBatchSInput input) {
+		return senderThread.submit(new Callable<OTExtensionSOutput>() {
+			public OTExtensionSOutput call() throws Exception {
+				return (OTExtensionSOutput) sender.transfer(null, input);
+			}
+		});
+	}
+
+	private byte[] receive(OTExtensionRInput input) throws Exception {
+		return ((OTOnByteArrayROutput) receiver.transfer(null, input)).getXSigma();
+	}
+
+	private void assertRejected(OTBatchSInput input) throws Exception {
+		try {
+			sender.transfer(null, input);
+			fail("the sender accepted an invalid input");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private void assertChosen(byte[] x0, byte[] x1, byte[] xSigma) {
+		assertEquals(NUM_OF_OTS * ELEMENT_SIZE, xSigma.length);
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			for (int j = i * ELEMENT_SIZE; j < (i + 1) * ELEMENT_SIZE; j++) {
+				assertEquals(sigma[i] == 0 ? x0[j] : x1[j], xSigma[j]);
+			}
+		}
+	}
+
+	private byte[] randomBytes(int size) {
+		byte[] bytes = new byte[size];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+}
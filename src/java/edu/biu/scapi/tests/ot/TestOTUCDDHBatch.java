@@ -0,0 +1,157 @@
+package edu.biu.scapi.tests.ot;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.uc.OTUCDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.uc.OTUCDDHBatchOnByteArraySender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.uc.OTUCDDHBatchOnGroupElementReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.uc.OTUCDDHBatchOnGroupElementSender;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+import edu.biu.scapi.tests.comm.LoopbackChannel;
+
+/**
+ * Runs the batch UC OT, which uses the transfer phase of the full simulation batch OT, over a loopback channel.
+ */
+public class TestOTUCDDHBatch {
+	
+	private static final int NUM_OF_OTS = 40;
+	
+	private DlogGroup dlog;
+	private SecureRandom random;
+	private GroupElement g0, g1, h0, h1;
+	private ArrayList<Byte> sigma;
+	private LoopbackChannel[] channels;
+	private ExecutorService senderThread;
+	
+	@Before
+	public void setUp() throws Exception {
+		dlog = new BcDlogECF2m("K-233");
+		random = new SecureRandom();
+		
+		//The common reference string.
+		g0 = dlog.getGenerator();
+		g1 = dlog.createRandomElement();
+		h0 = dlog.exponentiate(g0, new BigInteger(200, random));
+		h1 = dlog.exponentiate(g1, new BigInteger(200, random));
+		
+		sigma = new ArrayList<Byte>();
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			sigma.add((byte) random.nextInt(2));
+		}
+		channels = LoopbackChannel.createPair();
+		senderThread = Executors.newSingleThreadExecutor();
+	}
+	
+	@After
+	public void tearDown() {
+		senderThread.shutdownNow();
+	}
+	
+	@Test
+	public void TestGroupElementOutputsMatchChoices() throws Exception {
+		final ArrayList<GroupElement> x0 = new ArrayList<GroupElement>();
+		final ArrayList<GroupElement> x1 = new ArrayList<GroupElement>();
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			x0.add(dlog.createRandomElement());
+			x1.add(dlog.createRandomElement());
+		}
+		
+		Future<Void> sender = senderThread.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				new OTUCDDHBatchOnGroupElementSender(dlog, g0, g1, h0, h1, random).transfer(channels[0], new OTBatchOnGroupElementSInput(x0, x1));
+				return null;
+			}
+		});
+		OTBatchOnGroupElementROutput output = (OTBatchOnGroupElementROutput) new OTUCDDHBatchOnGroupElementReceiver(dlog, g0, g1, h0, h1, random)
+				.transfer(channels[1], new OTBatchRBasicInput(sigma));
+		sender.get();
+		
+		ArrayList<GroupElement> xSigma = output.getXSigmaArr();
+		assertEquals(NUM_OF_OTS, xSigma.size());
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			assertEquals(sigma.get(i) == 0 ? x0.get(i) : x1.get(i), xSigma.get(i));
+		}
+	}
+	
+	@Test
+	public void TestByteArrayOutputsMatchChoices() throws Exception {
+		final ArrayList<byte[]> x0 = new ArrayList<byte[]>();
+		final ArrayList<byte[]> x1 = new ArrayList<byte[]>();
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			//The strings of different OTs have different lengths.
+			byte[] first = new byte[1 + i % 20];
+			byte[] second = new byte[1 + i % 20];
+			random.nextBytes(first);
+			random.nextBytes(second);
+			x0.add(first);
+			x1.add(second);
+		}
+		
+		Future<Void> sender = senderThread.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				new OTUCDDHBatchOnByteArraySender(dlog, g0, g1, h0, h1, new HKDF(new BcHMAC()), random).transfer(channels[0], new OTBatchOnByteArraySInput(x0, x1));
+				return null;
+			}
+		});
+		OTBatchOnByteArrayROutput output = (OTBatchOnByteArrayROutput) new OTUCDDHBatchOnByteArrayReceiver(dlog, g0, g1, h0, h1, new HKDF(new BcHMAC()), random)
+				.transfer(channels[1], new OTBatchRBasicInput(sigma));
+		sender.get();
+		
+		ArrayList<byte[]> xSigma = output.getXSigmaArr();
+		assertEquals(NUM_OF_OTS, xSigma.size());
+		for (int i = 0; i < NUM_OF_OTS; i++) {
+			assertTrue(Arrays.equals(sigma.get(i) == 0 ? x0.get(i) : x1.get(i), xSigma.get(i)));
+		}
+	}
+	
+	@Test(expected = CheatAttemptException.class)
+	public void TestSizeThatDoesNotMatchTheInputIsRejected() throws Exception {
+		//A size this large would not fit in memory, so it has to be rejected before the sender allocates anything.
+		channels[1].send(new OTRGroupElementBatchMsg(new byte[0], Integer.MAX_VALUE));
+		transferGroupElements(2);
+	}
+	
+	@Test(expected = CheatAttemptException.class)
+	public void TestMissingTuplesAreRejected() throws Exception {
+		int elementSize = dlog.getCompactElementSize();
+		channels[1].send(new OTRGroupElementBatchMsg(new byte[2 * elementSize], 2));
+		transferGroupElements(2);
+	}
+	
+	/**
+	 * Runs the sender with the given number of random couples, on the message that was already sent by the test.
+	 */
+	private void transferGroupElements(int size) throws Exception {
+		ArrayList<GroupElement> x0 = new ArrayList<GroupElement>();
+		ArrayList<GroupElement> x1 = new ArrayList<GroupElement>();
+		for (int i = 0; i < size; i++) {
+			x0.add(dlog.createRandomElement());
+			x1.add(dlog.createRandomElement());
+		}
+		new OTUCDDHBatchOnGroupElementSender(dlog, g0, g1, h0, h1, random).transfer(channels[0], new OTBatchOnGroupElementSInput(x0, x1));
+	}
+}
@@ -0,0 +1,36 @@
+package edu.biu.scapi.tests.trapdoorPermutation;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.Test;
+
+import edu.biu.scapi.primitives.trapdoorPermutation.RSAElement;
+import edu.biu.scapi.primitives.trapdoorPermutation.TPElement;
+import edu.biu.scapi.primitives.trapdoorPermutation.TrapdoorPermutation;
+import edu.biu.scapi.primitives.trapdoorPermutation.openSSL.OpenSSLRSAPermutation;
+
+public class TestOpenSSLRSAPermutationBatch extends TestRSAPermutationBatchInterface {
+
+	public TrapdoorPermutation createInstance() {
+		return new OpenSSLRSAPermutation();
+	}
+
+	@Test
+	public void TestBatchRejectsElementNotSmallerThanModulus() throws Exception {
+		BigInteger modulus = ((RSAPublicKey) pair.getPublic()).getModulus();
+		TPElement[] elements = {tp.generateRandomTPElement(), new RSAElement(modulus, modulus, false)};
+		try {
+			tp.compute(elements);
+			fail("computed an element that is not smaller than the modulus");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			tp.invert(elements);
+			fail("inverted an element that is not smaller than the modulus");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package edu.biu.scapi.tests.trapdoorPermutation;
+
+import static org.junit.Assert.*;
+
+import java.security.KeyException;
+import java.security.KeyPair;
+import java.security.spec.RSAKeyGenParameterSpec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.primitives.trapdoorPermutation.TPElement;
+import edu.biu.scapi.primitives.trapdoorPermutation.TrapdoorPermutation;
+
+/**
+ * Checks that the batch compute and invert of a RSA permutation give the same elements as the single functions.
+ */
+public abstract class TestRSAPermutationBatchInterface {
+
+	//More elements than processors, so that the batch is split between threads.
+	private static final int NUM_OF_ELEMENTS = 50;
+
+	public abstract TrapdoorPermutation createInstance();
+
+	protected TrapdoorPermutation tp;
+	protected KeyPair pair;
+
+	@Before
+	public void setUp() throws Exception {
+		tp = createInstance();
+		pair = tp.generateKey(new RSAKeyGenParameterSpec(1024, RSAKeyGenParameterSpec.F4));
+		tp.setKey(pair.getPublic(), pair.getPrivate());
+	}
+
+	@Test
+	public void TestComputeBatchMatchesSingle() {
+		TPElement[] elements = randomElements(NUM_OF_ELEMENTS);
+		TPElement[] results = tp.compute(elements);
+		assertEquals(elements.length, results.length);
+		for (int i = 0; i < elements.length; i++) {
+			assertEquals(tp.compute(elements[i]).getElement(), results[i].getElement());
+		}
+	}
+
+	@Test
+	public void TestInvertBatchMatchesSingle() throws Exception {
+		TPElement[] elements = randomElements(NUM_OF_ELEMENTS);
+		TPElement[] results = tp.invert(elements);
+		assertEquals(elements.length, results.length);
+		for (int i = 0; i < elements.length; i++) {
+			assertEquals(tp.invert(elements[i]).getElement(), results[i].getElement());
+		}
+	}
+
+	@Test
+	public void TestInvertBatchReversesComputeBatch() throws Exception {
+		TPElement[] elements = randomElements(NUM_OF_ELEMENTS);
+		TPElement[] inverted = tp.invert(tp.compute(elements));
+		for (int i = 0; i < elements.length; i++) {
+			assertEquals(elements[i].getElement(), inverted[i].getElement());
+		}
+	}
+
+	@Test
+	public void TestSmallBatches() throws Exception {
+		assertEquals(0, tp.compute(new TPElement[0]).length);
+		assertEquals(0, tp.invert(new TPElement[0]).length);
+
+		TPElement[] one = randomElements(1);
+		assertEquals(tp.compute(one[0]).getElement(), tp.compute(one)[0].getElement());
+		assertEquals(tp.invert(one[0]).getElement(), tp.invert(one)[0].getElement());
+	}
+
+	@Test(expected = KeyException.class)
+	public void TestInvertBatchWithoutPrivateKey() throws Exception {
+		TrapdoorPermutation publicOnly = createInstance();
+		publicOnly.setKey(pair.getPublic());
+		publicOnly.invert(randomElements(2));
+	}
+
+	private TPElement[] randomElements(int numOfElements) {
+		TPElement[] elements = new TPElement[numOfElements];
+		for (int i = 0; i < numOfElements; i++) {
+			elements[i] = tp.generateRandomTPElement();
+		}
+		return elements;
+	}
+}
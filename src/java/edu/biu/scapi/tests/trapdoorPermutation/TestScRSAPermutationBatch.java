@@ -0,0 +1,11 @@
+package edu.biu.scapi.tests.trapdoorPermutation;
+
+import edu.biu.scapi.primitives.trapdoorPermutation.ScRSAPermutation;
+import edu.biu.scapi.primitives.trapdoorPermutation.TrapdoorPermutation;
+
+public class TestScRSAPermutationBatch extends TestRSAPermutationBatchInterface {
+
+	public TrapdoorPermutation createInstance() {
+		return new ScRSAPermutation();
+	}
+}
@@ -0,0 +1,161 @@
+package edu.biu.scapi.tests.zeroKnowledge;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bouncycastle.util.BigIntegers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaBIMsg;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFiatShamirCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFiatShamirFromSigmaProver;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFiatShamirFromSigmaVerifier;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFiatShamirProof;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFiatShamirProverInput;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKProverInput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.tests.comm.LoopbackChannel;
+
+/**
+ * Checks that batches of Fiat Shamir proofs of discrete log are accepted, both as a whole and one by one, and that a batch with 
+ * one wrong proof or statement is rejected.
+ */
+public class TestZKPOKFiatShamirBatch {
+
+	private static final int NUM_OF_STATEMENTS = 10;
+	private static final int T = 80;
+
+	private DlogGroup dlog;
+	private SecureRandom random;
+	private ExecutorService executor;
+	private LoopbackChannel[] channels;
+	private ZKPOKFiatShamirFromSigmaProver prover;
+	private ZKPOKFiatShamirFromSigmaVerifier verifier;
+	private ZKProverInput[] proverInputs;
+	private ZKCommonInput[] commonInputs;
+
+	@Before
+	public void setUp() throws Exception {
+		dlog = new BcDlogECF2m("K-233");
+		random = new SecureRandom();
+		executor = Executors.newFixedThreadPool(4);
+		channels = LoopbackChannel.createPair();
+		prover = new ZKPOKFiatShamirFromSigmaProver(channels[0], new SigmaDlogProverComputation(dlog, T, random));
+		verifier = new ZKPOKFiatShamirFromSigmaVerifier(channels[1], new SigmaDlogVerifierComputation(dlog, T, random));
+
+		proverInputs = new ZKProverInput[NUM_OF_STATEMENTS];
+		commonInputs = new ZKCommonInput[NUM_OF_STATEMENTS];
+		BigInteger qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		for (int i = 0; i < NUM_OF_STATEMENTS; i++) {
+			BigInteger w = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			SigmaDlogProverInput input = new SigmaDlogProverInput(dlog.exponentiate(dlog.getGenerator(), w), w);
+			byte[] cont = new byte[]{(byte) i};
+			proverInputs[i] = new ZKPOKFiatShamirProverInput(input, cont);
+			commonInputs[i] = new ZKPOKFiatShamirCommonInput(input.getCommonParams(), cont);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void TestBatchIsAccepted() throws Exception {
+		for (ExecutorService e : new ExecutorService[]{null, executor}) {
+			ZKPOKFiatShamirProof[] proofs = prover.generateFiatShamirProofs(provers(), proverInputs, e);
+			assertEquals(NUM_OF_STATEMENTS, proofs.length);
+			assertTrue(verifier.verifyFiatShamirProofs(verifiers(), commonInputs, proofs, e));
+
+			//Each proof of the batch is also a valid single proof.
+			for (int i = 0; i < NUM_OF_STATEMENTS; i++) {
+				assertTrue(verifier.verifyFiatShamirProof(commonInputs[i], proofs[i]));
+			}
+		}
+	}
+
+	@Test
+	public void TestBatchOverChannel() throws Exception {
+		prover.proveBatch(provers(), proverInputs, executor);
+		assertTrue(verifier.verifyBatch(verifiers(), commonInputs, executor));
+	}
+
+	@Test
+	public void TestChangedResponseIsRejected() throws Exception {
+		ZKPOKFiatShamirProof[] proofs = prover.generateFiatShamirProofs(provers(), proverInputs, executor);
+
+		//Only the last proof is changed, so it is found only if all the transcripts are checked.
+		int last = NUM_OF_STATEMENTS - 1;
+		BigInteger z = ((SigmaBIMsg) proofs[last].getZ()).getMsg();
+		proofs[last] = new ZKPOKFiatShamirProof(proofs[last].getA(), proofs[last].getE(), new SigmaBIMsg(z.add(BigInteger.ONE)));
+		assertFalse(verifier.verifyFiatShamirProofs(verifiers(), commonInputs, proofs, executor));
+		assertFalse(verifier.verifyFiatShamirProofs(verifiers(), commonInputs, proofs, null));
+	}
+
+	@Test
+	public void TestChangedChallengeIsRejected() throws Exception {
+		ZKPOKFiatShamirProof[] proofs = prover.generateFiatShamirProofs(provers(), proverInputs, executor);
+		byte[] e = proofs[0].getE().clone();
+		e[0] ^= 1;
+		proofs[0] = new ZKPOKFiatShamirProof(proofs[0].getA(), e, proofs[0].getZ());
+		assertFalse(verifier.verifyFiatShamirProofs(verifiers(), commonInputs, proofs, executor));
+	}
+
+	@Test
+	public void TestWrongStatementIsRejected() throws Exception {
+		ZKPOKFiatShamirProof[] proofs = prover.generateFiatShamirProofs(provers(), proverInputs, executor);
+
+		//The proofs are valid, but the verifier expects another element in one of the statements.
+		ZKCommonInput[] wrongInputs = commonInputs.clone();
+		int middle = NUM_OF_STATEMENTS / 2;
+		wrongInputs[middle] = new ZKPOKFiatShamirCommonInput(new SigmaDlogCommonInput(dlog.createRandomElement()), new byte[]{(byte) middle});
+		assertFalse(verifier.verifyFiatShamirProofs(verifiers(), wrongInputs, proofs, executor));
+
+		//The context is part of the statement as well.
+		wrongInputs = commonInputs.clone();
+		wrongInputs[middle] = new ZKPOKFiatShamirCommonInput(((ZKPOKFiatShamirCommonInput) commonInputs[middle]).getSigmaInput(), new byte[]{0x7f});
+		assertFalse(verifier.verifyFiatShamirProofs(verifiers(), wrongInputs, proofs, executor));
+	}
+
+	@Test
+	public void TestMissingProofIsRejected() throws Exception {
+		ZKProverInput[] fewerInputs = new ZKProverInput[NUM_OF_STATEMENTS - 1];
+		System.arraycopy(proverInputs, 0, fewerInputs, 0, fewerInputs.length);
+		SigmaProverComputation[] fewerProvers = new SigmaProverComputation[fewerInputs.length];
+		System.arraycopy(provers(), 0, fewerProvers, 0, fewerProvers.length);
+
+		prover.proveBatch(fewerProvers, fewerInputs, executor);
+		assertFalse(verifier.verifyBatch(verifiers(), commonInputs, executor));
+	}
+
+	//The sigma computations are stateful, so each statement gets its own object.
+	private SigmaProverComputation[] provers() {
+		SigmaProverComputation[] provers = new SigmaProverComputation[NUM_OF_STATEMENTS];
+		for (int i = 0; i < provers.length; i++) {
+			provers[i] = new SigmaDlogProverComputation(dlog, T, random);
+		}
+		return provers;
+	}
+
+	private SigmaVerifierComputation[] verifiers() throws Exception {
+		SigmaVerifierComputation[] verifiers = new SigmaVerifierComputation[NUM_OF_STATEMENTS];
+		for (int i = 0; i < verifiers.length; i++) {
+			verifiers[i] = new SigmaDlogVerifierComputation(dlog, T, random);
+		}
+		return verifiers;
+	}
+}
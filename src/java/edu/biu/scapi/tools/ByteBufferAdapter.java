@@ -0,0 +1,132 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import javax.crypto.IllegalBlockSizeException;
+
+import edu.biu.scapi.primitives.hash.CryptographicHash;
+import edu.biu.scapi.primitives.prf.PseudorandomFunction;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+
+/**
+ * Implements the ByteBuffer functions of the primitives using their byte array functions.<p>
+ * 
+ * If a buffer is backed by an accessible array, the array is passed to the primitive with the matching offset, so nothing is copied.
+ * Otherwise (direct or read-only buffers), the bytes are copied to a temporary array. 
+ * Native primitives use this class only for buffers they can not access in place.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class ByteBufferAdapter {
+	
+	private ByteBufferAdapter(){}
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the message of the given hash and sets the position of the buffer to its limit.
+	 */
+	public static void update(CryptographicHash hash, ByteBuffer in){
+		int len = in.remaining();
+		if (len == 0){
+			return;
+		}
+		if (in.hasArray()){
+			hash.update(in.array(), in.arrayOffset() + in.position(), len);
+		} else {
+			byte[] bytes = new byte[len];
+			in.duplicate().get(bytes);
+			hash.update(bytes, 0, len);
+		}
+		in.position(in.limit());
+	}
+	
+	/**
+	 * Completes the computation of the given hash, puts the result in the given buffer and advances its position.
+	 * @throws BufferOverflowException if there is no room in the buffer for the result.
+	 */
+	public static void hashFinal(CryptographicHash hash, ByteBuffer out){
+		int len = hash.getHashedMsgSize();
+		if (out.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (out.hasArray()){
+			hash.hashFinal(out.array(), out.arrayOffset() + out.position());
+		} else {
+			byte[] bytes = new byte[len];
+			hash.hashFinal(bytes, 0);
+			out.duplicate().put(bytes);
+		}
+		out.position(out.position() + len);
+	}
+	
+	/**
+	 * Computes the given prf on the remaining bytes of the input buffer, puts the result in the remaining bytes of the output 
+	 * buffer and sets the positions of both buffers to their limits.
+	 * @throws IllegalBlockSizeException if the prf does not accept the lengths of the buffers.
+	 */
+	public static void computeBlock(PseudorandomFunction prf, ByteBuffer in, ByteBuffer out) throws IllegalBlockSizeException{
+		int inLen = in.remaining();
+		int outLen = out.remaining();
+		
+		byte[] inBytes;
+		int inOff;
+		if (in.hasArray()){
+			inBytes = in.array();
+			inOff = in.arrayOffset() + in.position();
+		} else {
+			inBytes = new byte[inLen];
+			in.duplicate().get(inBytes);
+			inOff = 0;
+		}
+		
+		if (out.hasArray()){
+			prf.computeBlock(inBytes, inOff, inLen, out.array(), out.arrayOffset() + out.position(), outLen);
+		} else {
+			byte[] outBytes = new byte[outLen];
+			prf.computeBlock(inBytes, inOff, inLen, outBytes, 0, outLen);
+			out.duplicate().put(outBytes);
+		}
+		in.position(in.limit());
+		out.position(out.limit());
+	}
+	
+	/**
+	 * Fills the remaining bytes of the given buffer with bytes of the given prg and sets the position of the buffer to its limit.
+	 */
+	public static void getPRGBytes(PseudorandomGenerator prg, ByteBuffer out){
+		int len = out.remaining();
+		if (out.hasArray()){
+			prg.getPRGBytes(out.array(), out.arrayOffset() + out.position(), len);
+		} else {
+			byte[] outBytes = new byte[len];
+			prg.getPRGBytes(outBytes, 0, len);
+			out.duplicate().put(outBytes);
+		}
+		out.position(out.limit());
+	}
+}
@@ -0,0 +1,158 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+
+package edu.biu.scapi.tools;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
+
+/**
+ * Runs the same computation over all the indices of a batch, splitting the indices between threads.<p>
+ * 
+ * The indices are split to ranges and each range is given to {@link #compute(int, int)}. A computation that handles each index 
+ * separately can extend {@link ParallelIndexBatch} instead. 
+ * The batch functions of the encryption schemes and of the batch OT protocols use this class for the group operations only. 
+ * Hash functions, MACs and KDFs keep an internal state, so they can not be shared between the threads. A computation that needs 
+ * such an object should create one object for each range, using an {@link InstanceFactory}.<p>
+ * 
+ * All the batches are computed by one shared pool of daemon threads, whose size is the number of available processors, together with 
+ * the calling thread. The threads are not created again for every batch, so per-thread native objects (such as the Miracl instance of 
+ * each thread) are created once per pool thread. The calling thread takes ranges as well, so a batch that is run from inside another 
+ * batch does not wait for pool threads that are busy, and the number of computing threads does not grow with the nesting.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class ParallelBatch {
+	
+	private static final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+		private AtomicInteger count = new AtomicInteger();
+		
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "ParallelBatch-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/**
+	 * Computes the elements of the batch in the range [from, to). All of them are computed by the same thread.
+	 * @param from the first index in the range.
+	 * @param to the index after the last index in the range.
+	 */
+	protected abstract void compute(int from, int to);
+	
+	/**
+	 * Calls compute on each index in [0, size), using all the available processors.<p>
+	 * A runtime exception thrown by one of the computations is re-thrown by this function after all threads are done.
+	 * @param size the number of elements in the batch.
+	 */
+	public void run(int size) {
+		run(size, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Calls compute on each index in [0, size), using the given number of threads.<p>
+	 * The indices are split to numOfThreads ranges, which are computed by the calling thread and the shared pool threads. 
+	 * The number of threads that actually compute is bounded by the size of the pool plus one.<p>
+	 * A runtime exception thrown by one of the computations is re-thrown by this function after all threads are done.
+	 * @param size the number of elements in the batch.
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void run(int size, int numOfThreads) {
+		if (numOfThreads > size){
+			numOfThreads = size;
+		}
+		
+		//There is no point in using other threads for a single computation.
+		if (numOfThreads <= 1){
+			compute(0, size);
+			return;
+		}
+		
+		//Each range is a contiguous part of the indices. The calling thread computes ranges too, so only numOfRanges - 1 tasks are needed.
+		int rangeSize = (size + numOfThreads - 1) / numOfThreads;
+		Ranges ranges = new Ranges(size, rangeSize);
+		for (int i = 1; i < ranges.numOfRanges; i++){
+			pool.execute(ranges);
+		}
+		ranges.run();
+		
+		//Wait for the ranges that were taken by the pool threads.
+		try {
+			ranges.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ScapiRuntimeException("interrupted while waiting for the batch computation");
+		}
+		
+		RuntimeException failure = ranges.failure.get();
+		if (failure != null){
+			throw failure;
+		}
+	}
+	
+	/**
+	 * The ranges of one batch. Every thread that runs this object computes the ranges that were not taken yet, so a task 
+	 * that starts after all ranges were taken returns immediately.
+	 */
+	private class Ranges implements Runnable {
+		
+		private int size;
+		private int rangeSize;
+		private int numOfRanges;
+		private AtomicInteger nextRange = new AtomicInteger();
+		private CountDownLatch done;
+		private AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+		
+		Ranges(int size, int rangeSize){
+			this.size = size;
+			this.rangeSize = rangeSize;
+			numOfRanges = (size + rangeSize - 1) / rangeSize;
+			done = new CountDownLatch(numOfRanges);
+		}
+		
+		public void run(){
+			int range;
+			while ((range = nextRange.getAndIncrement()) < numOfRanges){
+				int from = range * rangeSize;
+				try {
+					compute(from, Math.min(from + rangeSize, size));
+				} catch (RuntimeException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					done.countDown();
+				}
+			}
+		}
+	}
+}
@@ -142,4 +142,40 @@ public class MathAlgorithms {
     }
 	
 	/*-------------------------------------------------------------*/
+	
+	/**
+	 * Computes the Jacobi symbol (a/n). If n is a prime this is the Legendre symbol, that is, 1 if a is a quadratic residue mod n, 
+	 * -1 if it is not and 0 if n divides a.<p>
+	 * The computation uses the quadratic reciprocity law and only needs divisions and shifts, so it is much cheaper than 
+	 * Euler's criterion a^((n-1)/2) mod n.
+	 * @param a the number to compute the symbol for
+	 * @param n an odd positive number
+	 * @throws IllegalArgumentException if n is not odd and positive
+	 * @return the Jacobi symbol (a/n), one of -1, 0, 1.
+	 */
+	public static int jacobiSymbol(BigInteger a, BigInteger n){
+		if (n.signum() <= 0 || !n.testBit(0))
+			throw new IllegalArgumentException("n has to be an odd positive number");
+		
+		a = a.mod(n);
+		int result = 1;
+		while (a.signum() != 0){
+			//(2/n) = -1 if and only if n = 3,5 mod 8
+			int twos = a.getLowestSetBit();
+			a = a.shiftRight(twos);
+			int nMod8 = n.intValue() & 7;
+			if ((twos & 1) == 1 && (nMod8 == 3 || nMod8 == 5))
+				result = -result;
+			
+			//quadratic reciprocity: (a/n) = -(n/a) if and only if a = n = 3 mod 4
+			if ((a.intValue() & 3) == 3 && (nMod8 & 3) == 3)
+				result = -result;
+			BigInteger temp = a;
+			a = n.mod(temp);
+			n = temp;
+		}
+		return n.equals(BigInteger.ONE) ? result : 0;
+	}
+	
+	/*-------------------------------------------------------------*/
 }
@@ -68,22 +68,38 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_se
 }
 
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_computeBlock
-  (JNIEnv *env, jobject, jlong aes, jbyteArray inBytes, jbyteArray outBytes, jint outOffset, jboolean forEncrypt){
+  (JNIEnv *env, jobject, jlong aes, jbyteArray inBytes, jint inOffset, jbyteArray outBytes, jint outOffset, jboolean forEncrypt){
 
-	  jbyte *in = env->GetByteArrayElements(inBytes, 0);
-	  jbyte *out = env->GetByteArrayElements(outBytes, 0);
+	  byte out[AES::BLOCKSIZE];
+
+	  //get direct access to the input array. The JVM does not copy it, so no JNI calls are made until it is released.
+	  jbyte *in = (jbyte*) env->GetPrimitiveArrayCritical(inBytes, 0);
 	  
 	  if (forEncrypt){
-		 ((AESEncryption*)aes)->ProcessBlock((byte*)in, (byte*) out);
-		 env->SetByteArrayRegion(outBytes, outOffset, ((AESEncryption*)aes)->BlockSize(), out);
+		 ((AESEncryption*)aes)->ProcessBlock((byte*)(in + inOffset), out);
 	  } else {
-		  ((AESDecryption*)aes)->ProcessBlock((byte*)in, (byte*) out);
-		  env->SetByteArrayRegion(outBytes, outOffset, ((AESDecryption*)aes)->BlockSize(), out);
+		  ((AESDecryption*)aes)->ProcessBlock((byte*)(in + inOffset), out);
 	  }
 
-	  //make sure to release the memory created in c++. The JVM will not release it automatically.
-	  env->ReleaseByteArrayElements(inBytes,in,0);
-	  env->ReleaseByteArrayElements(outBytes,out,0);
+	  //the input was not changed, so there is nothing to copy back.
+	  env->ReleasePrimitiveArrayCritical(inBytes, in, JNI_ABORT);
+
+	  //put the result block in the output array, starting at the given offset.
+	  env->SetByteArrayRegion(outBytes, outOffset, AES::BLOCKSIZE, (jbyte*)out);
+}
+
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_computeBlockDirect
+  (JNIEnv *env, jobject, jlong aes, jobject inBuffer, jint inOffset, jobject outBuffer, jint outOffset, jboolean forEncrypt){
+
+	  //the memory of direct buffers is native, so it can be used as is.
+	  byte *in = (byte*) env->GetDirectBufferAddress(inBuffer);
+	  byte *out = (byte*) env->GetDirectBufferAddress(outBuffer);
+	  
+	  if (forEncrypt){
+		 ((AESEncryption*)aes)->ProcessBlock(in + inOffset, out + outOffset);
+	  } else {
+		  ((AESDecryption*)aes)->ProcessBlock(in + inOffset, out + outOffset);
+	  }
 }
 
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_optimizedCompute
@@ -59,10 +59,18 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_se
 /*
  * Class:     edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES
  * Method:    computeBlock
- * Signature: (J[B[BIZ)V
+ * Signature: (J[BI[BIZ)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_computeBlock
-  (JNIEnv *, jobject, jlong, jbyteArray, jbyteArray, jint, jboolean);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jbyteArray, jint, jboolean);
+
+/*
+ * Class:     edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES
+ * Method:    computeBlockDirect
+ * Signature: (JLjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;IZ)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_computeBlockDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jobject, jint, jboolean);
 
 /*
  * Class:     edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES
@@ -93,49 +93,72 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHa
 
 /* function updateHash : This function updates the hash function with the byte array data
  * param hashPtr	   : The actual hash object pointer to update
- * param data		   : the byte array to translate to c++ and update the hash
- * param len		   : the length of the byte array
+ * param data		   : the byte array to update the hash with
+ * param offset		   : the offset of the data within the byte array
+ * param len		   : the length of the data
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHash
-(JNIEnv *env, jobject, jlong hashPtr, jbyteArray data, jlong len){
+(JNIEnv *env, jobject, jlong hashPtr, jbyteArray data, jint offset, jint len){
 
-	//declare a byte array in c++
-	jbyte *carr;
-
-	//get to carr the elements of the input byte array data
-	carr = env->GetByteArrayElements(data, 0);
+	//get direct access to the elements of the input byte array data. The JVM does not copy the array, 
+	//so no other JNI function may be called until it is released.
+	jbyte *carr = (jbyte*) env->GetPrimitiveArrayCritical(data, 0);
 
 	//invoke the update function after casting to HashTransformation that defines this function for all the derived hash
 	//algorithms to implement
-	((HashTransformation *)hashPtr)->Update((const byte *)carr, len);
+	((HashTransformation *)hashPtr)->Update((const byte *)(carr + offset), len);
+
+	//the data was not changed, so there is nothing to copy back.
+	env->ReleasePrimitiveArrayCritical(data, carr, JNI_ABORT);
+}
+
+/* function updateHashDirect : This function updates the hash function with the data of a direct buffer
+ * param hashPtr			 : The actual hash object pointer to update
+ * param data				 : the direct buffer that holds the data
+ * param offset				 : the offset of the data within the buffer
+ * param len				 : the length of the data
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHashDirect
+(JNIEnv *env, jobject, jlong hashPtr, jobject data, jint offset, jint len){
+
+	//the memory of a direct buffer is native, so it can be used as is.
+	byte *carr = (byte*) env->GetDirectBufferAddress(data);
 
-	//make sure to release the memory created in c++. The JVM will not release it automatically.
-	env->ReleaseByteArrayElements(data,carr,0);
+	((HashTransformation *)hashPtr)->Update(carr + offset, len);
 }
 
 /* function finalHash : This function completes the hash computation
  * param hashPtr	   : The actual hash object pointer 
- * param input		   : the byte array to put the result in
- * param size		   : the length of the byte array. This will be different for different hash functions
+ * param output		   : the byte array to put the result in
+ * param offset		   : the offset within the byte array to put the result at
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_finalHash
-(JNIEnv *env, jobject, jlong hashPtr, jbyteArray output){
+(JNIEnv *env, jobject, jlong hashPtr, jbyteArray output, jint offset){
 
 	HashTransformation *localHashPtr = (HashTransformation *)hashPtr;
 
-	//allocate a new byte array with the size of the specific hash algorithm.
-	byte *ret = new byte[localHashPtr->DigestSize()]; 
+	//SHA512 has the longest digest of the supported hashes.
+	byte ret[SHA512::DIGESTSIZE]; 
 
 	//perform the final function
 	localHashPtr->Final(ret);
 
 	//put the result of the final computation in the output array passed from java
-	env->SetByteArrayRegion(output, 0, localHashPtr->DigestSize(), (jbyte*)ret); 
+	env->SetByteArrayRegion(output, offset, localHashPtr->DigestSize(), (jbyte*)ret); 
+}
 
-	//make sure to release the dynamically allocated memory. Will not be deleted by the JVM.
-	delete ret;
+/* function finalHashDirect : This function completes the hash computation and puts the result in a direct buffer
+ * param hashPtr			: The actual hash object pointer 
+ * param output				: the direct buffer to put the result in
+ * param offset				: the offset within the buffer to put the result at
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_finalHashDirect
+(JNIEnv *env, jobject, jlong hashPtr, jobject output, jint offset){
 
+	byte *out = (byte*) env->GetDirectBufferAddress(output);
 
+	//perform the final function directly into the buffer
+	((HashTransformation *)hashPtr)->Final(out + offset);
 }
 
 
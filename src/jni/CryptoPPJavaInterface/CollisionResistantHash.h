@@ -53,18 +53,34 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHa
 /*
  * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
  * Method:    updateHash
- * Signature: (J[BJ)V
+ * Signature: (J[BII)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHash
-  (JNIEnv *, jobject, jlong, jbyteArray, jlong);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
+ * Method:    updateHashDirect
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHashDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
 
 /*
  * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
  * Method:    finalHash
- * Signature: (J[BJ)V
+ * Signature: (J[BI)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_finalHash
-  (JNIEnv *, jobject, jlong, jbyteArray);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
+ * Method:    finalHashDirect
+ * Signature: (JLjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_finalHashDirect
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 
 /*
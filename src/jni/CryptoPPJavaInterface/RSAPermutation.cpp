@@ -254,6 +254,70 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_crypto
 	  return (jlong) utils.getPointerToInteger(result);
 }
 
+/*
+ * function computeRSABatch	: This function compute the RSA function on all the accepted elements
+ * param tpPtr				: The pointer to the RSA object 
+ * param elements			: Pointers to the elements for the computation
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_cryptopp_CryptoPpRSAPermutation_computeRSABatch
+  (JNIEnv *env, jobject, jlong tpPtr, jlongArray elements) {
+	  
+	  Utils utils;
+
+	  jsize size = env->GetArrayLength(elements);
+	  jlong* els = env->GetLongArrayElements(elements, 0);
+	  jlong* results = new jlong[size];
+
+	  //operate the compute on each element
+	  for (int i = 0; i < size; i++){
+		  Integer result = ((RSAFunction *) tpPtr)-> ApplyFunction(*(Integer*) els[i]);
+		  results[i] = (jlong) utils.getPointerToInteger(result);
+	  }
+
+	  //return the results' pointers as jlongArray
+	  jlongArray resultArray = env->NewLongArray(size);
+	  env->SetLongArrayRegion(resultArray, 0, size, results);
+
+	  //release the allocated memory. The input was not changed, so there is no need to copy it back.
+	  env->ReleaseLongArrayElements(elements, els, JNI_ABORT);
+	  delete [] results;
+
+	  return resultArray;
+}
+
+/*
+ * function invertRSABatch  : This function invert the RSA permutation on all the accepted elements.
+ *							  The random number generator is seeded once for all the elements.
+ * param tpPtr	            : The pointer to the RSA object 
+ * param elements		    : Pointers to the elements to invert
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_cryptopp_CryptoPpRSAPermutation_invertRSABatch
+  (JNIEnv *env, jobject, jlong tpPtr, jlongArray elements) {
+	  // Random Number Generator
+	  AutoSeededRandomPool rng;
+	  Utils utils;
+
+	  jsize size = env->GetArrayLength(elements);
+	  jlong* els = env->GetLongArrayElements(elements, 0);
+	  jlong* results = new jlong[size];
+
+	  //operate the invert on each element
+	  for (int i = 0; i < size; i++){
+		  Integer result = ((InvertibleRSAFunction *) tpPtr) -> CalculateInverse(rng, *(Integer*) els[i]);
+		  results[i] = (jlong) utils.getPointerToInteger(result);
+	  }
+
+	  //return the results' pointers as jlongArray
+	  jlongArray resultArray = env->NewLongArray(size);
+	  env->SetLongArrayRegion(resultArray, 0, size, results);
+
+	  //release the allocated memory. The input was not changed, so there is no need to copy it back.
+	  env->ReleaseLongArrayElements(elements, els, JNI_ABORT);
+	  delete [] results;
+
+	  return resultArray;
+}
+
 /*
  * Delete the native object
  */
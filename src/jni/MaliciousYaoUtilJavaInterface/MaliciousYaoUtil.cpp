@@ -5,39 +5,6 @@
 
 using namespace std;
 
-JNIEXPORT void JNICALL Java_edu_biu_protocols_yao_primitives_KProbeResistantMatrix_restoreKeys
-  (JNIEnv *env, jobject, jbyteArray receivedKeysArray, jobjectArray matrixArray, int n, int m, jbyteArray restoredKeysArray){
-
-	  block* receivedKeys = (block *)  _mm_malloc(sizeof(block) * m, 16);
-	  block* restoredKeys = (block *)  _mm_malloc(sizeof(block) * n, 16);
-	  
-	  jbyte *carr = env->GetByteArrayElements(receivedKeysArray, 0);
-	  memcpy(receivedKeys, carr, sizeof(block) * m);
-
-	  char* matrix = new char[n*m];
-
-	  for (int i=0; i<n; i++){
-		  
-		 jbyteArray matrixRowArray = (jbyteArray) env->GetObjectArrayElement(matrixArray, i);
-		 jbyte* matrixRow  = (jbyte*) env->GetByteArrayElements(matrixRowArray, 0);
-		 
-		 memcpy(matrix+i*m, matrixRow, m);
-		   
-		 env->ReleaseByteArrayElements(matrixRowArray,matrixRow,JNI_ABORT);
-	  }
-	  
-	  restoreKeys(receivedKeys, matrix, n, m, restoredKeys);
-	 
-	  env->SetByteArrayRegion(restoredKeysArray, 0, n*SIZE_OF_BLOCK,  (jbyte*)restoredKeys);
-
-	  env->ReleaseByteArrayElements(receivedKeysArray,carr,JNI_ABORT);
-	  _mm_free(receivedKeys);
-	  _mm_free(restoredKeys);
-
-	  delete matrix;
-
-}
-
 JNIEXPORT void JNICALL Java_edu_biu_protocols_yao_primitives_KProbeResistantMatrix_transformKeys
   (JNIEnv *env, jobject, jbyteArray originalKeysBytes, jbyteArray probeResistantKeysBytes, jbyteArray seedBytes, int n, int m, jobjectArray matrixArray){
 	  
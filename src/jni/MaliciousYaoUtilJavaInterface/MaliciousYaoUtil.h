@@ -12,14 +12,6 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
-/*
- * Class:     edu_biu_protocols_yao_primitives_KProbeResistantMatrix
- * Method:    restoreKeys
- * Signature: ([B)[B
- */                         
-JNIEXPORT void JNICALL Java_edu_biu_protocols_yao_primitives_KProbeResistantMatrix_restoreKeys
-  (JNIEnv *, jobject, jbyteArray, jobjectArray, int, int, jbyteArray);
-
 JNIEXPORT void JNICALL Java_edu_biu_protocols_yao_primitives_KProbeResistantMatrix_transformKeys
   (JNIEnv *, jobject, jbyteArray, jbyteArray, jbyteArray, int n, int m, jobjectArray);
 
@@ -6,26 +6,6 @@
 
 using namespace std;
 
-void restoreKeys(block* receivedKeys, char* matrix, int n, int m, block* restoredKeys){
-
-	block xorOfShares;
-	for (int i = 0; i < n; i++) {
-		
-		xorOfShares = _mm_setzero_si128();
-
-		for (int j = 0; j < m; j++) {
-
-			if (0 == matrix[i*m+j]) {
-				continue; // insignificant share
-			}
-			
-			xorOfShares =  _mm_xor_si128(xorOfShares, receivedKeys[j]);
-		}
-
-		restoredKeys[i] = xorOfShares;		
-	}	
-}
-
 /**
 	* Gets a original keys and transform them into keys that corresponds to the matrix.
 	* @param originalKeys The keys that matched the rows of the matrix.
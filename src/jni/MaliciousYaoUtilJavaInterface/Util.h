@@ -5,8 +5,6 @@ typedef __m128i block;
 
 #define SIZE_OF_BLOCK 16//size in bytes
 
-void restoreKeys(block* receivedKeys, char* matrix, int n, int m, block* restoredKeys);
-
 void xorKeysWithMask(block* keys, block mask, int size);
 
 void xorKeys(block* keys1, block* keys2, block* output);
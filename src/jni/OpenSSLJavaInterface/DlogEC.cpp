@@ -26,6 +26,7 @@
 #include "StdAfx.h"
 #include <jni.h>
 #include "DlogEC.h"
+#include "ThreadCTX.h"
 #include <openssl/ec.h>
 #include <iostream>
 
@@ -175,6 +176,16 @@ JNIEXPORT jboolean JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAda
 	  return ((DlogEC*)dlog)->validate();
 }
 
+/* 
+ * function precomputeGenerator		: Computes the pre computed values of the generator.
+ *									  The calculation changes the curve, so it is done once, when the curve is initialized 
+ *									  and before the group can be used by other threads.
+ * return							: 1 if the calculation succedded; 0, otherwise.
+ */
+BOOL DlogEC::precomputeGenerator(){
+	return EC_GROUP_precompute_mult(curveP, getCTX());
+}
+
 /* 
  * function exponentiateWithPreComputedValues	: Exponentiates the generator to the given exponent using a pre computed values.
  * param dlog									: Pointer to the dlog group.
@@ -238,11 +249,12 @@ EC_GROUP* DlogEC::getCurve(){
 }
 
 /* 
- * function getCTX		: Returns the CTX structure.
+ * function getCTX		: Returns the CTX structure of the calling thread.
+ *						  The ctx that was given in the constructor is used only by the thread that created the curve.
  * return				: ctx.
  */
 BN_CTX* DlogEC::getCTX(){
-	return ctx;
+	return getThreadCTX();
 }
 
 /* 
@@ -281,7 +293,7 @@ EC_POINT* DlogEC::inversePoint(EC_POINT* point){
 	}
 
 	//Inverse the given value and set the inversed value instead.
-	if(0 == (EC_POINT_invert(curveP,  inverse, ctx))){
+	if(0 == (EC_POINT_invert(curveP,  inverse, getCTX()))){
 		EC_POINT_free(inverse);
 		return 0;
 	}
@@ -301,7 +313,7 @@ EC_POINT* DlogEC::exponentiate(EC_POINT* base, BIGNUM* exponent){
 	if(NULL == (result = EC_POINT_new(curveP))) return 0;
 
 	//Compute the exponentiate.
-	if(0 == (EC_POINT_mul(curveP, result, NULL, base, exponent, ctx))) {
+	if(0 == (EC_POINT_mul(curveP, result, NULL, base, exponent, getCTX()))) {
 		EC_POINT_free(result);
 		return 0;
 	}
@@ -321,7 +333,7 @@ EC_POINT* DlogEC::multiply(EC_POINT* point1, EC_POINT* point2){
 	if(NULL == (result = EC_POINT_new(curveP))) return 0;
 
 	//Compute the multiplication.
-	if(0 == (EC_POINT_add(curveP, result, point1, point2, ctx))){
+	if(0 == (EC_POINT_add(curveP, result, point1, point2, getCTX()))){
 		EC_POINT_free(result);
 		return 0;
 	}
@@ -337,7 +349,7 @@ EC_POINT* DlogEC::multiply(EC_POINT* point1, EC_POINT* point2){
 BOOL DlogEC::checkCurveMembership(EC_POINT* point){
 
 	//Call the function that checks membership.
-	int result = EC_POINT_is_on_curve(curveP, point, ctx);
+	int result = EC_POINT_is_on_curve(curveP, point, getCTX());
 
 	return result;
 }
@@ -354,7 +366,7 @@ EC_POINT* DlogEC::simultaneousMultiply(const EC_POINT** pointsArr, const BIGNUM*
 	if(NULL == (result = EC_POINT_new(curveP))) return 0;
 
 	//Computes the simultaneous multiply.
-	if(0 == (EC_POINTs_mul(curveP, result, NULL, size, pointsArr, exponentsArr, ctx))){
+	if(0 == (EC_POINTs_mul(curveP, result, NULL, size, pointsArr, exponentsArr, getCTX()))){
 		EC_POINT_free(result);
 		return 0;
 	}
@@ -368,7 +380,7 @@ EC_POINT* DlogEC::simultaneousMultiply(const EC_POINT** pointsArr, const BIGNUM*
  * return					: True if the group is valid; False, otherwise.
  */
 BOOL DlogEC::validate(){
-	return EC_GROUP_check(curveP, ctx);
+	return EC_GROUP_check(curveP, getCTX());
 }
 
 /* 
@@ -381,16 +393,8 @@ EC_POINT* DlogEC::exponentiateWithPreComputedValues(BIGNUM* exponent){
 	EC_POINT *result;
 	if(NULL == (result = EC_POINT_new(curveP))) return 0;
 
-	//If there are no pre computes values, calculate them.
-	if (EC_GROUP_have_precompute_mult(curveP) == 0){
-		if(0 == (EC_GROUP_precompute_mult(curveP, ctx))) {
-			EC_POINT_free(result);
-			return 0;
-		}
-	}
-
-	//Calculate the exponentiate with the pre computed values.
-	if(0 == (EC_POINT_mul(curveP, result, exponent, NULL, NULL, ctx))){
+	//Calculate the exponentiate with the pre computed values, which were computed when the curve was initialized.
+	if(0 == (EC_POINT_mul(curveP, result, exponent, NULL, NULL, getCTX()))){
 		EC_POINT_free(result);
 		return 0;
 	}
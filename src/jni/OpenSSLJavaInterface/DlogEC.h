@@ -128,6 +128,7 @@ public:
 	BOOL checkCurveMembership(EC_POINT* point);
 	EC_POINT* simultaneousMultiply(const EC_POINT** pointsArr, const BIGNUM** exponentsArr, int size);
 	BOOL validate();
+	BOOL precomputeGenerator();
 	EC_POINT* exponentiateWithPreComputedValues(BIGNUM* exponent);
 };
 
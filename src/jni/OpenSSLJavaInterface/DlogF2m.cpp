@@ -139,6 +139,7 @@ JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogECF
 	  BN_free(order);
 	  BN_free(cofactor);
 
-	  return 1;
+	  //Pre compute the powers of the generator, now that the generator is set.
+	  return ((DlogEC*) dlog)->precomputeGenerator();
 }
 
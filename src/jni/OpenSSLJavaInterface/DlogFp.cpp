@@ -129,7 +129,8 @@ JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogECF
 	  //Release the allocated memory.
 	  BN_free(order);
 	  
-	  return 1;
+	  //Pre compute the powers of the generator, now that the generator is set.
+	  return ((DlogEC*) dlog)->precomputeGenerator();
 }
 
 /* 
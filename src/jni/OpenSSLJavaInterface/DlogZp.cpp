@@ -26,6 +26,7 @@
 #include "StdAfx.h"
 #include <jni.h>
 #include "DlogZp.h"
+#include "ThreadCTX.h"
 #include <openssl/dh.h>
 #include <openssl/rand.h>
 #include <iostream>
@@ -363,10 +364,11 @@ DH* DlogZp::getDlog(){
 }
 
 /* 
- * function getCTX		: Returns the pointer to the CTX struct.
+ * function getCTX		: Returns the pointer to the CTX struct of the calling thread.
+ *						  The ctx that was given in the constructor is used only by the thread that created the group.
  */
 BN_CTX* DlogZp::getCTX(){
-	return ctx;
+	return getThreadCTX();
 }
 
 /* 
@@ -398,7 +400,7 @@ bool DlogZp::validateElement(BIGNUM* el){
 	BIGNUM* exp = BN_new();
 	
 	//Check that the element raised to q is 1 mod p.
-	int suc = BN_mod_exp(exp, el, q, p,  ctx);
+	int suc = BN_mod_exp(exp, el, q, p,  getCTX());
 	
 	if (!BN_is_one(exp)){
 		result = false;
@@ -82,30 +82,48 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
  * function updateHash	: Update the hash function with the given message.
  * param hash			: Pointer to the native hash.
  * param message		: The message to update the hash with.
+ * param offset			: The offset of the message within the array.
  * param len			: The length of the message.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHash
-  (JNIEnv *env, jobject, jlong hash, jbyteArray message, jlong len){
-	  //convert the message to c++ notation.
-	  jbyte* msg = env->GetByteArrayElements(message, 0);
+  (JNIEnv *env, jobject, jlong hash, jbyteArray message, jint offset, jint len){
+	  //Get direct access to the java array. The JVM does not copy the array, so no JNI calls are made until it is released.
+	  jbyte* msg = (jbyte*) env->GetPrimitiveArrayCritical(message, 0);
 
 	  //Update the hash with the message.
-	  EVP_DigestUpdate((EVP_MD_CTX *) hash, msg, len);
+	  EVP_DigestUpdate((EVP_MD_CTX *) hash, msg + offset, len);
 
-	  env->ReleaseByteArrayElements(message, msg, 0);
+	  //The message was not changed, so there is nothing to copy back.
+	  env->ReleasePrimitiveArrayCritical(message, msg, JNI_ABORT);
+}
+
+/* 
+ * function updateHashDirect	: Update the hash function with the given message, which is held in a direct buffer.
+ * param hash					: Pointer to the native hash.
+ * param message				: The direct buffer that holds the message.
+ * param offset					: The offset of the message within the buffer.
+ * param len					: The length of the message.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHashDirect
+  (JNIEnv *env, jobject, jlong hash, jobject message, jint offset, jint len){
+	  //The memory of a direct buffer is native, so it can be used as is.
+	  char* msg = (char*) env->GetDirectBufferAddress(message);
+
+	  //Update the hash with the message.
+	  EVP_DigestUpdate((EVP_MD_CTX *) hash, msg + offset, len);
 }
 
 /* 
  * function finalHash	: Finalize the hash function.
  * param result			: Array to hold the hashed message.
+ * param offset			: The offset within the array to put the hashed message at.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_finalHash
-  (JNIEnv *env, jobject, jlong hash, jbyteArray result){
+  (JNIEnv *env, jobject, jlong hash, jbyteArray result, jint offset){
 	  //Get the size of the hashed message.
 	  int size = EVP_MD_CTX_size((EVP_MD_CTX *)hash);
 	  
-	  //Allocate a new byte array with the size of the specific hash algorithm.
-	  unsigned char* ret = new unsigned char[size]; 
+	  unsigned char ret[EVP_MAX_MD_SIZE]; 
 
 	  //Compute the hash function and put the result in ret.
 	  EVP_DigestFinal_ex((EVP_MD_CTX *)hash, ret, NULL);
@@ -114,10 +132,23 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_fi
 	  EVP_DigestInit((EVP_MD_CTX *)hash, EVP_MD_CTX_md((EVP_MD_CTX *)hash));
 	  
 	  //Put the result of the final computation in the output array passed from java.
-	  env->SetByteArrayRegion(result, 0, size, (jbyte*)((char*)ret)); 
+	  env->SetByteArrayRegion(result, offset, size, (jbyte*)((char*)ret)); 
+}
+
+/* 
+ * function finalHashDirect	: Finalize the hash function and put the result in a direct buffer.
+ * param result				: Direct buffer to hold the hashed message.
+ * param offset				: The offset within the buffer to put the hashed message at.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_finalHashDirect
+  (JNIEnv *env, jobject, jlong hash, jobject result, jint offset){
+	  unsigned char* out = (unsigned char*) env->GetDirectBufferAddress(result);
+
+	  //Compute the hash function and put the result in the buffer.
+	  EVP_DigestFinal_ex((EVP_MD_CTX *)hash, out + offset, NULL);
 	  
-	  //Make sure to release the dynamically allocated memory. Will not be deleted by the JVM.
-	  delete ret;
+	  //Initialize the hash structure again to enable repeated calls.
+	  EVP_DigestInit((EVP_MD_CTX *)hash, EVP_MD_CTX_md((EVP_MD_CTX *)hash));
 }
 
 /* 
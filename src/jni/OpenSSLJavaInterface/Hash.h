@@ -51,18 +51,34 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
 /*
  * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
  * Method:    updateHash
- * Signature: (J[BJ)V
+ * Signature: (J[BII)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHash
-  (JNIEnv *, jobject, jlong, jbyteArray, jlong);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
+ * Method:    updateHashDirect
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHashDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
 
 /*
  * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
  * Method:    finalHash
- * Signature: (J[B)V
+ * Signature: (J[BI)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_finalHash
-  (JNIEnv *, jobject, jlong, jbyteArray);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
+ * Method:    finalHashDirect
+ * Signature: (JLjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_finalHashDirect
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
@@ -106,14 +106,46 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateNative
   (JNIEnv *env, jobject, jlong hmac, jbyteArray in, jint inOffset, jint len){
-	  //Convert the given data into c++ notation.
-	  jbyte* input  = (jbyte*) env->GetByteArrayElements(in, 0);
+	  //Get direct access to the given array. The JVM does not copy it, so no JNI calls are made until it is released.
+	  jbyte* input  = (jbyte*) env->GetPrimitiveArrayCritical(in, 0);
 
 	  //Update the Hmac object.
 	  HMAC_Update((HMAC_CTX*)hmac, (const unsigned char*)(input+inOffset), len);
 
-	  //Release the allocated memory.
-	  env->ReleaseByteArrayElements(in, input, 0);
+	  //The input was not changed, so there is nothing to copy back.
+	  env->ReleasePrimitiveArrayCritical(in, input, JNI_ABORT);
+}
+
+/* 
+ * function updateNativeDirect	: Update the Hmac object with the given direct buffer
+ * param hmac					: Pointer to the native Hmac object.
+ * param in						: Direct buffer that should be updated to the Hmac function.
+ * param inOffset				: The offset within the buffer that the update should take place from.
+ * param len					: The length of the input.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateNativeDirect
+  (JNIEnv *env, jobject, jlong hmac, jobject in, jint inOffset, jint len){
+	  //The memory of a direct buffer is native, so it can be used as is.
+	  unsigned char* input = (unsigned char*) env->GetDirectBufferAddress(in);
+
+	  HMAC_Update((HMAC_CTX*)hmac, input + inOffset, len);
+}
+
+/* 
+ * function updateFinalDirect	: Finalize the Hmac operation and put the result in the given direct buffer
+ * param hmac					: Pointer to the native Hmac object.
+ * param out					: Direct buffer to hold the result.
+ * param outOffset				: The offset within the buffer to put the result from.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateFinalDirect
+  (JNIEnv *env, jobject, jlong hmac, jobject out, jint outOffset){
+	  unsigned char* output = (unsigned char*) env->GetDirectBufferAddress(out);
+
+	  //Compute the final function directly into the buffer.
+	  HMAC_Final((HMAC_CTX *)hmac, output + outOffset, NULL);
+
+	  //Initialize the Hmac again in order to enable repeated calls. A NULL key keeps the key that was already set.
+	  HMAC_Init_ex((HMAC_CTX *)hmac, NULL, 0, NULL, NULL);
 }
 
 /* 
@@ -147,10 +179,49 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_upd
 	  delete output;
 }
 
+/* 
+ * function macBatchNative		: Computes the Hmac on a range of messages.
+ *								  The key is given to the Hmac object only once. For each message, the object is reset to the 
+ *								  state that was computed from the key, so the key is not processed again.
+ * param hmac					: Pointer to the native Hmac object.
+ * param msgs					: The messages to compute the Hmac on.
+ * param from					: The index of the first message in the range.
+ * param to						: The index after the last message in the range.
+ * param out					: Output array. The result of message i is put starting at i * size of the hash output.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_macBatchNative
+  (JNIEnv *env, jobject, jlong hmac, jobjectArray msgs, jint from, jint to, jbyteArray out){
+	  HMAC_CTX *ctx = (HMAC_CTX *)hmac;
+	  int size = EVP_MD_size(ctx->md); //Get the size of the hash output.
+	  unsigned char* output = new unsigned char[size];//Create a char array to hold the result.
+
+	  for (int i = from; i < to; i++){
+		  jbyteArray msg = (jbyteArray) env->GetObjectArrayElement(msgs, i);
+		  jbyte* input  = (jbyte*) env->GetByteArrayElements(msg, 0);
+
+		  //Reset the Hmac to the state after the key and compute the Hmac of the message.
+		  HMAC_Init_ex(ctx, NULL, 0, NULL, NULL);
+		  HMAC_Update(ctx, (const unsigned char*)input, env->GetArrayLength(msg));
+		  HMAC_Final(ctx, output, NULL);
+
+		  //Copy only the result of this message, since other threads may write other parts of the output array.
+		  env->SetByteArrayRegion(out, i*size, size, (jbyte*)output);
+
+		  //Release the allocated memory. The message was not changed, so there is no need to copy it back.
+		  env->ReleaseByteArrayElements(msg, input, JNI_ABORT);
+		  env->DeleteLocalRef(msg);
+	  }
+
+	  //Reset the Hmac in order to enable more calls.
+	  HMAC_Init_ex(ctx, NULL, 0, NULL, NULL);
+	  delete [] output;
+}
+
 /* 
  * function deleteNative		: Deletes the Hmac object.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_deleteNative
   (JNIEnv *, jobject, jlong hmac){
 	  HMAC_CTX_cleanup((HMAC_CTX*)hmac);
+	  delete (HMAC_CTX*)hmac;
 }
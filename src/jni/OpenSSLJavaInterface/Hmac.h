@@ -66,6 +66,22 @@ JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateNative
   (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
 
+/*
+ * Class:     edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC
+ * Method:    updateNativeDirect
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateNativeDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC
+ * Method:    updateFinalDirect
+ * Signature: (JLjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateFinalDirect
+  (JNIEnv *, jobject, jlong, jobject, jint);
+
 /*
  * Class:     edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC
  * Method:    updateFinal
@@ -74,6 +90,14 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_upd
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_updateFinal
   (JNIEnv *, jobject, jlong, jbyteArray, jint);
 
+/*
+ * Class:     edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC
+ * Method:    macBatchNative
+ * Signature: (J[[BII[B)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC_macBatchNative
+  (JNIEnv *, jobject, jlong, jobjectArray, jint, jint, jbyteArray);
+
 /*
  * Class:     edu_biu_scapi_primitives_prf_openSSL_OpenSSLHMAC
  * Method:    deleteNative
@@ -34,57 +34,75 @@ using namespace std;
 /* 
  * function computeBlock		: Compute the PRP on the given block.
  * param prp					: pointer to the PRP object.
- * param in						: The input block to cumpute the permutation on.
+ * param in						: The input array that holds the block to cumpute the permutation on.
+ * param inOffset				: The offset of the block within the input array.
  * param out					: The output block to hold the permutation result.
  * param outOffset				: The offset within the output array to put the result from.
  * param blockSize				: The block size of the given prp.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_computeBlock
-  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jbyteArray out, jint outOffset, jint blockSize){
-	  //Convert the given data into c++ notation.
-	  jbyte* input  = (jbyte*) env->GetByteArrayElements(in, 0);
+  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jint inOffset, jbyteArray out, jint outOffset, jint blockSize){
+	  unsigned char ret[EVP_MAX_BLOCK_LENGTH]; 
 	  int size;
 	  
-	  //Allocate a new byte array with the size of the specific prp algorithm.
-	  unsigned char* ret = new unsigned char[blockSize]; 
+	  //Get direct access to the input array. The JVM does not copy it, so no JNI calls are made until it is released.
+	  jbyte* input  = (jbyte*) env->GetPrimitiveArrayCritical(in, 0);
 
-	  //Compute the prp on the given input array, put the result in ret.
-	  EVP_EncryptUpdate ((EVP_CIPHER_CTX*)prp, ret, &size, (unsigned char*)input, blockSize);
+	  //Compute the prp on the given block, put the result in ret.
+	  EVP_EncryptUpdate ((EVP_CIPHER_CTX*)prp, ret, &size, (unsigned char*)(input + inOffset), blockSize);
 	  
-	  //Put the result of the final computation in the output array passed from java.
+	  //The input was not changed, so there is nothing to copy back.
+	  env->ReleasePrimitiveArrayCritical(in, input, JNI_ABORT);
+
+	  //Put the result of the computation in the output array passed from java.
 	  env->SetByteArrayRegion(out, outOffset, blockSize, (jbyte*)((char*)ret)); 
-	  
-	  //Make sure to release the dynamically allocated memory. Will not be deleted by the JVM.
-	  delete ret;
-	  env->ReleaseByteArrayElements(in, input, 0);
 }
 
 /* 
  * function invertBlock			: inverts the PRP on the given block.
  * param prp					: pointer to the PRP object.
- * param in						: The input block to invert the permutation on.
+ * param in						: The input array that holds the block to invert the permutation on.
+ * param inOffset				: The offset of the block within the input array.
  * param out					: The output block to hold the permutation result.
  * param outOffset				: The offset within the output array to put the result from.
  * param blockSize				: The block size of the given prp.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_invertBlock
-  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jbyteArray out, jint outOffset, jint blockSize){
-	  //Convert the given data into c++ notation.
-	  jbyte* input  = (jbyte*) env->GetByteArrayElements(in, 0);
-	  
-	  //Allocate a new byte array with the size of the specific prp algorithm.
-	  unsigned char* ret = new unsigned char[env->GetArrayLength(out)]; 
+  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jint inOffset, jbyteArray out, jint outOffset, jint blockSize){
+	  unsigned char ret[EVP_MAX_BLOCK_LENGTH]; 
 	  int size;
 	  
-	  //Invert the prp on the given input array, put the result in ret.
-	  EVP_DecryptUpdate ((EVP_CIPHER_CTX*)prp, ret, &size, (unsigned char*)input, blockSize);
+	  //Get direct access to the input array. The JVM does not copy it, so no JNI calls are made until it is released.
+	  jbyte* input  = (jbyte*) env->GetPrimitiveArrayCritical(in, 0);
 	  
-	  //Put the result of the final computation in the output array passed from java.
-	  env->SetByteArrayRegion(out, outOffset, blockSize, (jbyte*)((char*)ret)); 
+	  //Invert the prp on the given block, put the result in ret.
+	  EVP_DecryptUpdate ((EVP_CIPHER_CTX*)prp, ret, &size, (unsigned char*)(input + inOffset), blockSize);
 	  
-	  //Make sure to release the dynamically allocated memory. Will not be deleted by the JVM.
-	  delete ret;
-	  env->ReleaseByteArrayElements(in, input, 0);
+	  //The input was not changed, so there is nothing to copy back.
+	  env->ReleasePrimitiveArrayCritical(in, input, JNI_ABORT);
+
+	  //Put the result of the computation in the output array passed from java.
+	  env->SetByteArrayRegion(out, outOffset, blockSize, (jbyte*)((char*)ret)); 
+}
+
+/* 
+ * function computeBlockDirect	: Compute the PRP on a block of a direct buffer and put the result in a direct buffer.
+ * param prp					: pointer to the PRP object.
+ * param in						: The direct buffer that holds the block to cumpute the permutation on.
+ * param inOffset				: The offset of the block within the input buffer.
+ * param out					: The direct buffer to hold the permutation result.
+ * param outOffset				: The offset within the output buffer to put the result from.
+ * param blockSize				: The block size of the given prp.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_computeBlockDirect
+  (JNIEnv *env, jobject, jlong prp, jobject in, jint inOffset, jobject out, jint outOffset, jint blockSize){
+	  //The memory of direct buffers is native, so it can be used as is.
+	  unsigned char* input = (unsigned char*) env->GetDirectBufferAddress(in);
+	  unsigned char* output = (unsigned char*) env->GetDirectBufferAddress(out);
+	  int size;
+
+	  //Compute the prp on the given block, put the result in the output buffer.
+	  EVP_EncryptUpdate ((EVP_CIPHER_CTX*)prp, output + outOffset, &size, input + inOffset, blockSize);
 }
 
 /* 
@@ -35,18 +35,26 @@ extern "C" {
 /*
  * Class:     edu_biu_scapi_primitives_prf_openSSL_openSSLPRP
  * Method:    computeBlock
- * Signature: (J[B[BI)V
+ * Signature: (J[BI[BII)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_computeBlock
-  (JNIEnv *, jobject, jlong, jbyteArray, jbyteArray, jint, jint);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jbyteArray, jint, jint);
 
 /*
  * Class:     edu_biu_scapi_primitives_prf_openSSL_openSSLPRP
  * Method:    invertBlock
- * Signature: (J[B[BI)V
+ * Signature: (J[BI[BII)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_invertBlock
-  (JNIEnv *, jobject, jlong, jbyteArray, jbyteArray, jint, jint);
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jbyteArray, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_prf_openSSL_openSSLPRP
+ * Method:    computeBlockDirect
+ * Signature: (JLjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_computeBlockDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jobject, jint, jint);
 
 /*
  * Class:     edu_biu_scapi_primitives_prf_openSSL_openSSLPRP
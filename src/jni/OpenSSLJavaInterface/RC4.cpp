@@ -29,6 +29,7 @@
 #include <openssl/rc4.h>
 #include <iostream>
 #include <cstdlib>
+#include <cstring>
 
 using namespace std;
 
@@ -70,21 +71,33 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_init
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_generateBytes
   (JNIEnv *env, jobject, jlong rc4, jint outLen, jbyteArray out, jint outOffset){
 	  
-	  //Create an input array full with zeros. (It will be xored with the pseudo random bytes in order to get the generated bytes).
-	  unsigned char* in = (unsigned char*) calloc (outLen, sizeof(char));
-	  
-	  //Prepare the output array.
-	  unsigned char* output = new unsigned char[outLen];
+	  //Get direct access to the output array. The JVM does not copy it, so no JNI calls are made until it is released.
+	  unsigned char* output = (unsigned char*) env->GetPrimitiveArrayCritical(out, 0);
 
-	  //Generate the pseudo random bytes.
-	  RC4((RC4_KEY*) rc4, outLen, in, output);
+	  //Fill the output range with zeros and xor it in place with the pseudo random bytes in order to get the generated bytes.
+	  memset(output + outOffset, 0, outLen);
+	  RC4((RC4_KEY*) rc4, outLen, output + outOffset, output + outOffset);
 
-	  //Copy the output bytes to the given output array.
-	  env->SetByteArrayRegion(out, outOffset, outLen, (jbyte*)output);
+	  //Commit the generated bytes to the java array.
+	  env->ReleasePrimitiveArrayCritical(out, output, 0);
+}
 
-	  //Release the allocated memory.
-	  free(in);
-	  delete output;
+/* 
+ * function generateBytesDirect	: Generates pseudo random bytes into a direct buffer.
+ * param rc4					: Pointer to the native RC4 object.
+ * param outLen					: The number of bytes to generate.
+ * param out					: The direct buffer to put the bytes in.
+ * param outOffset				: The offset within the buffer to put the bytes from.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_generateBytesDirect
+  (JNIEnv *env, jobject, jlong rc4, jint outLen, jobject out, jint outOffset){
+	  
+	  //The memory of a direct buffer is native, so it can be used as is.
+	  unsigned char* output = (unsigned char*) env->GetDirectBufferAddress(out) + outOffset;
+
+	  //Fill the output range with zeros and xor it in place with the pseudo random bytes.
+	  memset(output, 0, outLen);
+	  RC4((RC4_KEY*) rc4, outLen, output, output);
 }
 
 /* 
@@ -56,6 +56,14 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_init
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_generateBytes
   (JNIEnv *, jobject, jlong, jint, jbyteArray, jint);
 
+/*
+ * Class:     edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4
+ * Method:    generateBytesDirect
+ * Signature: (JILjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4_generateBytesDirect
+  (JNIEnv *, jobject, jlong, jint, jobject, jint);
+
 /*
  * Class:     edu_biu_scapi_primitives_prg_openSSL_OpenSSLRC4
  * Method:    deleteNative
@@ -230,6 +230,90 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_o
 	  return result;
 }
 
+/*
+ * function computeRSABatch	: Computes the RSA permutation on all the given elements.
+ *							  The RSA object keeps the Montgomery context of the modulus, so it is created once for all the elements.
+ * param rsa				: Pointer to the native RSA object.
+ * param elements			: Bytes of the elements to compute the permutation on. Each element takes exactly RSA_size bytes.
+ * param numElements		: The number of elements.
+ * return jbyteArray		: The bytes of the results' elements. Each element takes exactly RSA_size bytes. NULL if one of the computations failed.
+ */
+JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_openSSL_OpenSSLRSAPermutation_computeRSABatch
+  (JNIEnv *env, jobject, jlong rsa, jbyteArray elements, jint numElements) {
+	  //Convert the given data into c++ notation.
+	  jbyte* els  = (jbyte*) env->GetByteArrayElements(elements, 0);
+	  ERR_load_crypto_strings();
+
+	  //Seed the random geneartor once for all the elements.
+#ifdef _WIN32
+	  RAND_screen(); // only defined for windows, reseeds from screen contents
+#else
+	  RAND_poll(); // reseeds using hardware state (clock, interrupts, etc).
+#endif
+
+	  //Allocate a new byte array to hold the outputs.
+	  int size = RSA_size((RSA *) rsa);
+	  unsigned char* ret = new unsigned char[size * numElements]; 
+	  
+	  //Compute the RSA permutation on each element.
+	  //If one of the operations failed (for example, the element is not smaller than the modulus), return NULL.
+	  for (int i = 0; i < numElements; i++){
+		  if (RSA_public_encrypt(size, (unsigned char*) els + i*size, ret + i*size, (RSA *) rsa, RSA_NO_PADDING) != size){
+			  env->ReleaseByteArrayElements(elements, els, JNI_ABORT);
+			  delete [] ret;
+			  return NULL;
+		  }
+	  }
+	  
+	  //Build jbyteArray from the byteArray.
+	  jbyteArray result = env ->NewByteArray(size * numElements);
+	  env->SetByteArrayRegion(result, 0, size * numElements, (jbyte*)ret);
+	 
+	  //Release the allocated memory. The input was not changed, so there is no need to copy it back.
+	  env->ReleaseByteArrayElements(elements, els, JNI_ABORT);
+	  delete [] ret;
+
+	  return result;
+}
+
+/*
+ * function invertRSABatch	: Inverts the RSA permutation on all the given elements.
+ *							  The RSA object keeps the Montgomery contexts of p and q, so they are created once for all the elements.
+ * param rsa				: Pointer to the native RSA object.
+ * param elements			: Bytes of the elements to invert. Each element takes exactly RSA_size bytes.
+ * param numElements		: The number of elements.
+ * return jbyteArray		: The bytes of the results' elements. Each element takes exactly RSA_size bytes. NULL if one of the inversions failed.
+ */
+JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_primitives_trapdoorPermutation_openSSL_OpenSSLRSAPermutation_invertRSABatch
+  (JNIEnv *env, jobject, jlong rsa, jbyteArray elements, jint numElements){
+	  //Convert the given data into c++ notation.
+	  jbyte* els  = (jbyte*) env->GetByteArrayElements(elements, 0);
+	  
+	  //Allocate a new byte array to hold the outputs.
+	  int size = RSA_size((RSA *) rsa);
+	  unsigned char* ret = new unsigned char[size * numElements]; 
+
+	  //Invert the RSA permutation on each element.
+	  //If one of the operations failed (for example, the element is not smaller than the modulus), return NULL.
+	  for (int i = 0; i < numElements; i++){
+		  if (RSA_private_decrypt(size, (unsigned char*) els + i*size, ret + i*size, (RSA *) rsa, RSA_NO_PADDING) != size){
+			  env->ReleaseByteArrayElements(elements, els, JNI_ABORT);
+			  delete [] ret;
+			  return NULL;
+		  }
+	  }
+
+	  //Build jbyteArray from the byteArray.
+	  jbyteArray result = env ->NewByteArray(size * numElements);
+	  env->SetByteArrayRegion(result, 0, size * numElements, (jbyte*)ret);
+
+	  //Release the allocated memory. The input was not changed, so there is no need to copy it back.
+	  env->ReleaseByteArrayElements(elements, els, JNI_ABORT);
+	  delete [] ret;
+
+	  return result;
+}
+
 /*
  * function deleteRSA		: Deletes the native RSA object. 
  * param rsa				: Pointer to the native RSA object.
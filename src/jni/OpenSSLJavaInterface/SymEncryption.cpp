@@ -173,6 +173,92 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encrypt
 	  return result;
 }
 
+/* 
+ * function encryptDirect	: Encrypts a region of a direct buffer using the given iv and puts the result in another direct buffer.
+							  The buffers are accessed in place, so no copy of the data is done.
+ * param enc				: A pointer to the native object that does the encryption.
+ * param in					: The direct buffer that contains the plaintext.
+ * param inOffset			: The offset of the plaintext in the input buffer.
+ * param inLen				: The length of the plaintext.
+ * param out				: The direct buffer to put the ciphertext in. Should have room for inLen + blockSize bytes.
+ * param outOffset			: The offset in the output buffer to put the ciphertext in.
+ * return					: The number of written bytes, or -1 in case of failure.
+ */
+JNIEXPORT jint JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs_encryptDirect
+  (JNIEnv *env, jobject, jlong enc, jobject in, jint inOffset, jint inLen, jobject out, jint outOffset, jbyteArray ivBytes){
+	  
+	  //Get the addresses of the direct buffers.
+	  unsigned char* input = (unsigned char*) env->GetDirectBufferAddress(in);
+	  unsigned char* output = (unsigned char*) env->GetDirectBufferAddress(out);
+	  if (input == NULL || output == NULL){
+		  return -1;
+	  }
+
+	  jbyte* iv  = (jbyte*) env->GetByteArrayElements(ivBytes, 0);
+	  
+	  //Initialize the encryption object with the iv.
+	  if (0 == (EVP_EncryptInit ((EVP_CIPHER_CTX *)enc, NULL, NULL, (unsigned char*) iv))){
+		  env->ReleaseByteArrayElements(ivBytes, iv, JNI_ABORT);
+		  return -1;
+	  }
+	  env->ReleaseByteArrayElements(ivBytes, iv, JNI_ABORT);
+
+	  int size, rem;
+	  
+	  //Encrypt the plaintext directly into the output buffer.
+	  if (0 == (EVP_EncryptUpdate ((EVP_CIPHER_CTX*)enc, output + outOffset, &size, input + inOffset, inLen))){
+		  return -1;
+	  }
+	  if (0 == EVP_EncryptFinal_ex((EVP_CIPHER_CTX*)enc, output + outOffset + size, &rem)){
+		  return -1;
+	  }
+
+	  return size + rem;
+}
+
+/* 
+ * function decryptDirect	: Decrypts a region of a direct buffer using the given iv and puts the result in another direct buffer.
+							  The buffers are accessed in place, so no copy of the data is done.
+ * param dec				: A pointer to the native object that does the decryption.
+ * param in					: The direct buffer that contains the ciphertext.
+ * param inOffset			: The offset of the ciphertext in the input buffer.
+ * param inLen				: The length of the ciphertext.
+ * param out				: The direct buffer to put the plaintext in. Should have room for inLen bytes.
+ * param outOffset			: The offset in the output buffer to put the plaintext in.
+ * return					: The number of written bytes, or -1 in case of failure.
+ */
+JNIEXPORT jint JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs_decryptDirect
+  (JNIEnv *env, jobject, jlong dec, jobject in, jint inOffset, jint inLen, jobject out, jint outOffset, jbyteArray ivBytes){
+	  
+	  //Get the addresses of the direct buffers.
+	  unsigned char* input = (unsigned char*) env->GetDirectBufferAddress(in);
+	  unsigned char* output = (unsigned char*) env->GetDirectBufferAddress(out);
+	  if (input == NULL || output == NULL){
+		  return -1;
+	  }
+
+	  jbyte* iv  = (jbyte*) env->GetByteArrayElements(ivBytes, 0);
+	  
+	  //Initialize the decryption object with the iv.
+	  if (0 == EVP_DecryptInit ((EVP_CIPHER_CTX *)dec, NULL, NULL, (unsigned char*) iv)){
+		  env->ReleaseByteArrayElements(ivBytes, iv, JNI_ABORT);
+		  return -1;
+	  }
+	  env->ReleaseByteArrayElements(ivBytes, iv, JNI_ABORT);
+
+	  int size, rem;
+	  
+	  //Decrypt the ciphertext directly into the output buffer.
+	  if (0 == (EVP_DecryptUpdate ((EVP_CIPHER_CTX*)dec, output + outOffset, &size, input + inOffset, inLen))){
+		  return -1;
+	  }
+	  if (0 == (EVP_DecryptFinal_ex((EVP_CIPHER_CTX*)dec, output + outOffset + size, &rem))){
+		  return -1;
+	  }
+
+	  return size + rem;
+}
+
 /* 
  * function deleteNative		: Deletes the native objects and frees the allocated memory.
  * param enc					: A pointer to the native object that does the encryption.
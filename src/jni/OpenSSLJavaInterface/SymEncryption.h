@@ -72,6 +72,22 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encrypt
 JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs_decrypt
   (JNIEnv *, jobject, jlong, jbyteArray, jbyteArray);
 
+/*
+ * Class:     edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs
+ * Method:    encryptDirect
+ * Signature: (JLjava/nio/ByteBuffer;IILjava/nio/ByteBuffer;I[B)I
+ */
+JNIEXPORT jint JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs_encryptDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jint, jobject, jint, jbyteArray);
+
+/*
+ * Class:     edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs
+ * Method:    decryptDirect
+ * Signature: (JLjava/nio/ByteBuffer;IILjava/nio/ByteBuffer;I[B)I
+ */
+JNIEXPORT jint JNICALL Java_edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs_decryptDirect
+  (JNIEnv *, jobject, jlong, jobject, jint, jint, jobject, jint, jbyteArray);
+
 /*
  * Class:     edu_biu_scapi_midLayer_symmetricCrypto_encryption_OpenSSLEncWithIVAbs
  * Method:    deleteNative
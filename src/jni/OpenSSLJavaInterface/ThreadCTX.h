@@ -0,0 +1,58 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+#ifndef _Included_ThreadCTX
+#define _Included_ThreadCTX
+
+#include <openssl/bn.h>
+
+/*
+ * class ThreadCTX		: Holds a BN_CTX that is used only by the thread that created it.
+ *						  A BN_CTX is a scratch space for temporary BIGNUMs and is not bound to a specific group, 
+ *						  so all the dlog groups that are used by a thread can share the same BN_CTX. This way, 
+ *						  the same group object can be used by many threads without locking.
+ */
+class ThreadCTX {
+private:
+
+	BN_CTX* ctx;
+public:
+
+	ThreadCTX(){ ctx = BN_CTX_new(); }
+	~ThreadCTX(){ BN_CTX_free(ctx); }
+
+	BN_CTX* getCTX(){ return ctx; }
+};
+
+/* 
+ * function getThreadCTX		: Returns the BN_CTX of the calling thread. The BN_CTX is created on the first call of each thread
+ *								  and is released when the thread exits.
+ */
+inline BN_CTX* getThreadCTX(){
+	static thread_local ThreadCTX threadCTX;
+	return threadCTX.getCTX();
+}
+
+#endif
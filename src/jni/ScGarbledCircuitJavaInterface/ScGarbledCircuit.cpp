@@ -186,6 +186,27 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGa
 
 
 
+/* function getGarbledTablesSize : This function returns the size in bytes of the garbled tables of the given circuit.
+ */
+static int getGarbledTablesSize(GarbledBooleanCircuit * garbledCircuit){
+
+	int mult = 4;//for a regular circuit we have 4 blocks for each gate
+
+	if(garbledCircuit->getIsRowReduction()==true){
+
+		mult = 3;//in row reduction we only have 3 rows
+	}
+	else if (garbledCircuit->getIsTwoRows() == true){
+		mult = 2; //half gates only use 2 rows for AND gates
+	}
+
+	if (garbledCircuit->getIsNonXorOutputsRequired()){
+		return ((garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult + 2 * garbledCircuit->getNumberOfOutputs()) * 16;
+	}
+	
+	return (garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult * 16;
+}
+
 /* function setTranslationTable : This function sets the garbled table from java to the c++ garbled circuit.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGarbledBooleanCircuit_setGarbleTables
@@ -194,28 +215,11 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGa
 	  //get the garbled circuit
 	  GarbledBooleanCircuit * garbledCircuit= (GarbledBooleanCircuit*) gbcPtr;
 
-	  int mult = 4;//for a regular circuit we have 4 blocks for each gate
-
-	  if(garbledCircuit->getIsRowReduction()==true){
-
-		  mult = 3;//in row reduction we only have 3 rows
-	  }
-	  else if (garbledCircuit->getIsTwoRows() == true){
-		  mult = 2; //half gates only use 2 rows for AND gates
-	  }
-
 	   //get the garbled table as an array of jbyte
 	  jbyte *carr = env->GetByteArrayElements(garbledTables, 0);
 
-	  if (garbledCircuit->getIsNonXorOutputsRequired()){
-		  //copy the garbled table to the native circuit
-		  memcpy(garbledCircuit->getGarbledTables(), carr, ((garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult + 2 * garbledCircuit ->getNumberOfOutputs())* 16);
-	  }
-	  else{
-		  //copy the garbled table to the native circuit
-		  memcpy(garbledCircuit->getGarbledTables(), carr, (garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult * 16);
-
-	  }
+	  //copy the garbled table to the native circuit
+	  memcpy(garbledCircuit->getGarbledTables(), carr, getGarbledTablesSize(garbledCircuit));
 	   
 	  //free the memory of jbyte array
 	  env->ReleaseByteArrayElements(garbledTables,carr,JNI_ABORT);
@@ -229,25 +233,8 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNa
 	 //get the garbled circuit
 	GarbledBooleanCircuit * garbledCircuit= (GarbledBooleanCircuit*) gbcPtr;
 
-	int mult = 4;//for a regular circuit we have 4 blocks for each gate
-
-	if(garbledCircuit->getIsRowReduction()==true){
-
-		mult = 3;//in row reduction we only have 3 rows
-	}
-	else if (garbledCircuit->getIsTwoRows() == true){
-		mult = 2; //half gates only use 2 rows for AND gates
-	}
-
 	//get the size of the garbled table
-	int size;
-	if (garbledCircuit->getIsNonXorOutputsRequired()){
-		size = (((garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult + 2 * garbledCircuit->getNumberOfOutputs()) * 16);
-	}
-	else{
-		size = ((garbledCircuit->getNumberOfGates() - garbledCircuit->getNumOfXorGates()) *mult * 16);
-	}
-	
+	int size = getGarbledTablesSize(garbledCircuit);
 
 	 //create a jbyteArray with the size of the garbled table
 	jbyteArray result = env->NewByteArray(size);
@@ -258,6 +245,99 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNa
 	return result;
 
 }
+/* function isAligned : Returns true if the given address can be used as a block array without copying it to aligned memory.
+ */
+static bool isAligned(void * address){
+
+	return (((size_t)address) & 15) == 0;
+}
+
+/* function getGarbleTablesBuffer : This function returns a direct buffer that wraps the garbled table array of the circuit.
+ * No data is copied, the java code reads and writes the native garbled tables memory.
+ */
+JNIEXPORT jobject JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGarbledBooleanCircuit_getGarbleTablesBuffer
+  (JNIEnv *env, jobject, jlong gbcPtr){
+
+	//get the garbled circuit
+	GarbledBooleanCircuit * garbledCircuit= (GarbledBooleanCircuit*) gbcPtr;
+
+	//wrap the garbled tables memory with a java direct buffer
+	return env->NewDirectByteBuffer(garbledCircuit->getGarbledTables(), getGarbledTablesSize(garbledCircuit));
+}
+
+/* function garbleDirect : This function calls the garble of the native code garbled circuit using memory of direct buffers.
+ * In case the given buffers are aligned the native garble writes the keys directly to them. Otherwise, aligned memory is allocated 
+ * and the results are copied to the buffers.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGarbledBooleanCircuit_garbleDirect
+  (JNIEnv *env, jobject, jlong gbcPtr, jobject allInputWireValues, jobject allOutputWireValues, jobject translationTable, jobject seed){
+
+	//get the garbled circuit
+	GarbledBooleanCircuit * garbledCircuit= (GarbledBooleanCircuit *)gbcPtr;
+
+	//get the memory of the direct buffers
+	jbyte *jseed = (jbyte *)env->GetDirectBufferAddress(seed);
+	block *inputs = (block *)env->GetDirectBufferAddress(allInputWireValues);
+	block *outputs = (block *)env->GetDirectBufferAddress(allOutputWireValues);
+	unsigned char *translation = (unsigned char *)env->GetDirectBufferAddress(translationTable);
+
+	block seedBlock = _mm_set_epi8(jseed[15],jseed[14],jseed[13],jseed[12],jseed[11],jseed[10],jseed[9],jseed[8],jseed[7],jseed[6],jseed[5],jseed[4],jseed[3],jseed[2],jseed[1],jseed[0]);
+
+	//use aligned memory only if the buffers are not aligned
+	block *alignedInputs = isAligned(inputs) ? inputs : (block *) _aligned_malloc(sizeof(block) *2 * garbledCircuit->getNumberOfInputs(), 16);
+	block *alignedOutputs = isAligned(outputs) ? outputs : (block *) _aligned_malloc(sizeof(block) *2 * garbledCircuit->getNumberOfOutputs(), 16);
+
+	garbledCircuit->garble(alignedInputs, alignedOutputs, translation, seedBlock);
+
+	if (alignedInputs != inputs){
+		memcpy(inputs, alignedInputs, 2 * garbledCircuit->getNumberOfInputs() * SIZE_OF_BLOCK);
+		_aligned_free(alignedInputs);
+	}
+	if (alignedOutputs != outputs){
+		memcpy(outputs, alignedOutputs, 2 * garbledCircuit->getNumberOfOutputs() * SIZE_OF_BLOCK);
+		_aligned_free(alignedOutputs);
+	}
+}
+
+/* function computeDirect : This function calls the compute of the native code garbled circuit using memory of direct buffers.
+ * In case the given buffers are aligned the native compute reads and writes them directly. Otherwise, aligned memory is allocated 
+ * and the keys are copied.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_circuits_fastGarbledCircuit_ScNativeGarbledBooleanCircuit_computeDirect
+  (JNIEnv *env, jobject, jlong gbcPtr, jobject singleInputs, jobject singleOutputs){
+
+	//get the garbled circuit
+	GarbledBooleanCircuit * garbledCircuit = (GarbledBooleanCircuit *)gbcPtr;
+
+	//get the memory of the direct buffers
+	block *inputs = (block *)env->GetDirectBufferAddress(singleInputs);
+	block *outputs = (block *)env->GetDirectBufferAddress(singleOutputs);
+
+	//use aligned memory only if the buffers are not aligned
+	block *alignedInputs = inputs;
+	if (!isAligned(inputs)){
+		alignedInputs = (block *)_aligned_malloc(sizeof(block) * garbledCircuit->getNumberOfInputs(), 16);
+		memcpy(alignedInputs, inputs, garbledCircuit->getNumberOfInputs() * SIZE_OF_BLOCK);
+	}
+	block *alignedOutputs = isAligned(outputs) ? outputs : (block *)_aligned_malloc(sizeof(block) * garbledCircuit->getNumberOfOutputs(), 16);
+
+	if (garbledCircuit->getIsTwoRows() == true){
+		((HalfGatesGarbledBooleanCircuit *)garbledCircuit)->compute(alignedInputs, alignedOutputs);
+	}
+	else{
+		//call the native function compute of the garbled circuit
+		garbledCircuit->compute(alignedInputs, alignedOutputs);
+	}
+
+	if (alignedInputs != inputs){
+		_aligned_free(alignedInputs);
+	}
+	if (alignedOutputs != outputs){
+		memcpy(outputs, alignedOutputs, garbledCircuit->getNumberOfOutputs() * SIZE_OF_BLOCK);
+		_aligned_free(alignedOutputs);
+	}
+}
+
 /* function garble : This function calls the garble of the native code garbled circuit that garbles the circuit.
  * It creates aligned memory for the inputs and outputs, and memory for the translation table so the native garble can work properly and eventually copies back
  * the results to the input empty arrays